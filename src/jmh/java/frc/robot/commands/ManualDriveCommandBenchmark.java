@@ -0,0 +1,101 @@
+package frc.robot.commands;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.util.math.Vector2d;
+
+/**
+ * <h2> ManualDriveCommandBenchmark </h2>
+ * Measures a single call to {@link ManualDriveCommand#manualDrive}, the method every teleop drive command runs once
+ * per loop. The {@link DriveSubsystem} is replaced with a stub-only Mockito mock, so no motor controllers or
+ * gyro are created.
+ * <p>
+ * Mockito's dispatch is not free, and it allocates a small amount per call. {@link #mockDispatchBaseline()} measures
+ * that overhead on its own, so it can be subtracted from the other results.
+ * <hr>
+ * @since v2.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ManualDriveCommandBenchmark {
+
+    /**
+     * Minimal concrete drive command. The controller is never read, since the inputs are passed in directly.
+     */
+    private static class BenchmarkDriveCommand extends ManualDriveCommand {
+        BenchmarkDriveCommand(DriveSubsystem driveSubsystem) {
+            super(driveSubsystem, null);
+        }
+    }
+
+    private DriveSubsystem driveSubsystem;
+    private BenchmarkDriveCommand command;
+
+    private final Vector2d joystickInput = new Vector2d(0.42, -0.77);
+    private final Translation2d targetTranslationOffset = new Translation2d(0.5, -0.25);
+    private final Rotation2d targetRotationOffset = Rotation2d.fromDegrees(35.0);
+
+    @Setup
+    public void setup() {
+
+        // Stub-only mocks don't record invocations, so memory use stays flat over a long run
+        driveSubsystem = mock(DriveSubsystem.class, withSettings().stubOnly());
+        when(driveSubsystem.getRobotPose()).thenReturn(new Pose2d(2.0, 3.0, Rotation2d.fromDegrees(10.0)));
+        when(driveSubsystem.getRotationalFeedback(any(Rotation2d.class))).thenReturn(0.3);
+        when(driveSubsystem.getLinearFeedback(anyDouble(), anyDouble(), any(Vector2d.class)))
+            .thenAnswer(invocation -> invocation.getArgument(2, Vector2d.class).set(0.2, -0.1));
+
+        command = new BenchmarkDriveCommand(driveSubsystem);
+    }
+
+    /**
+     * Plain joystick driving, the common case during teleop.
+     */
+    @Benchmark
+    public void joystickDrive() {
+        command.manualDrive(joystickInput, 0.6, targetTranslationOffset, false, targetRotationOffset, false, false, 0.8);
+    }
+
+    /**
+     * Joystick translation while holding an absolute heading.
+     */
+    @Benchmark
+    public void targetRotationDrive() {
+        command.manualDrive(joystickInput, 0.0, targetTranslationOffset, false, targetRotationOffset, true, true, 0.8);
+    }
+
+    /**
+     * Driving to a target translation while holding a relative heading.
+     */
+    @Benchmark
+    public void targetTranslationDrive() {
+        command.manualDrive(joystickInput, 0.0, targetTranslationOffset, true, targetRotationOffset, true, false, 0.8);
+    }
+
+    /**
+     * A single call to the mocked drive method, to measure the mock's own overhead.
+     */
+    @Benchmark
+    public void mockDispatchBaseline() {
+        driveSubsystem.drive(0.1, 0.2, 0.3);
+    }
+}
@@ -0,0 +1,56 @@
+package frc.robot.subsystems;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * <h2> SwerveModuleBenchmark </h2>
+ * Measures the state optimization math that {@link SwerveModule#setState(SwerveModuleState)} runs for every module,
+ * every loop. The motor controllers are not involved, so no hardware or native libraries are needed.
+ * <p>
+ * The requested states cover the three paths through {@link SwerveModule#optimizeState}: a small turn, a turn of
+ * more than 90 degrees (which flips the wheel), and a near-zero speed (which holds the current angle).
+ * <hr>
+ * @since v2.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class SwerveModuleBenchmark {
+
+    private SwerveModuleState[] desiredStates;
+    private Rotation2d currentAngle;
+    private final SwerveModuleState output = new SwerveModuleState();
+
+    @Setup
+    public void setup() {
+        currentAngle = Rotation2d.fromDegrees(30.0);
+        desiredStates = new SwerveModuleState[] {
+            new SwerveModuleState(3.2, Rotation2d.fromDegrees(55.0)),
+            new SwerveModuleState(3.2, Rotation2d.fromDegrees(-160.0)),
+            new SwerveModuleState(0.0, Rotation2d.fromDegrees(90.0)),
+            new SwerveModuleState(-1.4, Rotation2d.fromDegrees(10.0)),
+        };
+    }
+
+    /**
+     * Optimizes one state for each of the four modules, like a single call to {@code DriveSubsystem.setModules}.
+     */
+    @Benchmark
+    public void optimizeFourModules(Blackhole blackhole) {
+        for (SwerveModuleState desiredState : desiredStates) {
+            blackhole.consume(SwerveModule.optimizeState(desiredState, currentAngle, output).angle);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package frc.robot.subsystems.vision;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * <h2> OceanViewManagerBenchmark </h2>
+ * Measures how long it takes to turn one OceanView packet into scoring locations and algae positions. The packet
+ * is a representative frame: six available locations, two blocked locations and two algae.
+ * <p>
+ * {@link #decodeAndParse()} includes the Gson decode that {@code UDPReceiver} runs on its own thread, while
+ * {@link #parse()} only covers the work done on the main robot thread. The HAL is initialized because the
+ * detection history is timestamped with the FPGA clock, so the native libraries must be on the library path
+ * (the {@code jmh} task in {@code build.gradle} handles this).
+ * <hr>
+ * @since v2.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class OceanViewManagerBenchmark {
+
+    private static final String PACKET = "{"
+        + "\"packet_number\": 1204,"
+        + "\"available\": ["
+        + "{\"branch\": \"A\", \"level\": \"L2\", \"position\": {\"x\": 0.41, \"y\": -0.12, \"z\": 0.81}},"
+        + "{\"branch\": \"A\", \"level\": \"L3\", \"position\": {\"x\": 0.41, \"y\": -0.12, \"z\": 1.21}},"
+        + "{\"branch\": \"A\", \"level\": \"L4\", \"position\": {\"x\": 0.43, \"y\": -0.12, \"z\": 1.83}},"
+        + "{\"branch\": \"B\", \"level\": \"L2\", \"position\": {\"x\": 0.40, \"y\": 0.21, \"z\": 0.81}},"
+        + "{\"branch\": \"B\", \"level\": \"L3\", \"position\": {\"x\": 0.40, \"y\": 0.21, \"z\": 1.21}},"
+        + "{\"branch\": \"B\", \"level\": \"L4\", \"position\": {\"x\": 0.42, \"y\": 0.21, \"z\": 1.83}}"
+        + "],"
+        + "\"algae_blocked\": ["
+        + "{\"branch\": \"C\", \"level\": \"L2\", \"position\": {\"x\": 0.77, \"y\": 0.58, \"z\": 0.81}},"
+        + "{\"branch\": \"C\", \"level\": \"L3\", \"position\": {\"x\": 0.77, \"y\": 0.58, \"z\": 1.21}}"
+        + "],"
+        + "\"algae_positions\": ["
+        + "{\"x\": 0.80, \"y\": 0.61, \"z\": 1.01},"
+        + "{\"x\": 1.92, \"y\": -0.44, \"z\": 0.20}"
+        + "]"
+        + "}";
+
+    private final Gson gson = new Gson();
+    private final Type packetType = new TypeToken<Map<String, Object>>() {}.getType();
+
+    private OceanViewManager oceanViewManager;
+    private Map<String, Object> decodedPacket;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        // No networking is needed, since packets are handed straight to the parser
+        oceanViewManager = new OceanViewManager(null, null, Pose2d::new);
+        decodedPacket = gson.fromJson(PACKET, packetType);
+    }
+
+    /**
+     * Parsing an already-decoded packet, as done in {@code OceanViewManager.periodic()}.
+     */
+    @Benchmark
+    public boolean parse() {
+        return oceanViewManager.parseDetectionData(decodedPacket);
+    }
+
+    /**
+     * Decoding the raw JSON and then parsing it.
+     */
+    @Benchmark
+    public boolean decodeAndParse() {
+        Map<String, Object> packet = gson.fromJson(PACKET, packetType);
+        return oceanViewManager.parseDetectionData(packet);
+    }
+}
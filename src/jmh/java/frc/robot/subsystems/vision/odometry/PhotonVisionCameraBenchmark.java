@@ -0,0 +1,143 @@
+package frc.robot.subsystems.vision.odometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.photonvision.targeting.MultiTargetPNPResult;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import org.photonvision.targeting.PnpResult;
+import org.photonvision.targeting.TargetCorner;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import frc.robot.Constants.VisionConstants;
+
+/**
+ * <h2> PhotonVisionCameraBenchmark </h2>
+ * Measures {@link PhotonVisionCamera#processResults}, the per-loop work done for each camera, using pipeline results
+ * generated from the real field layout: a robot sitting in front of the blue reef, seeing tags 17 and 18.
+ * <ul>
+ *   <li>{@link #noResults()}: no frames arrived. This should not allocate at all.</li>
+ *   <li>{@link #singleMultiTagResult()}: one multi-tag frame, the usual case at 50 Hz.</li>
+ *   <li>{@link #singleTagResult()}: one single tag frame, which uses the fallback strategy.</li>
+ *   <li>{@link #outOfOrderBurst()}: four frames that arrived out of order and have to be sorted.</li>
+ * </ul>
+ * The reference pose alternates between two values, because PhotonPoseEstimator skips a result it has already seen
+ * unless the reference pose changes.
+ * <hr>
+ * @since v2.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class PhotonVisionCameraBenchmark {
+
+    private static final Pose2d ROBOT_POSE = new Pose2d(2.9, 4.0, Rotation2d.kZero);
+    private static final Pose2d OTHER_REFERENCE_POSE = new Pose2d(2.95, 4.05, Rotation2d.kZero);
+
+    private PhotonVisionCamera camera;
+
+    private final List<PhotonPipelineResult> emptyResults = new ArrayList<>();
+    private final List<PhotonPipelineResult> multiTagResults = new ArrayList<>();
+    private final List<PhotonPipelineResult> singleTagResults = new ArrayList<>();
+    private final List<PhotonPipelineResult> recordedBurst = new ArrayList<>();
+    private final List<PhotonPipelineResult> burstResults = new ArrayList<>();
+
+    private boolean flip = false;
+
+    @Setup
+    public void setup() {
+
+        // The camera registers itself with the CommandScheduler, which needs the HAL. No coprocessor is needed,
+        // since results are handed straight to the camera.
+        HAL.initialize(500, 0);
+        camera = new PhotonVisionCamera("BenchmarkCamera", VisionConstants.FRONT_CAMERA_OFFSET);
+
+        multiTagResults.add(createResult(1, 1_000_000, true, 17, 18));
+        singleTagResults.add(createResult(2, 1_020_000, false, 18));
+
+        // Captured at 0, 10, 20 and 30 ms, but received in a different order
+        recordedBurst.add(createResult(5, 2_020_000, true, 17, 18));
+        recordedBurst.add(createResult(3, 2_000_000, true, 17, 18));
+        recordedBurst.add(createResult(6, 2_030_000, false, 18));
+        recordedBurst.add(createResult(4, 2_010_000, true, 17, 18));
+    }
+
+    @Benchmark
+    public List<VisionMeasurement> noResults() {
+        camera.processResults(emptyResults, nextReferencePose());
+        return camera.getMeasurements();
+    }
+
+    @Benchmark
+    public List<VisionMeasurement> singleMultiTagResult() {
+        camera.processResults(multiTagResults, nextReferencePose());
+        return camera.getMeasurements();
+    }
+
+    @Benchmark
+    public List<VisionMeasurement> singleTagResult() {
+        camera.processResults(singleTagResults, nextReferencePose());
+        return camera.getMeasurements();
+    }
+
+    @Benchmark
+    public List<VisionMeasurement> outOfOrderBurst() {
+
+        // Processing sorts the list in place, so restore the recorded order first
+        burstResults.clear();
+        burstResults.addAll(recordedBurst);
+        camera.processResults(burstResults, nextReferencePose());
+        return camera.getMeasurements();
+    }
+
+    private Pose2d nextReferencePose() {
+        flip = !flip;
+        return flip ? ROBOT_POSE : OTHER_REFERENCE_POSE;
+    }
+
+    /**
+     * Creates a pipeline result as the coprocessor would send it, with the robot at {@code ROBOT_POSE}.
+     *
+     * @param sequenceId             The frame's sequence number.
+     * @param captureTimestampMicros The frame's capture time, in microseconds.
+     * @param includeMultiTag        Whether to include a multi-tag PnP solution.
+     * @param tagIds                 The IDs of the tags seen.
+     * @return The pipeline result.
+     */
+    private static PhotonPipelineResult createResult(long sequenceId, long captureTimestampMicros, boolean includeMultiTag, int... tagIds) {
+        Pose3d cameraPose = new Pose3d(ROBOT_POSE).transformBy(VisionConstants.FRONT_CAMERA_OFFSET);
+
+        List<PhotonTrackedTarget> targets = new ArrayList<>();
+        List<Short> tagIdsUsed = new ArrayList<>();
+        for (int tagId : tagIds) {
+            Pose3d tagPose = VisionConstants.APRIL_TAG_FIELD_LAYOUT.getTagPose(tagId).orElseThrow();
+            Transform3d cameraToTarget = new Transform3d(cameraPose, tagPose);
+            List<TargetCorner> corners = List.of(new TargetCorner(0, 0), new TargetCorner(10, 0), new TargetCorner(10, 10), new TargetCorner(0, 10));
+            targets.add(new PhotonTrackedTarget(0.0, 0.0, 1.5, 0.0, tagId, -1, -1.0f,
+                    cameraToTarget, cameraToTarget, 0.05, corners, corners));
+            tagIdsUsed.add((short) tagId);
+        }
+
+        Optional<MultiTargetPNPResult> multiTagResult = Optional.empty();
+        if (includeMultiTag) {
+            Transform3d fieldToCamera = new Transform3d(new Pose3d(), cameraPose);
+            multiTagResult = Optional.of(new MultiTargetPNPResult(new PnpResult(fieldToCamera, 0.1), tagIdsUsed));
+        }
+
+        return new PhotonPipelineResult(sequenceId, captureTimestampMicros, captureTimestampMicros + 5_000, 0, targets, multiTagResult);
+    }
+}
@@ -0,0 +1,86 @@
+package frc.robot.util.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.Constants.DriveConstants;
+
+/**
+ * <h2> RateLimiterBenchmark </h2>
+ * Measures a single {@link RateLimiter#update(double)} and {@link RateLimiter2d#update(Vector2d)} call, using the
+ * same rates as {@code DriveSubsystem}. The target flips sign on every call so that both the accelerating and
+ * decelerating branches are exercised. The jerk-limited (S-curve) variants are stepped with a fixed time step,
+ * as {@code DriveSubsystem} does with its shared loop timestamp, so they don't read the clock at all.
+ * <hr>
+ * @since v2.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class RateLimiterBenchmark {
+
+    private RateLimiter rateLimiter;
+    private RateLimiter2d rateLimiter2d;
+    private RateLimiter jerkLimitedRateLimiter;
+    private RateLimiter2d jerkLimitedRateLimiter2d;
+
+    private final Vector2d positiveTarget = new Vector2d(3.1, -1.7);
+    private final Vector2d negativeTarget = new Vector2d(-3.1, 1.7);
+    private boolean flip = false;
+
+    @Setup
+    public void setup() {
+        rateLimiter = new RateLimiter(0.0, DriveConstants.ROTATIONAL_MAX_ACCELERATION, DriveConstants.MAX_DELTA_TIME_RATE_LIMIT);
+        rateLimiter2d = new RateLimiter2d(new Vector2d(0.0, 0.0), DriveConstants.LINEAR_MAX_ACCELERATION, DriveConstants.MAX_DELTA_TIME_RATE_LIMIT);
+
+        jerkLimitedRateLimiter = new RateLimiter(0.0, DriveConstants.ROTATIONAL_MAX_ACCELERATION, DriveConstants.MAX_DELTA_TIME_RATE_LIMIT);
+        jerkLimitedRateLimiter.setJerk(DriveConstants.ROTATIONAL_MAX_JERK);
+        jerkLimitedRateLimiter2d = new RateLimiter2d(new Vector2d(0.0, 0.0), DriveConstants.LINEAR_MAX_ACCELERATION, DriveConstants.MAX_DELTA_TIME_RATE_LIMIT);
+        jerkLimitedRateLimiter2d.setJerk(DriveConstants.LINEAR_MAX_JERK);
+    }
+
+    /**
+     * One step of the rotational rate limiter.
+     */
+    @Benchmark
+    public double rateLimiterUpdate() {
+        flip = !flip;
+        return rateLimiter.update(flip ? DriveConstants.ROTATIONAL_MAX_SPEED : -DriveConstants.ROTATIONAL_MAX_SPEED);
+    }
+
+    /**
+     * One step of the linear (2d) rate limiter.
+     */
+    @Benchmark
+    public Vector2d rateLimiter2dUpdate() {
+        flip = !flip;
+        return rateLimiter2d.update(flip ? positiveTarget : negativeTarget);
+    }
+
+    /**
+     * One step of the jerk-limited rotational rate limiter, with an explicit time step.
+     */
+    @Benchmark
+    public double jerkLimitedRateLimiterUpdate() {
+        flip = !flip;
+        return jerkLimitedRateLimiter.updateWithDeltaTime(flip ? DriveConstants.ROTATIONAL_MAX_SPEED : -DriveConstants.ROTATIONAL_MAX_SPEED, TimedRobot.kDefaultPeriod);
+    }
+
+    /**
+     * One step of the jerk-limited linear (2d) rate limiter, with an explicit time step.
+     */
+    @Benchmark
+    public Vector2d jerkLimitedRateLimiter2dUpdate() {
+        flip = !flip;
+        Vector2d target = flip ? positiveTarget : negativeTarget;
+        return jerkLimitedRateLimiter2d.updateWithDeltaTime(target.getX(), target.getY(), TimedRobot.kDefaultPeriod);
+    }
+}
@@ -0,0 +1,80 @@
+package frc.robot.util.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * <h2> Vector2dBenchmark </h2>
+ * Compares the immutable {@link Vector2d} API against its in-place counterpart, using the same chain of operations
+ * that {@code ManualDriveCommand.manualDrive} and {@code RateLimiter2d.update} run every loop. Run with the gc
+ * profiler (the default in {@code build.gradle}) to see the allocation rate of each variant.
+ * <hr>
+ * @since v2.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class Vector2dBenchmark {
+
+    private Vector2d joystickInput;
+    private Vector2d currentValue;
+    private Rotation2d driverOffset;
+
+    // Scratch vectors used by the in-place variants
+    private final Vector2d scratch = new Vector2d(0.0, 0.0);
+    private final Vector2d direction = new Vector2d(0.0, 0.0);
+
+    @Setup
+    public void setup() {
+        joystickInput = new Vector2d(0.42, -0.77);
+        currentValue = new Vector2d(1.2, 0.3);
+        driverOffset = new Rotation2d(0.5 * Math.PI);
+    }
+
+    /**
+     * Joystick shaping using the immutable API: every step returns a new vector.
+     */
+    @Benchmark
+    public Vector2d shapeInputImmutable() {
+        Vector2d rotated = joystickInput.rotateBy(driverOffset.times(-1.0));
+        double speed = rotated.magnitude();
+        return rotated.normalize().scale(Math.pow(speed, 2.5)).scale(4.8);
+    }
+
+    /**
+     * Joystick shaping using the in-place API on a reused scratch vector.
+     */
+    @Benchmark
+    public Vector2d shapeInputInPlace() {
+        scratch.set(joystickInput).rotateByInPlace(driverOffset.getCos(), -driverOffset.getSin());
+        double speed = scratch.magnitude();
+        return scratch.normalizeInPlace().scaleInPlace(Math.pow(speed, 2.5)).scaleInPlace(4.8);
+    }
+
+    /**
+     * One rate limiter step using the immutable API.
+     */
+    @Benchmark
+    public Vector2d rateLimitStepImmutable() {
+        Vector2d delta = joystickInput.subtract(currentValue);
+        return currentValue.add(delta.normalize().scale(0.228));
+    }
+
+    /**
+     * One rate limiter step using the in-place API.
+     */
+    @Benchmark
+    public Vector2d rateLimitStepInPlace() {
+        direction.set(joystickInput).subtractInPlace(currentValue);
+        return scratch.set(currentValue).addInPlace(direction.normalizeInPlace().scaleInPlace(0.228));
+    }
+}
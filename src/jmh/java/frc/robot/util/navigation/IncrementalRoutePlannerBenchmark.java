@@ -0,0 +1,81 @@
+package frc.robot.util.navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.NavigationConstants;
+
+/**
+ * <h2> IncrementalRoutePlannerBenchmark </h2>
+ * Compares repairing a route when an algae appears on it (and then expires) with searching the whole route again,
+ * on the deployed navigation grid. Each invocation toggles the algae, so both benchmarks see the same change every
+ * time. The results are reported in microseconds.
+ * <p>
+ * Must be run from the project directory, since the grid is read from {@code src/main/deploy}.
+ * <hr>
+ * @since v2.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class IncrementalRoutePlannerBenchmark {
+
+    private static final double START_X = 1.5;
+    private static final double START_Y = 1.5;
+    private static final double GOAL_X = 7.5;
+    private static final double GOAL_Y = 1.5;
+
+    // On the straight line from the start to the goal, so the route has to go around it
+    private static final double ALGAE_X = 4.5;
+    private static final double ALGAE_Y = 1.5;
+
+    private DynamicObstacleLayer layer;
+    private IncrementalRoutePlanner planner;
+    private final List<Translation2d> waypoints = new ArrayList<>();
+    private double timestamp = 0.0;
+
+    @Setup
+    public void setup() throws IOException {
+        NavigationGrid grid = NavigationGrid.load(new File("src/main/deploy", NavigationConstants.NAVGRID_FILE));
+        layer = new DynamicObstacleLayer(grid);
+        planner = new IncrementalRoutePlanner(layer);
+        planner.setGoal(GOAL_X, GOAL_Y);
+        planner.update(START_X, START_Y, waypoints);
+    }
+
+    private void toggleAlgae() {
+        if (layer.getObstacleCellCount() == 0) {
+            layer.addObstacle(ALGAE_X, ALGAE_Y, NavigationConstants.ALGAE_OBSTACLE_RADIUS, timestamp);
+        } else {
+            timestamp += NavigationConstants.OBSTACLE_LIFETIME;
+            layer.update(timestamp);
+        }
+    }
+
+    @Benchmark
+    public List<Translation2d> repair() {
+        toggleAlgae();
+        planner.update(START_X, START_Y, waypoints);
+        return waypoints;
+    }
+
+    @Benchmark
+    public List<Translation2d> fullReplan() {
+        toggleAlgae();
+        planner.setGoal(GOAL_X, GOAL_Y);
+        planner.update(START_X, START_Y, waypoints);
+        return waypoints;
+    }
+}
@@ -0,0 +1,64 @@
+package frc.robot.util.navigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.NavigationConstants;
+
+/**
+ * <h2> NavigationPlannerBenchmark </h2>
+ * Compares a route to a reef face answered from its precomputed distance field with a fresh Theta* search to the same
+ * point, on the deployed navigation grid. Both start from the far side of the field, so the route has to go around
+ * the reef. The results are reported in microseconds.
+ * <p>
+ * Must be run from the project directory, since the grid is read from {@code src/main/deploy}.
+ * <hr>
+ * @since v2.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class NavigationPlannerBenchmark {
+
+    private static final double START_X = 7.5;
+    private static final double START_Y = 1.5;
+
+    private NavigationPlanner planner;
+    private NavigationPlanner.Goal goal;
+    private final List<Translation2d> waypoints = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        NavigationGrid grid = NavigationGrid.load(new File("src/main/deploy", NavigationConstants.NAVGRID_FILE));
+        planner = NavigationPlanner.createForField(grid, AprilTagFieldLayout.loadField(AprilTagFields.k2025Reefscape));
+
+        // The reef face nearest the blue alliance wall, on the far side of the reef from the start
+        goal = planner.getNearestGoal(0.0, 4.0, "REEF_");
+    }
+
+    @Benchmark
+    public List<Translation2d> distanceField() {
+        planner.planToGoal(goal, START_X, START_Y, waypoints);
+        return waypoints;
+    }
+
+    @Benchmark
+    public List<Translation2d> thetaStar() {
+        planner.plan(START_X, START_Y, goal.getX(), goal.getY(), waypoints);
+        return waypoints;
+    }
+}
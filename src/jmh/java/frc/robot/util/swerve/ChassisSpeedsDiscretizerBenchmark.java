@@ -0,0 +1,45 @@
+package frc.robot.util.swerve;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import frc.robot.Constants.DriveConstants;
+
+/**
+ * <h2> ChassisSpeedsDiscretizerBenchmark </h2>
+ * Compares the cost of plain field-to-robot conversion with {@link ChassisSpeedsDiscretizer} while translating and
+ * rotating at the robot's maximum speeds. Run with the gc profiler (the default in {@code build.gradle}) to check
+ * that neither conversion allocates.
+ * <p>
+ * How much drift the discretizer removes is measured against the drivetrain simulation in
+ * {@code ChassisSpeedsDiscretizerTest}, not here.
+ * <hr>
+ * @since v2.1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ChassisSpeedsDiscretizerBenchmark {
+
+    private final ChassisSpeedsDiscretizer discretizer = new ChassisSpeedsDiscretizer();
+    private double heading = 0.0;
+
+    @Benchmark
+    public double undiscretized() {
+        heading += 0.01;
+        return DriveConstants.LINEAR_MAX_SPEED * Math.cos(heading) - DriveConstants.LINEAR_MAX_SPEED * Math.sin(heading);
+    }
+
+    @Benchmark
+    public double discretized() {
+        heading += 0.01;
+        discretizer.discretize(DriveConstants.LINEAR_MAX_SPEED, 0.0, DriveConstants.ROTATIONAL_MAX_SPEED, heading, 0.02);
+        return discretizer.getVx() + discretizer.getVy();
+    }
+}
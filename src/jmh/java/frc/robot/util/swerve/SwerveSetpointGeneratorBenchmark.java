@@ -0,0 +1,79 @@
+package frc.robot.util.swerve;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.Constants.DriveConstants;
+
+/**
+ * <h2> SwerveSetpointGeneratorBenchmark </h2>
+ * Measures a single {@link SwerveSetpointGenerator#generate} call, which {@code DriveSubsystem} makes once per loop,
+ * using the robot's own module locations and limits. The results are reported in microseconds, against a 20 ms
+ * loop budget.
+ * <ul>
+ *   <li>{@link #steadyCruise()}: the request does not change, which takes the fast path.</li>
+ *   <li>{@link #smallCorrection()}: the request changes by a little, which every module can follow directly.</li>
+ *   <li>{@link #directionReversal()}: the request flips between driving forwards and sideways while spinning,
+ *       which runs the full search and limits the steering of every module.</li>
+ * </ul>
+ * <hr>
+ * @since v2.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SwerveSetpointGeneratorBenchmark {
+
+    private static final double DELTA_TIME = TimedRobot.kDefaultPeriod;
+
+    private SwerveSetpointGenerator cruiseGenerator;
+    private SwerveSetpointGenerator correctionGenerator;
+    private SwerveSetpointGenerator reversalGenerator;
+    private boolean flip = false;
+
+    @Setup
+    public void setup() {
+        cruiseGenerator = createGenerator();
+        correctionGenerator = createGenerator();
+        reversalGenerator = createGenerator();
+
+        // Bringing the cruising and correcting generators up to speed, so they are following their requests
+        for (int i = 0; i < 200; i++) {
+            cruiseGenerator.generate(3.0, 1.0, 0.5, DELTA_TIME);
+            correctionGenerator.generate(3.0, 1.0, 0.5, DELTA_TIME);
+        }
+    }
+
+    private static SwerveSetpointGenerator createGenerator() {
+        return new SwerveSetpointGenerator(DriveConstants.MODULE_LOCATIONS, DriveConstants.LINEAR_MAX_SPEED,
+                DriveConstants.MAX_WHEEL_ACCELERATION, DriveConstants.Neo550Turning.MAX_STEERING_VELOCITY);
+    }
+
+    @Benchmark
+    public SwerveModuleState[] steadyCruise() {
+        return cruiseGenerator.generate(3.0, 1.0, 0.5, DELTA_TIME);
+    }
+
+    @Benchmark
+    public SwerveModuleState[] smallCorrection() {
+        flip = !flip;
+        return correctionGenerator.generate(flip ? 3.01 : 2.99, 1.0, 0.5, DELTA_TIME);
+    }
+
+    @Benchmark
+    public SwerveModuleState[] directionReversal() {
+        flip = !flip;
+        return flip
+                ? reversalGenerator.generate(4.0, 0.0, 3.0, DELTA_TIME)
+                : reversalGenerator.generate(0.0, -4.0, -3.0, DELTA_TIME);
+    }
+}
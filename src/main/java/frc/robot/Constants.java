@@ -92,11 +92,15 @@ public final class Constants {
         public static final double TRACK_WIDTH = Units.inchesToMeters(16);
         public static final double WHEEL_BASE = Units.inchesToMeters(16);
 
-        public static final SwerveDriveKinematics DRIVE_KINEMATICS = new SwerveDriveKinematics(
+        // Front left, front right, rear left, rear right
+        public static final Translation2d[] MODULE_LOCATIONS = {
                 new Translation2d(WHEEL_BASE / 2, TRACK_WIDTH / 2),
                 new Translation2d(WHEEL_BASE / 2, -TRACK_WIDTH / 2),
                 new Translation2d(-WHEEL_BASE / 2, TRACK_WIDTH / 2),
-                new Translation2d(-WHEEL_BASE / 2, -TRACK_WIDTH / 2));
+                new Translation2d(-WHEEL_BASE / 2, -TRACK_WIDTH / 2)
+        };
+
+        public static final SwerveDriveKinematics DRIVE_KINEMATICS = new SwerveDriveKinematics(MODULE_LOCATIONS);
 
         public static final double WHEEL_RADIUS = 0.0381; // Meters
         public static final double WHEEL_CIRCUMFERENCE = WHEEL_RADIUS * 2.0 * Math.PI; // Meters
@@ -106,8 +110,16 @@ public final class Constants {
         public static final double ROTATIONAL_MAX_SPEED = 16.7; // rad/s
         public static final double LINEAR_MAX_ACCELERATION = 11.4; // m/s²
         public static final double ROTATIONAL_MAX_ACCELERATION = 42.0; // rad/s²
+        public static final double LINEAR_MAX_JERK = 100.0; // m/s³. Full acceleration is reached in ~0.11 s
+        public static final double ROTATIONAL_MAX_JERK = 400.0; // rad/s³. Full acceleration is reached in ~0.1 s
         public static final double MAX_DELTA_TIME_RATE_LIMIT = 0.1; // Prevents excessive acceleration due to lag
 
+        // Per module limits, enforced by the setpoint generator
+        public static final double MAX_WHEEL_ACCELERATION = 12.0; // m/s². About what the wheels can transmit before slipping
+
+        // Odometry history, used to look up where the robot was when a delayed measurement was taken
+        public static final int POSE_HISTORY_CAPACITY = 256; // ~5 seconds at 50 Hz
+
         // Drive PID Controller Coefficients
         public static final double LINEAR_KP = 1.0;
         public static final double LINEAR_KI = 0.0;
@@ -193,6 +205,9 @@ public final class Constants {
          * ---------------------------------- TURNING CONSTANTS ----------------------------------
          */
         public static final class Neo550Turning {
+            public static final double FREE_SPEED = 1151.917; // Rad/s
+            public static final double MOTOR_REDUCTION = 9424.0 / 203.0;
+            public static final double MAX_STEERING_VELOCITY = FREE_SPEED / MOTOR_REDUCTION * 0.8; // Rad/s, with 20% headroom
             public static final double ENCODER_POSITION_FACTOR = (2 * Math.PI); // Radians
             public static final double ENCODER_VELOCITY_FACTOR = (2 * Math.PI) / 60.0; // Rad/s
             public static final double POSITION_PID_MIN_INPUT = 0.0;
@@ -212,6 +227,84 @@ public final class Constants {
         }
     }
 
+    /**
+     * <h2>AutonomousConstants</h2>
+     * The {@code AutonomousConstants} class is a subclass contained within the {@code Constants} class.
+     * This subclass contains all of the constants relating to loading and following autonomous trajectories.
+     * This contains values like where the path files are deployed, how finely they are sampled and how hard
+     * the robot corrects for drifting off of them.
+     */
+    public static class AutonomousConstants {
+
+        // PathPlanner files, relative to the deploy directory
+        public static final String PATH_DIRECTORY = "pathplanner/paths";
+        public static final String SETTINGS_FILE = "pathplanner/settings.json";
+        public static final String DEFAULT_PATH_NAME = "Example Path"; // Used when a routine has no path of its own
+        public static final String PATH_CACHE_FILE = "/home/lvuser/path_cache.bin"; // Rebuilt when the paths change
+        public static final String SIMULATION_PATH_CACHE_FILE = "build/path_cache.bin"; // Relative to the project directory
+
+        // Trajectory generation
+        public static final int SAMPLES_PER_SEGMENT = 100; // Samples per curve between two waypoints
+        public static final double DEFAULT_MAX_VELOCITY = 3.0; // m/s, if settings.json can't be read
+        public static final double DEFAULT_MAX_ACCELERATION = 3.0; // m/s²
+        public static final double DEFAULT_MAX_ANGULAR_VELOCITY = Math.toRadians(540.0); // rad/s
+
+        // Trajectory following. The feedback is scaled by these and added to the trajectory's own velocities
+        public static final double LINEAR_CORRECTION_SPEED = 1.5; // m/s
+        public static final double ROTATIONAL_CORRECTION_SPEED = 4.0; // rad/s
+        public static final double FINISHED_POSITION_TOLERANCE = 0.05; // Meters
+        public static final double FINISHED_HEADING_TOLERANCE = Math.toRadians(3.0); // Radians
+        public static final double FINISH_TIMEOUT = 1.0; // Seconds after the trajectory ends to keep settling
+
+        // Cycle planning. Starting positions are for the blue alliance, and mirrored for red.
+        public static final double AUTONOMOUS_DURATION = 15.0; // Seconds
+        public static final double START_LINE_X = 7.2; // Meters from the blue alliance wall to the robot's center
+        public static final double LEFT_START_Y = 6.0; // Meters, left from the driver's point of view
+        public static final double CENTER_START_Y = 4.0; // Meters
+        public static final double RIGHT_START_Y = 2.0; // Meters
+        public static final int[] BLUE_REEF_TAG_IDS = {17, 18, 19, 20, 21, 22};
+        public static final int[] RED_REEF_TAG_IDS = {6, 7, 8, 9, 10, 11};
+        public static final int[] BLUE_CORAL_STATION_TAG_IDS = {12, 13};
+        public static final int[] RED_CORAL_STATION_TAG_IDS = {1, 2};
+        public static final int[] CORAL_POINTS = {3, 4, 6, 7}; // L1 to L4, during autonomous
+        public static final int LEAVE_POINTS = 3;
+        public static final double ACTION_TIMEOUT_MARGIN = 0.5; // Seconds a drive, intake or score may overrun its estimate
+    }
+
+    /**
+     * <h2>NavigationConstants</h2>
+     * The {@code NavigationConstants} class is a subclass contained within the {@code Constants} class.
+     * This subclass contains all of the constants relating to planning routes across the field's navigation grid.
+     * This contains values like which AprilTags mark the fixed goals and how far from them the robot stops.
+     */
+    public static class NavigationConstants {
+        public static final String NAVGRID_FILE = "pathplanner/navgrid.json"; // Relative to the deploy directory
+
+        // Fixed goals, with a distance field precomputed for each
+        public static final int[] REEF_TAG_IDS = {6, 7, 8, 9, 10, 11, 17, 18, 19, 20, 21, 22};
+        public static final int[] CORAL_STATION_TAG_IDS = {1, 2, 12, 13};
+        public static final double REEF_STANDOFF = 0.45; // Meters from the tag to the robot's center
+        public static final double CORAL_STATION_STANDOFF = 0.45; // Meters
+
+        // How far a start or goal inside a blocked cell may be moved to reach a free one
+        public static final double GOAL_SNAP_RADIUS = 0.9; // Meters
+
+        // Dynamic obstacles. The grid is already inflated by the robot's size, so radii only add the obstacle's own.
+        public static final double ALGAE_OBSTACLE_RADIUS = 0.25; // Meters
+        public static final double OBSTACLE_LIFETIME = 1.5; // Seconds since the obstacle was last seen
+        public static final int CHANGE_LOG_SIZE = 1024;
+
+        // Driving to a scoring location
+        public static final double APPROACH_MAX_SPEED = 3.0; // m/s
+        public static final double APPROACH_MAX_DECELERATION = 3.0; // m/s²
+        public static final double FINAL_APPROACH_DISTANCE = 0.3; // Meters left on the route when position feedback takes over
+        public static final double ALIGNED_POSITION_TOLERANCE = 0.03; // Meters
+        public static final double ALIGNED_HEADING_TOLERANCE = 0.03; // Radians
+        public static final double APPROACH_TIMEOUT = 5.0; // Seconds before giving up on settling within the aligned tolerances
+        public static final double SCORING_POSITION_TOLERANCE = 0.06; // Meters. Close enough to score after a timeout
+        public static final double SCORING_HEADING_TOLERANCE = 0.06; // Radians. Close enough to score after a timeout
+    }
+
     /**
      * <h2>UpperAssemblyConstants</h2>
      * The {@code UpperAssemblyConstants} class is a subclass contained within the {@code Constants} class.
@@ -242,6 +335,8 @@ public final class Constants {
 
             public static final double PID_MAX_OUTPUT = 0.5;
             public static final double PID_MIN_OUTPUT = -0.5;
+
+            public static final double OUTTAKE_TIME = 0.5; // Seconds to run the outtake for when scoring
         }
 
         public static class NarwhalWristConstants {
@@ -258,9 +353,27 @@ public final class Constants {
             public static final double PID_OUTPUT_RANGE_MAX = 0.5; // TODO: UPDATE THESE OUTPUT RANGE VALUES
             public static final double PID_OUTPUT_RANGE_MIN = 0.5; // TODO: UPDATE THESE OUTPUT RANGE VALUES
 
+            // Wrist angles are viewed from the robot's right: 0 points straight up and positive is counterclockwise,
+            // so straight down sits at +/-PI, the wrap of the zero-centered encoder.
             public static final Rotation2d INTAKE_ANGLE = Rotation2d.fromRadians(-Math.PI / 4); // -pi/4 TODO: update these placeholder values
             public static final Rotation2d OUTTAKE_ANGLE = Rotation2d.fromRadians(2 * Math.PI / 3); // 2pi/3 TODO: update these placeholder values
             public static final Rotation2d ALGAE_ANGLE = Rotation2d.fromRadians(Math.PI / 2); // pi/2 TODO: update these placeholder values
+
+            public static final double ANGLE_TOLERANCE = 0.05; // Radians
+            public static final double SETTLED_VELOCITY = 0.2; // Radians per second, below which a move counts as settled
+
+            // Motion profile, generated on the roboRIO and streamed to the SPARK MAX every loop
+            public static final double MAX_VELOCITY = 6.0; // Radians per second TODO: tune
+            public static final double MAX_ACCELERATION = 20.0; // Radians per second squared TODO: tune
+            public static final double PROFILE_PERIOD = 0.02; // Seconds, the robot's loop period
+
+            // Arm feedforward, in volts. The feedforward measures its angle up from horizontal, which is the wrist angle plus PI/2.
+            public static final double KS = 0.1; // TODO: characterize
+            public static final double KG = 0.3; // TODO: characterize
+            public static final double KV = 0.8; // Volts per radian per second TODO: characterize
+            public static final double KA = 0.02; // Volts per radian per second squared TODO: characterize
+            public static final double HORIZONTAL_ANGLE_OFFSET = Math.PI / 2; // Radians, added to the wrist angle
+            public static final double SETTLE_TIMEOUT = 1.0; // Seconds to wait for the wrist before scoring anyway
         }
 
         public static class NarwhalClimberConstants {
@@ -277,8 +390,26 @@ public final class Constants {
             public static final double PID_D = 0.1;
             public static final double PID_F = 1.9;
 
-            public static final double CLIMBER_PID_MIN_OUTPUT = -0.3;
-            public static final double CLIMBER_PID_MAX_OUTPUT = 0.3;
+            public static final double CLIMBER_PID_MIN_OUTPUT = -1.0;
+            public static final double CLIMBER_PID_MAX_OUTPUT = 1.0;
+
+            // Motion profile, in climber rotations. The motor spins at roughly 0.075 climber rotations per second.
+            public static final double MAX_VELOCITY = 0.06; // Rotations per second TODO: tune
+            public static final double MAX_ACCELERATION = 0.2; // Rotations per second squared TODO: tune
+            public static final double POSITION_TOLERANCE = 0.005; // Rotations
+
+            // Feedforward, in volts. The loaded gain holds the robot's weight, pulling towards CLIMB_ANGLE.
+            public static final double KS = 0.1; // TODO: characterize
+            public static final double KV = 158.0; // Volts per rotation per second TODO: characterize
+            public static final double KA = 0.0; // Volts per rotation per second squared TODO: characterize
+            public static final double LOADED_KG = -2.0; // TODO: characterize
+
+            // Load and stall detection, from the motor's output current. The current limit is 40 amps.
+            public static final double LOAD_CURRENT = 15.0; // Amps
+            public static final double LOAD_DEBOUNCE_TIME = 0.1; // Seconds
+            public static final double STALL_CURRENT = 35.0; // Amps
+            public static final double STALL_VELOCITY = 0.002; // Rotations per second
+            public static final double STALL_TIME = 0.5; // Seconds
 
             public static final Rotation2d DEPLOYED_ANGLE = Rotation2d.fromDegrees(30);
             public static final Rotation2d CLIMB_ANGLE = Rotation2d.fromDegrees(-5);
@@ -299,6 +430,7 @@ public final class Constants {
             public static final int BOTTOM_MOTOR_CAN_ID = 12;
 
             public static final int CORAL_SENSOR_ID = 0;
+            public static final double CORAL_SENSOR_CONFIRM_TIME = 0.002; // Seconds the sensor must hold a new level for an edge to count
 
             public static final double KP = 0.005;
             public static final double KI = 0.0001;
@@ -367,6 +499,24 @@ public final class Constants {
              */
             public static final double CLIMBED_POSITION = 0.203; // Meters
 
+            // Motion profile. The spool pulls in at roughly 0.045 meters per second.
+            public static final double MAX_VELOCITY = 0.04; // Meters per second TODO: tune
+            public static final double MAX_ACCELERATION = 0.2; // Meters per second squared TODO: tune
+            public static final double POSITION_TOLERANCE = 0.005; // Meters
+
+            // Feedforward, in volts. The loaded gain holds the robot's weight, pulling towards CLIMBED_POSITION.
+            public static final double KS = 0.1; // TODO: characterize
+            public static final double KV = 264.0; // Volts per meter per second TODO: characterize
+            public static final double KA = 0.0; // Volts per meter per second squared TODO: characterize
+            public static final double LOADED_KG = 2.0; // TODO: characterize
+
+            // Load and stall detection, from the motor's output current. The current limit is MOTOR_CURRENT_LIMIT.
+            public static final double LOAD_CURRENT = 20.0; // Amps
+            public static final double LOAD_DEBOUNCE_TIME = 0.1; // Seconds
+            public static final double STALL_CURRENT = 45.0; // Amps
+            public static final double STALL_VELOCITY = 0.002; // Meters per second
+            public static final double STALL_TIME = 0.5; // Seconds
+
         }
     }
 
@@ -393,6 +543,36 @@ public final class Constants {
         // Odometry Detection Strategy
         public static final PhotonPoseEstimator.PoseStrategy POSE_STRATEGY = PhotonPoseEstimator.PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR;
         public static final PhotonPoseEstimator.PoseStrategy FALLBACK_STRATEGY = PhotonPoseEstimator.PoseStrategy.CLOSEST_TO_REFERENCE_POSE;
+
+        // Measurement trust. These are the standard deviations of a measurement taken right next to the tags,
+        // and they grow with (1 + distance^2 / STD_DEV_DISTANCE_SCALE) * (1 + ambiguity * STD_DEV_AMBIGUITY_SCALE)
+        public static final double SINGLE_TAG_LINEAR_STD_DEV = 1.0; // Meters
+        public static final double SINGLE_TAG_ROTATIONAL_STD_DEV = 2.0; // Radians
+        public static final double MULTI_TAG_LINEAR_STD_DEV = 0.3; // Meters
+        public static final double MULTI_TAG_ROTATIONAL_STD_DEV = 0.6; // Radians
+        public static final double STD_DEV_DISTANCE_SCALE = 30.0; // Meters^2
+        public static final double STD_DEV_AMBIGUITY_SCALE = 5.0;
+
+        // Outlier rejection
+        public static final double FIELD_BORDER_MARGIN = 0.5; // Meters outside of the field still considered plausible
+        public static final double MAX_Z_ERROR = 0.25; // Meters above or below the carpet
+        public static final double MAX_TILT = Math.toRadians(10.0); // Maximum roll or pitch, in radians
+        public static final double MAX_AMBIGUITY = 0.2; // Single tag measurements only. Can be overridden per camera
+        public static final double MAX_MAHALANOBIS_DISTANCE_SQUARED = 11.34; // 99th percentile of chi-squared, 3 DOF
+        public static final int MAHALANOBIS_RECOVERY_COUNT = 15; // Consecutive gate rejections before one is let through
+        public static final double ESTIMATE_LINEAR_STD_DEV = 0.1; // Meters. Assumed uncertainty of the pose estimate
+        public static final double ESTIMATE_ROTATIONAL_STD_DEV = 0.1; // Radians
+
+        // Camera health. Cameras that contribute nothing are processed less often
+        public static final double HEALTH_WINDOW = 1.0; // Seconds of statistics behind each status decision
+        public static final int THROTTLE_AFTER_IDLE_WINDOWS = 3; // Windows with frames but no accepted measurements
+        public static final int THROTTLED_PROCESS_INTERVAL = 5; // Loops between processing a throttled camera
+        public static final int DROPPED_PROBE_INTERVAL = 25; // Loops between checking a dropped camera. Keep below HEALTH_WINDOW
+
+        // Background processing. When enabled, each camera's frames are estimated on a worker thread
+        // and the finished measurements are drained by the main loop. Off until the threaded mode is proven.
+        public static final boolean ASYNCHRONOUS_PROCESSING = false;
+        public static final int PROCESSING_THREADS = 2;
     }
 
     /**
@@ -406,4 +586,79 @@ public final class Constants {
         public static final int UDP_PORT_NUMBER = 5400;
         public static final int TCP_PORT_NUMBER = 5300;
     }
+
+    /**
+     * <h2>ProfilingConstants</h2>
+     * The {@code ProfilingConstants} class is a subclass contained within the {@code Constants} class.
+     * This subclass contains all of the constants relating to the loop-timing profiler.
+     * This contains values such as how often timings are published and whether overruns are reported.
+     */
+    public static class ProfilingConstants {
+        public static final boolean ENABLED = true;
+        public static final double DEFAULT_LOOP_PERIOD = 0.02; // Seconds
+        public static final int DASHBOARD_PUBLISH_PERIOD_LOOPS = 50; // Once per second at 50 Hz
+        public static final boolean REPORT_OVERRUN_WARNINGS = true;
+    }
+
+    /**
+     * <h2>TelemetryConstants</h2>
+     * The {@code TelemetryConstants} class is a subclass contained within the {@code Constants} class.
+     * This subclass contains all of the constants relating to dashboard publishing.
+     * This contains values like how often poses and status values may be sent over NetworkTables.
+     */
+    public static class TelemetryConstants {
+        public static final boolean ENABLED = true;
+        public static final double FIELD_PUBLISH_PERIOD = 0.1; // Seconds between pose updates on the Field2d
+        public static final double STATUS_PUBLISH_PERIOD = 0.5; // Seconds between updates of counters and statuses
+    }
+
+    /**
+     * <h2>ReplayConstants</h2>
+     * The {@code ReplayConstants} class is a subclass contained within the {@code Constants} class.
+     * This subclass contains all of the constants relating to recording replay logs of the pose estimator's inputs.
+     * This contains values like where logs are written and how often they are flushed to disk.
+     */
+    public static class ReplayConstants {
+        public static final boolean ENABLED = false;
+        public static final String LOG_DIRECTORY = "/U/replay"; // USB drive plugged into the roboRIO
+        public static final String SIMULATION_LOG_DIRECTORY = "replay"; // Relative to the project directory
+        public static final int FLUSH_SIZE = 64 * 1024; // Bytes buffered before they are written to disk
+        public static final double FLUSH_PERIOD = 1.0; // Seconds. At most this much is lost if the robot loses power
+        public static final int INITIAL_PACKET_SIZE = 1024; // Bytes. Grows if a pipeline result is larger
+        public static final double CLOSE_TIMEOUT = 2.0; // Seconds to wait for the end of the log to be written
+    }
+
+    /**
+     * <h2>SimulationConstants</h2>
+     * The {@code SimulationConstants} class is a subclass contained within the {@code Constants} class.
+     * This subclass contains all of the constants relating to the drivetrain physics simulation.
+     * This contains values like the robot's mass, wheel friction and sensor noise.
+     */
+    public static class SimulationConstants {
+
+        // Physics is integrated in small fixed steps, so the result doesn't depend on how often step() is called
+        public static final double PHYSICS_SUBSTEP = 0.001; // Seconds
+        public static final long RANDOM_SEED = 537;
+
+        // Chassis
+        public static final double ROBOT_MASS = 54.0; // Kilograms, including bumpers and battery
+        public static final double ROBOT_MOMENT_OF_INERTIA = 5.5; // kg * m^2
+        public static final double NOMINAL_VOLTAGE = 12.0; // Volts
+
+        // Wheel-carpet contact. Friction ramps up over SLIP_VELOCITY_SCALE, rather than switching instantly
+        public static final double WHEEL_COEFFICIENT_OF_FRICTION = 1.2;
+        public static final double SLIP_VELOCITY_SCALE = 0.1; // m/s
+
+        // Module mechanics
+        public static final double DRIVING_MOMENT_OF_INERTIA = 0.0025; // kg * m^2, wheel plus reflected rotor
+        public static final double TURNING_MOMENT_OF_INERTIA = 0.004; // kg * m^2
+        public static final double TURNING_MOTOR_REDUCTION = 9424.0 / 203.0;
+
+        // Sensor noise (standard deviations) and gyro drift
+        public static final double DRIVING_POSITION_NOISE = 0.0002; // Meters
+        public static final double DRIVING_VELOCITY_NOISE = 0.005; // m/s
+        public static final double TURNING_ANGLE_NOISE = 0.002; // Radians
+        public static final double GYRO_NOISE = 0.0005; // Radians
+        public static final double GYRO_DRIFT_RATE = 0.0001; // Rad/s
+    }
 }
\ No newline at end of file
@@ -9,6 +9,8 @@ import edu.wpi.first.net.PortForwarder;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.util.profiling.LoopProfiler;
+import frc.robot.util.telemetry.TelemetryPublisher;
 
 /**
  * The methods in this class are called automatically corresponding to each
@@ -31,6 +33,9 @@ public class Robot extends TimedRobot {
         // autonomous chooser on the dashboard.
         robotContainer = new RobotContainer();
 
+        // Let the profiler know how long a loop is allowed to take, so it can flag overruns.
+        LoopProfiler.getInstance().setLoopPeriod(getPeriod());
+
         // Automatically capture data with the driver camera.
         CameraServer.startAutomaticCapture();
 
@@ -52,7 +57,13 @@ public class Robot extends TimedRobot {
         // newly-scheduled commands, running already-scheduled commands, removing finished or
         // interrupted commands, and running subsystem periodic() methods. This must be called from the robot's periodic
         // block in order for anything in the Command-based framework to work.
+        // The scheduler run is wrapped in the loop profiler so that overruns can be traced to a stage.
+        LoopProfiler.getInstance().beginLoop();
         CommandScheduler.getInstance().run();
+
+        // Sends every dashboard value that changed, no faster than its topic allows.
+        TelemetryPublisher.getInstance().update();
+        LoopProfiler.getInstance().endLoop();
     }
 
     /**
@@ -76,6 +87,8 @@ public class Robot extends TimedRobot {
 
     @Override
     public void disabledPeriodic() {
+        // Build the autonomous plans while nothing else is running, so autonomousInit doesn't have to
+        robotContainer.planAutonomous();
     }
 
     /** This function is called periodically during autonomous. */
@@ -4,11 +4,26 @@
 
 package frc.robot;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import frc.robot.Constants.AutonomousConstants;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.NavigationConstants;
 import frc.robot.Constants.OceanViewConstants;
 import frc.robot.Constants.OperatorConstants;
+import frc.robot.Constants.ReplayConstants;
 import frc.robot.Constants.VisionConstants;
-import frc.robot.commands.Autos;
+import frc.robot.commands.DriveToPoseCommand;
+import frc.robot.commands.DriveToScoringLocationCommand;
 import frc.robot.commands.ExampleCommand;
+import frc.robot.commands.FollowTrajectoryCommand;
 import frc.robot.network.TCPSender;
 import frc.robot.network.UDPReceiver;
 import frc.robot.commands.XboxParkerManualDriveCommand;
@@ -19,15 +34,32 @@ import frc.robot.subsystems.vision.odometry.PhotonVisionCamera;
 import frc.robot.subsystems.vision.odometry.VisionOdometry;
 import frc.robot.subsystems.upper_assembly.UpperAssemblyBase;
 import frc.robot.util.autonomous.Alliance;
+import frc.robot.util.autonomous.AutonomousMode;
+import frc.robot.util.autonomous.AutonomousPlanner;
 import frc.robot.util.autonomous.AutonomousRoutine;
+import frc.robot.util.autonomous.CyclePlan;
+import frc.robot.util.autonomous.MirroredGeometryCache;
+import frc.robot.util.navigation.DynamicObstacleLayer;
+import frc.robot.util.navigation.IncrementalRoutePlanner;
+import frc.robot.util.navigation.NavigationGrid;
+import frc.robot.util.navigation.NavigationPlanner;
+import frc.robot.util.profiling.CycleTimer;
+import frc.robot.util.replay.ReplayLogWriter;
 import frc.robot.util.swerve.DrivingMotor;
+import frc.robot.util.trajectory.PathCache;
+import frc.robot.util.trajectory.SampledTrajectory;
+import frc.robot.util.upper_assembly.ScoringHeight;
 import frc.robot.util.upper_assembly.UpperAssemblyFactory;
 import frc.robot.util.upper_assembly.UpperAssemblyType;
 import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 
 /**
@@ -52,14 +84,41 @@ public class RobotContainer {
     
     private VisionOdometry visionOdometry = new VisionOdometry(driveSubsystem.getSwerveDrivePoseEstimator()); // TODO: Add logic to add cameras to adjust odometry. visionOdometry.addCamera(PhotonVisionCamera camera);
     
-    @SuppressWarnings("unused") // The class is used due to how WPILib treats and stores subsystems.
     private OceanViewManager oceanViewManager;
 
+    // Plans routes across the field's navigation grid. Null if the grid couldn't be loaded.
+    private NavigationPlanner navigationPlanner;
+
+    // Detected obstacles laid over the navigation grid, for routes that are repaired as they appear
+    private DynamicObstacleLayer obstacleLayer;
+
+    // Routes the robot to scoring locations around the obstacles. Null if the grid couldn't be loaded.
+    private IncrementalRoutePlanner approachPlanner;
+
+    // The align-and-score command currently running, if any, so releasing the button can cancel it
+    private Command alignAndScoreCommand;
+
+    // Plans the order of scoring and intaking for each autonomous routine. Null if the grid couldn't be loaded.
+    private AutonomousPlanner autonomousPlanner;
+
+    // Set when a planned autonomous drive times out away from its pose, which ends the rest of the plan
+    private boolean autonomousAborted = false;
+
+    // Times each align-and-score cycle, from the button press to the coral being placed
+    private final CycleTimer coralCycleTimer = new CycleTimer("Cycles/Coral");
+
+    // The autonomous trajectories for both alliances, mirrored once when red is chosen
+    private MirroredGeometryCache trajectoryCache;
+
+    // Autonomous commands, ready to run by the time autonomous starts
+    private final Map<AutonomousRoutine, Command> autonomousCommands = new EnumMap<>(AutonomousRoutine.class);
+
     // Commands
     Command manualDriveCommand = new XboxParkerManualDriveCommand(driveSubsystem, xBoxController);
 
     // Smart Dashboard Inputs
     private final SendableChooser<AutonomousRoutine> autonomousSelector = new SendableChooser<>();
+    private final SendableChooser<AutonomousMode> autonomousModeSelector = new SendableChooser<>();
     private final SendableChooser<Alliance> allianceSelector = new SendableChooser<>();
     private final SendableChooser<UpperAssemblyType> upperSubstructureSelector = new SendableChooser<>();
     private final SendableChooser<DrivingMotor> drivingMotorSelector = new SendableChooser<>();
@@ -76,6 +135,15 @@ public class RobotContainer {
         visionOdometry.addCamera(new PhotonVisionCamera(VisionConstants.FRONT_CAMERA_NAME, new Transform3d()));
         visionOdometry.addCamera(new PhotonVisionCamera(VisionConstants.SLIDE_CAMERA_NAME, new Transform3d()));
 
+        // Record the pose estimator's inputs, so they can be replayed offline
+        setupReplayLog();
+
+        // Load the autonomous trajectories now, so nothing is parsed when autonomous starts
+        setupAutonomousCommands();
+
+        // Load the navigation grid and precompute the routes to the reef and coral stations
+        setupNavigationPlanner();
+
         // Setup Dashboard
         setupSmartDashboard();
 
@@ -111,6 +179,95 @@ public class RobotContainer {
         this.oceanViewManager = new OceanViewManager(this.udpReceiver, this.tcpSender, driveSubsystem::getRobotPose);
     }
 
+    /**
+     * Creates a replay log and starts recording odometry and vision into it, if enabled in {@code ReplayConstants}.
+     * If the log can't be created (e.g. no USB drive is plugged in), the robot runs without one.
+     */
+    private void setupReplayLog() {
+        if (!ReplayConstants.ENABLED) {
+            return;
+        }
+
+        String directory = RobotBase.isSimulation() ? ReplayConstants.SIMULATION_LOG_DIRECTORY : ReplayConstants.LOG_DIRECTORY;
+        String path = directory + File.separator + "replay_" + System.currentTimeMillis() + ".rpl";
+        try {
+            Files.createDirectories(Paths.get(directory));
+            ReplayLogWriter replayLog = new ReplayLogWriter(path);
+            driveSubsystem.setReplayLog(replayLog);
+            visionOdometry.setReplayLog(replayLog);
+            System.out.println("Recording replay log to " + path);
+        } catch (IOException e) {
+            System.err.println("Failed to create replay log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the autonomous trajectories from the path cache (rebuilding it if the deployed paths have changed), and
+     * creates the command for each autonomous routine.
+     */
+    private void setupAutonomousCommands() {
+        String cacheFile = RobotBase.isSimulation() ? AutonomousConstants.SIMULATION_PATH_CACHE_FILE : AutonomousConstants.PATH_CACHE_FILE;
+        Map<String, SampledTrajectory> trajectories = PathCache.load(
+                new File(Filesystem.getDeployDirectory(), AutonomousConstants.PATH_DIRECTORY),
+                new File(Filesystem.getDeployDirectory(), AutonomousConstants.SETTINGS_FILE),
+                new File(cacheFile));
+        trajectoryCache = new MirroredGeometryCache(trajectories);
+        createPathCommands();
+    }
+
+    /**
+     * Creates the command for each autonomous routine, for the alliance the trajectory cache is set to. Each routine
+     * follows the path named after it, or the default path if it doesn't have one yet.
+     */
+    private void createPathCommands() {
+        autonomousCommands.clear();
+        for (AutonomousRoutine autonomousRoutine : AutonomousRoutine.values()) {
+            SampledTrajectory trajectory = trajectoryCache.getTrajectory(autonomousRoutine.toString());
+            if (trajectory == null) {
+                trajectory = trajectoryCache.getTrajectory(AutonomousConstants.DEFAULT_PATH_NAME);
+            }
+            if (trajectory == null) {
+                System.err.println("No path was loaded for " + autonomousRoutine + ", so the robot won't move in autonomous");
+                continue;
+            }
+            autonomousCommands.put(autonomousRoutine, new FollowTrajectoryCommand(driveSubsystem, trajectory, true));
+        }
+    }
+
+    /**
+     * Switches the autonomous paths to an alliance, mirroring them the first time red is chosen.
+     *
+     * @param alliance The alliance.
+     */
+    private void setPathAlliance(Alliance alliance) {
+        if (alliance != null && trajectoryCache.setAlliance(alliance)) {
+            createPathCommands();
+        }
+    }
+
+    /**
+     * Loads the navigation grid and creates the planner, which precomputes a distance field for each reef face and
+     * coral station, and the obstacle layer OceanView's algae are added to. If the grid can't be loaded, the robot
+     * runs without either.
+     */
+    private void setupNavigationPlanner() {
+        try {
+            NavigationGrid navigationGrid = NavigationGrid.load(new File(Filesystem.getDeployDirectory(), NavigationConstants.NAVGRID_FILE));
+            navigationPlanner = NavigationPlanner.createForField(navigationGrid, VisionConstants.APRIL_TAG_FIELD_LAYOUT);
+            System.out.println("Loaded the navigation grid with " + navigationPlanner.getGoals().size() + " goals");
+
+            // Feed the algae OceanView detects into an obstacle layer over the same grid
+            obstacleLayer = new DynamicObstacleLayer(navigationGrid);
+            approachPlanner = new IncrementalRoutePlanner(obstacleLayer);
+            autonomousPlanner = new AutonomousPlanner(navigationPlanner, upperAssembly);
+            if (oceanViewManager != null) {
+                oceanViewManager.setObstacleLayer(obstacleLayer);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to load the navigation grid: " + e.getMessage());
+        }
+    }
+
     /**
      * Use this method to define your trigger->command mappings. Triggers can be
      * created via the {@link Trigger#Trigger(java.util.function.BooleanSupplier)} constructor with
@@ -127,6 +284,62 @@ public class RobotContainer {
         // Schedule `exampleMethodCommand` when the Xbox controller's B button is
         // pressed, cancelling on release.
         // driverController.b().whileTrue(exampleSubsystem.exampleMethodCommand());
+
+        // Holding a direction on the D-pad drives to the best scoring location at that height and scores
+        bindAlignAndScore(0, ScoringHeight.L4);
+        bindAlignAndScore(90, ScoringHeight.L3);
+        bindAlignAndScore(180, ScoringHeight.L2);
+        bindAlignAndScore(270, ScoringHeight.L1);
+    }
+
+    /**
+     * Binds a D-pad direction to align and score at a height while it is held. The command is created when the
+     * button is pressed, so it uses whichever upper assembly is selected at the time.
+     *
+     * @param pov           The D-pad angle, in degrees.
+     * @param scoringHeight The height to score at.
+     */
+    private void bindAlignAndScore(int pov, ScoringHeight scoringHeight) {
+        Trigger trigger = new Trigger(() -> xBoxController.getPOV() == pov);
+        trigger.onTrue(Commands.runOnce(() -> {
+            alignAndScoreCommand = createAlignAndScoreCommand(scoringHeight);
+            CommandScheduler.getInstance().schedule(alignAndScoreCommand);
+        }));
+        trigger.onFalse(Commands.runOnce(() -> {
+            if (alignAndScoreCommand != null) {
+                alignAndScoreCommand.cancel();
+            }
+        }));
+    }
+
+    /**
+     * Creates a command that drives to the best available scoring location at a height, lines up, and hands off to
+     * the upper assembly to score. The cycle is timed from when the command starts to when the score finishes.
+     * If the robot can't settle within the aligned tolerances in {@code APPROACH_TIMEOUT} seconds, it still scores
+     * as long as it is within the looser scoring tolerances.
+     *
+     * @param scoringHeight The height to score at.
+     * @return The command, or one that does nothing if OceanView or the navigation grid isn't available.
+     */
+    private Command createAlignAndScoreCommand(ScoringHeight scoringHeight) {
+        if (oceanViewManager == null || navigationPlanner == null) {
+            System.err.println("[RobotContainer] Can't align to score without OceanView and the navigation grid");
+            return Commands.none();
+        }
+
+        DriveToScoringLocationCommand driveCommand = new DriveToScoringLocationCommand(
+            driveSubsystem, oceanViewManager, navigationPlanner, approachPlanner, scoringHeight
+        );
+        return Commands.sequence(
+            Commands.runOnce(coralCycleTimer::start),
+            driveCommand.withTimeout(NavigationConstants.APPROACH_TIMEOUT),
+            Commands.sequence(
+                upperAssembly.getCoralScoreCommand(scoringHeight, driveSubsystem::getRobotPose),
+                Commands.runOnce(coralCycleTimer::finish)
+            ).onlyIf(() -> driveCommand.hasArrived() || driveCommand.isWithinTolerance(
+                NavigationConstants.SCORING_POSITION_TOLERANCE, NavigationConstants.SCORING_HEADING_TOLERANCE
+            ))
+        ).finallyDo(coralCycleTimer::abandon);
     }
 
     /**
@@ -140,6 +353,12 @@ public class RobotContainer {
             autonomousSelector.addOption(autonomousRoutine.toString(), autonomousRoutine);
         }
 
+        // Setup Autonomous Mode Selection. Planned cycles are opt-in, so the routine's path runs by default.
+        autonomousModeSelector.setDefaultOption("FOLLOW_PATH", AutonomousMode.FOLLOW_PATH);
+        for (AutonomousMode autonomousMode : AutonomousMode.values()) {
+            autonomousModeSelector.addOption(autonomousMode.toString(), autonomousMode);
+        }
+
         // Setup Alliance Selection
         allianceSelector.setDefaultOption("RED", Alliance.RED);
         for (Alliance alliance : Alliance.values()) {
@@ -160,6 +379,7 @@ public class RobotContainer {
 
         // Add the selectors to the dashboard.
         SmartDashboard.putData(autonomousSelector);
+        SmartDashboard.putData(autonomousModeSelector);
         SmartDashboard.putData(allianceSelector);
         SmartDashboard.putData(upperSubstructureSelector);
         SmartDashboard.putData(drivingMotorSelector);
@@ -176,8 +396,80 @@ public class RobotContainer {
         SmartDashboard.putString("Selected Autonomous", selectedAutonomousRoutine.toString());
         SmartDashboard.putString("Selected Alliance", selectedAlliance.toString());
 
-        // An example command will be run in autonomous
-        return Autos.exampleAuto(exampleSubsystem);
+        // Run the routine's cycle plan, which was built while the robot was disabled, if it was chosen
+        if (autonomousModeSelector.getSelected() == AutonomousMode.PLANNED_CYCLES) {
+            if (autonomousPlanner == null) {
+                System.err.println("[RobotContainer] No navigation grid to plan autonomous with; following the path instead");
+            } else {
+                CyclePlan plan = autonomousPlanner.getPlan(selectedAutonomousRoutine, selectedAlliance);
+                if (!plan.getSegments().isEmpty()) {
+                    return createPlannedAutonomousCommand(plan);
+                }
+                System.err.println("[RobotContainer] The autonomous plan is empty; following the path instead");
+            }
+        }
+
+        // Otherwise, run the routine's path, which was loaded at startup
+        setPathAlliance(selectedAlliance);
+        Command autonomousCommand = autonomousCommands.get(selectedAutonomousRoutine);
+        return autonomousCommand == null ? Commands.none() : autonomousCommand;
+    }
+
+    /**
+     * Builds the next autonomous cycle plan, if any are left and planned cycles are chosen. Called from
+     * {@link Robot#disabledPeriodic()}, so the plans are ready before autonomous starts.
+     */
+    public void planAutonomous() {
+        setPathAlliance(allianceSelector.getSelected());
+        if (autonomousPlanner != null && autonomousModeSelector.getSelected() == AutonomousMode.PLANNED_CYCLES) {
+            autonomousPlanner.planNext();
+        }
+    }
+
+    /**
+     * Creates the command that runs a cycle plan: it resets the robot's pose to the start of the plan, then drives,
+     * intakes and scores in order. Every step is cut off if it overruns its estimate by more than
+     * {@code ACTION_TIMEOUT_MARGIN}. Drive estimates include the final approach, so the margin only has to cover
+     * the difference between the model and the real robot. If a drive is cut off while the robot is still outside the scoring tolerances,
+     * the rest of the plan is abandoned, as every later step assumes the robot got there.
+     *
+     * @param plan The plan to run.
+     * @return The command.
+     */
+    private Command createPlannedAutonomousCommand(CyclePlan plan) {
+        List<Command> commands = new ArrayList<>();
+        commands.add(Commands.runOnce(() -> {
+            autonomousAborted = false;
+            driveSubsystem.setRobotPose(plan.getStartPose());
+        }));
+        for (CyclePlan.Segment segment : plan.getSegments()) {
+            switch (segment.getType()) {
+                case DRIVE:
+                    DriveToPoseCommand driveCommand = new DriveToPoseCommand(driveSubsystem, approachPlanner,
+                            segment.getX(), segment.getY(), segment.getHeading(),
+                            DriveConstants.LINEAR_MAX_SPEED, DriveConstants.LINEAR_MAX_ACCELERATION);
+                    commands.add(driveCommand.withTimeout(segment.getDuration() + AutonomousConstants.ACTION_TIMEOUT_MARGIN));
+
+                    // Carrying on if the robot got close enough, and abandoning the plan otherwise
+                    commands.add(Commands.runOnce(() -> {
+                        if (!driveCommand.hasArrived() && !driveCommand.isWithinTolerance(
+                                NavigationConstants.SCORING_POSITION_TOLERANCE, NavigationConstants.SCORING_HEADING_TOLERANCE)) {
+                            System.err.println("[RobotContainer] Autonomous drive to " + segment.getGoalName() + " timed out; abandoning the plan");
+                            autonomousAborted = true;
+                        }
+                    }));
+                    break;
+                case INTAKE:
+                    commands.add(upperAssembly.getCoralIntakeCommand(driveSubsystem::getRobotPose)
+                            .withTimeout(segment.getDuration() + AutonomousConstants.ACTION_TIMEOUT_MARGIN));
+                    break;
+                case SCORE:
+                    commands.add(upperAssembly.getCoralScoreCommand(segment.getScoringHeight(), driveSubsystem::getRobotPose)
+                            .withTimeout(segment.getDuration() + AutonomousConstants.ACTION_TIMEOUT_MARGIN));
+                    break;
+            }
+        }
+        return Commands.sequence(commands.toArray(new Command[0])).until(() -> autonomousAborted);
     }
 
     /**
@@ -188,6 +480,9 @@ public class RobotContainer {
     public void setUpperAssembly(UpperAssemblyType upperAssemblyType) {
         upperAssembly.disable();
         upperAssembly = UpperAssemblyFactory.createUpperAssembly(upperAssemblyType);
+        if (autonomousPlanner != null) {
+            autonomousPlanner.setUpperAssembly(upperAssembly);
+        }
     }
 
     /**
@@ -0,0 +1,194 @@
+package frc.robot.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.Constants.AutonomousConstants;
+import frc.robot.Constants.NavigationConstants;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.util.math.Vector2d;
+import frc.robot.util.navigation.IncrementalRoutePlanner;
+import frc.robot.util.profiling.LoopProfiler;
+
+/**
+ * <h2> DriveToPoseCommand </h2>
+ * The {@code DriveToPoseCommand} class drives the robot to a pose on the field, along a route that an
+ * {@link IncrementalRoutePlanner} keeps up to date every loop, so it bends around obstacles as they are detected.
+ * The robot drives along the route as fast as it can still stop at the end, and switches to position feedback for
+ * the last {@code FINAL_APPROACH_DISTANCE} meters. The heading is held with the rotational feedback throughout.
+ * <p>
+ * The command finishes once the robot is within tolerance of the pose. Subclasses that choose the pose when they
+ * start can leave it unset, in which case the command finishes straight away; {@link #hasArrived()} tells the two
+ * apart.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.commands.DriveToScoringLocationCommand}
+ */
+public class DriveToPoseCommand extends Command {
+
+    protected final DriveSubsystem driveSubsystem;
+    private final IncrementalRoutePlanner routePlanner;
+    private final double maxSpeed;
+    private final double maxDeceleration;
+
+    private boolean hasTarget;
+    private double targetX;
+    private double targetY;
+    private double targetHeading;
+    private boolean arrived;
+
+    // Reused every loop to avoid allocating
+    private final List<Translation2d> waypoints = new ArrayList<>();
+    private final Vector2d linearFeedback = new Vector2d(0.0, 0.0);
+
+    private final LoopProfiler.Stage executeStage = LoopProfiler.getInstance().registerStage(getClass().getSimpleName() + ".execute");
+
+    /**
+     * Creates a command that drives to a fixed pose.
+     *
+     * @param driveSubsystem  The robot's drive subsystem.
+     * @param routePlanner    The planner used to route around obstacles. Its goal is replaced.
+     * @param x               The X coordinate of the pose, in meters.
+     * @param y               The Y coordinate of the pose, in meters.
+     * @param heading         The heading of the pose, in radians.
+     * @param maxSpeed        The fastest the robot may drive, in meters per second.
+     * @param maxDeceleration How hard the robot may brake before the end of the route, in meters per second squared.
+     */
+    public DriveToPoseCommand(DriveSubsystem driveSubsystem, IncrementalRoutePlanner routePlanner,
+            double x, double y, double heading, double maxSpeed, double maxDeceleration) {
+        this(driveSubsystem, routePlanner, maxSpeed, maxDeceleration);
+        setTarget(x, y, heading);
+    }
+
+    /**
+     * Creates a command with no pose, for subclasses that choose it when they start.
+     *
+     * @param driveSubsystem  The robot's drive subsystem.
+     * @param routePlanner    The planner used to route around obstacles. Its goal is replaced.
+     * @param maxSpeed        The fastest the robot may drive, in meters per second.
+     * @param maxDeceleration How hard the robot may brake before the end of the route, in meters per second squared.
+     */
+    protected DriveToPoseCommand(DriveSubsystem driveSubsystem, IncrementalRoutePlanner routePlanner,
+            double maxSpeed, double maxDeceleration) {
+        this.driveSubsystem = driveSubsystem;
+        this.routePlanner = routePlanner;
+        this.maxSpeed = maxSpeed;
+        this.maxDeceleration = maxDeceleration;
+        addRequirements(driveSubsystem);
+    }
+
+    /**
+     * Sets the pose to drive to. Subclasses call this from {@link #initialize()}, before calling the superclass.
+     *
+     * @param x       The X coordinate, in meters.
+     * @param y       The Y coordinate, in meters.
+     * @param heading The heading, in radians.
+     */
+    protected void setTarget(double x, double y, double heading) {
+        hasTarget = true;
+        targetX = x;
+        targetY = y;
+        targetHeading = heading;
+    }
+
+    /**
+     * Clears the pose, so the command finishes without driving.
+     */
+    protected void clearTarget() {
+        hasTarget = false;
+    }
+
+    @Override
+    public void initialize() {
+        arrived = false;
+        if (hasTarget) {
+            routePlanner.setGoal(targetX, targetY);
+        }
+    }
+
+    @Override
+    public void execute() {
+        if (!hasTarget) {
+            return;
+        }
+        executeStage.start();
+        try {
+            Pose2d pose = driveSubsystem.getRobotPose();
+            double rotationalVelocity = driveSubsystem.getRotationalFeedback(targetHeading) * AutonomousConstants.ROTATIONAL_CORRECTION_SPEED;
+
+            // Repairing the route for the robot's new position and any obstacles that have changed
+            double remainingDistance = Math.hypot(targetX - pose.getX(), targetY - pose.getY());
+            boolean hasRoute = routePlanner.update(pose.getX(), pose.getY(), waypoints);
+            if (hasRoute) {
+                remainingDistance = 0.0;
+                for (int i = 1; i < waypoints.size(); i++) {
+                    remainingDistance += waypoints.get(i).getDistance(waypoints.get(i - 1));
+                }
+            }
+
+            if (!hasRoute || remainingDistance <= NavigationConstants.FINAL_APPROACH_DISTANCE) {
+                // Close enough to settle on the target with position feedback
+                driveSubsystem.getLinearFeedback(targetX, targetY, linearFeedback)
+                        .scaleInPlace(AutonomousConstants.LINEAR_CORRECTION_SPEED);
+                driveSubsystem.drive(linearFeedback.getX(), linearFeedback.getY(), rotationalVelocity);
+            } else {
+                // Heading for the next waypoint, only as fast as the robot can still stop at the end of the route
+                Translation2d nextWaypoint = waypoints.get(1);
+                double directionX = nextWaypoint.getX() - pose.getX();
+                double directionY = nextWaypoint.getY() - pose.getY();
+                double directionLength = Math.max(Math.hypot(directionX, directionY), 1e-6);
+                double speed = Math.min(maxSpeed, Math.sqrt(2.0 * maxDeceleration * remainingDistance));
+                driveSubsystem.drive(directionX / directionLength * speed, directionY / directionLength * speed, rotationalVelocity);
+            }
+        } finally {
+            executeStage.stop();
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (!hasTarget) {
+            return true;
+        }
+
+        arrived = isWithinTolerance(NavigationConstants.ALIGNED_POSITION_TOLERANCE, NavigationConstants.ALIGNED_HEADING_TOLERANCE);
+        return arrived;
+    }
+
+    /**
+     * Returns whether the robot is currently within the given tolerances of the pose. Useful after a timeout, to
+     * decide whether the robot is still close enough to carry on.
+     *
+     * @param positionTolerance The largest allowed distance from the pose, in meters.
+     * @param headingTolerance  The largest allowed heading error, in radians.
+     * @return Whether the robot is within both tolerances, or false if there is no pose.
+     */
+    public boolean isWithinTolerance(double positionTolerance, double headingTolerance) {
+        if (!hasTarget) {
+            return false;
+        }
+
+        Pose2d pose = driveSubsystem.getRobotPose();
+        double positionError = Math.hypot(pose.getX() - targetX, pose.getY() - targetY);
+        double headingError = Math.abs(MathUtil.angleModulus(pose.getRotation().getRadians() - targetHeading));
+        return positionError <= positionTolerance && headingError <= headingTolerance;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        driveSubsystem.drive(0.0, 0.0, 0.0);
+    }
+
+    /**
+     * Returns whether the robot reached the pose, rather than there being none to drive to.
+     *
+     * @return Whether the robot arrived.
+     */
+    public boolean hasArrived() {
+        return arrived;
+    }
+}
@@ -0,0 +1,93 @@
+package frc.robot.commands;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.Constants.NavigationConstants;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.subsystems.vision.OceanViewManager;
+import frc.robot.util.navigation.IncrementalRoutePlanner;
+import frc.robot.util.navigation.NavigationPlanner;
+import frc.robot.util.upper_assembly.ScoringHeight;
+import frc.robot.util.vision.ScoringLocation;
+
+/**
+ * <h2> DriveToScoringLocationCommand </h2>
+ * The {@code DriveToScoringLocationCommand} class drives the robot to the best scoring location OceanView reports
+ * as available at a given height, and lines it up facing the reef. The best location is the one with the shortest
+ * route from where the robot is when the command starts, read from the reef faces' precomputed distance fields.
+ * <p>
+ * The driving itself is done by {@link DriveToPoseCommand}. If no location is available, the command finishes
+ * straight away and {@link #hasArrived()} is false, so the scoring command can be skipped.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.RobotContainer}
+ */
+public class DriveToScoringLocationCommand extends DriveToPoseCommand {
+
+    private final OceanViewManager oceanViewManager;
+    private final NavigationPlanner navigationPlanner;
+    private final ScoringHeight scoringHeight;
+
+    private ScoringLocation scoringLocation;
+
+    /**
+     * Creates a command that drives to the best available scoring location at a height.
+     *
+     * @param driveSubsystem    The robot's drive subsystem.
+     * @param oceanViewManager  The source of the available scoring locations.
+     * @param navigationPlanner The planner with the reef faces' distance fields.
+     * @param routePlanner      The planner used to route around obstacles. Its goal is replaced.
+     * @param scoringHeight     The height to score at.
+     */
+    public DriveToScoringLocationCommand(DriveSubsystem driveSubsystem, OceanViewManager oceanViewManager,
+            NavigationPlanner navigationPlanner, IncrementalRoutePlanner routePlanner, ScoringHeight scoringHeight) {
+        super(driveSubsystem, routePlanner, NavigationConstants.APPROACH_MAX_SPEED, NavigationConstants.APPROACH_MAX_DECELERATION);
+        this.oceanViewManager = oceanViewManager;
+        this.navigationPlanner = navigationPlanner;
+        this.scoringHeight = scoringHeight;
+    }
+
+    @Override
+    public void initialize() {
+        scoringLocation = null;
+        Pose2d pose = driveSubsystem.getRobotPose();
+
+        // Picking the available location with the shortest route
+        double bestDistance = Double.POSITIVE_INFINITY;
+        NavigationPlanner.Goal bestGoal = null;
+        for (ScoringLocation location : oceanViewManager.getAvailableByLevel(scoringHeight.name())) {
+            NavigationPlanner.Goal goal = navigationPlanner.getNearestGoal(location.transform.getX(), location.transform.getY(), "REEF_");
+            if (goal == null) {
+                continue;
+            }
+            double distance = goal.getDistanceFrom(navigationPlanner.getGrid(), pose.getX(), pose.getY());
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                bestGoal = goal;
+                scoringLocation = location;
+            }
+        }
+
+        if (scoringLocation == null) {
+            System.err.println("[DriveToScoringLocationCommand] No reachable scoring location is available at " + scoringHeight);
+            clearTarget();
+        } else {
+            // Standing off from the branch along the reef face's normal, facing the reef
+            double heading = bestGoal.getHeading();
+            setTarget(
+                scoringLocation.transform.getX() - Math.cos(heading) * NavigationConstants.REEF_STANDOFF,
+                scoringLocation.transform.getY() - Math.sin(heading) * NavigationConstants.REEF_STANDOFF,
+                heading
+            );
+        }
+        super.initialize();
+    }
+
+    /**
+     * Returns the scoring location being driven to.
+     *
+     * @return The scoring location, or null if none was available.
+     */
+    public ScoringLocation getScoringLocation() {
+        return scoringLocation;
+    }
+}
@@ -0,0 +1,110 @@
+package frc.robot.commands;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.Constants.AutonomousConstants;
+import frc.robot.subsystems.DriveSubsystem;
+import frc.robot.util.math.Vector2d;
+import frc.robot.util.profiling.LoopProfiler;
+import frc.robot.util.trajectory.SampledTrajectory;
+import frc.robot.util.trajectory.TrajectorySample;
+
+/**
+ * <h2> FollowTrajectoryCommand </h2>
+ * The {@code FollowTrajectoryCommand} class drives the robot along a {@link SampledTrajectory}. Each loop, it looks
+ * up where the robot should be, and drives with the trajectory's velocities (the feedforward) plus a correction
+ * from {@link DriveSubsystem#getLinearFeedback(double, double, Vector2d)} and
+ * {@link DriveSubsystem#getRotationalFeedback(double)} for any error that has built up. The lookup is a binary
+ * search, and nothing is allocated while the command runs.
+ * <p>
+ * The command finishes once the trajectory is over and the robot has settled on its final pose, or
+ * {@code FINISH_TIMEOUT} seconds later if it doesn't.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.RobotContainer}
+ */
+public class FollowTrajectoryCommand extends Command {
+
+    private final DriveSubsystem driveSubsystem;
+    private final SampledTrajectory trajectory;
+    private final boolean resetPose;
+    private final Timer timer = new Timer();
+
+    // Reused every loop to avoid allocating
+    private final TrajectorySample sample = new TrajectorySample();
+    private final Vector2d linearFeedback = new Vector2d(0.0, 0.0);
+
+    private final LoopProfiler.Stage executeStage = LoopProfiler.getInstance().registerStage(getClass().getSimpleName() + ".execute");
+
+    /**
+     * Creates a command that follows the given trajectory.
+     *
+     * @param driveSubsystem The robot's drive subsystem.
+     * @param trajectory     The trajectory to follow.
+     * @param resetPose      Whether to reset the robot's pose to the start of the trajectory when the command starts,
+     *                       e.g. for the first path of an autonomous routine.
+     */
+    public FollowTrajectoryCommand(DriveSubsystem driveSubsystem, SampledTrajectory trajectory, boolean resetPose) {
+        this.driveSubsystem = driveSubsystem;
+        this.trajectory = trajectory;
+        this.resetPose = resetPose;
+        addRequirements(driveSubsystem);
+    }
+
+    @Override
+    public void initialize() {
+        if (resetPose) {
+            driveSubsystem.setRobotPose(trajectory.getInitialPose());
+        }
+        timer.restart();
+    }
+
+    @Override
+    public void execute() {
+        executeStage.start();
+        try {
+            trajectory.sample(timer.get(), sample);
+
+            // Correcting for any error from where the trajectory says the robot should be
+            driveSubsystem.getLinearFeedback(sample.getX(), sample.getY(), linearFeedback)
+                    .scaleInPlace(AutonomousConstants.LINEAR_CORRECTION_SPEED);
+            double rotationalFeedback = driveSubsystem.getRotationalFeedback(sample.getHeading())
+                    * AutonomousConstants.ROTATIONAL_CORRECTION_SPEED;
+
+            // Driving with the trajectory's velocities, plus the correction
+            driveSubsystem.drive(
+                sample.getVelocityX() + linearFeedback.getX(),
+                sample.getVelocityY() + linearFeedback.getY(),
+                sample.getAngularVelocity() + rotationalFeedback
+            );
+        } finally {
+            executeStage.stop();
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        double time = timer.get();
+        if (time < trajectory.getTotalTime()) {
+            return false;
+        }
+        if (time >= trajectory.getTotalTime() + AutonomousConstants.FINISH_TIMEOUT) {
+            return true;
+        }
+
+        // Waiting for the robot to settle on the final sample
+        Pose2d pose = driveSubsystem.getRobotPose();
+        double positionError = Math.hypot(pose.getX() - sample.getX(), pose.getY() - sample.getY());
+        double headingError = Math.abs(MathUtil.angleModulus(pose.getRotation().getRadians() - sample.getHeading()));
+        return positionError <= AutonomousConstants.FINISHED_POSITION_TOLERANCE
+                && headingError <= AutonomousConstants.FINISHED_HEADING_TOLERANCE;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        timer.stop();
+        driveSubsystem.drive(0.0, 0.0, 0.0);
+    }
+}
@@ -8,12 +8,18 @@ import frc.robot.Constants.DriveConstants;
 import frc.robot.Constants.OperatorConstants;
 import frc.robot.subsystems.DriveSubsystem;
 import frc.robot.util.math.Vector2d;
+import frc.robot.util.profiling.LoopProfiler;
 
 public abstract class ManualDriveCommand extends Command {
     
     protected final DriveSubsystem driveSubsystem;
     protected final XboxController controller;
 
+    /**
+     * Loop timing for the command's execute method. Subclasses wrap their execute body with this stage.
+     */
+    protected final LoopProfiler.Stage executeStage = LoopProfiler.getInstance().registerStage(getClass().getSimpleName() + ".execute");
+
     /**
      * The rotational offset of the driver
      */
@@ -69,6 +75,16 @@ public abstract class ManualDriveCommand extends Command {
      */
     private Rotation2d targetRotationOrigin = new Rotation2d(0.0);
 
+    /**
+     * Scratch vector holding the shaped joystick input. Reused every loop to avoid allocating.
+     */
+    private final Vector2d shapedLinearVelocity = new Vector2d(0.0, 0.0);
+
+    /**
+     * Scratch vector holding the final linear velocity sent to the drive. Reused every loop to avoid allocating.
+     */
+    private final Vector2d finalLinearVelocity = new Vector2d(0.0, 0.0);
+
     /**
      * Creates a new manual drive command to allow for the robot to be controlled manually during teleop.
      * 
@@ -87,7 +103,7 @@ public abstract class ManualDriveCommand extends Command {
      * them to the robot.
      *
      * @param linearVelocity The target linear velocity of the robot. Used when useTargetTranslation is false.
-     *                       This is represented as a vector on a unit circle.
+     *                       This is represented as a vector on a unit circle. It is read but never modified or stored.
      * @param rotationalVelocity The target rotational velocity of the robot. Used when useTargetRotation is false.
      *                           This is a unit value (range [-1, 1]).
      * @param targetTranslationOffset The desired translation offset for targeting a specific position.
@@ -108,8 +124,8 @@ public abstract class ManualDriveCommand extends Command {
         boolean useAbsoluteRotation, 
         double throttle
     ) {
-        // The final velocities that will be used for driving the robot
-        Vector2d finalLinearVelocity;
+        // The final velocities that will be used for driving the robot. The linear velocity is written into
+        // the finalLinearVelocity scratch vector.
         double finalRotationalVelocity;
 
         // --- Handling linear velocity ---
@@ -117,17 +133,19 @@ public abstract class ManualDriveCommand extends Command {
             // Target translation is not active, so use joystick input for linear control
             targetTranslationActive = false;
 
-            // Rotate and curve the input for smoother control
-            linearVelocity = linearVelocity.rotateBy(driverRotationalOffset.times(-1.0)); // Adjust for driver orientation
-            double linearSpeed = linearVelocity.magnitude();
-            linearVelocity = linearVelocity.normalize().scale(Math.pow(linearSpeed,OperatorConstants.LINEAR_INPUT_CURVE_POWER));
+            // Rotate and curve the input for smoother control. Rotating by the negated sine rotates by the
+            // opposite of the driver offset without creating a new Rotation2d.
+            shapedLinearVelocity.set(linearVelocity)
+                .rotateByInPlace(driverRotationalOffset.getCos(), -driverRotationalOffset.getSin()); // Adjust for driver orientation
+            double linearSpeed = shapedLinearVelocity.magnitude();
+            shapedLinearVelocity.normalizeInPlace().scaleInPlace(Math.pow(linearSpeed,OperatorConstants.LINEAR_INPUT_CURVE_POWER));
 
             // Resetting linear velocity when no input is provided
-            if (linearVelocity.magnitude() < 1e-3) {
+            if (shapedLinearVelocity.magnitude() < 1e-3) {
                 linearVelocityReset = true;
             }
             if (!linearVelocityReset) {
-                linearVelocity = new Vector2d(0, 0);
+                shapedLinearVelocity.set(0, 0);
             }
 
             // Lock the robot's position if no movement is commanded
@@ -151,7 +169,7 @@ public abstract class ManualDriveCommand extends Command {
             // Apply throttle for speed control
             double linearThrottleMultiplier = OperatorConstants.THROTTLE_LINEAR_MIN_SPEED + throttle * 
                 (OperatorConstants.THROTTLE_LINEAR_MAX_SPEED - OperatorConstants.THROTTLE_LINEAR_MIN_SPEED);
-            finalLinearVelocity = linearVelocity.scale(linearThrottleMultiplier);
+            finalLinearVelocity.set(shapedLinearVelocity).scaleInPlace(linearThrottleMultiplier);
         } else {
 
             // Target translation is active
@@ -164,7 +182,11 @@ public abstract class ManualDriveCommand extends Command {
             }
 
             // Use PID feedback to calculate the velocity toward the target position
-            finalLinearVelocity = driveSubsystem.getLinearFeedback(targetTranslationOrigin.plus(targetTranslationOffset)).scale(DriveConstants.LINEAR_MAX_SPEED);
+            driveSubsystem.getLinearFeedback(
+                targetTranslationOrigin.getX() + targetTranslationOffset.getX(),
+                targetTranslationOrigin.getY() + targetTranslationOffset.getY(),
+                finalLinearVelocity
+            ).scaleInPlace(DriveConstants.LINEAR_MAX_SPEED);
             linearVelocityReset = false; // Prevent accidental movement when deactivating
         }
 
@@ -233,7 +255,7 @@ public abstract class ManualDriveCommand extends Command {
         }
 
         // --- Apply the calculated velocities to the robot ---
-        driveSubsystem.drive(finalLinearVelocity, finalRotationalVelocity);
+        driveSubsystem.drive(finalLinearVelocity.getX(), finalLinearVelocity.getY(), finalRotationalVelocity);
     }
 
 }
\ No newline at end of file
@@ -4,11 +4,17 @@ import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.narwhal.NarwhalClimber;
 import frc.robot.util.upper_assembly.narwhal.NarwhalClimberState;
+import frc.robot.util.profiling.LoopProfiler;
 
 public class NarwhalManualClimberCommand extends Command {
     
     private final NarwhalClimber narwhalClimber;
     private final XboxController controller;
+
+    /**
+     * Loop timing for this command's execute method.
+     */
+    private final LoopProfiler.Stage executeStage = LoopProfiler.getInstance().registerStage("NarwhalManualClimberCommand.execute");
     
     /**
      * Creates a manual squid climber command that toggles between down and climbed positions.
@@ -24,19 +30,23 @@ public class NarwhalManualClimberCommand extends Command {
     
     @Override
     public void execute() {
+        executeStage.start();
+        try {
+            // Cycle between state on start button being pressed
+            if(controller.getStartButtonPressed()){
 
-        // Cycle between state on start button being pressed
-        if(controller.getStartButtonPressed()){
-
-            // If it is not currently deployed, deploy
-            if (narwhalClimber.currentState != NarwhalClimberState.DEPLOYING){
-                narwhalClimber.goToDeploy();
-            }
+                // If it is not currently deployed, deploy
+                if (narwhalClimber.currentState != NarwhalClimberState.DEPLOYING){
+                    narwhalClimber.goToDeploy();
+                }
             
-            // Otherwise, if it is deployed and not currently climbing, climb
-            else if(narwhalClimber.currentState != NarwhalClimberState.CLIMBING){
-                narwhalClimber.climb();
+                // Otherwise, if it is deployed and not currently climbing, climb
+                else if(narwhalClimber.currentState != NarwhalClimberState.CLIMBING){
+                    narwhalClimber.climb();
+                }
             }
+        } finally {
+            executeStage.stop();
         }
     }
 
@@ -3,11 +3,15 @@ package frc.robot.commands.narwhal;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.narwhal.NarwhalIntakeOuttake;
+import frc.robot.util.profiling.LoopProfiler;
 
 public class NarwhalManualIntakeOuttakeCommand extends Command {
     private final NarwhalIntakeOuttake narwhalIntakeOuttake;
     private final XboxController xboxController;
 
+    // Loop timing for this command's execute method
+    private final LoopProfiler.Stage executeStage = LoopProfiler.getInstance().registerStage("NarwhalManualIntakeOuttakeCommand.execute");
+
     /**
      * Creates a new instance of the NarwhalManualIntakeOuttakeCommand, which allows for manual control of the 
      * Narwhal's intake/outtake during teleop.
@@ -23,20 +27,24 @@ public class NarwhalManualIntakeOuttakeCommand extends Command {
 
     @Override
     public void execute(){
+        executeStage.start();
+        try {
+            // Right bumper (intake) = intake
+            if(xboxController.getRightBumperButton()){
+                narwhalIntakeOuttake.intake();
+            }
 
-        // Right bumper (intake) = intake
-        if(xboxController.getRightBumperButton()){
-            narwhalIntakeOuttake.intake();
-        }
-
-        // X button (outtake) = outtake
-        else if (xboxController.getXButton()){
-            narwhalIntakeOuttake.outtake();
-        }
+            // X button (outtake) = outtake
+            else if (xboxController.getXButton()){
+                narwhalIntakeOuttake.outtake();
+            }
 
-        // If not intaking or outtaking = hold piece
-        else {
-            narwhalIntakeOuttake.hold();
+            // If not intaking or outtaking = hold piece
+            else {
+                narwhalIntakeOuttake.hold();
+            }
+        } finally {
+            executeStage.stop();
         }
     }
 }
@@ -4,11 +4,17 @@ import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.squid.SquidClimber;
 import frc.robot.util.upper_assembly.squid.SquidClimberPosition;
+import frc.robot.util.profiling.LoopProfiler;
 
 public class ManualSquidClimberCommand extends Command {
     
     private final SquidClimber squidClimber;
     private final XboxController controller;
+
+    /**
+     * Loop timing for this command's execute method.
+     */
+    private final LoopProfiler.Stage executeStage = LoopProfiler.getInstance().registerStage("ManualSquidClimberCommand.execute");
     
     /**
      * Track the current climber state: false means DOWN, true means CLIMBED.
@@ -34,30 +40,34 @@ public class ManualSquidClimberCommand extends Command {
     
     @Override
     public void execute() {
-
-        // Read the current state of the Start button.
-        boolean currentStartButtonState = controller.getStartButton();
+        executeStage.start();
+        try {
+            // Read the current state of the Start button.
+            boolean currentStartButtonState = controller.getStartButton();
         
-        // Edge detection: only toggle when the button is pressed (rising edge).
-        if (currentStartButtonState && !previousStartButtonState) {
+            // Edge detection: only toggle when the button is pressed (rising edge).
+            if (currentStartButtonState && !previousStartButtonState) {
 
-            // Toggle the climber state.
-            isClimbed = !isClimbed;
+                // Toggle the climber state.
+                isClimbed = !isClimbed;
             
-            // Set the position based on the new state.
-            if (isClimbed) {
+                // Set the position based on the new state.
+                if (isClimbed) {
 
-                // Move the climber to the climbed position.
-                squidClimber.setPosition(SquidClimberPosition.CLIMBED);
-            } else {
+                    // Move the climber to the climbed position.
+                    squidClimber.setPosition(SquidClimberPosition.CLIMBED);
+                } else {
 
-                // Move the climber to the down position.
-                squidClimber.setPosition(SquidClimberPosition.DOWN);
+                    // Move the climber to the down position.
+                    squidClimber.setPosition(SquidClimberPosition.DOWN);
+                }
             }
-        }
         
-        // Update the previous state of the Start button for edge detection.
-        previousStartButtonState = currentStartButtonState;
+            // Update the previous state of the Start button for edge detection.
+            previousStartButtonState = currentStartButtonState;
+        } finally {
+            executeStage.stop();
+        }
     }
 
 }
@@ -4,6 +4,7 @@ import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.squid.SquidManipulator;
 import frc.robot.util.upper_assembly.ScoringHeight;
+import frc.robot.util.profiling.LoopProfiler;
 
 public class ManualSquidManipulatorCommand extends Command {
 
@@ -12,7 +13,10 @@ public class ManualSquidManipulatorCommand extends Command {
     
     boolean outtakeActive = false;
     boolean outtakeInputLastState = false;
-    boolean coralSensedLastState = false;
+    int coralArrivalCountLastState = 0;
+
+    // Loop timing for this command's execute method
+    private final LoopProfiler.Stage executeStage = LoopProfiler.getInstance().registerStage("ManualSquidManipulatorCommand.execute");
 
     /**
      * Creates a manual squid manipulator command for an xbox controller
@@ -28,51 +32,69 @@ public class ManualSquidManipulatorCommand extends Command {
 
     }
 
+    @Override
+    public void initialize() {
+        coralArrivalCountLastState = squidManipulator.getCoralArrivalCount();
+    }
+
     @Override
     public void execute() {
+        executeStage.start();
+        try {
+            //Deactivate rollers on coral arrival. The subsystem has already stopped them from the sensor's interrupt.
+            int coralArrivalCount = squidManipulator.getCoralArrivalCount();
+            if (coralArrivalCount != coralArrivalCountLastState) {
+                outtakeActive = false;
+            }
+            coralArrivalCountLastState = coralArrivalCount;
 
-        //Deactivate rollers on sensor resing edge
-        boolean coralSensed = squidManipulator.senseCoral();
-        if (coralSensed && !coralSensedLastState) {
-            outtakeActive = false;
-        }
-        coralSensedLastState = coralSensed;
+            //Reverse and deactivate on right bumper press
+            if (controller.getRightBumperButton()) {
+                outtakeActive = false;
+                squidManipulator.cancelStopOnCoralArrival();
+                squidManipulator.reverseFullSpeed();
+            } else {
+            
+                //X button toggles intake
+                boolean currentInput = controller.getXButton();
+                if (currentInput && !outtakeInputLastState) {
+                    outtakeActive = !outtakeActive;
+                }
+                outtakeInputLastState = currentInput;
 
-        //Reverse and deactivate on right bumper press
-        if (controller.getRightBumperButton()) {
-            outtakeActive = false;
-            squidManipulator.reverseFullSpeed();
-        } else {
+                //Run the rollers unless coral arrived since the check above. If intaking, coral arriving stops them straight away.
+                if (outtakeActive && !squidManipulator.outtakeAngledUntilCoral(coralArrivalCount)) {
+                    outtakeActive = false;
+                }
+                if (!outtakeActive) {
+                    squidManipulator.cancelStopOnCoralArrival();
+                    squidManipulator.holdManipulator();
+                }
             
-            //X button toggles intake
-            boolean currentInput = controller.getXButton();
-            if (currentInput && !outtakeInputLastState) {
-                outtakeActive = !outtakeActive;
             }
-            outtakeInputLastState = currentInput;
 
-            if (outtakeActive) {
-                squidManipulator.outtakeAngled();
-            } else {
-                squidManipulator.holdManipulator();
+            //Set scoring height
+            if (controller.getBackButton()) {
+                squidManipulator.setScoringHeight(ScoringHeight.L1);
             }
-            
-        }
-
-        //Set scoring height
-        if (controller.getBackButton()) {
-            squidManipulator.setScoringHeight(ScoringHeight.L1);
-        }
-        if (controller.getAButton()) {
-            squidManipulator.setScoringHeight(ScoringHeight.L2);
-        }
-        if (controller.getBButton()) {
-            squidManipulator.setScoringHeight(ScoringHeight.L3);
-        }
-        if (controller.getYButton()) {
-            squidManipulator.setScoringHeight(ScoringHeight.L4);
+            if (controller.getAButton()) {
+                squidManipulator.setScoringHeight(ScoringHeight.L2);
+            }
+            if (controller.getBButton()) {
+                squidManipulator.setScoringHeight(ScoringHeight.L3);
+            }
+            if (controller.getYButton()) {
+                squidManipulator.setScoringHeight(ScoringHeight.L4);
+            }
+        } finally {
+            executeStage.stop();
         }
+    }
 
+    @Override
+    public void end(boolean interrupted) {
+        //Leave the rollers to whichever command runs next
+        squidManipulator.cancelStopOnCoralArrival();
     }
     
 }
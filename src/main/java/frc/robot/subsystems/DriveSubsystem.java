@@ -2,21 +2,32 @@ package frc.robot.subsystems;
 
 import com.ctre.phoenix6.hardware.Pigeon2;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.DriveConstants;
 import frc.robot.util.math.RateLimiter;
 import frc.robot.util.math.RateLimiter2d;
 import frc.robot.util.math.Vector2d;
+import frc.robot.util.odometry.PoseHistory;
+import frc.robot.util.profiling.LoopProfiler;
+import frc.robot.util.replay.ReplayLogWriter;
+import frc.robot.util.simulation.SwerveDriveSimulation;
+import frc.robot.util.swerve.ChassisSpeedsDiscretizer;
 import frc.robot.util.swerve.DrivingMotor;
+import frc.robot.util.swerve.SwerveSetpointGenerator;
 import frc.robot.util.swerve.TurningMotor;
 
 /**
@@ -61,6 +72,10 @@ public class DriveSubsystem extends SubsystemBase {
             DriveConstants.REAR_RIGHT_MODULE_ANGULAR_OFFSET // Angular offset for rear right module
     );
 
+    // Physics model of the drivetrain, only created in simulation. It has to be attached to the modules
+    // before the pose estimator below reads their positions.
+    private final SwerveDriveSimulation simulation = RobotBase.isSimulation() ? createSimulation() : null;
+
     // The PID Controllers
     private Pigeon2 gyroscope = new Pigeon2(DriveConstants.GYROSCOPE_DEVICE_ID);
 
@@ -77,20 +92,59 @@ public class DriveSubsystem extends SubsystemBase {
     private RateLimiter rotationalRateLimiter = new RateLimiter(0.0, DriveConstants.ROTATIONAL_MAX_ACCELERATION,
             DriveConstants.MAX_DELTA_TIME_RATE_LIMIT);
 
-    //the velocity values which the periodic will attempt to accelerate towards
-    private Vector2d targetLinearVelocity = new Vector2d(0.0, 0.0);
+    //the velocity values which the periodic will attempt to accelerate towards (updated in place)
+    private final Vector2d targetLinearVelocity = new Vector2d(0.0, 0.0);
     private double targetRotationalVelocity = 0.0;
 
-    //the last velocity values the robot commanded the modules to reach
-    private Vector2d commandedLinearVelocity = new Vector2d(0.0, 0.0);
+    // Keeps module states within what the modules can follow from one loop to the next
+    private final SwerveSetpointGenerator setpointGenerator = new SwerveSetpointGenerator(DriveConstants.MODULE_LOCATIONS,
+            DriveConstants.LINEAR_MAX_SPEED, DriveConstants.MAX_WHEEL_ACCELERATION, DriveConstants.Neo550Turning.MAX_STEERING_VELOCITY);
+    private double previousTimestamp = Double.NaN;
+    private double previousSimulationTimestamp = Double.NaN;
+
+    // Converts field-relative speeds to robot-relative ones, so the robot doesn't drift while translating and rotating
+    private final ChassisSpeedsDiscretizer chassisSpeedsDiscretizer = new ChassisSpeedsDiscretizer();
+
+    //the last velocity values the robot commanded the modules to reach (updated in place)
+    private final Vector2d commandedLinearVelocity = new Vector2d(0.0, 0.0);
     private double commandedRotationalVelocity = 0.0;
 
     private SwerveDrivePoseEstimator poseEstimator = new SwerveDrivePoseEstimator(DriveConstants.DRIVE_KINEMATICS, getGyroscopeHeading(), getSwerveModulePositions(), new Pose2d());
 
+    // Recent odometry, recorded every update so other threads can look up past poses
+    private final PoseHistory poseHistory = new PoseHistory(DriveConstants.POSE_HISTORY_CAPACITY);
+
+    // Loop timing for this subsystem's periodic method
+    private final LoopProfiler.Stage periodicStage = LoopProfiler.getInstance().registerStage("DriveSubsystem.periodic");
+
+    // Odometry inputs are recorded here when a replay log is being written
+    private ReplayLogWriter replayLog = null;
+
     public DriveSubsystem() {
 
         // Enabling continuos movement on the thetaController, allowing it to go around the circle
         thetaController.enableContinuousInput(-Math.PI,Math.PI);
+
+        // Ramping the acceleration as well, so that starting and stopping are smooth (S-curve)
+        linearRateLimiter.setJerk(DriveConstants.LINEAR_MAX_JERK);
+        rotationalRateLimiter.setJerk(DriveConstants.ROTATIONAL_MAX_JERK);
+
+        // The setpoint generator starts from wherever the modules are pointing
+        setpointGenerator.reset(getSwerveModuleStates());
+    }
+
+    /**
+     * Creates the drivetrain simulation and attaches it to the four swerve modules.
+     * 
+     * @return The drivetrain simulation.
+     */
+    private SwerveDriveSimulation createSimulation() {
+        SwerveDriveSimulation driveSimulation = new SwerveDriveSimulation();
+        frontLeftModule.attachSimulation(driveSimulation.getModule(0));
+        frontRightModule.attachSimulation(driveSimulation.getModule(1));
+        rearLeftModule.attachSimulation(driveSimulation.getModule(2));
+        rearRightModule.attachSimulation(driveSimulation.getModule(3));
+        return driveSimulation;
     }
 
     /**
@@ -106,13 +160,27 @@ public class DriveSubsystem extends SubsystemBase {
      *                           positive counter-clockwise
      */
     public void drive(Vector2d linearVelocity, double rotationalVelocity) {
+        drive(linearVelocity.getX(), linearVelocity.getY(), rotationalVelocity);
+    }
+
+    /**
+     * Drives linearly and rotationally using the following parameters, applying
+     * acceleration limiting. This overload does not require a Vector2d, so callers
+     * can pass components straight from their own scratch values.
+     * 
+     * @param linearVelocityX    The X component of the linear velocity, in meters per second.
+     * @param linearVelocityY    The Y component of the linear velocity, in meters per second.
+     * @param rotationalVelocity The angular velocity, in radians per second, with
+     *                           positive counter-clockwise
+     */
+    public void drive(double linearVelocityX, double linearVelocityY, double rotationalVelocity) {
 
         // Check for invalid linear velocity components
-        if (Double.isNaN(linearVelocity.getX()) || Double.isInfinite(linearVelocity.getX())) {
-            linearVelocity.setX(0.0);
+        if (Double.isNaN(linearVelocityX) || Double.isInfinite(linearVelocityX)) {
+            linearVelocityX = 0.0;
         }
-        if (Double.isNaN(linearVelocity.getY()) || Double.isInfinite(linearVelocity.getY())) {
-            linearVelocity.setY(0.0);
+        if (Double.isNaN(linearVelocityY) || Double.isInfinite(linearVelocityY)) {
+            linearVelocityY = 0.0;
         }
 
         // Check for invalid rotational velocity
@@ -120,12 +188,11 @@ public class DriveSubsystem extends SubsystemBase {
             rotationalVelocity = 0.0;
         }
 
-        // Binding the linear velocity so that it can't exceed the maximum
-        Vector2d boundedLinearVelocity;
-        if (linearVelocity.magnitude() > DriveConstants.LINEAR_MAX_SPEED) {
-            boundedLinearVelocity = linearVelocity.normalize().scale(DriveConstants.LINEAR_MAX_SPEED);
-        } else {
-            boundedLinearVelocity = linearVelocity;
+        // Binding the linear velocity so that it can't exceed the maximum. The target is updated in place,
+        // so the caller's vector is never stored or modified.
+        targetLinearVelocity.set(linearVelocityX, linearVelocityY);
+        if (targetLinearVelocity.magnitude() > DriveConstants.LINEAR_MAX_SPEED) {
+            targetLinearVelocity.normalizeInPlace().scaleInPlace(DriveConstants.LINEAR_MAX_SPEED);
         }
 
         // Binding the angular velocity so that it can't exceed the maximum
@@ -133,7 +200,6 @@ public class DriveSubsystem extends SubsystemBase {
                 DriveConstants.ROTATIONAL_MAX_SPEED);
 
         // Adjusting the target values to set the velocity
-        targetLinearVelocity = boundedLinearVelocity;
         targetRotationalVelocity = boundedRotationalVelocity;
     }
 
@@ -145,15 +211,30 @@ public class DriveSubsystem extends SubsystemBase {
      * @return The linear velocity, as a Vector2d.
      */
     public Vector2d getLinearFeedback(Translation2d target) {
+        return getLinearFeedback(target.getX(), target.getY(), new Vector2d(0.0, 0.0));
+    }
+
+    /**
+     * Calculates the linear velocity value from the PID controllers and writes it into the given vector,
+     * so that it can be called every loop without allocating.
+     * 
+     * @param targetX The X coordinate of the target position, in meters.
+     * @param targetY The Y coordinate of the target position, in meters.
+     * @param output  The vector to write the feedback into.
+     * @return The output vector, for chaining.
+     */
+    public Vector2d getLinearFeedback(double targetX, double targetY, Vector2d output) {
 
         // Creating a vector using the two PID controllers
-        Vector2d feedback = new Vector2d(
-            xController.calculate(getRobotPose().getX(), target.getX()),
-            yController.calculate(getRobotPose().getY(), target.getY())
+        Pose2d robotPose = getRobotPose();
+        output.set(
+            xController.calculate(robotPose.getX(), targetX),
+            yController.calculate(robotPose.getY(), targetY)
         );
 
         // Setting the magnitude to the htan function of its original magnitude binds it and allows it to be smoother
-        return feedback.normalize().scale(Math.tanh(feedback.magnitude()));
+        double magnitude = output.magnitude();
+        return output.normalizeInPlace().scaleInPlace(Math.tanh(magnitude));
     }
 
     /**
@@ -163,17 +244,28 @@ public class DriveSubsystem extends SubsystemBase {
      * @return The value to go towards.
      */
     public double getRotationalFeedback(Rotation2d target) {
-        return Math.tanh(thetaController.calculate(getRobotPose().getRotation().getRadians(), target.getRadians()));
+        return getRotationalFeedback(target.getRadians());
+    }
+
+    /**
+     * Returns a rotational velocity value from the PID controller, without needing a Rotation2d for the target.
+     * 
+     * @param targetRadians The target orientation, in radians.
+     * @return The value to go towards.
+     */
+    public double getRotationalFeedback(double targetRadians) {
+        return Math.tanh(thetaController.calculate(getRobotPose().getRotation().getRadians(), targetRadians));
     }
 
     /**
      * Ignores all rate limiters and immediately tries to stop the robot as fast as possible.
      */
     public void instantStop() {
-        targetLinearVelocity = new Vector2d(0.0, 0.0);
+        targetLinearVelocity.set(0.0, 0.0);
         targetRotationalVelocity = 0.0;
-        linearRateLimiter.setValue(new Vector2d(0.0, 0.0));
+        linearRateLimiter.setValue(0.0, 0.0);
         rotationalRateLimiter.setValue(0.0);
+        setpointGenerator.stop();
     }
 
     /**
@@ -187,8 +279,9 @@ public class DriveSubsystem extends SubsystemBase {
      *                           alliance wall
      * @param rotationalVelocity The angular velocity, in radians per second, with
      *                           positive counter-clockwise
+     * @param deltaTime          The time since the modules were last set, in seconds
      */
-    private void setModules(Vector2d linearVelocity, double rotationalVelocity) {
+    private void setModules(Vector2d linearVelocity, double rotationalVelocity, double deltaTime) {
 
         // Check for invalid linear velocity components
         if (Double.isNaN(linearVelocity.getX()) || Double.isInfinite(linearVelocity.getX())) {
@@ -204,21 +297,16 @@ public class DriveSubsystem extends SubsystemBase {
         }
 
         // Updating the commanded velocities
-        commandedLinearVelocity = linearVelocity;
+        commandedLinearVelocity.set(linearVelocity);
         commandedRotationalVelocity = rotationalVelocity;
 
-        // Calculating the desired module states for the robot
-        SwerveModuleState[] swerveModuleStates = DriveConstants.DRIVE_KINEMATICS.toSwerveModuleStates(
-            ChassisSpeeds.fromFieldRelativeSpeeds(
-                linearVelocity.getX(),
-                linearVelocity.getY(),
-                rotationalVelocity,
-                getRobotPose().getRotation()
-            )
-        );
-        
-        // Capping the modules' speed at the maximum linear speed
-        SwerveDriveKinematics.desaturateWheelSpeeds(swerveModuleStates, DriveConstants.LINEAR_MAX_SPEED);
+        // Rotating the field-relative velocity into the robot's frame, correcting for the robot turning during the loop
+        chassisSpeedsDiscretizer.discretize(linearVelocity.getX(), linearVelocity.getY(), rotationalVelocity,
+                getRobotPose().getRotation().getRadians(), deltaTime);
+
+        // Calculating module states the modules can follow, with the modules' speed capped at the maximum linear speed
+        SwerveModuleState[] swerveModuleStates = setpointGenerator.generate(chassisSpeedsDiscretizer.getVx(),
+                chassisSpeedsDiscretizer.getVy(), rotationalVelocity, deltaTime);
 
         // Setting the states of the modules
         frontLeftModule.setState(swerveModuleStates[0]);
@@ -235,6 +323,11 @@ public class DriveSubsystem extends SubsystemBase {
      * @return this DriveSubsystem's gyroscope heading, as a Rotation2d. 
      */
     public Rotation2d getGyroscopeHeading() {
+
+        // The simulated gyroscope is read directly so that simulation runs don't depend on CAN timing
+        if (simulation != null) {
+            return new Rotation2d(simulation.getGyroYaw());
+        }
         return gyroscope.getRotation2d();
     }
 
@@ -275,6 +368,44 @@ public class DriveSubsystem extends SubsystemBase {
         return poseEstimator;
     }
 
+    /**
+     * Returns the drivetrain physics simulation, which holds the robot's true pose.
+     * 
+     * @return The drivetrain simulation, or null when running on the real robot.
+     */
+    public SwerveDriveSimulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Returns the history of the robot's recent poses and velocities. It can be read from any thread.
+     * 
+     * @return The robot's pose history.
+     */
+    public PoseHistory getPoseHistory() {
+        return poseHistory;
+    }
+
+    /**
+     * Returns where the robot was at the given time, interpolated from the odometry history.
+     * 
+     * @param timestamp The time to look up, in seconds (FPGA time).
+     * @return The robot's pose at that time, or null if the time is outside of the history.
+     */
+    public Pose2d getRobotPoseAt(double timestamp) {
+        return poseHistory.getPoseAt(timestamp);
+    }
+
+    /**
+     * Starts recording the gyroscope heading, module positions and pose estimate to a replay log every loop.
+     * In simulation, the true pose is recorded as well.
+     * 
+     * @param replayLog The log to record to.
+     */
+    public void setReplayLog(ReplayLogWriter replayLog) {
+        this.replayLog = replayLog;
+    }
+
     /**
      * Returns the robot's position, as a Pose2d.
      * 
@@ -336,7 +467,8 @@ public class DriveSubsystem extends SubsystemBase {
     }
 
     /**
-     * Returns the last commanded linear velocity (after acceleration limiting).
+     * Returns the last commanded linear velocity (after acceleration limiting). The vector is updated
+     * in place every loop, so copy it if it needs to be kept.
      * 
      * @return The last commanded linear velocity, in meters per second, as a Vector2d.
      */
@@ -357,15 +489,76 @@ public class DriveSubsystem extends SubsystemBase {
     // Periodic method called every loop
     @Override
     public void periodic() {
+        periodicStage.start();
+        try {
+            // Update the robot pose using the module states
+            double timestamp = Timer.getFPGATimestamp();
+            Rotation2d gyroscopeHeading = getGyroscopeHeading();
+            SwerveModulePosition[] modulePositions = getSwerveModulePositions();
+            poseEstimator.updateWithTime(timestamp, gyroscopeHeading, modulePositions);
+            recordPoseHistory(timestamp);
+
+            // Recording the estimator's inputs, so the run can be replayed offline
+            if (replayLog != null) {
+                replayLog.recordOdometry(timestamp, gyroscopeHeading.getRadians(), modulePositions);
+                replayLog.recordReference(timestamp, poseEstimator.getEstimatedPosition(), false);
+                if (simulation != null) {
+                    replayLog.recordReference(timestamp, simulation.getPose(), true);
+                }
+            }
+
+            // Accelerates the velocity towards the target, using this loop's timestamp for both limiters
+            linearRateLimiter.updateWithTime(targetLinearVelocity, timestamp);
+            rotationalRateLimiter.updateWithTime(targetRotationalVelocity, timestamp);
+
+            // Driving the robot using the accelerated values
+            double deltaTime = Double.isNaN(previousTimestamp) ? TimedRobot.kDefaultPeriod
+                    : MathUtil.clamp(timestamp - previousTimestamp, 0.0, DriveConstants.MAX_DELTA_TIME_RATE_LIMIT);
+            previousTimestamp = timestamp;
+            setModules(linearRateLimiter.getValue(), rotationalRateLimiter.getValue(), deltaTime);
+        } finally {
+            periodicStage.stop();
+        }
+    }
+
+    /**
+     * Adds the latest pose estimate and the measured field-relative velocity to the pose history.
+     * 
+     * @param timestamp The time of the odometry update, in seconds (FPGA time).
+     */
+    private void recordPoseHistory(double timestamp) {
+        Pose2d pose = poseEstimator.getEstimatedPosition();
+        ChassisSpeeds robotRelativeSpeeds = DriveConstants.DRIVE_KINEMATICS.toChassisSpeeds(getSwerveModuleStates());
+
+        // Rotating the robot-relative velocity into the field frame
+        double cos = pose.getRotation().getCos();
+        double sin = pose.getRotation().getSin();
+        poseHistory.record(
+            timestamp,
+            pose.getX(),
+            pose.getY(),
+            pose.getRotation().getRadians(),
+            robotRelativeSpeeds.vxMetersPerSecond * cos - robotRelativeSpeeds.vyMetersPerSecond * sin,
+            robotRelativeSpeeds.vxMetersPerSecond * sin + robotRelativeSpeeds.vyMetersPerSecond * cos,
+            robotRelativeSpeeds.omegaRadiansPerSecond
+        );
+    }
+
+    // Steps the drivetrain physics by one loop. Only called in simulation.
+    @Override
+    public void simulationPeriodic() {
 
-        // Update the robot pose using the module states
-        poseEstimator.update(getGyroscopeHeading(), getSwerveModulePositions());
+        // The real motor controllers stop driving when the robot is disabled
+        simulation.setEnabled(DriverStation.isEnabled());
 
-        // Accelerates the velocity towards the target
-        linearRateLimiter.update(targetLinearVelocity);
-        rotationalRateLimiter.update(targetRotationalVelocity);
+        // Stepping by the measured loop time, so loop overruns don't slow down simulated time
+        double timestamp = Timer.getFPGATimestamp();
+        double deltaTime = Double.isNaN(previousSimulationTimestamp) ? TimedRobot.kDefaultPeriod
+                : MathUtil.clamp(timestamp - previousSimulationTimestamp, 0.0, DriveConstants.MAX_DELTA_TIME_RATE_LIMIT);
+        previousSimulationTimestamp = timestamp;
+        simulation.step(deltaTime);
 
-        // Driving the robot using the accelerated values
-        setModules(linearRateLimiter.getValue(), rotationalRateLimiter.getValue());
+        // Keep the Pigeon's simulated yaw in sync, so anything reading the device directly sees the same heading
+        gyroscope.getSimState().setRawYaw(Units.radiansToDegrees(simulation.getGyroYaw()));
     }
 }
\ No newline at end of file
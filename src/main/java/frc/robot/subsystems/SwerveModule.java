@@ -14,6 +14,7 @@ import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Configs;
 import frc.robot.Constants.DriveConstants;
+import frc.robot.util.simulation.SwerveModuleSimulation;
 import frc.robot.util.swerve.DrivingMotor;
 import frc.robot.util.swerve.TurningMotor;
 
@@ -45,6 +46,12 @@ public class SwerveModule extends SubsystemBase {
     DrivingMotor activeDrivingMotor = DriveConstants.DEFAULT_DRIVING_MOTOR;
     TurningMotor activeTurningMotor = DriveConstants.DEFAULT_TURNING_MOTOR;
 
+    // Reused every loop to hold the optimized version of the requested state
+    private final SwerveModuleState correctedDesiredState = new SwerveModuleState();
+
+    // Physics model used in place of the motors when simulating. Null on the real robot.
+    private SwerveModuleSimulation simulation = null;
+
     /**
      * Creates a swerve module with the given values.
      * 
@@ -65,12 +72,28 @@ public class SwerveModule extends SubsystemBase {
         activateTurningMotor(activeTurningMotor);
     }
 
+    /**
+     * Attaches a physics model to this module. Once attached, setpoints are sent to the model instead of the
+     * motor controllers, and all sensor values are read back from it.
+     * 
+     * @param simulation The simulated module to use.
+     */
+    public void attachSimulation(SwerveModuleSimulation simulation) {
+        this.simulation = simulation;
+        simulation.configureDrivingMotor(activeDrivingMotor);
+        simulation.configureTurningMotor(activeTurningMotor);
+    }
+
     /**
      * Returns the position of the active driving motor, in meters.
      * 
      * @return The position of the active driving motor, in meters.
      */
     private double getDrivingPosition() {
+        if (simulation != null) {
+            return simulation.getDrivingPosition();
+        }
+
         switch (activeDrivingMotor) {
             case NEO:
                 return drivingNeo.getEncoder().getPosition();
@@ -89,6 +112,10 @@ public class SwerveModule extends SubsystemBase {
      * @return The velocity of the active driving motor, in meters per second
      */
     private double getDrivingVelocity() {
+        if (simulation != null) {
+            return simulation.getDrivingVelocity();
+        }
+
         switch (activeDrivingMotor) {
             case NEO:
                 return drivingNeo.getEncoder().getVelocity();
@@ -107,6 +134,11 @@ public class SwerveModule extends SubsystemBase {
      * @param velocity The desired velocity, in meters per second
      */
     private void setDrivingVelocity(double velocity) {
+        if (simulation != null) {
+            simulation.setDesiredVelocity(velocity);
+            return;
+        }
+
         VelocityVoltage velocityRequest; // Used if TalonFX are being used
         switch (activeDrivingMotor) {
             case NEO:
@@ -130,6 +162,12 @@ public class SwerveModule extends SubsystemBase {
      * @return The rotation of the active turning motor, relative to the chassis
      */
     private Rotation2d getTurningAngle() {
+
+        // The simulated module has no mounting offset, so its angle is already relative to the chassis
+        if (simulation != null) {
+            return new Rotation2d(simulation.getAngle());
+        }
+
         Rotation2d rawAngle;
         switch (activeTurningMotor) {
             case NEO_550:
@@ -148,6 +186,11 @@ public class SwerveModule extends SubsystemBase {
      * @param angle The angle of the motor, relative to the robot base
      */
     private void setTurningAngle(Rotation2d angle) {
+        if (simulation != null) {
+            simulation.setDesiredAngle(angle.getRadians());
+            return;
+        }
+
         Rotation2d rawAngle = angle.plus(moduleAngularOffset);
         switch (activeTurningMotor) {
             case NEO_550:
@@ -243,6 +286,9 @@ public class SwerveModule extends SubsystemBase {
 
         //Setting the current active motor to the new one
         activeDrivingMotor = drivingMotor;
+        if (simulation != null) {
+            simulation.configureDrivingMotor(drivingMotor);
+        }
     }
 
     /**
@@ -287,6 +333,9 @@ public class SwerveModule extends SubsystemBase {
 
         //Setting the current active motor to the new one
         activeTurningMotor = turningMotor;
+        if (simulation != null) {
+            simulation.configureTurningMotor(turningMotor);
+        }
     }
 
     /**
@@ -295,20 +344,39 @@ public class SwerveModule extends SubsystemBase {
      * @param state The new state to target
      */
     public void setState(SwerveModuleState state) {
-        SwerveModuleState correctedDesiredState = new SwerveModuleState();
-        correctedDesiredState.speedMetersPerSecond = state.speedMetersPerSecond;
-        correctedDesiredState.angle = state.angle.times(1.0);
+
+        // Optimize the requested state against the module's current angle
+        optimizeState(state, getTurningAngle(), correctedDesiredState);
+
+        // Setting the velocities
+        setDrivingVelocity(correctedDesiredState.speedMetersPerSecond);
+        setTurningAngle(correctedDesiredState.angle);
+    }
+
+    /**
+     * Calculates the state a module should actually target, given the state that was requested and the
+     * module's current angle. The result is written into {@code output} so it can be reused every loop.
+     * <p>
+     * The state is optimized so that the module never rotates more than PI/2 radians, and the module holds
+     * its current angle when the requested speed is too low to matter.
+     * 
+     * @param desiredState The requested state. It is not modified.
+     * @param currentAngle The module's current angle, relative to the chassis.
+     * @param output       The state to write the result into.
+     * @return The output state, for chaining.
+     */
+    public static SwerveModuleState optimizeState(SwerveModuleState desiredState, Rotation2d currentAngle, SwerveModuleState output) {
+        output.speedMetersPerSecond = desiredState.speedMetersPerSecond;
+        output.angle = desiredState.angle;
 
         // Optimize the desired state so that the robot will never rotate more than PI/2 radians
-        correctedDesiredState.optimize(getPosition().angle);
+        output.optimize(currentAngle);
 
         // Don't change the orientation of the turning wheels if the speed is low
-        if (Math.abs(correctedDesiredState.speedMetersPerSecond) < 1e-3) {
-            correctedDesiredState.angle = getPosition().angle;
+        if (Math.abs(output.speedMetersPerSecond) < 1e-3) {
+            output.angle = currentAngle;
         }
 
-        // Setting the velocities
-        setDrivingVelocity(correctedDesiredState.speedMetersPerSecond);
-        setTurningAngle(correctedDesiredState.angle);
+        return output;
     }
 }
\ No newline at end of file
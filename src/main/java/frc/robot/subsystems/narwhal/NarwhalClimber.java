@@ -4,7 +4,9 @@
 
 package frc.robot.subsystems.narwhal;
 
+import com.revrobotics.spark.ClosedLoopSlot;
 import com.revrobotics.spark.SparkClosedLoopController;
+import com.revrobotics.spark.SparkClosedLoopController.ArbFFUnits;
 import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.SparkBase.ControlType;
 import com.revrobotics.spark.SparkBase.PersistMode;
@@ -14,9 +16,11 @@ import com.revrobotics.spark.config.SparkMaxConfig;
 import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
 
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 import frc.robot.Constants.NarwhalConstants.NarwhalClimberConstants;
+import frc.robot.util.upper_assembly.ClimbController;
 import frc.robot.util.upper_assembly.narwhal.NarwhalClimberState;
 
 /**
@@ -33,6 +37,20 @@ public class NarwhalClimber extends SubsystemBase {
     private final SparkMax climber;
     private final SparkMaxConfig climberConfig;
     private final SparkClosedLoopController climberPID;
+    private final ClimbController climbController = new ClimbController(
+        "NarwhalClimber",
+        new TrapezoidProfile.Constraints(NarwhalClimberConstants.MAX_VELOCITY, NarwhalClimberConstants.MAX_ACCELERATION),
+        NarwhalClimberConstants.KS,
+        NarwhalClimberConstants.KV,
+        NarwhalClimberConstants.KA,
+        NarwhalClimberConstants.LOADED_KG,
+        NarwhalClimberConstants.LOAD_CURRENT,
+        NarwhalClimberConstants.LOAD_DEBOUNCE_TIME,
+        NarwhalClimberConstants.STALL_CURRENT,
+        NarwhalClimberConstants.STALL_VELOCITY,
+        NarwhalClimberConstants.STALL_TIME,
+        NarwhalClimberConstants.POSITION_TOLERANCE
+    );
     
     /**
      * Creates a new instance of the NarwhalClimber class, setting up all necessary hardware in the process.
@@ -50,7 +68,8 @@ public class NarwhalClimber extends SubsystemBase {
 
         // Adjust the encoder settings.
         climberConfig.encoder
-            .positionConversionFactor(1.0/NarwhalClimberConstants.CLIMBER_ANGLE_TO_MOTOR_ANGLE);
+            .positionConversionFactor(1.0/NarwhalClimberConstants.CLIMBER_ANGLE_TO_MOTOR_ANGLE)
+            .velocityConversionFactor(1.0/NarwhalClimberConstants.CLIMBER_ANGLE_TO_MOTOR_ANGLE / 60.0); // Rotations per second
 
         // Update motor PID values.
         climberConfig.closedLoop
@@ -60,7 +79,7 @@ public class NarwhalClimber extends SubsystemBase {
                 NarwhalClimberConstants.PID_D,
                 NarwhalClimberConstants.PID_F)
             .outputRange(
-                -NarwhalClimberConstants.CLIMBER_PID_MIN_OUTPUT, 
+                NarwhalClimberConstants.CLIMBER_PID_MIN_OUTPUT,
                 NarwhalClimberConstants.CLIMBER_PID_MAX_OUTPUT
             );
         
@@ -73,14 +92,15 @@ public class NarwhalClimber extends SubsystemBase {
     }
 
     /**
-     * Function to move the climber piece to a target angle (relative to the world) & sets the current state to CUSTOM.
+     * Function to move the climber piece to a target angle (relative to the world) along a motion profile & sets the
+     * current state to CUSTOM.
      * 
      * @param targetAngle Rotation2d target position
      */
     public void setCurrentMotorAngle(Rotation2d targetAngle){
         double targetAngleRotations = targetAngle.getRotations();
-        // updates the PID to the target value.
-        climberPID.setReference(targetAngleRotations, ControlType.kPosition);
+        // Starts a profiled move to the target value. The setpoints are streamed to the PID in periodic().
+        climbController.setGoal(targetAngleRotations, climber.getEncoder().getPosition(), climber.getEncoder().getVelocity());
         currentState = NarwhalClimberState.CUSTOM;
     }
 
@@ -100,9 +120,38 @@ public class NarwhalClimber extends SubsystemBase {
         currentState = NarwhalClimberState.CLIMBING; // must be after the set function because the set function will default to CUSTOM state
     }
 
+    /**
+     * Returns whether the climber is carrying the robot's weight, judged from the motor's current.
+     *
+     * @return Whether the climber is loaded.
+     */
+    public boolean isLoaded() {
+        return climbController.isLoaded();
+    }
+
+    /**
+     * Returns whether the climber stalled on its last move. If it was carrying the robot, it is holding its position.
+     *
+     * @return Whether the climber stalled.
+     */
+    public boolean isStalled() {
+        return climbController.isStalled();
+    }
+
     @Override
     public void periodic() {
-        // This method will be called once per scheduler run
+        // Streaming the next setpoint (a loaded climber that stalled holds where it is), or stopping the motor if an unloaded one stalled
+        if (climbController.update(climber.getEncoder().getPosition(), climber.getEncoder().getVelocity(), climber.getOutputCurrent())) {
+            climberPID.setReference(
+                climbController.getSetpointPosition(),
+                ControlType.kPosition,
+                ClosedLoopSlot.kSlot0,
+                climbController.getFeedforwardVolts(),
+                ArbFFUnits.kVoltage
+            );
+        } else if (climbController.isStalled()) {
+            climber.stopMotor();
+        }
     }
 
     @Override
@@ -1,15 +1,32 @@
 package frc.robot.subsystems.narwhal;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.RunCommand;
+import frc.robot.Constants.NarwhalConstants.NarwhalIntakeOuttakeConstants;
+import frc.robot.Constants.NarwhalConstants.NarwhalWristConstants;
 import frc.robot.subsystems.upper_assembly.UpperAssemblyBase;
 import frc.robot.util.upper_assembly.ScoringHeight;
 
 public class NarwhalUpperAssembly extends UpperAssemblyBase {
+
+    final NarwhalWrist narwhalWrist;
+    final NarwhalIntakeOuttake narwhalIntakeOuttake;
+
+    /**
+     * Creates the Narwhal's upper assembly. The mechanisms are created here, when the robot starts, as configuring
+     * their motor controllers blocks on CAN traffic.
+     */
+    public NarwhalUpperAssembly() {
+        narwhalWrist = new NarwhalWrist();
+        narwhalIntakeOuttake = new NarwhalIntakeOuttake();
+    }
     
     public Command getCoralIntakeCommand(Supplier<Pose2d> robotPoseSupplier) {
         return new RunCommand(
@@ -19,10 +36,26 @@ public class NarwhalUpperAssembly extends UpperAssemblyBase {
     }
 
     public Command getCoralScoreCommand(ScoringHeight scoringHeight, Supplier<Pose2d> robotPoseSupplier) {
-        return new RunCommand(
-            () -> {/*PLACEHOLDER, DO NOT USE RUN COMMANDS!*/},
-            this
+        // The Narwhal only scores in the trough, so every height uses the same outtake angle
+        Command scoreCommand = Commands.sequence(
+            Commands.runOnce(narwhalWrist::goToOuttakeAngle, narwhalWrist),
+            Commands.waitUntil(narwhalWrist::isAtTargetAngle).withTimeout(NarwhalWristConstants.SETTLE_TIMEOUT),
+            Commands.run(narwhalIntakeOuttake::outtake, narwhalIntakeOuttake).withTimeout(NarwhalIntakeOuttakeConstants.OUTTAKE_TIME),
+            Commands.runOnce(narwhalIntakeOuttake::stop, narwhalIntakeOuttake)
         );
+        scoreCommand.addRequirements(this);
+        return scoreCommand;
+    }
+
+    @Override
+    public Set<ScoringHeight> getCoralScoringHeights() {
+        return EnumSet.of(ScoringHeight.L1);
+    }
+
+    @Override
+    public double getCoralScoreTime() {
+        // The wrist waits at most SETTLE_TIMEOUT before the outtake runs
+        return NarwhalWristConstants.SETTLE_TIMEOUT + NarwhalIntakeOuttakeConstants.OUTTAKE_TIME;
     }
 
     public Command getRemoveAlgaeCommand(Supplier<Pose2d> robotPoseSupplier) {
@@ -5,7 +5,9 @@
 package frc.robot.subsystems.narwhal;
 
 import com.revrobotics.spark.SparkLowLevel.MotorType;
+import com.revrobotics.spark.ClosedLoopSlot;
 import com.revrobotics.spark.SparkClosedLoopController;
+import com.revrobotics.spark.SparkClosedLoopController.ArbFFUnits;
 import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.SparkBase.ControlType;
 import com.revrobotics.spark.SparkBase.PersistMode;
@@ -14,20 +16,46 @@ import com.revrobotics.spark.config.SparkBaseConfig.IdleMode;
 import com.revrobotics.spark.config.SparkMaxConfig;
 import com.revrobotics.spark.config.ClosedLoopConfig.FeedbackSensor;
 
+import edu.wpi.first.math.controller.ArmFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
+import frc.robot.Constants.NarwhalConstants.NarwhalWristConstants;
 
 /**
  * <h2> NarwhalWrist </h2>
  * The {@code NarwhalWrist} class is a class that represents the Narwhal's wrist mechanism.
  * It allows for game elements to be rotated around the wrist's base, fueling complex movement and design.
+ * <p>
+ * Moves follow a trapezoidal motion profile generated on the roboRIO. Every loop, the next position setpoint is sent
+ * to the SPARK MAX along with an arm feedforward voltage (gravity, velocity and acceleration), so the PID only has to
+ * correct small errors instead of saturating on large moves. The time each move takes to settle is published next
+ * to the profile's own time, for tuning.
  * <hr>
  * @author Patrick Wang
  * @since v1.2.0
  */
 public class NarwhalWrist extends SubsystemBase {
     public NarwhalWristState currentState;
+    private Rotation2d targetAngle = new Rotation2d();
+
+    // Motion profiling. The setpoint is advanced every loop while a move is running.
+    private final TrapezoidProfile profile = new TrapezoidProfile(new TrapezoidProfile.Constraints(
+        NarwhalWristConstants.MAX_VELOCITY, NarwhalWristConstants.MAX_ACCELERATION
+    ));
+    private final ArmFeedforward feedforward = new ArmFeedforward(
+        NarwhalWristConstants.KS, NarwhalWristConstants.KG, NarwhalWristConstants.KV, NarwhalWristConstants.KA
+    );
+    private TrapezoidProfile.State setpoint = new TrapezoidProfile.State();
+    private TrapezoidProfile.State goal = new TrapezoidProfile.State();
+    private boolean profiling = false;
+
+    // Time-to-target reporting for the current move
+    private double moveStartTime = 0.0;
+    private boolean moveSettled = true;
     
     private final SparkMax wrist;
     private final SparkMaxConfig wristConfig;
@@ -58,12 +86,12 @@ public class NarwhalWrist extends SubsystemBase {
             .feedbackSensor(FeedbackSensor.kAbsoluteEncoder); // uses external encoder
 
         // Update encoder settings.
-        // NOTE FOR THE ENCODER: WHEN VIEWED FROM THE RIGHT, THE ANGLE OF THE WRIST IS BASED ON A UNIT CIRCLE WITH 0 DEGREES POINTING STRAIGHT UP
+        // NOTE FOR THE ENCODER: THE ANGLE CONVENTION IS DESCRIBED IN NarwhalWristConstants (0 POINTS STRAIGHT UP)
         wristConfig.absoluteEncoder
             .inverted(false)
             .positionConversionFactor(Constants.NarwhalConstants.NarwhalWristConstants.ROTATIONS_TO_RADIANS)
             .velocityConversionFactor(Constants.NarwhalConstants.NarwhalWristConstants.ROTATIONS_TO_RADIANS/60.0) // dividing by 60 accounts for RPM to Radians/Sec
-            .zeroOffset(Constants.NarwhalConstants.NarwhalWristConstants.WRIST_OFFSET) // Down position should be "0" here, and -PI rads for zero centered
+            .zeroOffset(Constants.NarwhalConstants.NarwhalWristConstants.WRIST_OFFSET) // Straight up should read 0 here, leaving straight down at +/-PI
             .zeroCentered(true);
 
         // Create the spark max controller with the above configured settings.
@@ -80,11 +108,45 @@ public class NarwhalWrist extends SubsystemBase {
      * @param percent Percentage between -1.0 and 1.0 (negative values reverse direction)
      */
     public void setCurrentMotorAngle(Rotation2d targetAngle){
-        double targetAngleRadians = targetAngle.getRadians();
-        wristMotorPIDController.setReference(targetAngleRadians, ControlType.kPosition);
+        this.targetAngle = targetAngle;
+
+        // Continuing from the current setpoint if a move is already running, so the new move starts smoothly.
+        // Otherwise, starting from where the wrist actually is.
+        if (!profiling) {
+            setpoint = new TrapezoidProfile.State(
+                wrist.getAbsoluteEncoder().getPosition(),
+                wrist.getAbsoluteEncoder().getVelocity()
+            );
+        }
+        goal = new TrapezoidProfile.State(targetAngle.getRadians(), 0.0);
+        profiling = true;
+
+        // Starting a new time-to-target measurement
+        moveStartTime = Timer.getFPGATimestamp();
+        moveSettled = false;
+        profile.calculate(0.0, setpoint, goal);
+        SmartDashboard.putNumber("Narwhal/Wrist/Profile Time (s)", profile.totalTime());
+
+        followProfile();
         currentState = NarwhalWristState.CUSTOM;
     }
 
+    /**
+     * Advances the profile by one loop and sends the new setpoint to the SPARK MAX, with the arm feedforward for it.
+     */
+    private void followProfile() {
+        TrapezoidProfile.State nextSetpoint = profile.calculate(NarwhalWristConstants.PROFILE_PERIOD, setpoint, goal);
+
+        // The encoder's zero points straight up, while the feedforward's zero is horizontal
+        double feedforwardVolts = feedforward.calculateWithVelocities(
+            setpoint.position + NarwhalWristConstants.HORIZONTAL_ANGLE_OFFSET,
+            setpoint.velocity,
+            nextSetpoint.velocity
+        );
+        setpoint = nextSetpoint;
+        wristMotorPIDController.setReference(setpoint.position, ControlType.kPosition, ClosedLoopSlot.kSlot0, feedforwardVolts, ArbFFUnits.kVoltage);
+    }
+
     /**
      * Set the wrist motor to the intake angle (defined in constants) & update status.
      */
@@ -116,6 +178,7 @@ public class NarwhalWrist extends SubsystemBase {
      * Set the wrist motor to 0 percent output (assumes idle-mode is breaking).
      */
     public void stop() {
+        profiling = false;
         wrist.set(0); // TODO: test that this works & properly disables the PID
         currentState = NarwhalWristState.STOPPED; // must be after the set function because the set function will default to CUSTOM state
     }
@@ -125,6 +188,7 @@ public class NarwhalWrist extends SubsystemBase {
      */
     public void hold() {
         double current_position = wrist.getAbsoluteEncoder().getPosition();
+        profiling = false; // Holding starts from where the wrist is, not from the last setpoint
         setCurrentMotorAngle(Rotation2d.fromRadians(current_position));
         currentState = NarwhalWristState.CUSTOM; // redundant but helps with readability
     }
@@ -138,9 +202,30 @@ public class NarwhalWrist extends SubsystemBase {
         return Rotation2d.fromRadians(wrist.getAbsoluteEncoder().getPosition());
     }
     
+    /**
+     * Returns whether the wrist is within {@code ANGLE_TOLERANCE} of the angle it was last sent to.
+     * 
+     * @return Whether the wrist has reached its target angle.
+     */
+    public boolean isAtTargetAngle() {
+        return Math.abs(getCurrentAngle().minus(targetAngle).getRadians()) <= Constants.NarwhalConstants.NarwhalWristConstants.ANGLE_TOLERANCE;
+    }
+    
     @Override
     public void periodic() {
-        // This method will be called once per scheduler run
+        if (!profiling) {
+            return;
+        }
+
+        // Streaming the next setpoint. Once the profile is done, this keeps holding the goal against gravity.
+        followProfile();
+
+        // Reporting how long the move took to settle, once
+        if (!moveSettled && isAtTargetAngle()
+                && Math.abs(wrist.getAbsoluteEncoder().getVelocity()) <= NarwhalWristConstants.SETTLED_VELOCITY) {
+            moveSettled = true;
+            SmartDashboard.putNumber("Narwhal/Wrist/Time To Target (s)", Timer.getFPGATimestamp() - moveStartTime);
+        }
     }
 
     @Override
@@ -1,17 +1,21 @@
 package frc.robot.subsystems.squid;
 
+import com.revrobotics.spark.ClosedLoopSlot;
 import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.SparkBase.ControlType;
+import com.revrobotics.spark.SparkClosedLoopController.ArbFFUnits;
 import com.revrobotics.spark.SparkBase.PersistMode;
 import com.revrobotics.spark.SparkBase.ResetMode;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
 import com.revrobotics.spark.config.ClosedLoopConfig.FeedbackSensor;
 
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 import com.revrobotics.spark.config.SparkMaxConfig;
 
 import frc.robot.Constants.SquidConstants.SquidClimberConstants;
+import frc.robot.util.upper_assembly.ClimbController;
 import frc.robot.util.upper_assembly.squid.SquidClimberPosition;
 
 /**
@@ -20,11 +24,29 @@ import frc.robot.util.upper_assembly.squid.SquidClimberPosition;
  * It uses a SparkMax motor controller configured for closed-loop PID control to move the climber
  * to preset positions defined by {@link SquidClimberPosition}.
  * </p>
+ * <p>
+ * Moves are profiled by a {@link ClimbController}, which streams position setpoints and a load-aware feedforward
+ * to the SparkMax every loop, and stops the motor if the climber stalls.
+ * </p>
  */
 public class SquidClimber extends SubsystemBase {
 
     private final SparkMax climbMotor = new SparkMax(SquidClimberConstants.CLIMB_MOTOR_CAN_ID, MotorType.kBrushless);
     private SquidClimberPosition targetClimberPosition = SquidClimberPosition.DOWN;
+    private final ClimbController climbController = new ClimbController(
+        "SquidClimber",
+        new TrapezoidProfile.Constraints(SquidClimberConstants.MAX_VELOCITY, SquidClimberConstants.MAX_ACCELERATION),
+        SquidClimberConstants.KS,
+        SquidClimberConstants.KV,
+        SquidClimberConstants.KA,
+        SquidClimberConstants.LOADED_KG,
+        SquidClimberConstants.LOAD_CURRENT,
+        SquidClimberConstants.LOAD_DEBOUNCE_TIME,
+        SquidClimberConstants.STALL_CURRENT,
+        SquidClimberConstants.STALL_VELOCITY,
+        SquidClimberConstants.STALL_TIME,
+        SquidClimberConstants.POSITION_TOLERANCE
+    );
 
     /**
      * Constructs a new {@code SquidClimber} and configures the SparkMax motor controller.
@@ -51,13 +73,33 @@ public class SquidClimber extends SubsystemBase {
     }
 
     /**
-     * Moves the climber to the specified preset position using PID control.
+     * Moves the climber to the specified preset position along a motion profile.
      *
      * @param squidClimberPosition The target climber position.
      */
     public void setPosition(SquidClimberPosition squidClimberPosition) {
         targetClimberPosition = squidClimberPosition;
-        climbMotor.getClosedLoopController().setReference(targetClimberPosition.getPosition(), ControlType.kPosition);
+        climbController.setGoal(
+            targetClimberPosition.getPosition(),
+            climbMotor.getEncoder().getPosition(),
+            climbMotor.getEncoder().getVelocity()
+        );
+    }
+
+    @Override
+    public void periodic() {
+        // Streaming the next setpoint (a loaded climber that stalled holds where it is), or stopping the motor if an unloaded one stalled
+        if (climbController.update(climbMotor.getEncoder().getPosition(), climbMotor.getEncoder().getVelocity(), climbMotor.getOutputCurrent())) {
+            climbMotor.getClosedLoopController().setReference(
+                climbController.getSetpointPosition(),
+                ControlType.kPosition,
+                ClosedLoopSlot.kSlot0,
+                climbController.getFeedforwardVolts(),
+                ArbFFUnits.kVoltage
+            );
+        } else if (climbController.isStalled()) {
+            climbMotor.stopMotor();
+        }
     }
 
     /**
@@ -77,4 +119,22 @@ public class SquidClimber extends SubsystemBase {
     public SquidClimberPosition getTargetClimberPosition() {
         return targetClimberPosition;
     }
+
+    /**
+     * Returns whether the climber is carrying the robot's weight, judged from the motor's current.
+     *
+     * @return Whether the climber is loaded.
+     */
+    public boolean isLoaded() {
+        return climbController.isLoaded();
+    }
+
+    /**
+     * Returns whether the climber stalled on its last move. If it was carrying the robot, it is holding its position.
+     *
+     * @return Whether the climber stalled.
+     */
+    public boolean isStalled() {
+        return climbController.isStalled();
+    }
 }
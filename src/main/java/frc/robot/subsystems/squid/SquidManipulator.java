@@ -8,10 +8,12 @@ import com.revrobotics.spark.SparkMax;
 import com.revrobotics.spark.config.ClosedLoopConfig.FeedbackSensor;
 import com.revrobotics.spark.config.SparkMaxConfig;
 
-import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.SquidConstants.SquidManipulatorConstants;
 import frc.robot.util.upper_assembly.ScoringHeight;
+import frc.robot.util.upper_assembly.squid.CoralSensor;
 
 /**
  * The {@code SquidManipulator} subsystem controls the manipulator mechanism that handles game elements.
@@ -19,6 +21,10 @@ import frc.robot.util.upper_assembly.ScoringHeight;
  * It utilizes two SparkMax motor controllers (one for the top roller and one for the bottom roller)
  * along with a sensor to detect the presence of game elements (coral).
  * </p>
+ * <p>
+ * The sensor is interrupt-driven (see {@link CoralSensor}). While intaking, the rollers are stopped from the
+ * interrupt as soon as coral arrives, rather than on the next loop.
+ * </p>
  */
 public class SquidManipulator extends SubsystemBase {
 
@@ -33,7 +39,12 @@ public class SquidManipulator extends SubsystemBase {
     private final SparkMaxConfig manipulatorBottomConfig = new SparkMaxConfig();
 
     // Digital sensor for detecting coral.
-    private final DigitalInput coralSensor = new DigitalInput(SquidManipulatorConstants.CORAL_SENSOR_ID);
+    private final CoralSensor coralSensor = new CoralSensor(SquidManipulatorConstants.CORAL_SENSOR_ID, SquidManipulatorConstants.CORAL_SENSOR_CONFIRM_TIME);
+
+    // Shared with the sensor's interrupt thread, so guarded by this object's lock.
+    // Whether to stop the rollers when coral arrives, and how long the last stop took (NaN once it's been reported).
+    private boolean stopOnCoralArrival = false;
+    private double coralStopLatency = Double.NaN;
 
     /**
      * Constructs a new {@code SquidManipulator} and configures the motor controllers.
@@ -70,6 +81,53 @@ public class SquidManipulator extends SubsystemBase {
         // Apply configurations to both motors
         manipulatorTopMotor.configure(manipulatorTopConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
         manipulatorBottomMotor.configure(manipulatorBottomConfig, ResetMode.kResetSafeParameters, PersistMode.kPersistParameters);
+
+        // Stopping the rollers as soon as coral arrives while intaking
+        coralSensor.setArrivalAction(this::stopOnCoral);
+    }
+
+    /**
+     * Stops the rollers if intaking. Usually runs on the coral sensor's interrupt thread.
+     */
+    private synchronized void stopOnCoral() {
+        if (!stopOnCoralArrival) {
+            return;
+        }
+        stopOnCoralArrival = false;
+        holdManipulator();
+        coralStopLatency = Timer.getFPGATimestamp() - coralSensor.getLastArrivalTimestamp();
+    }
+
+    @Override
+    public void periodic() {
+        coralSensor.update();
+
+        // Reporting how long it took to stop the rollers, only when coral actually stopped them
+        double latency;
+        synchronized (this) {
+            latency = coralStopLatency;
+            coralStopLatency = Double.NaN;
+        }
+        if (!Double.isNaN(latency)) {
+            SmartDashboard.putNumber("Squid/Manipulator/Coral Stop Latency (ms)", latency * 1000.0);
+        }
+    }
+
+    /**
+     * Runs the rollers forwards as {@link #outtakeAngled()} does, unless coral has arrived since the caller last
+     * checked. If no coral is held, the rollers are stopped as soon as coral arrives. The check and the command
+     * happen together, so an arrival can't slip in between and have the rollers restarted after it stopped them.
+     *
+     * @param coralArrivalCount The arrival count the caller last saw, from {@link #getCoralArrivalCount()}.
+     * @return Whether the rollers were run. False if coral arrived in the meantime.
+     */
+    public synchronized boolean outtakeAngledUntilCoral(int coralArrivalCount) {
+        if (coralSensor.getArrivalCount() != coralArrivalCount) {
+            return false;
+        }
+        stopOnCoralArrival = !coralSensor.isCoralPresent();
+        outtakeAngled();
+        return true;
     }
 
     /**
@@ -149,12 +207,29 @@ public class SquidManipulator extends SubsystemBase {
     }
 
     /**
-     * Checks if the coral (game element) is detected by the sensor.
+     * Checks if the coral (game element) is detected by the sensor, debounced.
      *
      * @return {@code true} if the coral is sensed; {@code false} otherwise.
      */
     public boolean senseCoral() {
-        return coralSensor.get();
+        return coralSensor.isCoralPresent();
+    }
+
+    /**
+     * Returns how many times coral has arrived at the sensor. Comparing it between loops catches every arrival,
+     * even ones shorter than a loop.
+     *
+     * @return The number of arrivals.
+     */
+    public int getCoralArrivalCount() {
+        return coralSensor.getArrivalCount();
+    }
+
+    /**
+     * Stops the rollers from being stopped when coral arrives, e.g. once the rollers are used for something else.
+     */
+    public synchronized void cancelStopOnCoralArrival() {
+        stopOnCoralArrival = false;
     }
 
 }
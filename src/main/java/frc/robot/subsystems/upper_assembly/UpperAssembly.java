@@ -1,5 +1,6 @@
 package frc.robot.subsystems.upper_assembly;
 
+import java.util.Set;
 import java.util.function.Supplier;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -33,6 +34,28 @@ public interface UpperAssembly {
      */
     public Command getCoralScoreCommand(ScoringHeight scoringHeight, Supplier<Pose2d> robotPoseSupplier);
 
+    /**
+     * Returns the heights {@link #getCoralScoreCommand} can actually score at. Autonomous planning only scores at
+     * these heights.
+     *
+     * @return The reachable scoring heights, or an empty set if the assembly can't score coral yet.
+     */
+    public Set<ScoringHeight> getCoralScoringHeights();
+
+    /**
+     * Returns roughly how long the command from {@link #getCoralScoreCommand} takes, once the robot is lined up.
+     *
+     * @return The time, in seconds, or NaN if the assembly can't score coral yet.
+     */
+    public double getCoralScoreTime();
+
+    /**
+     * Returns roughly how long the command from {@link #getCoralIntakeCommand} takes, once the robot is lined up.
+     *
+     * @return The time, in seconds, or NaN if the assembly can't intake coral yet.
+     */
+    public double getCoralIntakeTime();
+
     /**
      * Creates a command to remove algae.
      * This command controls the mechanism for clearing algae.
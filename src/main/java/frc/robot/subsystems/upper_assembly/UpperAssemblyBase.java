@@ -1,6 +1,10 @@
 package frc.robot.subsystems.upper_assembly;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.util.upper_assembly.ScoringHeight;
 
 /**
  * <h2> UpperAssemblyBase </h2>
@@ -13,7 +17,22 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
  * @since 2.0.0
  */
 public abstract class UpperAssemblyBase extends SubsystemBase implements UpperAssembly {
-    
+
+    @Override
+    public Set<ScoringHeight> getCoralScoringHeights() { // Until an assembly implements scoring, nothing is planned for it.
+        return EnumSet.noneOf(ScoringHeight.class);
+    }
+
+    @Override
+    public double getCoralScoreTime() {
+        return Double.NaN;
+    }
+
+    @Override
+    public double getCoralIntakeTime() {
+        return Double.NaN;
+    }
+
     @Override
     public void disable() { // Basic implementation of the disable method. Ensures both teams have this defined.
         System.err.println("Error: Upper Assembly does not provide functionality to disable hardware in the event of an emergency.");
@@ -5,9 +5,12 @@ import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.NavigationConstants;
 import frc.robot.Constants.OceanViewConstants;
 import frc.robot.network.TCPSender;
 import frc.robot.network.UDPReceiver;
+import frc.robot.util.navigation.DynamicObstacleLayer;
+import frc.robot.util.profiling.LoopProfiler;
 import frc.robot.util.vision.ScoringLocation;
 
 import java.io.IOException;
@@ -155,6 +158,17 @@ public class OceanViewManager extends SubsystemBase {
      */
     private final Supplier<Pose2d> poseSupplier;
 
+    /**
+     * <p>Loop timing for this subsystem's <strong>periodic()</strong> method.</p>
+     */
+    private final LoopProfiler.Stage periodicStage = LoopProfiler.getInstance().registerStage("OceanViewManager.periodic");
+
+    /**
+     * <p>The <strong>obstacle layer</strong> that detected algae are added to, so routes are planned around them.
+     * Null if there is none.</p>
+     */
+    private DynamicObstacleLayer obstacleLayer;
+
     // ------------------------------------------------------------------------
     // Constructor
     // ------------------------------------------------------------------------
@@ -185,19 +199,28 @@ public class OceanViewManager extends SubsystemBase {
      */
     @Override
     public void periodic() {
+        periodicStage.start();
+        try {
+            // Check the latest packet_number
+            int currentPacket = this.udpReceiver.getPacketNumber();
+
+            // If we have a new packet_number, parse new data
+            if (currentPacket > lastProcessedPacket) {
+                lastProcessedPacket = currentPacket;
+                fetchDetectionData();
+            }
 
-        // Check the latest packet_number
-        int currentPacket = this.udpReceiver.getPacketNumber();
+            // Clear the obstacles for algae that haven't been seen in a while
+            if (obstacleLayer != null) {
+                obstacleLayer.update(Timer.getFPGATimestamp());
+            }
 
-        // If we have a new packet_number, parse new data
-        if (currentPacket > lastProcessedPacket) {
-            lastProcessedPacket = currentPacket;
-            fetchDetectionData();
+            // Update the robots position on the PI. If this ends up being too much, we can 
+            // always decrease the time between sends.
+            sendRobotPoseToPi();
+        } finally {
+            periodicStage.stop();
         }
-
-        // Update the robots position on the PI. If this ends up being too much, we can 
-        // always decrease the time between sends.
-        sendRobotPoseToPi();
     }
 
     /**
@@ -244,6 +267,41 @@ public class OceanViewManager extends SubsystemBase {
         // Retrieve a Map<String, Object> representing the entire JSON
         Map<String, Object> jsonData = udpReceiver.getTargetData();
 
+        // Parse the packet, replacing the data from the previous cycle
+        if (!parseDetectionData(jsonData)) {
+            System.out.println("[OceanViewManager] No data or empty JSON. Skipping parse.");
+            return;
+        }
+
+        // Add the algae to the obstacle layer, which keeps each one until it hasn't been seen for a while
+        if (obstacleLayer != null) {
+            double timestamp = Timer.getFPGATimestamp();
+            for (Transform3d algaePosition : algaePositions) {
+                obstacleLayer.addObstacle(algaePosition.getX(), algaePosition.getY(), NavigationConstants.ALGAE_OBSTACLE_RADIUS, timestamp);
+            }
+        }
+
+        // Optional debug logs
+        System.out.println("[OceanViewManager] Data updated:");
+        System.out.printf("  Available: %d, Blocked: %d, AlgaePts: %d%n",
+            availableLocations.size(),
+            algaeBlockedLocations.size(),
+            algaePositions.size()
+        );
+    }
+
+    /**
+     * <p>
+     * Clears the current frame data and replaces it with the contents of the given JSON map.
+     * This is the parsing half of <code>fetchDetectionData()</code>, kept separate from the network
+     * and logging code so that it can be benchmarked on its own.
+     * </p>
+     *
+     * @param jsonData The JSON map received from the Pi. May be <code>null</code>.
+     * @return <code>true</code> if the map contained data to parse, <code>false</code> if it was null or empty.
+     */
+    boolean parseDetectionData(Map<String, Object> jsonData) {
+
         // Clear old data from the previous cycle
         availableLocations.clear();
         algaeBlockedLocations.clear();
@@ -251,22 +309,14 @@ public class OceanViewManager extends SubsystemBase {
 
         // If there's no data, we can't parse anything
         if (jsonData == null || jsonData.isEmpty()) {
-            System.out.println("[OceanViewManager] No data or empty JSON. Skipping parse.");
-            return;
+            return false;
         }
 
         // Parse each major JSON key
         parseLocationArray(jsonData, "available",     availableLocations);
         parseLocationArray(jsonData, "algae_blocked", algaeBlockedLocations);
         parseAlgaePositions(jsonData, "algae_positions", algaePositions);
-
-        // Optional debug logs
-        System.out.println("[OceanViewManager] Data updated:");
-        System.out.printf("  Available: %d, Blocked: %d, AlgaePts: %d%n",
-            availableLocations.size(),
-            algaeBlockedLocations.size(),
-            algaePositions.size()
-        );
+        return true;
     }
 
     // ------------------------------------------------------------------------
@@ -536,6 +586,22 @@ public class OceanViewManager extends SubsystemBase {
         return defaultVal;
     }
 
+    // ------------------------------------------------------------------------
+    // Obstacle Layer
+    // ------------------------------------------------------------------------
+
+    /**
+     * <p>
+     * Sets the <strong>obstacle layer</strong> that detected algae are added to. Each algae
+     * blocks the grid around it until it hasn't been seen for <code>OBSTACLE_LIFETIME</code> seconds.
+     * </p>
+     *
+     * @param obstacleLayer The obstacle layer, or <code>null</code> to stop adding obstacles.
+     */
+    public void setObstacleLayer(DynamicObstacleLayer obstacleLayer) {
+        this.obstacleLayer = obstacleLayer;
+    }
+
     // ------------------------------------------------------------------------
     // Public Accessors for Current Frame Data
     // ------------------------------------------------------------------------
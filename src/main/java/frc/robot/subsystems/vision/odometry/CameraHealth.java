@@ -0,0 +1,210 @@
+package frc.robot.subsystems.vision.odometry;
+
+import frc.robot.Constants.TelemetryConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.util.telemetry.TelemetryPublisher;
+
+/**
+ * <h2> CameraHealth </h2>
+ * The {@code CameraHealth} class tracks how well a single {@link PhotonVisionCamera} is doing: whether it is
+ * connected, how many frames per second it delivers, how old its frames are by the time they are processed, and
+ * how many of its measurements make it past the {@link VisionMeasurementFilter}.
+ * <p>
+ * Statistics are gathered over windows of {@code VisionConstants.HEALTH_WINDOW} seconds. At the end of every window
+ * the camera is given a {@link Status}, which {@code VisionOdometry} uses to decide how often to process it:
+ * <ul>
+ *   <li>{@code HEALTHY}: the camera contributed accepted measurements recently. Processed every loop.</li>
+ *   <li>{@code THROTTLED}: the camera is delivering frames, but none have been accepted for several windows
+ *       (e.g. it is pointed away from every tag). Processed every few loops; unread frames wait in the queue.</li>
+ *   <li>{@code DROPPED}: the camera is disconnected or delivered no frames. Only checked occasionally, so it
+ *       is picked back up when it recovers.</li>
+ * </ul>
+ * All methods must be called from the main robot thread.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.subsystems.vision.odometry.VisionOdometry}
+ */
+public class CameraHealth {
+
+    /**
+     * How much a camera is trusted to contribute, and therefore how often it is processed.
+     */
+    public enum Status {
+        HEALTHY,
+        THROTTLED,
+        DROPPED
+    }
+
+    private final PhotonVisionCamera camera;
+
+    // Dashboard topics, registered once
+    private final TelemetryPublisher.StringTopic statusTopic;
+    private final TelemetryPublisher.NumberTopic frameRateTopic;
+    private final TelemetryPublisher.NumberTopic latencyTopic;
+    private final TelemetryPublisher.NumberTopic acceptanceRateTopic;
+    private final TelemetryPublisher.NumberTopic disconnectsTopic;
+
+    private Status status = Status.HEALTHY;
+    private boolean connected = true;
+    private long disconnectCount = 0;
+    private double frameRate = 0.0;
+    private double latency = 0.0;
+    private double acceptanceRate = 0.0;
+
+    // Statistics for the current window
+    private double windowStartTime = Double.NaN;
+    private long windowStartFrameCount = 0;
+    private int measurementsThisWindow = 0;
+    private int acceptedThisWindow = 0;
+    private int idleWindowCount = 0;
+    private int loopsSinceProcessed = 0;
+
+    /**
+     * Creates a health tracker for the given camera.
+     *
+     * @param camera The camera to track.
+     */
+    public CameraHealth(PhotonVisionCamera camera) {
+        this.camera = camera;
+        String prefix = "Vision/" + camera.getCameraName() + "/";
+        TelemetryPublisher telemetry = TelemetryPublisher.getInstance();
+        this.statusTopic = telemetry.registerString(prefix + "Status", TelemetryConstants.STATUS_PUBLISH_PERIOD);
+        this.frameRateTopic = telemetry.registerNumber(prefix + "FPS", TelemetryConstants.STATUS_PUBLISH_PERIOD);
+        this.latencyTopic = telemetry.registerNumber(prefix + "Latency (ms)", TelemetryConstants.STATUS_PUBLISH_PERIOD);
+        this.acceptanceRateTopic = telemetry.registerNumber(prefix + "Acceptance Rate", TelemetryConstants.STATUS_PUBLISH_PERIOD);
+        this.disconnectsTopic = telemetry.registerNumber(prefix + "Disconnects", TelemetryConstants.STATUS_PUBLISH_PERIOD);
+    }
+
+    /**
+     * Returns the camera being tracked.
+     *
+     * @return The camera.
+     */
+    public PhotonVisionCamera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Returns the camera's current status.
+     *
+     * @return The camera's status.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Records whether one of this camera's measurements was accepted by the filter.
+     *
+     * @param accepted Whether the measurement was accepted.
+     */
+    public void recordMeasurement(boolean accepted) {
+        measurementsThisWindow++;
+        if (accepted) {
+            acceptedThisWindow++;
+        }
+    }
+
+    /**
+     * Decides whether the camera should be processed this loop, based on its status. Call once per loop.
+     *
+     * @return True if the camera should be processed this loop.
+     */
+    public boolean shouldProcess() {
+        loopsSinceProcessed++;
+
+        int interval;
+        switch (status) {
+            case THROTTLED:
+                interval = VisionConstants.THROTTLED_PROCESS_INTERVAL;
+                break;
+            case DROPPED:
+                interval = VisionConstants.DROPPED_PROBE_INTERVAL;
+                break;
+            default:
+                interval = 1;
+                break;
+        }
+
+        if (loopsSinceProcessed >= interval) {
+            loopsSinceProcessed = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Updates the statistics and, at the end of every window, the camera's status. Call once per loop.
+     *
+     * @param timestamp The current time, in seconds.
+     */
+    public void update(double timestamp) {
+        if (Double.isNaN(windowStartTime)) {
+            windowStartTime = timestamp;
+            windowStartFrameCount = camera.getFrameCount();
+            return;
+        }
+
+        double windowLength = timestamp - windowStartTime;
+        if (windowLength < VisionConstants.HEALTH_WINDOW) {
+            return;
+        }
+
+        // Summarizing the window that just ended
+        long frameCount = camera.getFrameCount();
+        long framesThisWindow = frameCount - windowStartFrameCount;
+        frameRate = framesThisWindow / windowLength;
+        latency = camera.getLatestFrameLatency();
+        acceptanceRate = measurementsThisWindow > 0 ? (double) acceptedThisWindow / measurementsThisWindow : 0.0;
+
+        // Counting disconnects as they happen, rather than every window the camera stays disconnected
+        boolean wasConnected = connected;
+        connected = camera.isConnected();
+        if (wasConnected && !connected) {
+            disconnectCount++;
+        }
+
+        status = evaluateStatus(framesThisWindow);
+
+        // Starting the next window
+        windowStartTime = timestamp;
+        windowStartFrameCount = frameCount;
+        measurementsThisWindow = 0;
+        acceptedThisWindow = 0;
+
+        publish();
+    }
+
+    /**
+     * Decides the camera's status from the window that just ended.
+     *
+     * @param framesThisWindow The number of frames processed during the window.
+     * @return The camera's new status.
+     */
+    private Status evaluateStatus(long framesThisWindow) {
+        if (!connected || framesThisWindow == 0) {
+            idleWindowCount = 0;
+            return Status.DROPPED;
+        }
+
+        if (acceptedThisWindow > 0) {
+            idleWindowCount = 0;
+            return Status.HEALTHY;
+        }
+
+        // Delivering frames, but contributing nothing
+        idleWindowCount++;
+        return idleWindowCount >= VisionConstants.THROTTLE_AFTER_IDLE_WINDOWS ? Status.THROTTLED : Status.HEALTHY;
+    }
+
+    /**
+     * Hands this camera's health to the {@link TelemetryPublisher}. Called once per window.
+     */
+    private void publish() {
+        statusTopic.set(status.name());
+        frameRateTopic.set(frameRate);
+        latencyTopic.set(latency * 1000.0);
+        acceptanceRateTopic.set(acceptanceRate);
+        disconnectsTopic.set(disconnectCount);
+    }
+}
@@ -1,5 +1,7 @@
 package frc.robot.subsystems.vision.odometry;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
@@ -11,24 +13,47 @@ import org.photonvision.targeting.PhotonPipelineResult;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.VisionConstants;
+import frc.robot.util.profiling.LoopProfiler;
+import frc.robot.util.replay.ReplayLogWriter;
 
 /**
  * <h2> PhotonVisionCamera </h2>
  * Wraps a single PhotonVision camera + a PhotonPoseEstimator. 
- * You will call update() each loop and get the latest robot-pose measurement (if any).
+ * You will call update() each loop and get every robot-pose measurement received since the last loop, oldest first.
  * <hr>
  * @author Cameron Myhre
  * @since v1.2.0
  */
 public class PhotonVisionCamera extends SubsystemBase {
 
+    // Created once, rather than every time results need sorting
+    private static final Comparator<PhotonPipelineResult> BY_TIMESTAMP = Comparator.comparingDouble(PhotonPipelineResult::getTimestampSeconds);
+
+    private final String cameraName;
     private final PhotonCamera camera;
     private final PhotonPoseEstimator photonPoseEstimator;
 
-    // Stores our most recently computed estimated pose (if any).
-    private Optional<EstimatedRobotPose> latestEstimatedPose = Optional.empty();
+    // Every measurement received during the most recent update, oldest first.
+    private final List<VisionMeasurement> measurements = new ArrayList<>();
+    private final List<VisionMeasurement> readOnlyMeasurements = Collections.unmodifiableList(measurements);
+
+    // Stores our most recently computed estimated pose (if any). Volatile, since it may be written by a vision worker thread.
+    private volatile Optional<EstimatedRobotPose> latestEstimatedPose = Optional.empty();
+
+    // Frame statistics, read by CameraHealth. Only ever written by the one thread processing this camera,
+    // and volatile so the main thread sees them.
+    private volatile long frameCount = 0;
+    private volatile double latestFrameLatency = 0.0;
+
+    // Loop timing for this camera's update method
+    private final LoopProfiler.Stage updateStage;
+
+    // Raw results are recorded here when a replay log is being written
+    private volatile ReplayLogWriter replayLog = null;
+    private int replayCameraIndex = -1;
 
     /**
      * Create a new PhotonVisionCamera object using the camera name and the RobotToCamera Transformation.
@@ -37,7 +62,9 @@ public class PhotonVisionCamera extends SubsystemBase {
      * @param robotToCamera The Transform3d object representing the cameras offset from the robot's origin.
      */
     public PhotonVisionCamera(String cameraName, Transform3d robotToCamera) {
+        this.cameraName = cameraName;
         this.camera = new PhotonCamera(cameraName);
+        this.updateStage = LoopProfiler.getInstance().registerStage("PhotonVisionCamera." + cameraName + ".update");
 
         // Construct a PhotonPoseEstimator
         this.photonPoseEstimator = new PhotonPoseEstimator(
@@ -50,40 +77,111 @@ public class PhotonVisionCamera extends SubsystemBase {
         photonPoseEstimator.setMultiTagFallbackStrategy(VisionConstants.FALLBACK_STRATEGY);
     }
 
+    /**
+     * Starts recording every raw pipeline result this camera receives to a replay log.
+     * 
+     * @param replayLog The log to record to.
+     */
+    public void setReplayLog(ReplayLogWriter replayLog) {
+        this.replayCameraIndex = replayLog.registerCamera(cameraName, photonPoseEstimator.getRobotToCameraTransform());
+        this.replayLog = replayLog;
+    }
+
     /**
      * Should be called once per robot loop.
      * Provide the current best guess of the robot pose so that solvePnP can converge better.
      */
     public void update(Pose2d currentBestGuess) {
+        updateStage.start();
+        try {
+            processUnreadResults(currentBestGuess);
+        } finally {
+            updateStage.stop();
+        }
+    }
 
-        // Update the reference pose for better solvePNP
-        photonPoseEstimator.setReferencePose(currentBestGuess);
+    /**
+     * Same as {@link #update(Pose2d)}, but without loop timing, so that it can be called from a vision worker thread.
+     * Only one thread may process a given camera at a time, and {@link #getMeasurements()} must be read by that same thread.
+     * 
+     * @param currentBestGuess The current best guess of the robot pose, used as the reference pose.
+     */
+    public void updateAsynchronously(Pose2d currentBestGuess) {
+        processUnreadResults(currentBestGuess);
+    }
+
+    /**
+     * Processes every pipeline result received since the last call, turning each valid pose into a measurement.
+     * 
+     * @param currentBestGuess The current best guess of the robot pose, used as the reference pose.
+     */
+    private void processUnreadResults(Pose2d currentBestGuess) {
 
         // Grab *all* the new pipeline results since our last call
-        List<PhotonPipelineResult> allResults = camera.getAllUnreadResults();
+        processResults(camera.getAllUnreadResults(), currentBestGuess);
+    }
+
+    /**
+     * Turns a list of pipeline results into measurements. The no-result case returns straight away without
+     * allocating, results are only sorted when they arrive out of order, and the reference pose is only set when
+     * there is a frame with targets to use it. Every frame with targets still allocates, both inside
+     * {@code PhotonPoseEstimator.update} and for its measurement.
+     * <p>
+     * Package-private so that it can be benchmarked with recorded results.
+     * 
+     * @param results          The pipeline results to process. May be reordered.
+     * @param currentBestGuess The current best guess of the robot pose, used as the reference pose.
+     */
+    void processResults(List<PhotonPipelineResult> results, Pose2d currentBestGuess) {
+        measurements.clear();
 
-        if (allResults.isEmpty()) {
+        int resultCount = results.size();
+        if (resultCount == 0) {
             // No new frames arrived this loop
             latestEstimatedPose = Optional.empty();
             return;
         }
 
-        // Sort them in ascending order by capture time so we process chronologically
-        allResults.sort(Comparator.comparingDouble(PhotonPipelineResult::getTimestampSeconds));
+        // Recording the frames as they were received, before anything else touches them
+        ReplayLogWriter log = replayLog;
+        if (log != null) {
+            for (int i = 0; i < resultCount; i++) {
+                log.recordVision(replayCameraIndex, results.get(i));
+            }
+        }
+
+        // Frames almost always arrive in capture order, so only sort them when they don't
+        if (resultCount > 1 && !isSortedByTimestamp(results)) {
+            results.sort(BY_TIMESTAMP);
+        }
+
+        // Recording how many frames arrived, and how old the newest one is
+        frameCount += resultCount;
+        latestFrameLatency = Timer.getFPGATimestamp() - results.get(resultCount - 1).getTimestampSeconds();
 
         // We'll track the last valid pose we get from any of these frames
         Optional<EstimatedRobotPose> newestPose = Optional.empty();
+        boolean referencePoseSet = false;
 
-        // Process each frame in chronological order
-        for (PhotonPipelineResult result : allResults) {
+        // Process each frame in chronological order. Indexed, so no iterator is created
+        for (int i = 0; i < resultCount; i++) {
+            PhotonPipelineResult result = results.get(i);
             if (!result.hasTargets()) {
                 // Skip frames with no targets
                 continue;
             }
+
+            // Update the reference pose for better solvePNP, once per update
+            if (!referencePoseSet) {
+                photonPoseEstimator.setReferencePose(currentBestGuess);
+                referencePoseSet = true;
+            }
+
             // Attempt to get a vision-based global field pose
             var maybePose = photonPoseEstimator.update(result);
             if (maybePose.isPresent()) {
-                // If we got a valid pose, store it.
+                // If we got a valid pose, keep it as a measurement.
+                measurements.add(VisionMeasurement.fromEstimatedRobotPose(cameraName, maybePose.get()));
                 newestPose = maybePose;
             }
         }
@@ -91,6 +189,70 @@ public class PhotonVisionCamera extends SubsystemBase {
         latestEstimatedPose = newestPose;
     }
 
+    /**
+     * Returns whether the results are already in ascending capture order.
+     * 
+     * @param results The results to check.
+     * @return True if no result is older than the one before it.
+     */
+    private static boolean isSortedByTimestamp(List<PhotonPipelineResult> results) {
+        double previousTimestamp = results.get(0).getTimestampSeconds();
+        for (int i = 1; i < results.size(); i++) {
+            double timestamp = results.get(i).getTimestampSeconds();
+            if (timestamp < previousTimestamp) {
+                return false;
+            }
+            previousTimestamp = timestamp;
+        }
+        return true;
+    }
+
+    /**
+     * Returns every measurement received during the most recent update, in capture order.
+     * The list is reused, so its contents change on the next update.
+     * 
+     * @return The measurements from the most recent update. Empty if no frames had a valid pose.
+     */
+    public List<VisionMeasurement> getMeasurements() {
+        return readOnlyMeasurements;
+    }
+
+    /**
+     * Returns the total number of frames this camera has processed. Safe to read from any thread.
+     * 
+     * @return The number of frames processed.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Returns how old the newest frame was when it was processed. Safe to read from any thread.
+     * 
+     * @return The latency of the newest frame, in seconds.
+     */
+    public double getLatestFrameLatency() {
+        return latestFrameLatency;
+    }
+
+    /**
+     * Returns whether the coprocessor is currently publishing results for this camera.
+     * 
+     * @return True if the camera is connected.
+     */
+    public boolean isConnected() {
+        return camera.isConnected();
+    }
+
+    /**
+     * Returns the name of this camera.
+     * 
+     * @return The camera's name.
+     */
+    public String getCameraName() {
+        return cameraName;
+    }
+
     /**
      * Returns the latest field-relative pose measurement from this camera, if any.
      */
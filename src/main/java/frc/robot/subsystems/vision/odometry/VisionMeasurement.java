@@ -0,0 +1,192 @@
+package frc.robot.subsystems.vision.odometry;
+
+import java.util.Comparator;
+
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.Constants.VisionConstants;
+
+/**
+ * <h2> VisionMeasurement </h2>
+ * A single robot pose measurement from one camera frame, along with everything needed to decide how much to trust it:
+ * the capture timestamp, how many tags were used, how far away they were and how ambiguous the solution was.
+ * <p>
+ * The standard deviations passed to the pose estimator are calculated from those values. Measurements from several
+ * tags are trusted more, and trust falls off with the square of the distance to the tags and with ambiguity.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.subsystems.vision.odometry.VisionOdometry}
+ */
+public class VisionMeasurement {
+
+    /**
+     * Orders measurements from oldest to newest capture time.
+     */
+    public static final Comparator<VisionMeasurement> BY_TIMESTAMP = Comparator.comparingDouble(VisionMeasurement::getTimestamp);
+
+    private final String cameraName;
+    private final Pose3d pose;
+    private final double timestamp;
+    private final int tagCount;
+    private final double averageTagDistance;
+    private final double ambiguity;
+    private final Matrix<N3, N1> standardDeviations;
+
+    /**
+     * Creates a new vision measurement, calculating its standard deviations.
+     *
+     * @param cameraName         The name of the camera that took the measurement.
+     * @param pose               The estimated field-relative robot pose.
+     * @param timestamp          The time the frame was captured, in seconds (FPGA time).
+     * @param tagCount           The number of AprilTags used to calculate the pose.
+     * @param averageTagDistance The average distance from the camera to the tags used, in meters.
+     * @param ambiguity          The pose ambiguity, from 0 (certain) to 1. Only meaningful for single tag measurements.
+     */
+    public VisionMeasurement(String cameraName, Pose3d pose, double timestamp, int tagCount, double averageTagDistance, double ambiguity) {
+        this(cameraName, pose, timestamp, tagCount, averageTagDistance, ambiguity,
+                calculateStandardDeviations(tagCount, averageTagDistance, ambiguity));
+    }
+
+    private VisionMeasurement(String cameraName, Pose3d pose, double timestamp, int tagCount, double averageTagDistance,
+            double ambiguity, Matrix<N3, N1> standardDeviations) {
+        this.cameraName = cameraName;
+        this.pose = pose;
+        this.timestamp = timestamp;
+        this.tagCount = tagCount;
+        this.averageTagDistance = averageTagDistance;
+        this.ambiguity = ambiguity;
+        this.standardDeviations = standardDeviations;
+    }
+
+    /**
+     * Returns a copy of this measurement with different standard deviations, e.g. to try another trust model offline.
+     *
+     * @param standardDeviations The standard deviations (x, y, theta), in meters and radians.
+     * @return The copy.
+     */
+    public VisionMeasurement withStandardDeviations(Matrix<N3, N1> standardDeviations) {
+        return new VisionMeasurement(cameraName, pose, timestamp, tagCount, averageTagDistance, ambiguity, standardDeviations);
+    }
+
+    /**
+     * Creates a vision measurement from a PhotonPoseEstimator result.
+     *
+     * @param cameraName    The name of the camera that took the measurement.
+     * @param estimatedPose The pose estimated by PhotonVision.
+     * @return The vision measurement.
+     */
+    public static VisionMeasurement fromEstimatedRobotPose(String cameraName, EstimatedRobotPose estimatedPose) {
+        int tagCount = estimatedPose.targetsUsed.size();
+
+        // Averaging the distance from the camera to each tag used
+        double totalDistance = 0.0;
+        for (PhotonTrackedTarget target : estimatedPose.targetsUsed) {
+            totalDistance += target.getBestCameraToTarget().getTranslation().getNorm();
+        }
+        double averageTagDistance = tagCount > 0 ? totalDistance / tagCount : 0.0;
+
+        // Ambiguity only applies to single tag solutions; multi-tag solutions are not ambiguous
+        double ambiguity = 0.0;
+        if (tagCount == 1) {
+            ambiguity = Math.max(estimatedPose.targetsUsed.get(0).getPoseAmbiguity(), 0.0);
+        }
+
+        return new VisionMeasurement(cameraName, estimatedPose.estimatedPose, estimatedPose.timestampSeconds,
+                tagCount, averageTagDistance, ambiguity);
+    }
+
+    /**
+     * Calculates the standard deviations (x, y, theta) of a measurement.
+     *
+     * @param tagCount           The number of tags used.
+     * @param averageTagDistance The average distance to the tags, in meters.
+     * @param ambiguity          The pose ambiguity, from 0 to 1.
+     * @return The standard deviations, in meters and radians.
+     */
+    public static Matrix<N3, N1> calculateStandardDeviations(int tagCount, double averageTagDistance, double ambiguity) {
+        double linearStandardDeviation;
+        double rotationalStandardDeviation;
+        if (tagCount > 1) {
+            linearStandardDeviation = VisionConstants.MULTI_TAG_LINEAR_STD_DEV;
+            rotationalStandardDeviation = VisionConstants.MULTI_TAG_ROTATIONAL_STD_DEV;
+        } else {
+            linearStandardDeviation = VisionConstants.SINGLE_TAG_LINEAR_STD_DEV;
+            rotationalStandardDeviation = VisionConstants.SINGLE_TAG_ROTATIONAL_STD_DEV;
+        }
+
+        // Trust falls off with the square of the distance, and with ambiguity
+        double scale = (1.0 + averageTagDistance * averageTagDistance / VisionConstants.STD_DEV_DISTANCE_SCALE)
+                * (1.0 + ambiguity * VisionConstants.STD_DEV_AMBIGUITY_SCALE);
+
+        return VecBuilder.fill(linearStandardDeviation * scale, linearStandardDeviation * scale, rotationalStandardDeviation * scale);
+    }
+
+    /**
+     * Returns the name of the camera that took this measurement.
+     *
+     * @return The camera's name.
+     */
+    public String getCameraName() {
+        return cameraName;
+    }
+
+    /**
+     * Returns the estimated field-relative robot pose.
+     *
+     * @return The estimated robot pose.
+     */
+    public Pose3d getPose() {
+        return pose;
+    }
+
+    /**
+     * Returns the time the frame was captured.
+     *
+     * @return The capture timestamp, in seconds (FPGA time).
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the number of AprilTags used to calculate the pose.
+     *
+     * @return The number of tags.
+     */
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    /**
+     * Returns the average distance from the camera to the tags used.
+     *
+     * @return The average tag distance, in meters.
+     */
+    public double getAverageTagDistance() {
+        return averageTagDistance;
+    }
+
+    /**
+     * Returns the pose ambiguity of this measurement.
+     *
+     * @return The ambiguity, from 0 (certain) to 1. Always 0 for multi-tag measurements.
+     */
+    public double getAmbiguity() {
+        return ambiguity;
+    }
+
+    /**
+     * Returns the standard deviations to pass to the pose estimator.
+     *
+     * @return The standard deviations (x, y, theta), in meters and radians.
+     */
+    public Matrix<N3, N1> getStandardDeviations() {
+        return standardDeviations;
+    }
+}
@@ -0,0 +1,209 @@
+package frc.robot.subsystems.vision.odometry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.Constants.TelemetryConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.util.telemetry.TelemetryPublisher;
+
+/**
+ * <h2> VisionMeasurementFilter </h2>
+ * The {@code VisionMeasurementFilter} class decides whether a {@link VisionMeasurement} is plausible enough to be
+ * added to the pose estimator. A measurement is rejected if:
+ * <ul>
+ *   <li>The robot would be outside of the field (plus a small margin).</li>
+ *   <li>The robot would be floating above or sunk below the carpet.</li>
+ *   <li>The robot would be rolled or pitched, which it never is while driving.</li>
+ *   <li>It is a single tag measurement that is too ambiguous for the camera that took it.</li>
+ *   <li>It is too far from the current estimate, measured by the Mahalanobis distance.</li>
+ * </ul>
+ * The Mahalanobis gate can lock out vision entirely if the estimate itself is wrong (e.g. the robot was placed
+ * somewhere other than its starting pose). To recover, the gate lets a measurement through after
+ * {@code VisionConstants.MAHALANOBIS_RECOVERY_COUNT} gate rejections in a row that passed every other check.
+ * <p>
+ * The number of accepted measurements and of rejections per reason are counted and published through the
+ * {@link TelemetryPublisher}.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.subsystems.vision.odometry.VisionOdometry}
+ */
+public class VisionMeasurementFilter {
+
+    /**
+     * The outcome of checking a measurement.
+     */
+    public enum Result {
+        ACCEPTED("Accepted"),
+        OUTSIDE_FIELD("Rejected/Outside Field"),
+        IMPLAUSIBLE_HEIGHT("Rejected/Implausible Height"),
+        IMPLAUSIBLE_TILT("Rejected/Implausible Tilt"),
+        AMBIGUOUS("Rejected/Ambiguous"),
+        INCONSISTENT("Rejected/Inconsistent");
+
+        private final String dashboardKey;
+
+        private Result(String name) {
+            this.dashboardKey = "Vision/" + name;
+        }
+    }
+
+    private final double minimumX;
+    private final double maximumX;
+    private final double minimumY;
+    private final double maximumY;
+
+    // Per camera overrides of the maximum ambiguity
+    private final Map<String, Double> maximumAmbiguities = new HashMap<>();
+
+    private final long[] counts = new long[Result.values().length];
+    private final TelemetryPublisher.NumberTopic[] countTopics = new TelemetryPublisher.NumberTopic[Result.values().length];
+    private int consecutiveInconsistentCount = 0;
+    private boolean enabled = true;
+
+    /**
+     * Creates a filter for the given field.
+     *
+     * @param fieldLayout The field layout, used to find the field's boundaries.
+     */
+    public VisionMeasurementFilter(AprilTagFieldLayout fieldLayout) {
+        this.minimumX = -VisionConstants.FIELD_BORDER_MARGIN;
+        this.maximumX = fieldLayout.getFieldLength() + VisionConstants.FIELD_BORDER_MARGIN;
+        this.minimumY = -VisionConstants.FIELD_BORDER_MARGIN;
+        this.maximumY = fieldLayout.getFieldWidth() + VisionConstants.FIELD_BORDER_MARGIN;
+
+        for (Result result : Result.values()) {
+            countTopics[result.ordinal()] = TelemetryPublisher.getInstance().registerNumber(result.dashboardKey, TelemetryConstants.STATUS_PUBLISH_PERIOD);
+        }
+    }
+
+    /**
+     * Enables or disables filtering. While disabled, every measurement is accepted (and counted as accepted).
+     *
+     * @param enabled Whether measurements should be checked.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Sets the maximum ambiguity accepted from a single camera, overriding {@code VisionConstants.MAX_AMBIGUITY}.
+     *
+     * @param cameraName   The name of the camera.
+     * @param maxAmbiguity The maximum ambiguity, from 0 to 1.
+     */
+    public void setMaxAmbiguity(String cameraName, double maxAmbiguity) {
+        maximumAmbiguities.put(cameraName, maxAmbiguity);
+    }
+
+    /**
+     * Checks a measurement and counts the result.
+     *
+     * @param measurement   The measurement to check.
+     * @param estimatedPose The pose estimate at the time the measurement was captured, or null if unknown.
+     *                      When null, the Mahalanobis gate is skipped.
+     * @return The result of the check.
+     */
+    public Result check(VisionMeasurement measurement, Pose2d estimatedPose) {
+        Result result = enabled ? evaluate(measurement, estimatedPose) : Result.ACCEPTED;
+        counts[result.ordinal()]++;
+        return result;
+    }
+
+    /**
+     * Returns how many measurements have had the given result.
+     *
+     * @param result The result to look up.
+     * @return The number of measurements with that result.
+     */
+    public long getCount(Result result) {
+        return counts[result.ordinal()];
+    }
+
+    /**
+     * Hands the accepted and rejected counts to the {@link TelemetryPublisher}, which sends them when they change.
+     */
+    public void publish() {
+        for (int i = 0; i < counts.length; i++) {
+            countTopics[i].set(counts[i]);
+        }
+    }
+
+    /**
+     * Runs every check against a measurement, cheapest first.
+     *
+     * @param measurement   The measurement to check.
+     * @param estimatedPose The pose estimate at capture time, or null.
+     * @return The result of the check.
+     */
+    private Result evaluate(VisionMeasurement measurement, Pose2d estimatedPose) {
+        Pose3d pose = measurement.getPose();
+
+        if (pose.getX() < minimumX || pose.getX() > maximumX || pose.getY() < minimumY || pose.getY() > maximumY) {
+            return Result.OUTSIDE_FIELD;
+        }
+
+        if (Math.abs(pose.getZ()) > VisionConstants.MAX_Z_ERROR) {
+            return Result.IMPLAUSIBLE_HEIGHT;
+        }
+
+        if (Math.abs(pose.getRotation().getX()) > VisionConstants.MAX_TILT
+                || Math.abs(pose.getRotation().getY()) > VisionConstants.MAX_TILT) {
+            return Result.IMPLAUSIBLE_TILT;
+        }
+
+        if (measurement.getTagCount() == 1
+                && measurement.getAmbiguity() > maximumAmbiguities.getOrDefault(measurement.getCameraName(), VisionConstants.MAX_AMBIGUITY)) {
+            return Result.AMBIGUOUS;
+        }
+
+        if (estimatedPose != null && getMahalanobisDistanceSquared(measurement, estimatedPose) > VisionConstants.MAX_MAHALANOBIS_DISTANCE_SQUARED) {
+
+            // Let the measurement through if the estimate has disagreed with vision for too long
+            consecutiveInconsistentCount++;
+            if (consecutiveInconsistentCount < VisionConstants.MAHALANOBIS_RECOVERY_COUNT) {
+                return Result.INCONSISTENT;
+            }
+        }
+
+        consecutiveInconsistentCount = 0;
+        return Result.ACCEPTED;
+    }
+
+    /**
+     * Calculates the squared Mahalanobis distance between a measurement and the estimate. The covariance is the sum
+     * of the measurement's variance and the estimate's assumed variance, and the axes are treated as independent.
+     *
+     * @param measurement   The measurement.
+     * @param estimatedPose The pose estimate at the time of the measurement.
+     * @return The squared Mahalanobis distance.
+     */
+    static double getMahalanobisDistanceSquared(VisionMeasurement measurement, Pose2d estimatedPose) {
+        Pose3d pose = measurement.getPose();
+        Matrix<N3, N1> standardDeviations = measurement.getStandardDeviations();
+
+        double errorX = pose.getX() - estimatedPose.getX();
+        double errorY = pose.getY() - estimatedPose.getY();
+        double errorTheta = MathUtil.angleModulus(pose.getRotation().getZ() - estimatedPose.getRotation().getRadians());
+
+        double linearEstimateVariance = VisionConstants.ESTIMATE_LINEAR_STD_DEV * VisionConstants.ESTIMATE_LINEAR_STD_DEV;
+        double rotationalEstimateVariance = VisionConstants.ESTIMATE_ROTATIONAL_STD_DEV * VisionConstants.ESTIMATE_ROTATIONAL_STD_DEV;
+
+        double varianceX = square(standardDeviations.get(0, 0)) + linearEstimateVariance;
+        double varianceY = square(standardDeviations.get(1, 0)) + linearEstimateVariance;
+        double varianceTheta = square(standardDeviations.get(2, 0)) + rotationalEstimateVariance;
+
+        return errorX * errorX / varianceX + errorY * errorY / varianceY + errorTheta * errorTheta / varianceTheta;
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
@@ -1,16 +1,28 @@
 package frc.robot.subsystems.vision.odometry;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
-
-import org.photonvision.EstimatedRobotPose;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.TelemetryConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.util.profiling.LoopProfiler;
+import frc.robot.util.replay.ReplayLogWriter;
+import frc.robot.util.telemetry.TelemetryPublisher;
 
 /**
  * <h2> VisionOdometry </h2>
@@ -20,6 +32,17 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
  * This subsystem gathers pose data from multiple PhotonVision cameras,
  * processes the data to determine the robot's position on the field, and feeds the
  * results into the pose estimator to improve accuracy.
+ * <p>
+ * When {@code VisionConstants.ASYNCHRONOUS_PROCESSING} is enabled, each camera's frames are processed on a small pool
+ * of worker threads instead of the main loop. Every camera has at most one task in flight, and finished measurements
+ * are placed on a lock-free queue that is drained once per loop, so the main loop's cost does not grow with the
+ * number of cameras.
+ * <p>
+ * Every camera has a {@link CameraHealth} tracker. Cameras that are disconnected, or that deliver frames but never
+ * contribute an accepted measurement, are processed less often to free up loop time.
+ * <p>
+ * The estimated pose, and the latest accepted pose from each camera, are drawn on the "Field" Field2d through the
+ * {@link TelemetryPublisher}, so they are only sent over NetworkTables a few times per second.
  * <hr>
  * @author Cameron Myhre
  * @since v1.2.0
@@ -31,8 +54,34 @@ public class VisionOdometry extends SubsystemBase {
 
     // List of PhotonVisionCamera objects, representing cameras mounted on the robot
     private List<PhotonVisionCamera> cameras = new ArrayList<>();
+
+    // Health of each camera, in the same order as the cameras, and by camera name for measurement lookups
+    private final List<CameraHealth> cameraHealths = new ArrayList<>();
+    private final Map<String, CameraHealth> cameraHealthsByName = new HashMap<>();
+
+    // Every camera's measurements from this loop, merged and sorted by capture time. Reused every loop.
+    private final List<VisionMeasurement> measurementBatch = new ArrayList<>();
+
+    // Background processing. Workers publish finished measurements to the queue, which the main loop drains.
+    private final List<CameraWorker> cameraWorkers = new ArrayList<>();
+    private final Queue<VisionMeasurement> completedMeasurements = new ConcurrentLinkedQueue<>();
+    private ExecutorService executor = null;
+
+    // Rejects implausible measurements before they reach the pose estimator
+    private final VisionMeasurementFilter measurementFilter = new VisionMeasurementFilter(VisionConstants.APRIL_TAG_FIELD_LAYOUT);
+
+    // The reference pose handed to the workers. Pose2d is immutable, so it can be shared safely.
+    private volatile Pose2d referencePose = new Pose2d();
     private Field2d field2d;
 
+    // The estimated pose, and each camera's latest accepted pose, drawn on the field at a limited rate
+    private final TelemetryPublisher.PoseTopic robotPoseTopic;
+    private final List<TelemetryPublisher.PoseTopic> cameraPoseTopics = new ArrayList<>();
+    private final Map<String, TelemetryPublisher.PoseTopic> cameraPoseTopicsByName = new HashMap<>();
+
+    // Loop timing for this subsystem's periodic method
+    private final LoopProfiler.Stage periodicStage = LoopProfiler.getInstance().registerStage("VisionOdometry.periodic");
+
     /**
      * Constructs a VisionOdometry subsystem.
      * 
@@ -47,6 +96,47 @@ public class VisionOdometry extends SubsystemBase {
         // Display the field on the screen for debugging purposes.
         this.field2d = new Field2d();
         SmartDashboard.putData("Field", field2d);
+        this.robotPoseTopic = TelemetryPublisher.getInstance().registerPose(field2d.getRobotObject(), TelemetryConstants.FIELD_PUBLISH_PERIOD);
+
+        // Start the vision workers. Daemon threads, so they never keep the program alive.
+        if (VisionConstants.ASYNCHRONOUS_PROCESSING) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(VisionConstants.PROCESSING_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "VisionWorker-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Returns the filter used to reject implausible measurements, so that it can be configured (e.g. per camera ambiguity limits).
+     * 
+     * @return The measurement filter.
+     */
+    public VisionMeasurementFilter getMeasurementFilter() {
+        return measurementFilter;
+    }
+
+    /**
+     * Returns the health tracker of the camera with the given name.
+     * 
+     * @param cameraName The name of the camera.
+     * @return The camera's health tracker, or null if no camera has that name.
+     */
+    public CameraHealth getCameraHealth(String cameraName) {
+        return cameraHealthsByName.get(cameraName);
+    }
+
+    /**
+     * Starts recording the raw results of every camera added so far to a replay log.
+     * 
+     * @param replayLog The log to record to.
+     */
+    public void setReplayLog(ReplayLogWriter replayLog) {
+        for (PhotonVisionCamera camera : cameras) {
+            camera.setReplayLog(replayLog);
+        }
     }
 
     /**
@@ -59,32 +149,158 @@ public class VisionOdometry extends SubsystemBase {
      */
     public void addCamera(PhotonVisionCamera camera) {
         cameras.add(camera);
+        cameraWorkers.add(new CameraWorker(camera));
+
+        CameraHealth health = new CameraHealth(camera);
+        cameraHealths.add(health);
+        cameraHealthsByName.put(camera.getCameraName(), health);
+
+        // Each camera gets its own object on the field, named after the camera
+        TelemetryPublisher.PoseTopic poseTopic = TelemetryPublisher.getInstance().registerPose(
+                field2d.getObject(camera.getCameraName()), TelemetryConstants.FIELD_PUBLISH_PERIOD);
+        cameraPoseTopics.add(poseTopic);
+        cameraPoseTopicsByName.put(camera.getCameraName(), poseTopic);
     }
 
+    /**
+     * Collects every new measurement from every camera and feeds them into the pose estimator.
+     * <p>
+     * Measurements from all cameras are merged into one batch and added oldest first. The estimator still rewinds
+     * to each measurement's timestamp and replays the odometry since, but the inserts are monotonically ordered
+     * and the fusion order no longer depends on which camera happened to be polled first, so the result is
+     * deterministic. Each measurement carries its own capture timestamp (for latency compensation) and standard
+     * deviations.
+     */
     public void updateVisionPositionData() {
 
         // Get the current best estimate of the robot's pose from the pose estimator
         Pose2d currentBestPose = poseEstimator.getEstimatedPosition();
 
-        // Iterate through all registered cameras
-        for (PhotonVisionCamera camera : cameras) {
+        // Collect the measurements from all registered cameras
+        measurementBatch.clear();
+        if (executor != null) {
+            collectAsynchronousMeasurements(currentBestPose);
+        } else {
+            for (int cameraIndex = 0; cameraIndex < cameras.size(); cameraIndex++) {
+                PhotonVisionCamera camera = cameras.get(cameraIndex);
+
+                // Throttled and dropped cameras are skipped on most loops
+                if (!cameraHealths.get(cameraIndex).shouldProcess()) {
+                    continue;
+                }
 
-            // Update the camera with the current best pose as a reference
-            camera.update(currentBestPose);
-
-            // Attempt to get the latest vision-based pose estimate from the camera
-            Optional<EstimatedRobotPose> visionPose = camera.getLatestPose();
-            if (visionPose.isPresent()) {
-                
-                // If a valid pose is available, retrieve it
-                EstimatedRobotPose estimatedPose = visionPose.get();
-
-                // Add the vision measurement to the pose estimator
-                // This fuses the vision data into the overall robot pose
-                poseEstimator.addVisionMeasurement(
-                        estimatedPose.estimatedPose.toPose2d(), // Convert Pose3d to Pose2d
-                        estimatedPose.timestampSeconds // Use the correct timestamp
-                );
+                // Update the camera with the current best pose as a reference
+                camera.update(currentBestPose);
+
+                // Indexed copy, since addAll() would copy the camera's list into a temporary array first
+                List<VisionMeasurement> cameraMeasurements = camera.getMeasurements();
+                for (int i = 0; i < cameraMeasurements.size(); i++) {
+                    measurementBatch.add(cameraMeasurements.get(i));
+                }
+            }
+        }
+
+        // Each camera's measurements are already in order, but the cameras interleave with each other
+        if (measurementBatch.size() > 1) {
+            measurementBatch.sort(VisionMeasurement.BY_TIMESTAMP);
+        }
+
+        // Add the vision measurements to the pose estimator
+        // This fuses the vision data into the overall robot pose
+        for (VisionMeasurement measurement : measurementBatch) {
+
+            // Compare against where the estimator thought the robot was when the frame was captured
+            Pose2d estimateAtCapture = poseEstimator.sampleAt(measurement.getTimestamp()).orElse(null);
+            boolean accepted = measurementFilter.check(measurement, estimateAtCapture) == VisionMeasurementFilter.Result.ACCEPTED;
+
+            CameraHealth health = cameraHealthsByName.get(measurement.getCameraName());
+            if (health != null) {
+                health.recordMeasurement(accepted);
+            }
+            if (!accepted) {
+                continue;
+            }
+
+            Pose2d measuredPose = measurement.getPose().toPose2d(); // Convert Pose3d to Pose2d
+            poseEstimator.addVisionMeasurement(
+                    measuredPose,
+                    measurement.getTimestamp(), // Use the capture timestamp
+                    measurement.getStandardDeviations()
+            );
+
+            TelemetryPublisher.PoseTopic poseTopic = cameraPoseTopicsByName.get(measurement.getCameraName());
+            if (poseTopic != null) {
+                poseTopic.set(measuredPose);
+            }
+        }
+
+        // Re-evaluating each camera's health, and hiding the pose of cameras that are no longer contributing
+        double timestamp = Timer.getFPGATimestamp();
+        for (int i = 0; i < cameraHealths.size(); i++) {
+            CameraHealth health = cameraHealths.get(i);
+            health.update(timestamp);
+            if (health.getStatus() != CameraHealth.Status.HEALTHY) {
+                cameraPoseTopics.get(i).clear();
+            }
+        }
+    }
+
+    /**
+     * Drains the measurements finished by the workers since the last loop, then starts a new task for every
+     * camera that is not still busy with the previous one.
+     * 
+     * @param currentBestPose The reference pose for the new tasks.
+     */
+    private void collectAsynchronousMeasurements(Pose2d currentBestPose) {
+
+        // Take everything the workers have finished so far
+        VisionMeasurement measurement;
+        while ((measurement = completedMeasurements.poll()) != null) {
+            measurementBatch.add(measurement);
+        }
+
+        // Hand out new work. A camera that is still processing is skipped, and its unread frames wait for the next task.
+        referencePose = currentBestPose;
+        for (int i = 0; i < cameraWorkers.size(); i++) {
+            CameraWorker worker = cameraWorkers.get(i);
+
+            // Throttled and dropped cameras are skipped on most loops
+            if (!cameraHealths.get(i).shouldProcess()) {
+                continue;
+            }
+
+            if (worker.inFlight.compareAndSet(false, true)) {
+                try {
+                    executor.execute(worker);
+                } catch (RejectedExecutionException e) {
+                    worker.inFlight.set(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * A reusable task that processes one camera's unread frames on a worker thread.
+     */
+    private final class CameraWorker implements Runnable {
+        private final PhotonVisionCamera camera;
+
+        // Set while a task for this camera is queued or running, so a camera never has two tasks at once
+        private final AtomicBoolean inFlight = new AtomicBoolean(false);
+
+        private CameraWorker(PhotonVisionCamera camera) {
+            this.camera = camera;
+        }
+
+        @Override
+        public void run() {
+            try {
+                camera.updateAsynchronously(referencePose);
+                completedMeasurements.addAll(camera.getMeasurements());
+            } catch (RuntimeException e) {
+                System.err.println("[VisionOdometry] " + camera.getCameraName() + " failed to process frames: " + e.getMessage());
+            } finally {
+                inFlight.set(false);
             }
         }
     }
@@ -102,11 +318,16 @@ public class VisionOdometry extends SubsystemBase {
      */
     @Override
     public void periodic() {
+        periodicStage.start();
+        try {
+            // Updates the robot's position data.
+            updateVisionPositionData();
+            measurementFilter.publish();
 
-        // Updates the robot's position data.
-        updateVisionPositionData();
-
-        // Display the robot's current position on the field.
-        this.field2d.setRobotPose(this.poseEstimator.getEstimatedPosition());
+            // Display the robot's current position on the field. Sent at a limited rate by the TelemetryPublisher.
+            robotPoseTopic.set(this.poseEstimator.getEstimatedPosition());
+        } finally {
+            periodicStage.stop();
+        }
     }
 }
@@ -0,0 +1,86 @@
+package frc.robot.util.autonomous;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.Constants.VisionConstants;
+
+/**
+ * <h2> AllianceMirror </h2>
+ * The {@code AllianceMirror} class converts field geometry between the blue and red alliances. The field is
+ * rotationally symmetric, so the red version of anything is the blue version rotated 180 degrees about the center of
+ * the field: both coordinates are reflected through the center and headings are turned around.
+ * <p>
+ * These are meant for building red versions of geometry once (see {@link MirroredGeometryCache}), not for use every
+ * loop, since the pose versions allocate.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.autonomous.MirroredGeometryCache}
+ */
+public final class AllianceMirror {
+
+    private static final double FIELD_LENGTH = VisionConstants.APRIL_TAG_FIELD_LAYOUT.getFieldLength();
+    private static final double FIELD_WIDTH = VisionConstants.APRIL_TAG_FIELD_LAYOUT.getFieldWidth();
+
+    private AllianceMirror() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    /**
+     * Returns the other alliance's version of an X coordinate.
+     *
+     * @param x The X coordinate, in meters.
+     * @return The mirrored X coordinate, in meters.
+     */
+    public static double mirrorX(double x) {
+        return FIELD_LENGTH - x;
+    }
+
+    /**
+     * Returns the other alliance's version of a Y coordinate.
+     *
+     * @param y The Y coordinate, in meters.
+     * @return The mirrored Y coordinate, in meters.
+     */
+    public static double mirrorY(double y) {
+        return FIELD_WIDTH - y;
+    }
+
+    /**
+     * Returns the other alliance's version of a heading.
+     *
+     * @param heading The heading, in radians.
+     * @return The mirrored heading, in radians, between -pi and pi.
+     */
+    public static double mirrorHeading(double heading) {
+        return MathUtil.angleModulus(heading + Math.PI);
+    }
+
+    /**
+     * Returns the other alliance's version of a pose.
+     *
+     * @param pose The pose.
+     * @return The mirrored pose.
+     */
+    public static Pose2d mirror(Pose2d pose) {
+        return new Pose2d(mirrorX(pose.getX()), mirrorY(pose.getY()), pose.getRotation().rotateBy(Rotation2d.kPi));
+    }
+
+    /**
+     * Returns the length of the field, along the X axis.
+     *
+     * @return The field length, in meters.
+     */
+    public static double getFieldLength() {
+        return FIELD_LENGTH;
+    }
+
+    /**
+     * Returns the width of the field, along the Y axis.
+     *
+     * @return The field width, in meters.
+     */
+    public static double getFieldWidth() {
+        return FIELD_WIDTH;
+    }
+}
@@ -0,0 +1,19 @@
+package frc.robot.util.autonomous;
+
+/**
+ * <h2> AutonomousMode </h2>
+ * An enum value used to represent how the selected {@link AutonomousRoutine} is run. This is used inside of
+ * {@code RobotContainer} to choose between the two kinds of autonomous command:
+ * <ul>
+ *  <li> <b>FOLLOW_PATH</b>: follows the routine's PathPlanner path. </li>
+ *  <li> <b>PLANNED_CYCLES</b>: runs the cycle plan built for the routine's starting position while disabled. Falls
+ *       back to the routine's path if the navigation grid isn't loaded or the upper assembly can't score. </li>
+ * </ul>
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.autonomous.AutonomousPlanner}
+ */
+public enum AutonomousMode {
+    FOLLOW_PATH,
+    PLANNED_CYCLES;
+}
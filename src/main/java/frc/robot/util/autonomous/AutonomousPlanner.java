@@ -0,0 +1,374 @@
+package frc.robot.util.autonomous;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.Constants.AutonomousConstants;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.NavigationConstants;
+import frc.robot.subsystems.upper_assembly.UpperAssembly;
+import frc.robot.util.navigation.NavigationPlanner;
+import frc.robot.util.upper_assembly.ScoringHeight;
+
+/**
+ * <h2> AutonomousPlanner </h2>
+ * The {@code AutonomousPlanner} class builds a {@link CyclePlan} for every autonomous routine and alliance: the
+ * order of reef faces and coral stations that earns the most points in {@code AUTONOMOUS_DURATION} seconds. The
+ * robot starts with a coral, so every plan alternates scoring on a reef face and intaking at a coral station.
+ * <p>
+ * What the robot can do comes from the upper assembly: the heights it can score at, and how long scoring and
+ * intaking take. An assembly that can't intake yet only scores the coral it starts with, and one that can't score
+ * gets an empty plan.
+ * <p>
+ * Each drive is timed the way {@link frc.robot.commands.DriveToPoseCommand} drives it: a trapezoidal profile over
+ * the route length from the navigation planner's distance fields, then the position feedback's final approach, or
+ * the time the heading feedback takes to turn if that is longer. Each reef face has two branches per level, which
+ * are filled from the highest reachable level down, so the search knows what every coral is worth. Every order is
+ * tried, since a plan only holds a handful of cycles.
+ * <p>
+ * Call {@link #planNext()} from {@code disabledPeriodic()}: it builds one plan per call, so no single loop does all of
+ * the work, and by the time autonomous starts every plan is ready.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.RobotContainer}
+ */
+public class AutonomousPlanner {
+
+    private final NavigationPlanner navigationPlanner;
+    private final Map<Alliance, Map<AutonomousRoutine, CyclePlan>> plans = new EnumMap<>(Alliance.class);
+
+    // What the upper assembly can do. Heights are ordered from the highest down.
+    private ScoringHeight[] scoringHeights;
+    private double scoreTime;
+    private double intakeTime;
+
+    // Search state for the plan being built. Drive times are indexed by reef face and coral station.
+    private NavigationPlanner.Goal[] reefGoals;
+    private NavigationPlanner.Goal[] stationGoals;
+    private double[] startToReef;
+    private double[][] reefToStation;
+    private double[][] stationToReef;
+    private int[] reefCounts;
+    private int[] choices;
+    private int[] bestChoices;
+    private int bestChoiceCount;
+    private int bestPoints;
+    private double bestTime;
+
+    /**
+     * Creates a planner. No plans are built until {@link #planNext()} is called.
+     *
+     * @param navigationPlanner The planner with the reef faces' and coral stations' distance fields.
+     * @param upperAssembly     The upper assembly the plans are for.
+     */
+    public AutonomousPlanner(NavigationPlanner navigationPlanner, UpperAssembly upperAssembly) {
+        this.navigationPlanner = navigationPlanner;
+        for (Alliance alliance : Alliance.values()) {
+            plans.put(alliance, new EnumMap<>(AutonomousRoutine.class));
+        }
+        setUpperAssembly(upperAssembly);
+    }
+
+    /**
+     * Switches to a different upper assembly, throwing away the plans built for the previous one.
+     *
+     * @param upperAssembly The upper assembly the plans are for.
+     */
+    public void setUpperAssembly(UpperAssembly upperAssembly) {
+        List<ScoringHeight> heights = new ArrayList<>(upperAssembly.getCoralScoringHeights());
+        heights.sort(Comparator.reverseOrder());
+        scoringHeights = heights.toArray(new ScoringHeight[0]);
+        scoreTime = upperAssembly.getCoralScoreTime();
+        intakeTime = upperAssembly.getCoralIntakeTime();
+        for (Map<AutonomousRoutine, CyclePlan> alliancePlans : plans.values()) {
+            alliancePlans.clear();
+        }
+    }
+
+    /**
+     * Builds the next plan that hasn't been built yet.
+     *
+     * @return Whether a plan was built, or false if they are all ready.
+     */
+    public boolean planNext() {
+        for (Alliance alliance : Alliance.values()) {
+            for (AutonomousRoutine routine : AutonomousRoutine.values()) {
+                if (!plans.get(alliance).containsKey(routine)) {
+                    plans.get(alliance).put(routine, plan(routine, alliance));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the plan for a routine and alliance, building it first if it isn't ready.
+     *
+     * @param routine  The routine.
+     * @param alliance The alliance.
+     * @return The plan.
+     */
+    public CyclePlan getPlan(AutonomousRoutine routine, Alliance alliance) {
+        return plans.get(alliance).computeIfAbsent(routine, key -> plan(key, alliance));
+    }
+
+    /**
+     * Returns whether every plan has been built.
+     *
+     * @return Whether the plans are ready.
+     */
+    public boolean isComplete() {
+        for (Map<AutonomousRoutine, CyclePlan> alliancePlans : plans.values()) {
+            if (alliancePlans.size() < AutonomousRoutine.values().length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the order of reef faces and coral stations that earns the most points for a routine and alliance.
+     */
+    private CyclePlan plan(AutonomousRoutine routine, Alliance alliance) {
+        boolean red = alliance == Alliance.RED;
+        Pose2d startPose = getStartPose(routine, red);
+        if (scoringHeights.length == 0 || Double.isNaN(scoreTime)) {
+            System.out.printf("[AutonomousPlanner] %s %s: the upper assembly can't score coral, so nothing is planned%n", alliance, routine);
+            return new CyclePlan(routine, alliance, startPose, List.of(), 0, 0.0);
+        }
+
+        reefGoals = getGoals("REEF_", red ? AutonomousConstants.RED_REEF_TAG_IDS : AutonomousConstants.BLUE_REEF_TAG_IDS);
+        stationGoals = getGoals("CORAL_STATION_", red ? AutonomousConstants.RED_CORAL_STATION_TAG_IDS : AutonomousConstants.BLUE_CORAL_STATION_TAG_IDS);
+
+        // Timing every drive up front, so the search only adds numbers
+        startToReef = new double[reefGoals.length];
+        reefToStation = new double[reefGoals.length][stationGoals.length];
+        stationToReef = new double[stationGoals.length][reefGoals.length];
+        for (int reef = 0; reef < reefGoals.length; reef++) {
+            NavigationPlanner.Goal reefGoal = reefGoals[reef];
+            startToReef[reef] = getDriveTime(
+                reefGoal.getDistanceFrom(navigationPlanner.getGrid(), startPose.getX(), startPose.getY()),
+                reefGoal.getHeading() - startPose.getRotation().getRadians()
+            );
+            for (int station = 0; station < stationGoals.length; station++) {
+                NavigationPlanner.Goal stationGoal = stationGoals[station];
+                double turn = stationGoal.getHeading() - reefGoal.getHeading();
+                reefToStation[reef][station] = getDriveTime(stationGoal.getDistanceFrom(reefGoal), turn);
+                stationToReef[station][reef] = getDriveTime(reefGoal.getDistanceFrom(stationGoal), turn);
+            }
+        }
+
+        // Trying every order. Each choice alternates between a reef face and a coral station, starting with a face.
+        // Without an intake, only the coral the robot starts with can be scored.
+        int maxChoices = canIntake() ? (int) (AutonomousConstants.AUTONOMOUS_DURATION / (scoreTime + intakeTime)) * 2 + 2 : 1;
+        reefCounts = new int[reefGoals.length];
+        choices = new int[maxChoices];
+        bestChoices = new int[maxChoices];
+        bestChoiceCount = 0;
+        bestPoints = 0;
+        bestTime = 0.0;
+        search(-1, 0, 0.0, 0);
+
+        // Writing out the segments of the best order
+        List<CyclePlan.Segment> segments = new ArrayList<>();
+        double time = 0.0;
+        int previous = -1;
+        Arrays.fill(reefCounts, 0);
+        for (int i = 0; i < bestChoiceCount; i++) {
+            int choice = bestChoices[i];
+            boolean scoring = i % 2 == 0;
+            NavigationPlanner.Goal goal = scoring ? reefGoals[choice] : stationGoals[choice];
+            double driveTime = scoring
+                    ? (previous < 0 ? startToReef[choice] : stationToReef[previous][choice])
+                    : reefToStation[previous][choice];
+            segments.add(new CyclePlan.Segment(CyclePlan.SegmentType.DRIVE, goal.getName(),
+                    goal.getX(), goal.getY(), goal.getHeading(), null, time, driveTime));
+            time += driveTime;
+
+            if (scoring) {
+                ScoringHeight height = getScoringHeight(reefCounts[choice]++);
+                segments.add(new CyclePlan.Segment(CyclePlan.SegmentType.SCORE, goal.getName(),
+                        goal.getX(), goal.getY(), goal.getHeading(), height, time, scoreTime));
+                time += scoreTime;
+            } else {
+                segments.add(new CyclePlan.Segment(CyclePlan.SegmentType.INTAKE, goal.getName(),
+                        goal.getX(), goal.getY(), goal.getHeading(), null, time, intakeTime));
+                time += intakeTime;
+            }
+            previous = choice;
+        }
+
+        int points = bestPoints + (bestChoiceCount > 0 ? AutonomousConstants.LEAVE_POINTS : 0);
+        CyclePlan plan = new CyclePlan(routine, alliance, startPose, segments, points, time);
+        System.out.printf("[AutonomousPlanner] %s %s: %d points in %.2f s%n", alliance, routine, points, time);
+        return plan;
+    }
+
+    /**
+     * Tries every choice from the current state, keeping the order with the most points (then the shortest time).
+     *
+     * @param previous The last reef face or coral station driven to, or -1 at the start.
+     * @param depth    The number of choices made so far. Even depths pick a reef face, odd depths a coral station.
+     * @param time     The time used so far, in seconds.
+     * @param points   The points scored so far.
+     */
+    private void search(int previous, int depth, double time, int points) {
+        // Ending on a score, since an intake alone earns nothing
+        if (depth % 2 == 1 && (points > bestPoints || (points == bestPoints && time < bestTime))) {
+            bestPoints = points;
+            bestTime = time;
+            bestChoiceCount = depth;
+            System.arraycopy(choices, 0, bestChoices, 0, depth);
+        }
+        if (depth >= choices.length) {
+            return;
+        }
+
+        // Giving up on orders that couldn't beat the best one even if every remaining coral took no driving
+        if (depth % 2 == 0) {
+            int remainingScores = canIntake()
+                    ? 1 + (int) Math.max(0.0, (AutonomousConstants.AUTONOMOUS_DURATION - time - scoreTime) / (scoreTime + intakeTime))
+                    : 1;
+            int maxCoralPoints = AutonomousConstants.CORAL_POINTS[scoringHeights[0].ordinal()];
+            if (points + remainingScores * maxCoralPoints < bestPoints) {
+                return;
+            }
+        }
+
+        if (depth % 2 == 0) {
+            for (int reef = 0; reef < reefGoals.length; reef++) {
+                double driveTime = previous < 0 ? startToReef[reef] : stationToReef[previous][reef];
+                double endTime = time + driveTime + scoreTime;
+                ScoringHeight height = getScoringHeight(reefCounts[reef]);
+                if (endTime > AutonomousConstants.AUTONOMOUS_DURATION || height == null) {
+                    continue;
+                }
+                int coralPoints = AutonomousConstants.CORAL_POINTS[height.ordinal()];
+                choices[depth] = reef;
+                reefCounts[reef]++;
+                search(reef, depth + 1, endTime, points + coralPoints);
+                reefCounts[reef]--;
+            }
+        } else {
+            for (int station = 0; station < stationGoals.length; station++) {
+                double endTime = time + reefToStation[previous][station] + intakeTime;
+
+                // Only worth intaking if there is time to drive back and score afterwards
+                if (endTime + scoreTime > AutonomousConstants.AUTONOMOUS_DURATION) {
+                    continue;
+                }
+                choices[depth] = station;
+                search(station, depth + 1, endTime, points);
+            }
+        }
+    }
+
+    /**
+     * Returns the height the next coral on a reef face goes on, filling each reachable level's two branches from
+     * the highest down. The trough never fills up.
+     *
+     * @param scoredOnFace The number of coral already scored on the face.
+     * @return The height, or null if every level the robot can reach on the face is full.
+     */
+    private ScoringHeight getScoringHeight(int scoredOnFace) {
+        int index = scoredOnFace / 2;
+        if (index < scoringHeights.length) {
+            return scoringHeights[index];
+        }
+        ScoringHeight lowest = scoringHeights[scoringHeights.length - 1];
+        return lowest == ScoringHeight.L1 ? lowest : null;
+    }
+
+    private boolean canIntake() {
+        return !Double.isNaN(intakeTime);
+    }
+
+    /**
+     * Returns how long {@link frc.robot.commands.DriveToPoseCommand} takes to drive to a pose at the drivetrain's
+     * limits: a trapezoidal profile to the start of the final approach, then the position feedback settling within
+     * the aligned tolerance, or the heading feedback settling after the turn if that is longer.
+     *
+     * @param distance The route length, in meters. Infinite if the goal can't be reached.
+     * @param turn     The change in heading, in radians.
+     * @return The time, in seconds.
+     */
+    public static double getDriveTime(double distance, double turn) {
+        double approachDistance = Math.min(distance, NavigationConstants.FINAL_APPROACH_DISTANCE);
+        double linearTime = getProfileTime(distance - approachDistance, DriveConstants.LINEAR_MAX_SPEED, DriveConstants.LINEAR_MAX_ACCELERATION)
+                + getFeedbackTime(approachDistance, AutonomousConstants.LINEAR_CORRECTION_SPEED, DriveConstants.LINEAR_KP,
+                        NavigationConstants.ALIGNED_POSITION_TOLERANCE);
+        double rotationalTime = getFeedbackTime(Math.abs(MathUtil.angleModulus(turn)), AutonomousConstants.ROTATIONAL_CORRECTION_SPEED,
+                DriveConstants.ROTATIONAL_KP, NavigationConstants.ALIGNED_HEADING_TOLERANCE);
+        return Math.max(linearTime, rotationalTime);
+    }
+
+    /**
+     * Returns how long feedback of {@code maxSpeed * tanh(gain * error)} takes to bring an error within tolerance.
+     * It runs at about full speed until the error drops to {@code 1 / gain}, then closes in exponentially.
+     */
+    private static double getFeedbackTime(double error, double maxSpeed, double gain, double tolerance) {
+        if (error <= tolerance) {
+            return 0.0;
+        }
+
+        double time = 0.0;
+        double saturatedError = 1.0 / gain;
+        if (error > saturatedError) {
+            time += (error - saturatedError) / maxSpeed;
+            error = saturatedError;
+        }
+        if (error > tolerance) {
+            time += Math.log(error / tolerance) / (maxSpeed * gain);
+        }
+        return time;
+    }
+
+    private static double getProfileTime(double distance, double maxVelocity, double maxAcceleration) {
+        // Too short to reach full speed, so the profile is a triangle
+        if (distance < maxVelocity * maxVelocity / maxAcceleration) {
+            return 2.0 * Math.sqrt(distance / maxAcceleration);
+        }
+        return distance / maxVelocity + maxVelocity / maxAcceleration;
+    }
+
+    private NavigationPlanner.Goal[] getGoals(String prefix, int[] tagIds) {
+        List<NavigationPlanner.Goal> goals = new ArrayList<>();
+        for (int tagId : tagIds) {
+            NavigationPlanner.Goal goal = navigationPlanner.getGoal(prefix + tagId);
+            if (goal != null) {
+                goals.add(goal);
+            }
+        }
+        return goals.toArray(new NavigationPlanner.Goal[0]);
+    }
+
+    /**
+     * Returns where a routine starts, on the blue starting line facing the reef, or the same spot rotated about the
+     * field's center for the red alliance. Left and right are from the driver's point of view.
+     */
+    private static Pose2d getStartPose(AutonomousRoutine routine, boolean red) {
+        double y;
+        switch (routine) {
+            case LEFT_HIGH_SCORE:
+                y = AutonomousConstants.LEFT_START_Y;
+                break;
+            case RIGHT_HIGH_SCORE:
+                y = AutonomousConstants.RIGHT_START_Y;
+                break;
+            default:
+                y = AutonomousConstants.CENTER_START_Y;
+                break;
+        }
+
+        Pose2d bluePose = new Pose2d(AutonomousConstants.START_LINE_X, y, Rotation2d.kPi);
+        return red ? AllianceMirror.mirror(bluePose) : bluePose;
+    }
+}
@@ -0,0 +1,206 @@
+package frc.robot.util.autonomous;
+
+import java.util.Collections;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.util.upper_assembly.ScoringHeight;
+
+/**
+ * <h2> CyclePlan </h2>
+ * The {@code CyclePlan} class is an ordered list of the segments of an autonomous routine (drive, intake, score),
+ * with the time each is expected to take and the points the routine is expected to earn. Plans are built by the
+ * {@link AutonomousPlanner} and don't change once built.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.autonomous.AutonomousPlanner}
+ */
+public class CyclePlan {
+
+    /**
+     * <h2> SegmentType </h2>
+     * What the robot does during a segment.
+     */
+    public enum SegmentType {
+        DRIVE,
+        INTAKE,
+        SCORE,
+    }
+
+    /**
+     * <h2> Segment </h2>
+     * One step of a plan. Drive segments end at their pose; intake and score segments happen at the pose the robot
+     * is already at.
+     */
+    public static class Segment {
+
+        private final SegmentType type;
+        private final String goalName;
+        private final double x;
+        private final double y;
+        private final double heading;
+        private final ScoringHeight scoringHeight;
+        private final double startTime;
+        private final double duration;
+
+        Segment(SegmentType type, String goalName, double x, double y, double heading, ScoringHeight scoringHeight,
+                double startTime, double duration) {
+            this.type = type;
+            this.goalName = goalName;
+            this.x = x;
+            this.y = y;
+            this.heading = heading;
+            this.scoringHeight = scoringHeight;
+            this.startTime = startTime;
+            this.duration = duration;
+        }
+
+        /**
+         * Returns what the robot does during the segment.
+         *
+         * @return The segment's type.
+         */
+        public SegmentType getType() {
+            return type;
+        }
+
+        /**
+         * Returns the name of the navigation goal the segment happens at, e.g. {@code "REEF_18"}.
+         *
+         * @return The goal's name.
+         */
+        public String getGoalName() {
+            return goalName;
+        }
+
+        /**
+         * Returns the X coordinate of the pose the segment happens at.
+         *
+         * @return The X coordinate, in meters.
+         */
+        public double getX() {
+            return x;
+        }
+
+        /**
+         * Returns the Y coordinate of the pose the segment happens at.
+         *
+         * @return The Y coordinate, in meters.
+         */
+        public double getY() {
+            return y;
+        }
+
+        /**
+         * Returns the heading of the pose the segment happens at.
+         *
+         * @return The heading, in radians.
+         */
+        public double getHeading() {
+            return heading;
+        }
+
+        /**
+         * Returns the height to score at.
+         *
+         * @return The height, or null if this isn't a score segment.
+         */
+        public ScoringHeight getScoringHeight() {
+            return scoringHeight;
+        }
+
+        /**
+         * Returns when the segment is expected to start.
+         *
+         * @return The time since autonomous started, in seconds.
+         */
+        public double getStartTime() {
+            return startTime;
+        }
+
+        /**
+         * Returns how long the segment is expected to take.
+         *
+         * @return The duration, in seconds.
+         */
+        public double getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.2f s %s %s%s (%.2f s)", startTime, type, goalName,
+                    scoringHeight == null ? "" : " " + scoringHeight, duration);
+        }
+    }
+
+    private final AutonomousRoutine routine;
+    private final Alliance alliance;
+    private final Pose2d startPose;
+    private final List<Segment> segments;
+    private final int points;
+    private final double totalTime;
+
+    CyclePlan(AutonomousRoutine routine, Alliance alliance, Pose2d startPose, List<Segment> segments, int points, double totalTime) {
+        this.routine = routine;
+        this.alliance = alliance;
+        this.startPose = startPose;
+        this.segments = Collections.unmodifiableList(segments);
+        this.points = points;
+        this.totalTime = totalTime;
+    }
+
+    /**
+     * Returns the routine the plan is for.
+     *
+     * @return The routine.
+     */
+    public AutonomousRoutine getRoutine() {
+        return routine;
+    }
+
+    /**
+     * Returns the alliance the plan is for.
+     *
+     * @return The alliance.
+     */
+    public Alliance getAlliance() {
+        return alliance;
+    }
+
+    /**
+     * Returns the pose the robot starts the routine at.
+     *
+     * @return The starting pose.
+     */
+    public Pose2d getStartPose() {
+        return startPose;
+    }
+
+    /**
+     * Returns the segments of the plan, in order.
+     *
+     * @return The segments.
+     */
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Returns the points the plan is expected to earn, including leaving the starting line.
+     *
+     * @return The expected points.
+     */
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * Returns how long the plan is expected to take.
+     *
+     * @return The expected time, in seconds.
+     */
+    public double getTotalTime() {
+        return totalTime;
+    }
+}
@@ -0,0 +1,75 @@
+package frc.robot.util.autonomous;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import frc.robot.util.trajectory.SampledTrajectory;
+
+/**
+ * <h2> MirroredGeometryCache </h2>
+ * The {@code MirroredGeometryCache} class holds the blue and red versions of every autonomous trajectory. Paths are
+ * drawn for the blue alliance, so the first time red is chosen every trajectory is mirrored with
+ * {@link SampledTrajectory#mirrored(double, double)} and kept. After that, switching alliance only switches which
+ * map is read, and nothing is flipped while the robot is driving.
+ * <p>
+ * The DEMO alliance uses the blue versions.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.autonomous.AllianceMirror}
+ */
+public class MirroredGeometryCache {
+
+    private final Map<String, SampledTrajectory> blueTrajectories;
+    private Map<String, SampledTrajectory> redTrajectories; // Null until red is first chosen
+    private Alliance alliance = Alliance.BLUE;
+
+    /**
+     * Creates a cache for the blue alliance.
+     *
+     * @param blueTrajectories The trajectories as drawn, for the blue alliance, by name.
+     */
+    public MirroredGeometryCache(Map<String, SampledTrajectory> blueTrajectories) {
+        this.blueTrajectories = blueTrajectories;
+    }
+
+    /**
+     * Switches to an alliance, mirroring every trajectory if it is red and they haven't been mirrored yet.
+     *
+     * @param alliance The alliance.
+     * @return Whether the alliance changed.
+     */
+    public boolean setAlliance(Alliance alliance) {
+        if (alliance == this.alliance) {
+            return false;
+        }
+
+        if (alliance == Alliance.RED && redTrajectories == null) {
+            redTrajectories = new HashMap<>();
+            for (Map.Entry<String, SampledTrajectory> entry : blueTrajectories.entrySet()) {
+                redTrajectories.put(entry.getKey(), entry.getValue().mirrored(AllianceMirror.getFieldLength(), AllianceMirror.getFieldWidth()));
+            }
+            System.out.println("[MirroredGeometryCache] Mirrored " + redTrajectories.size() + " trajectories for the red alliance");
+        }
+        this.alliance = alliance;
+        return true;
+    }
+
+    /**
+     * Returns a trajectory for the current alliance.
+     *
+     * @param name The name of the trajectory.
+     * @return The trajectory, or null if there is none with that name.
+     */
+    public SampledTrajectory getTrajectory(String name) {
+        return (alliance == Alliance.RED ? redTrajectories : blueTrajectories).get(name);
+    }
+
+    /**
+     * Returns the alliance the trajectories are for.
+     *
+     * @return The current alliance.
+     */
+    public Alliance getAlliance() {
+        return alliance;
+    }
+}
@@ -1,11 +1,20 @@
 package frc.robot.util.math;
 
+import java.util.function.DoubleSupplier;
+
 import edu.wpi.first.math.MathSharedStore;
 
 /**
  * <h2> RateLimiter </h2>
  * The {@code RateLimiter} class is used to limit the rate of acceleration when driving the robot.
  * This ensures that the robot controls smoothly and reliably, and is used extensively in {@code DriveSubsystem}.
+ * <p>
+ * The time between updates can come from the limiter's own time source ({@link #update(double)}), from a timestamp
+ * shared by everything updated in the same loop ({@link #updateWithTime(double, double)}), or be given directly
+ * ({@link #updateWithDeltaTime(double, double)}).
+ * <p>
+ * When a jerk limit is set, the rate of change itself is ramped up and down as well, giving an S-curve instead of
+ * a sudden jump in acceleration. The rate of change is eased off ahead of the target so the value never overshoots.
  * <hr>
  * @author Parker Huibregtse
  * @since v1.1.0
@@ -19,6 +28,15 @@ public class RateLimiter {
     // The rate at which the value will be limited (in units per second)
     private double rate;
 
+    // The maximum rate at which the rate of change may change (in units per second squared). 0 disables jerk limiting.
+    private double jerk = 0.0;
+
+    // The current rate of change, only tracked when jerk limiting is enabled
+    private double currentRate = 0.0;
+
+    // The source of timestamps for update(double), in seconds
+    private final DoubleSupplier timeSource;
+
     // The last time the value was adjusted, used for calculating delta time
     private double previousTime;
 
@@ -27,33 +45,80 @@ public class RateLimiter {
 
     /**
      * Creates a rate limiter.
-     * 
+     *
      * @param initialValue the initial value to be set
      * @param rate         the maximum rate of change (units per second)
      * @param maxDeltaTime the maximum delta time allowed; use Double.MAX_VALUE for
      *                     no restriction
      */
     public RateLimiter(double initialValue, double rate, double maxDeltaTime) {
+        this(initialValue, rate, maxDeltaTime, MathSharedStore::getTimestamp);
+    }
+
+    /**
+     * Creates a rate limiter that reads the time from the given source, e.g. a simulated clock.
+     *
+     * @param initialValue the initial value to be set
+     * @param rate         the maximum rate of change (units per second)
+     * @param maxDeltaTime the maximum delta time allowed; use Double.MAX_VALUE for
+     *                     no restriction
+     * @param timeSource   the source of timestamps, in seconds
+     */
+    public RateLimiter(double initialValue, double rate, double maxDeltaTime, DoubleSupplier timeSource) {
         this.value = initialValue;
         this.rate = rate;
         this.maxDeltaTime = maxDeltaTime;
-        this.previousTime = MathSharedStore.getTimestamp(); // Initialize with the current timestamp
+        this.timeSource = timeSource;
+        this.previousTime = timeSource.getAsDouble(); // Initialize with the current timestamp
     }
 
     /**
      * Updates the value, limiting the rate of change.
-     * 
+     *
      * @param targetValue the desired value to approach
      * @return the new, rate-limited value
      */
     public double update(double targetValue) {
-        double currentTime = MathSharedStore.getTimestamp();
+        return updateWithTime(targetValue, timeSource.getAsDouble());
+    }
+
+    /**
+     * Updates the value using a timestamp read once per loop, so that every limiter updated in the same loop uses
+     * the same time and the clock is only read once.
+     *
+     * @param targetValue the desired value to approach
+     * @param currentTime the current time, in seconds, from the same time base as this limiter's time source
+     * @return the new, rate-limited value
+     */
+    public double updateWithTime(double targetValue, double currentTime) {
         double deltaTime = currentTime - previousTime;
 
+        // Update the previous time
+        previousTime = currentTime;
+
+        return updateWithDeltaTime(targetValue, deltaTime);
+    }
+
+    /**
+     * Updates the value using the given time step. This does not change the time remembered by {@link #update(double)}.
+     *
+     * @param targetValue the desired value to approach
+     * @param deltaTime   the time since the last update, in seconds
+     * @return the new, rate-limited value
+     */
+    public double updateWithDeltaTime(double targetValue, double deltaTime) {
+
         // Enforce maximum delta time
         if (deltaTime > maxDeltaTime) {
             deltaTime = maxDeltaTime;
         }
+        if (deltaTime <= 0.0) {
+            return value;
+        }
+
+        if (jerk > 0.0) {
+            return updateJerkLimited(targetValue, deltaTime);
+        }
 
         // Calculate the maximum change allowed
         double maxChange = rate * deltaTime;
@@ -65,15 +130,57 @@ public class RateLimiter {
             value = Math.max(value - maxChange, targetValue);
         }
 
-        // Update the previous time
-        previousTime = currentTime;
+        return value;
+    }
+
+    /**
+     * Moves the value towards the target with both the rate of change and its derivative limited.
+     *
+     * @param targetValue the desired value to approach
+     * @param deltaTime   the time step, in seconds. Must be positive.
+     * @return the new, rate-limited value
+     */
+    private double updateJerkLimited(double targetValue, double deltaTime) {
+        double error = targetValue - value;
+
+        // The fastest rate that can still be eased off to zero by the time the target is reached
+        double maxRateChange = jerk * deltaTime;
+        double desiredRate = Math.copySign(Math.min(rate, getStoppableRate(Math.abs(error), maxRateChange, deltaTime)), error);
+
+        // Ramp the rate of change towards the desired rate
+        currentRate += Math.max(-maxRateChange, Math.min(desiredRate - currentRate, maxRateChange));
+
+        // Step, finishing exactly on the target rather than passing it
+        double change = currentRate * deltaTime;
+        if (Math.abs(change) >= Math.abs(error) && Math.signum(change) == Math.signum(error)) {
+            value = targetValue;
+            currentRate = 0.0;
+        } else {
+            value += change;
+        }
 
         return value;
     }
 
+    /**
+     * Calculates the highest rate from which the value can be brought to rest within the given distance, when the
+     * rate can only drop by {@code maxRateChange} per step. Stepping down from {@code n * maxRateChange} covers
+     * {@code maxRateChange * deltaTime * n * (n + 1) / 2}, which is solved for n. Using the discrete sum rather than
+     * the continuous {@code sqrt(2 * jerk * distance)} keeps the value from reaching the target with rate to spare.
+     *
+     * @param distance      the distance to the target (always positive)
+     * @param maxRateChange the most the rate can change in one step
+     * @param deltaTime     the time step, in seconds
+     * @return the highest rate that can still be stopped in time
+     */
+    static double getStoppableRate(double distance, double maxRateChange, double deltaTime) {
+        double steps = (Math.sqrt(1.0 + 8.0 * distance / (maxRateChange * deltaTime)) - 1.0) / 2.0;
+        return steps * maxRateChange;
+    }
+
     /**
      * Gets the current value of the rate limiter.
-     * 
+     *
      * @return the current value
      */
     public double getValue() {
@@ -81,28 +188,39 @@ public class RateLimiter {
     }
 
     /**
-     * Sets the value to a double
+     * Sets the value to a double. When jerk limiting, the value is also treated as being at rest.
      * @param value a double to set the value to
      */
     public void setValue(double value) {
         this.value = value;
+        this.currentRate = 0.0;
     }
 
     /**
      * Sets a new rate for the rate limiter.
-     * 
+     *
      * @param rate the new rate (units per second)
      */
     public void setRate(double rate) {
         this.rate = rate;
     }
 
+    /**
+     * Sets the jerk limit, turning the limiter into an S-curve limiter.
+     *
+     * @param jerk the maximum change of the rate (units per second squared); 0 to disable jerk limiting
+     */
+    public void setJerk(double jerk) {
+        this.jerk = jerk;
+        this.currentRate = 0.0;
+    }
+
     /**
      * Sets a new maximum delta time for the rate limiter.
-     * 
+     *
      * @param maxDeltaTime the new maximum delta time
      */
     public void setMaxDeltaTime(double maxDeltaTime) {
         this.maxDeltaTime = maxDeltaTime;
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,17 @@
 package frc.robot.util.math;
 
+import java.util.function.DoubleSupplier;
+
 import edu.wpi.first.math.MathSharedStore;
 
 /**
  * <h2> RateLimiter2d </h2>
  * The {@code RateLimiter} class is used to limit the rate of change of a {@code Vector2d} object.
  * This ensures that the robot controls smoothly and reliably, and is used extensively in {@code DriveSubsystem}.
+ * <p>
+ * The value is kept as primitive x and y fields and updated in place, so limiting never allocates. Like
+ * {@link RateLimiter}, the time step can come from the limiter's time source, a shared per-loop timestamp or be
+ * given directly, and an optional jerk limit ramps the rate of change (as a vector) for an S-curve.
  * <hr>
  * @author Parker Huibregtse
  * @since v1.1.0
@@ -13,12 +19,26 @@ import edu.wpi.first.math.MathSharedStore;
  */
 public class RateLimiter2d {
 
-    // The current value (a 2D vector) being rate-limited
-    private Vector2d value;
+    // The current value being rate-limited
+    private double x;
+    private double y;
+
+    // Returned by getValue(). Kept in sync with x and y, so that callers holding on to it see the latest value.
+    private final Vector2d value;
 
     // The rate of change (magnitude per second)
     private double rate;
 
+    // The maximum change of the rate of change (magnitude per second squared). 0 disables jerk limiting.
+    private double jerk = 0.0;
+
+    // The current rate of change, only tracked when jerk limiting is enabled
+    private double rateX = 0.0;
+    private double rateY = 0.0;
+
+    // The source of timestamps for update(Vector2d), in seconds
+    private final DoubleSupplier timeSource;
+
     // The last time the value was adjusted, used for calculating delta time
     private double previousTime;
 
@@ -27,60 +47,182 @@ public class RateLimiter2d {
 
     /**
      * Creates a 2D rate limiter.
-     * 
+     *
      * @param initialValue  the initial 2D vector value
      * @param rate          the maximum rate of change (units per second)
      * @param maxDeltaTime  the maximum delta time allowed; use Double.MAX_VALUE for no restriction
      */
     public RateLimiter2d(Vector2d initialValue, double rate, double maxDeltaTime) {
-        this.value = initialValue;
+        this(initialValue, rate, maxDeltaTime, MathSharedStore::getTimestamp);
+    }
+
+    /**
+     * Creates a 2D rate limiter that reads the time from the given source, e.g. a simulated clock.
+     *
+     * @param initialValue  the initial 2D vector value
+     * @param rate          the maximum rate of change (units per second)
+     * @param maxDeltaTime  the maximum delta time allowed; use Double.MAX_VALUE for no restriction
+     * @param timeSource    the source of timestamps, in seconds
+     */
+    public RateLimiter2d(Vector2d initialValue, double rate, double maxDeltaTime, DoubleSupplier timeSource) {
+        this.x = initialValue.getX();
+        this.y = initialValue.getY();
+        this.value = initialValue.copy();
         this.rate = rate;
         this.maxDeltaTime = maxDeltaTime;
-        this.previousTime = MathSharedStore.getTimestamp(); // Initialize with the current timestamp
+        this.timeSource = timeSource;
+        this.previousTime = timeSource.getAsDouble(); // Initialize with the current timestamp
     }
 
     /**
-     * Updates the 2D value, limiting the rate of change.
-     * 
+     * Updates the 2D value, limiting the rate of change. The returned vector is owned by this rate limiter and
+     * is updated in place by every call, so copy it if it needs to be kept.
+     *
      * @param targetValue the desired 2D vector value to approach
      * @return the new, rate-limited 2D vector value
      */
     public Vector2d update(Vector2d targetValue) {
-        double currentTime = MathSharedStore.getTimestamp();
+        return updateWithTime(targetValue.getX(), targetValue.getY(), timeSource.getAsDouble());
+    }
+
+    /**
+     * Updates the 2D value using a timestamp read once per loop, so that every limiter updated in the same loop
+     * uses the same time and the clock is only read once.
+     *
+     * @param targetValue the desired 2D vector value to approach
+     * @param currentTime the current time, in seconds, from the same time base as this limiter's time source
+     * @return the new, rate-limited 2D vector value, updated in place
+     */
+    public Vector2d updateWithTime(Vector2d targetValue, double currentTime) {
+        return updateWithTime(targetValue.getX(), targetValue.getY(), currentTime);
+    }
+
+    /**
+     * Updates the 2D value using a timestamp read once per loop.
+     *
+     * @param targetX     the x component of the desired value
+     * @param targetY     the y component of the desired value
+     * @param currentTime the current time, in seconds, from the same time base as this limiter's time source
+     * @return the new, rate-limited 2D vector value, updated in place
+     */
+    public Vector2d updateWithTime(double targetX, double targetY, double currentTime) {
         double deltaTime = currentTime - previousTime;
 
+        // Update the previous time
+        previousTime = currentTime;
+
+        return updateWithDeltaTime(targetX, targetY, deltaTime);
+    }
+
+    /**
+     * Updates the 2D value using the given time step. This does not change the time remembered by
+     * {@link #update(Vector2d)}.
+     *
+     * @param targetX   the x component of the desired value
+     * @param targetY   the y component of the desired value
+     * @param deltaTime the time since the last update, in seconds
+     * @return the new, rate-limited 2D vector value, updated in place
+     */
+    public Vector2d updateWithDeltaTime(double targetX, double targetY, double deltaTime) {
+
         // Enforce maximum delta time
         if (deltaTime > maxDeltaTime) {
             deltaTime = maxDeltaTime;
         }
 
+        if (deltaTime > 0.0) {
+            if (jerk > 0.0) {
+                stepJerkLimited(targetX, targetY, deltaTime);
+            } else {
+                step(targetX, targetY, deltaTime);
+            }
+        }
+
+        return value.set(x, y);
+    }
+
+    /**
+     * Moves the value straight towards the target by at most {@code rate * deltaTime}.
+     *
+     * @param targetX   the x component of the desired value
+     * @param targetY   the y component of the desired value
+     * @param deltaTime the time step, in seconds
+     */
+    private void step(double targetX, double targetY, double deltaTime) {
+
         // Calculate the maximum distance we can move
         double maxChange = rate * deltaTime;
 
-        // Calculate the vector from the current value to the target value
-        Vector2d direction = targetValue.subtract(value);
-
-        // Get the distance to the target value
-        double distanceToTarget = direction.magnitude();
+        // Calculate the vector from the current value to the target value, and its length
+        double errorX = targetX - x;
+        double errorY = targetY - y;
+        double distanceToTarget = Math.hypot(errorX, errorY);
 
         // If the target is within the maxChange distance, go directly to it
         if (distanceToTarget <= maxChange) {
-            value = targetValue;
+            x = targetX;
+            y = targetY;
         } else {
             // Otherwise, move in the direction of the target by maxChange
-            direction = direction.normalize().scale(maxChange);
-            value = value.add(direction);
+            double scale = maxChange / distanceToTarget;
+            x += errorX * scale;
+            y += errorY * scale;
         }
+    }
 
-        // Update the previous time
-        previousTime = currentTime;
+    /**
+     * Moves the value towards the target with both the rate of change and its derivative limited.
+     *
+     * @param targetX   the x component of the desired value
+     * @param targetY   the y component of the desired value
+     * @param deltaTime the time step, in seconds
+     */
+    private void stepJerkLimited(double targetX, double targetY, double deltaTime) {
+        double errorX = targetX - x;
+        double errorY = targetY - y;
+        double distanceToTarget = Math.hypot(errorX, errorY);
 
-        return value;
+        // The fastest rate, pointed at the target, that can still be eased off to zero by the time it is reached
+        double maxRateChange = jerk * deltaTime;
+        double desiredRateX = 0.0;
+        double desiredRateY = 0.0;
+        if (distanceToTarget > 0.0) {
+            double desiredSpeed = Math.min(rate, RateLimiter.getStoppableRate(distanceToTarget, maxRateChange, deltaTime));
+            desiredRateX = errorX / distanceToTarget * desiredSpeed;
+            desiredRateY = errorY / distanceToTarget * desiredSpeed;
+        }
+
+        // Ramp the rate of change towards the desired rate
+        double rateErrorX = desiredRateX - rateX;
+        double rateErrorY = desiredRateY - rateY;
+        double rateErrorMagnitude = Math.hypot(rateErrorX, rateErrorY);
+        if (rateErrorMagnitude <= maxRateChange) {
+            rateX = desiredRateX;
+            rateY = desiredRateY;
+        } else {
+            double scale = maxRateChange / rateErrorMagnitude;
+            rateX += rateErrorX * scale;
+            rateY += rateErrorY * scale;
+        }
+
+        // Step, finishing exactly on the target rather than passing it
+        double changeX = rateX * deltaTime;
+        double changeY = rateY * deltaTime;
+        if (Math.hypot(changeX, changeY) >= distanceToTarget && changeX * errorX + changeY * errorY > 0.0) {
+            x = targetX;
+            y = targetY;
+            rateX = 0.0;
+            rateY = 0.0;
+        } else {
+            x += changeX;
+            y += changeY;
+        }
     }
 
     /**
-     * Gets the current 2D vector value of the rate limiter.
-     * 
+     * Gets the current 2D vector value of the rate limiter. The returned vector is updated in place by
+     * {@link #update(Vector2d)}.
+     *
      * @return the current 2D vector value
      */
     public Vector2d getValue() {
@@ -88,28 +230,71 @@ public class RateLimiter2d {
     }
 
     /**
-     * Sets the value
-     * @param value the 2D vector being set to
+     * Gets the x component of the current value.
+     *
+     * @return the x component of the current value
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y component of the current value.
+     *
+     * @return the y component of the current value
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Sets the value. When jerk limiting, the value is also treated as being at rest.
+     * @param value the 2D vector being set to. Its components are copied.
      */
     public void setValue(Vector2d value) {
-        this.value = value;
+        setValue(value.getX(), value.getY());
+    }
+
+    /**
+     * Sets the value without creating a new vector. When jerk limiting, the value is also treated as being at rest.
+     *
+     * @param x the new x component
+     * @param y the new y component
+     */
+    public void setValue(double x, double y) {
+        this.x = x;
+        this.y = y;
+        this.value.set(x, y);
+        this.rateX = 0.0;
+        this.rateY = 0.0;
     }
 
     /**
      * Sets a new rate for the rate limiter.
-     * 
+     *
      * @param rate the new rate (units per second)
      */
     public void setRate(double rate) {
         this.rate = rate;
     }
 
+    /**
+     * Sets the jerk limit, turning the limiter into an S-curve limiter.
+     *
+     * @param jerk the maximum change of the rate (units per second squared); 0 to disable jerk limiting
+     */
+    public void setJerk(double jerk) {
+        this.jerk = jerk;
+        this.rateX = 0.0;
+        this.rateY = 0.0;
+    }
+
     /**
      * Sets a new maximum delta time for the rate limiter.
-     * 
+     *
      * @param maxDeltaTime the new maximum delta time
      */
     public void setMaxDeltaTime(double maxDeltaTime) {
         this.maxDeltaTime = maxDeltaTime;
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,10 @@ import edu.wpi.first.math.geometry.Rotation2d;
  * <h2> Vector2d </h2>
  * The {@code Vector2d} class is a class that represents a 2 dimensional vector. It is used extensively in the 
  * {@code DriveSubsystem}, where it allows for certain trajectories to be reliably and efficiently targeted.
+ * <p>
+ * Methods such as {@link #add(Vector2d)} and {@link #normalize()} return a new vector and leave this one untouched.
+ * Each of them has an {@code InPlace} counterpart (e.g. {@link #addInPlace(Vector2d)}) that modifies this vector 
+ * and returns it, so that code running every loop can reuse a scratch vector instead of allocating new ones.
  * <hr>
  * @author Parker Huibregtse
  * @since v1.1.0
@@ -63,6 +67,40 @@ public class Vector2d {
         this.y = y;
     }
 
+    /**
+     * Sets both components of the vector in place
+     * 
+     * @param x the new x component
+     * @param y the new y component
+     * @return this vector, for chaining
+     */
+    public Vector2d set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /**
+     * Copies the components of another vector into this vector
+     * 
+     * @param other the vector to copy
+     * @return this vector, for chaining
+     */
+    public Vector2d set(Vector2d other) {
+        this.x = other.x;
+        this.y = other.y;
+        return this;
+    }
+
+    /**
+     * Creates a copy of this vector
+     * 
+     * @return a new vector with the same components
+     */
+    public Vector2d copy() {
+        return new Vector2d(x, y);
+    }
+
     /**
      * Computes the magnitude (length) of the vector
      * 
@@ -85,6 +123,19 @@ public class Vector2d {
         return new Vector2d(x / magnitude, y / magnitude);
     }
 
+    /**
+     * Normalizes this vector in place so that it has a magnitude of 1. A zero vector is left as zero.
+     * 
+     * @return this vector, for chaining
+     */
+    public Vector2d normalizeInPlace() {
+        double magnitude = magnitude();
+        if (magnitude == 0) {
+            return set(0, 0);
+        }
+        return set(x / magnitude, y / magnitude);
+    }
+
     /**
      * Computes the dot product with another vector
      * 
@@ -117,6 +168,28 @@ public class Vector2d {
         return new Vector2d(x * cos - y * sin, x * sin + y * cos);
     }
 
+    /**
+     * Rotates this vector in place by a given angle using a Rotation2d object
+     * 
+     * @param rotation the Rotation2d object
+     * @return this vector, for chaining
+     */
+    public Vector2d rotateByInPlace(Rotation2d rotation) {
+        return rotateByInPlace(rotation.getCos(), rotation.getSin());
+    }
+
+    /**
+     * Rotates this vector in place by the angle with the given cosine and sine. Passing the negated sine of 
+     * an angle rotates by the opposite angle without creating a new Rotation2d.
+     * 
+     * @param cos the cosine of the angle to rotate by
+     * @param sin the sine of the angle to rotate by
+     * @return this vector, for chaining
+     */
+    public Vector2d rotateByInPlace(double cos, double sin) {
+        return set(x * cos - y * sin, x * sin + y * cos);
+    }
+
     /**
      * Adds this vector to another vector
      * 
@@ -147,6 +220,36 @@ public class Vector2d {
         return new Vector2d(this.x * scalar, this.y * scalar);
     }
 
+    /**
+     * Adds another vector to this vector in place
+     * 
+     * @param other the other vector
+     * @return this vector, for chaining
+     */
+    public Vector2d addInPlace(Vector2d other) {
+        return set(this.x + other.x, this.y + other.y);
+    }
+
+    /**
+     * Subtracts another vector from this vector in place
+     * 
+     * @param other the other vector
+     * @return this vector, for chaining
+     */
+    public Vector2d subtractInPlace(Vector2d other) {
+        return set(this.x - other.x, this.y - other.y);
+    }
+
+    /**
+     * Scales this vector in place by a scalar value
+     * 
+     * @param scalar the scalar to scale by
+     * @return this vector, for chaining
+     */
+    public Vector2d scaleInPlace(double scalar) {
+        return set(this.x * scalar, this.y * scalar);
+    }
+
     /**
      * Computes the angle of this vector
      * 
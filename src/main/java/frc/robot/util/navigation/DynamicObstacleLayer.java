@@ -0,0 +1,180 @@
+package frc.robot.util.navigation;
+
+import java.util.Arrays;
+
+import frc.robot.Constants.NavigationConstants;
+
+/**
+ * <h2> DynamicObstacleLayer </h2>
+ * The {@code DynamicObstacleLayer} class lays short-lived obstacles, like algae on the floor or other robots, over
+ * the static {@link NavigationGrid}. Every obstacle blocks the cells within its radius until it expires, and seeing
+ * it again pushes its expiry back, so an obstacle stays as long as it is being detected and fades
+ * {@code OBSTACLE_LIFETIME} seconds after it was last seen.
+ * <p>
+ * The layer keeps its own copy of the static grid with the obstacles set in it ({@link #getGrid()}), so planners
+ * read a single bitset. Every cell that changes (becomes blocked or free again) is written to a change log, which an
+ * {@link IncrementalRoutePlanner} reads to repair its route without replanning from scratch. Only cells that are
+ * currently blocked by an obstacle are visited when checking for expiry.
+ * <p>
+ * Must only be used from one thread.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.navigation.IncrementalRoutePlanner}
+ */
+public class DynamicObstacleLayer {
+
+    private final NavigationGrid staticGrid;
+    private final NavigationGrid grid;
+
+    // When each cell's obstacle expires, in seconds. Negative infinity if the cell has none.
+    private final double[] expiryTimes;
+
+    // The cells that currently have an obstacle, in no particular order
+    private final int[] activeCells;
+    private int activeCount = 0;
+
+    // Ring buffer of the cells whose blocked state has changed, and how many changes there have been in total
+    private final int[] changeLog = new int[NavigationConstants.CHANGE_LOG_SIZE];
+    private long changeCount = 0;
+
+    /**
+     * Creates a layer with no obstacles.
+     *
+     * @param staticGrid The static grid the obstacles are laid over. It is copied, not changed.
+     */
+    public DynamicObstacleLayer(NavigationGrid staticGrid) {
+        this.staticGrid = staticGrid;
+        this.grid = staticGrid.copy();
+        this.expiryTimes = new double[staticGrid.getCellCount()];
+        this.activeCells = new int[staticGrid.getCellCount()];
+        Arrays.fill(expiryTimes, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Adds (or refreshes) a round obstacle, blocking every cell whose center is within its radius.
+     *
+     * @param x         The X coordinate of the obstacle's center, in meters.
+     * @param y         The Y coordinate of the obstacle's center, in meters.
+     * @param radius    The distance to keep the robot's center from the obstacle's center, in meters.
+     * @param timestamp The time the obstacle was seen, in seconds.
+     */
+    public void addObstacle(double x, double y, double radius, double timestamp) {
+        double nodeSize = grid.getNodeSize();
+        int minColumn = Math.max(0, (int) Math.floor((x - radius) / nodeSize));
+        int maxColumn = Math.min(grid.getColumns() - 1, (int) Math.floor((x + radius) / nodeSize));
+        int minRow = Math.max(0, (int) Math.floor((y - radius) / nodeSize));
+        int maxRow = Math.min(grid.getRows() - 1, (int) Math.floor((y + radius) / nodeSize));
+        double expiryTime = timestamp + NavigationConstants.OBSTACLE_LIFETIME;
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = grid.getIndex(column, row);
+                if (Math.hypot(grid.getCenterX(cell) - x, grid.getCenterY(cell) - y) > radius) {
+                    continue;
+                }
+
+                if (expiryTimes[cell] == Double.NEGATIVE_INFINITY) {
+                    // A new obstacle cell. Static cells are already blocked, so they don't count as a change.
+                    activeCells[activeCount++] = cell;
+                    if (!staticGrid.isBlocked(cell)) {
+                        grid.setBlocked(column, row, true);
+                        logChange(cell);
+                    }
+                }
+                expiryTimes[cell] = Math.max(expiryTimes[cell], expiryTime);
+            }
+        }
+    }
+
+    /**
+     * Clears every obstacle that has expired.
+     *
+     * @param timestamp The current time, in seconds.
+     */
+    public void update(double timestamp) {
+        int index = 0;
+        while (index < activeCount) {
+            int cell = activeCells[index];
+            if (expiryTimes[cell] > timestamp) {
+                index++;
+                continue;
+            }
+
+            // Removing the cell by moving the last active cell into its place
+            expiryTimes[cell] = Double.NEGATIVE_INFINITY;
+            activeCells[index] = activeCells[--activeCount];
+            if (!staticGrid.isBlocked(cell)) {
+                grid.setBlocked(cell % grid.getColumns(), cell / grid.getColumns(), false);
+                logChange(cell);
+            }
+        }
+    }
+
+    /**
+     * Removes every obstacle at once.
+     */
+    public void clear() {
+        update(Double.POSITIVE_INFINITY);
+    }
+
+    private void logChange(int cell) {
+        changeLog[(int) (changeCount % changeLog.length)] = cell;
+        changeCount++;
+    }
+
+    /**
+     * Returns the total number of cell changes so far. Together with {@link #getChangedCell(long)}, this lets a
+     * reader catch up on every change since it last looked.
+     *
+     * @return The number of changes.
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Returns the cell that changed in the given change.
+     *
+     * @param change The change's number, from 0. Only the last {@code CHANGE_LOG_SIZE} changes are kept.
+     * @return The index of the cell that changed.
+     */
+    public int getChangedCell(long change) {
+        return changeLog[(int) (change % changeLog.length)];
+    }
+
+    /**
+     * Returns how many changes are kept in the log. A reader that falls further behind than this has to start over.
+     *
+     * @return The size of the change log.
+     */
+    public int getChangeLogSize() {
+        return changeLog.length;
+    }
+
+    /**
+     * Returns the number of cells currently blocked by obstacles, including ones that are also statically blocked.
+     *
+     * @return The number of obstacle cells.
+     */
+    public int getObstacleCellCount() {
+        return activeCount;
+    }
+
+    /**
+     * Returns the static grid the obstacles are laid over.
+     *
+     * @return The static grid.
+     */
+    public NavigationGrid getStaticGrid() {
+        return staticGrid;
+    }
+
+    /**
+     * Returns the combined grid, with both the static cells and the obstacles blocked.
+     *
+     * @return The combined grid. Changes whenever obstacles are added or expire.
+     */
+    public NavigationGrid getGrid() {
+        return grid;
+    }
+}
@@ -0,0 +1,464 @@
+package frc.robot.util.navigation;
+
+import java.util.Arrays;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.NavigationConstants;
+
+/**
+ * <h2> IncrementalRoutePlanner </h2>
+ * The {@code IncrementalRoutePlanner} class keeps a route to one goal up to date across a
+ * {@link DynamicObstacleLayer}, using D* Lite. The search runs backwards from the goal, so as the robot drives only
+ * the key modifier changes, and when obstacles appear or expire only the cells around them (and whatever routes ran
+ * through them) are searched again, rather than the whole grid. A repair after a few cells change usually expands a
+ * few dozen cells.
+ * <p>
+ * Call {@link #update(double, double, List)} every loop with the robot's position: it reads the layer's change log,
+ * repairs the search and writes the route, pulled tight with line of sight, into the given list. If the planner
+ * falls more than {@code CHANGE_LOG_SIZE} changes behind, it starts the search over. While an obstacle covers the
+ * goal itself there is no route, until it expires.
+ * <p>
+ * Moves are 8-connected and never cut the corner of a blocked cell, matching {@link NavigationPlanner}. Nothing is
+ * allocated by an update except the waypoints themselves. Must only be used from one thread.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.navigation.DynamicObstacleLayer}
+ */
+public class IncrementalRoutePlanner {
+
+    private static final double DIAGONAL = Math.sqrt(2.0);
+    private static final double KEY_TOLERANCE = 1e-9; // Meters, for rounding in the summed move costs
+    private static final int[] COLUMN_STEPS = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] ROW_STEPS = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private final DynamicObstacleLayer layer;
+    private final NavigationGrid grid;
+
+    // D* Lite state: each cell's distance to the goal (g), and its one-step lookahead (rhs)
+    private final double[] distances;
+    private final double[] lookaheads;
+
+    // The key each cell is queued with. Heap entries that don't match are stale and skipped.
+    private final boolean[] queued;
+    private final double[] queuedPrimaryKeys;
+    private final double[] queuedSecondaryKeys;
+
+    // Binary min-heap (1-indexed), ordered by primary then secondary key. Grows if needed.
+    private int[] heapCells;
+    private double[] heapPrimaryKeys;
+    private double[] heapSecondaryKeys;
+    private int heapSize = 0;
+
+    private double goalX;
+    private double goalY;
+    private int goalCell = -1;
+    private int startCell = -1;
+    private double keyModifier = 0.0;
+    private boolean needsReset = true;
+    private long changesRead = 0;
+    private int lastExpansionCount = 0;
+    private double lastRouteLength = Double.POSITIVE_INFINITY;
+
+    // The cells of the route, before it is pulled tight
+    private final int[] routeCells;
+
+    /**
+     * Creates a planner with no goal.
+     *
+     * @param layer The obstacle layer to plan across.
+     */
+    public IncrementalRoutePlanner(DynamicObstacleLayer layer) {
+        this.layer = layer;
+        this.grid = layer.getGrid();
+        int cellCount = grid.getCellCount();
+        this.distances = new double[cellCount];
+        this.lookaheads = new double[cellCount];
+        this.queued = new boolean[cellCount];
+        this.queuedPrimaryKeys = new double[cellCount];
+        this.queuedSecondaryKeys = new double[cellCount];
+        this.heapCells = new int[cellCount * 4];
+        this.heapPrimaryKeys = new double[cellCount * 4];
+        this.heapSecondaryKeys = new double[cellCount * 4];
+        this.routeCells = new int[cellCount];
+    }
+
+    /**
+     * Sets the goal. The next update searches from scratch.
+     *
+     * @param x The X coordinate of the goal, in meters.
+     * @param y The Y coordinate of the goal, in meters.
+     */
+    public void setGoal(double x, double y) {
+        goalX = x;
+        goalY = y;
+        goalCell = -1;
+        needsReset = true;
+    }
+
+    /**
+     * Repairs the route for any obstacles that have changed and for the robot's new position, and writes it out.
+     *
+     * @param startX    The X coordinate of the robot, in meters.
+     * @param startY    The Y coordinate of the robot, in meters.
+     * @param waypoints Cleared, then filled with the route from the robot to the goal, both included.
+     * @return Whether there is a route.
+     */
+    public boolean update(double startX, double startY, List<Translation2d> waypoints) {
+        waypoints.clear();
+        lastExpansionCount = 0;
+        lastRouteLength = Double.POSITIVE_INFINITY;
+
+        int start = findFreeCell(grid, startX, startY);
+        if (start < 0) {
+            return false;
+        }
+
+        if (needsReset || layer.getChangeCount() - changesRead > layer.getChangeLogSize()) {
+            // Starting over, either for a new goal or because too many changes were missed
+            if (!reset(start)) {
+                return false;
+            }
+        } else {
+            // The robot has moved, so every queued key is now too low by at most the distance it moved
+            if (start != startCell) {
+                keyModifier += getHeuristic(startCell, start);
+                startCell = start;
+            }
+
+            // Updating the cells whose moves have changed. A changed cell affects its own moves, its neighbors'
+            // moves into it, and the diagonal moves past it, all of which start at it or one of its neighbors.
+            for (long change = changesRead; change < layer.getChangeCount(); change++) {
+                int cell = layer.getChangedCell(change);
+                updateCell(cell);
+                for (int direction = 0; direction < 8; direction++) {
+                    int neighbor = getNeighbor(cell, direction);
+                    if (neighbor >= 0) {
+                        updateCell(neighbor);
+                    }
+                }
+            }
+        }
+        changesRead = layer.getChangeCount();
+
+        computeShortestPath();
+        if (Double.isInfinite(distances[startCell])) {
+            return false;
+        }
+
+        // Following the cheapest move from each cell to the goal
+        int length = 0;
+        int current = startCell;
+        routeCells[length++] = current;
+        while (current != goalCell && length < routeCells.length) {
+            int next = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int direction = 0; direction < 8; direction++) {
+                int neighbor = getNeighbor(current, direction);
+                if (neighbor < 0) {
+                    continue;
+                }
+                double cost = getCost(current, direction) + distances[neighbor];
+                if (cost < best) {
+                    best = cost;
+                    next = neighbor;
+                }
+            }
+            if (next < 0) {
+                return false;
+            }
+            current = next;
+            routeCells[length++] = current;
+        }
+        if (current != goalCell) {
+            // The route ran in circles, which means the search is broken. Starting over next time.
+            needsReset = true;
+            return false;
+        }
+
+        lastRouteLength = distances[startCell];
+
+        // Pulling the route tight, keeping only the cells where it has to turn
+        NavigationPlanner.pullTight(grid, routeCells, length, startX, startY, goalX, goalY, waypoints);
+        return true;
+    }
+
+    /**
+     * Clears the search and queues the goal.
+     *
+     * @param start The robot's cell.
+     * @return Whether the goal has a free cell.
+     */
+    private boolean reset(int start) {
+        // Snapping the goal on the static grid, so an obstacle passing by doesn't move it for good
+        goalCell = findFreeCell(layer.getStaticGrid(), goalX, goalY);
+        if (goalCell < 0) {
+            return false;
+        }
+
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(lookaheads, Double.POSITIVE_INFINITY);
+        Arrays.fill(queued, false);
+        heapSize = 0;
+        keyModifier = 0.0;
+        startCell = start;
+
+        lookaheads[goalCell] = 0.0;
+        queue(goalCell);
+        needsReset = false;
+        return true;
+    }
+
+    /**
+     * Expands cells until the robot's cell is consistent and nothing queued could still improve it.
+     */
+    private void computeShortestPath() {
+        int maxExpansions = grid.getCellCount() * 16; // Far more than a correct search ever needs
+        while (lastExpansionCount < maxExpansions && peek()) {
+            int cell = heapCells[1];
+            double oldPrimaryKey = heapPrimaryKeys[1];
+            double oldSecondaryKey = heapSecondaryKeys[1];
+
+            // Stopping once nothing queued could be on a shorter route. Ties are expanded too, since a tied cell
+            // can still be inconsistent and would otherwise trap the route on its way to the goal.
+            double startPrimaryKey = Math.min(distances[startCell], lookaheads[startCell]) + keyModifier;
+            if (oldPrimaryKey > startPrimaryKey + KEY_TOLERANCE && lookaheads[startCell] == distances[startCell]) {
+                return;
+            }
+            lastExpansionCount++;
+
+            double minimum = Math.min(distances[cell], lookaheads[cell]);
+            double newPrimaryKey = minimum + getHeuristic(startCell, cell) + keyModifier;
+            if (isLess(oldPrimaryKey, oldSecondaryKey, newPrimaryKey, minimum)) {
+                // The key was out of date, since the robot has moved
+                queue(cell);
+            } else if (distances[cell] > lookaheads[cell]) {
+                // The cell got closer to the goal, which its neighbors may now route through
+                distances[cell] = lookaheads[cell];
+                queued[cell] = false;
+                updateNeighbors(cell);
+            } else {
+                // The cell got further from the goal, so it and its neighbors are recalculated
+                distances[cell] = Double.POSITIVE_INFINITY;
+                updateCell(cell);
+                updateNeighbors(cell);
+            }
+        }
+    }
+
+    private void updateNeighbors(int cell) {
+        for (int direction = 0; direction < 8; direction++) {
+            int neighbor = getNeighbor(cell, direction);
+            if (neighbor >= 0) {
+                updateCell(neighbor);
+            }
+        }
+    }
+
+    /**
+     * Recalculates a cell's lookahead from its neighbors, and queues it if it is inconsistent.
+     *
+     * @param cell The cell's index.
+     */
+    private void updateCell(int cell) {
+        if (cell != goalCell) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int direction = 0; direction < 8; direction++) {
+                int neighbor = getNeighbor(cell, direction);
+                if (neighbor >= 0) {
+                    best = Math.min(best, getCost(cell, direction) + distances[neighbor]);
+                }
+            }
+            lookaheads[cell] = best;
+        }
+
+        if (distances[cell] != lookaheads[cell]) {
+            queue(cell);
+        } else {
+            queued[cell] = false;
+        }
+    }
+
+    /**
+     * Returns the cost of a move, or infinity if either cell is blocked or a diagonal move would cut a corner.
+     *
+     * @param cell      The cell the move starts from.
+     * @param direction The direction, 0 to 3 orthogonal, 4 to 7 diagonal.
+     * @return The cost, in meters.
+     */
+    private double getCost(int cell, int direction) {
+        int column = cell % grid.getColumns();
+        int row = cell / grid.getColumns();
+        int stepColumn = COLUMN_STEPS[direction];
+        int stepRow = ROW_STEPS[direction];
+        if (grid.isBlocked(cell) || grid.isBlocked(column + stepColumn, row + stepRow)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (direction >= 4) {
+            if (grid.isBlocked(column + stepColumn, row) || grid.isBlocked(column, row + stepRow)) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return DIAGONAL * grid.getNodeSize();
+        }
+        return grid.getNodeSize();
+    }
+
+    /**
+     * Returns a cell's neighbor in one of the 8 directions, blocked or not.
+     *
+     * @return The neighbor's index, or -1 if it is outside of the grid.
+     */
+    private int getNeighbor(int cell, int direction) {
+        int column = cell % grid.getColumns() + COLUMN_STEPS[direction];
+        int row = cell / grid.getColumns() + ROW_STEPS[direction];
+        if (column < 0 || row < 0 || column >= grid.getColumns() || row >= grid.getRows()) {
+            return -1;
+        }
+        return grid.getIndex(column, row);
+    }
+
+    /**
+     * Returns the length of the shortest 8-connected route between two cells on an empty grid, which never
+     * overestimates the real distance.
+     */
+    private double getHeuristic(int fromCell, int toCell) {
+        int columns = Math.abs(fromCell % grid.getColumns() - toCell % grid.getColumns());
+        int rows = Math.abs(fromCell / grid.getColumns() - toCell / grid.getColumns());
+        int diagonal = Math.min(columns, rows);
+        return (Math.max(columns, rows) - diagonal + DIAGONAL * diagonal) * grid.getNodeSize();
+    }
+
+    /**
+     * Finds the free cell nearest to a position, within {@code GOAL_SNAP_RADIUS}.
+     *
+     * @param grid The grid to search.
+     * @param x    The X coordinate, in meters.
+     * @param y    The Y coordinate, in meters.
+     * @return The cell's index, or -1 if there is none.
+     */
+    private static int findFreeCell(NavigationGrid grid, double x, double y) {
+        int cell = grid.getIndexAt(x, y);
+        if (!grid.isBlocked(cell)) {
+            return cell;
+        }
+
+        int radius = (int) Math.ceil(NavigationConstants.GOAL_SNAP_RADIUS / grid.getNodeSize());
+        int centerColumn = cell % grid.getColumns();
+        int centerRow = cell / grid.getColumns();
+        int best = -1;
+        double bestDistance = NavigationConstants.GOAL_SNAP_RADIUS;
+        for (int row = centerRow - radius; row <= centerRow + radius; row++) {
+            for (int column = centerColumn - radius; column <= centerColumn + radius; column++) {
+                if (grid.isBlocked(column, row)) {
+                    continue;
+                }
+                int candidate = grid.getIndex(column, row);
+                double distance = Math.hypot(grid.getCenterX(candidate) - x, grid.getCenterY(candidate) - y);
+                if (distance <= bestDistance) {
+                    bestDistance = distance;
+                    best = candidate;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean isLess(double primaryKey, double secondaryKey, double otherPrimaryKey, double otherSecondaryKey) {
+        return primaryKey < otherPrimaryKey || (primaryKey == otherPrimaryKey && secondaryKey < otherSecondaryKey);
+    }
+
+    /**
+     * Queues a cell with its current key, replacing any earlier entry for it.
+     *
+     * @param cell The cell's index.
+     */
+    private void queue(int cell) {
+        double minimum = Math.min(distances[cell], lookaheads[cell]);
+        double primaryKey = minimum + getHeuristic(startCell, cell) + keyModifier;
+        queued[cell] = true;
+        queuedPrimaryKeys[cell] = primaryKey;
+        queuedSecondaryKeys[cell] = minimum;
+
+        if (heapSize + 1 >= heapCells.length) {
+            heapCells = Arrays.copyOf(heapCells, heapCells.length * 2);
+            heapPrimaryKeys = Arrays.copyOf(heapPrimaryKeys, heapPrimaryKeys.length * 2);
+            heapSecondaryKeys = Arrays.copyOf(heapSecondaryKeys, heapSecondaryKeys.length * 2);
+        }
+
+        // Sifting up from the end of the heap
+        int index = ++heapSize;
+        while (index > 1 && isLess(primaryKey, minimum, heapPrimaryKeys[index >> 1], heapSecondaryKeys[index >> 1])) {
+            heapCells[index] = heapCells[index >> 1];
+            heapPrimaryKeys[index] = heapPrimaryKeys[index >> 1];
+            heapSecondaryKeys[index] = heapSecondaryKeys[index >> 1];
+            index >>= 1;
+        }
+        heapCells[index] = cell;
+        heapPrimaryKeys[index] = primaryKey;
+        heapSecondaryKeys[index] = minimum;
+    }
+
+    /**
+     * Drops stale entries from the top of the heap.
+     *
+     * @return Whether there is a live entry at the top.
+     */
+    private boolean peek() {
+        while (heapSize > 0) {
+            int cell = heapCells[1];
+            if (queued[cell] && queuedPrimaryKeys[cell] == heapPrimaryKeys[1] && queuedSecondaryKeys[cell] == heapSecondaryKeys[1]) {
+                return true;
+            }
+            removeTop();
+        }
+        return false;
+    }
+
+    private void removeTop() {
+        int lastCell = heapCells[heapSize];
+        double lastPrimaryKey = heapPrimaryKeys[heapSize];
+        double lastSecondaryKey = heapSecondaryKeys[heapSize];
+        heapSize--;
+
+        // Sifting the last entry down from the root
+        int index = 1;
+        while (true) {
+            int child = index << 1;
+            if (child > heapSize) {
+                break;
+            }
+            if (child < heapSize && isLess(heapPrimaryKeys[child + 1], heapSecondaryKeys[child + 1], heapPrimaryKeys[child], heapSecondaryKeys[child])) {
+                child++;
+            }
+            if (!isLess(heapPrimaryKeys[child], heapSecondaryKeys[child], lastPrimaryKey, lastSecondaryKey)) {
+                break;
+            }
+            heapCells[index] = heapCells[child];
+            heapPrimaryKeys[index] = heapPrimaryKeys[child];
+            heapSecondaryKeys[index] = heapSecondaryKeys[child];
+            index = child;
+        }
+        heapCells[index] = lastCell;
+        heapPrimaryKeys[index] = lastPrimaryKey;
+        heapSecondaryKeys[index] = lastSecondaryKey;
+    }
+
+    /**
+     * Returns how many cells the last update expanded, to show how much of the search had to be repaired.
+     *
+     * @return The number of expansions.
+     */
+    public int getLastExpansionCount() {
+        return lastExpansionCount;
+    }
+
+    /**
+     * Returns the length of the route found by the last update, through cell centers from the robot's cell to the
+     * goal's cell, before it was pulled tight.
+     *
+     * @return The length, in meters, or infinity if the last update found no route.
+     */
+    public double getLastRouteLength() {
+        return lastRouteLength;
+    }
+}
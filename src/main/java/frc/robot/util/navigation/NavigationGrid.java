@@ -0,0 +1,322 @@
+package frc.robot.util.navigation;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * <h2> NavigationGrid </h2>
+ * The {@code NavigationGrid} class holds PathPlanner's occupancy grid of the field ({@code navgrid.json}), with one
+ * bit per cell packed into a {@code long[]}. Column 0 starts at x = 0 (the blue alliance wall) and row 0 starts at
+ * y = 0, matching the field coordinates.
+ * <p>
+ * Cells are addressed either by column and row, or by a single index ({@code row * columns + column}), which is
+ * what {@link NavigationPlanner} uses for its searches and distance fields.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.navigation.NavigationPlanner}
+ */
+public class NavigationGrid {
+
+    private final int columns;
+    private final int rows;
+    private final double nodeSize;
+    private final long[] blocked;
+
+    /**
+     * Creates a grid with every cell free.
+     *
+     * @param columns  The number of cells along the field's x axis.
+     * @param rows     The number of cells along the field's y axis.
+     * @param nodeSize The size of each (square) cell, in meters.
+     */
+    public NavigationGrid(int columns, int rows, double nodeSize) {
+        this.columns = columns;
+        this.rows = rows;
+        this.nodeSize = nodeSize;
+        this.blocked = new long[(columns * rows + 63) / 64];
+    }
+
+    /**
+     * Loads a grid from a PathPlanner {@code navgrid.json} file, where {@code grid[row][column]} is true for cells
+     * that can't be driven through.
+     *
+     * @param file The navgrid file.
+     * @return The grid.
+     * @throws IOException If the file could not be read, or is not a valid navgrid.
+     */
+    public static NavigationGrid load(File file) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+            double nodeSize = json.get("nodeSizeMeters").getAsDouble();
+            JsonArray grid = json.getAsJsonArray("grid");
+            int rows = grid.size();
+            int columns = grid.get(0).getAsJsonArray().size();
+
+            NavigationGrid navigationGrid = new NavigationGrid(columns, rows, nodeSize);
+            for (int row = 0; row < rows; row++) {
+                JsonArray cells = grid.get(row).getAsJsonArray();
+                for (int column = 0; column < columns; column++) {
+                    navigationGrid.setBlocked(column, row, cells.get(column).getAsBoolean());
+                }
+            }
+            return navigationGrid;
+        } catch (JsonParseException | IllegalStateException | IndexOutOfBoundsException | NullPointerException e) {
+            throw new IOException("Invalid navgrid: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates a copy of this grid, which can be changed without changing this one.
+     *
+     * @return The copy.
+     */
+    public NavigationGrid copy() {
+        NavigationGrid copy = new NavigationGrid(columns, rows, nodeSize);
+        System.arraycopy(blocked, 0, copy.blocked, 0, blocked.length);
+        return copy;
+    }
+
+    /**
+     * Marks a cell as blocked or free.
+     *
+     * @param column  The cell's column.
+     * @param row     The cell's row.
+     * @param blocked Whether the cell can't be driven through.
+     */
+    public void setBlocked(int column, int row, boolean blocked) {
+        int index = getIndex(column, row);
+        if (blocked) {
+            this.blocked[index >>> 6] |= 1L << index;
+        } else {
+            this.blocked[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Returns whether a cell can't be driven through. Cells outside of the grid are always blocked.
+     *
+     * @param column The cell's column.
+     * @param row    The cell's row.
+     * @return Whether the cell is blocked.
+     */
+    public boolean isBlocked(int column, int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            return true;
+        }
+        return isBlocked(getIndex(column, row));
+    }
+
+    /**
+     * Returns whether a cell can't be driven through.
+     *
+     * @param index The cell's index. Must be inside the grid.
+     * @return Whether the cell is blocked.
+     */
+    public boolean isBlocked(int index) {
+        return (blocked[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns whether the straight line between the centers of two cells only crosses free cells. Every cell the
+     * line touches is checked, including both cells when it passes exactly through a corner, so the robot's center
+     * never clips a blocked cell.
+     *
+     * @param fromIndex The index of the first cell.
+     * @param toIndex   The index of the second cell.
+     * @return Whether the line is clear.
+     */
+    public boolean hasLineOfSight(int fromIndex, int toIndex) {
+        int column = fromIndex % columns;
+        int row = fromIndex / columns;
+        int endColumn = toIndex % columns;
+        int endRow = toIndex / columns;
+
+        int deltaColumn = Math.abs(endColumn - column);
+        int deltaRow = Math.abs(endRow - row);
+        int stepColumn = endColumn > column ? 1 : -1;
+        int stepRow = endRow > row ? 1 : -1;
+
+        // Walking the cells the line passes through, in order (a "supercover" line)
+        int error = deltaColumn - deltaRow;
+        int remaining = deltaColumn + deltaRow;
+        deltaColumn *= 2;
+        deltaRow *= 2;
+        if (isBlocked(column, row)) {
+            return false;
+        }
+        while (remaining > 0) {
+            if (error > 0) {
+                column += stepColumn;
+                error -= deltaRow;
+                remaining--;
+            } else if (error < 0) {
+                row += stepRow;
+                error += deltaColumn;
+                remaining--;
+            } else {
+                // Passing exactly through a corner, so both cells beside it are touched
+                if (isBlocked(column + stepColumn, row) || isBlocked(column, row + stepRow)) {
+                    return false;
+                }
+                column += stepColumn;
+                row += stepRow;
+                error += deltaColumn - deltaRow;
+                remaining -= 2;
+            }
+            if (isBlocked(column, row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the straight line between two field positions only crosses free cells. Unlike
+     * {@link #hasLineOfSight(int, int)}, the ends don't have to be cell centers, e.g. the robot's exact position.
+     * A line passing within rounding of a corner is treated as touching both cells beside it.
+     *
+     * @param fromX The X coordinate of the first position, in meters.
+     * @param fromY The Y coordinate of the first position, in meters.
+     * @param toX   The X coordinate of the second position, in meters.
+     * @param toY   The Y coordinate of the second position, in meters.
+     * @return Whether the line is clear.
+     */
+    public boolean hasLineOfSight(double fromX, double fromY, double toX, double toY) {
+        int column = (int) Math.floor(fromX / nodeSize);
+        int row = (int) Math.floor(fromY / nodeSize);
+        if (isBlocked(column, row)) {
+            return false;
+        }
+
+        double deltaX = toX - fromX;
+        double deltaY = toY - fromY;
+        int stepColumn = deltaX > 0.0 ? 1 : -1;
+        int stepRow = deltaY > 0.0 ? 1 : -1;
+
+        // How far along the line (0 at the start, 1 at the end) the next column and row boundaries are, and how far
+        // apart the boundaries are
+        double nextColumnT = Double.POSITIVE_INFINITY;
+        double nextRowT = Double.POSITIVE_INFINITY;
+        double columnSpacingT = Double.POSITIVE_INFINITY;
+        double rowSpacingT = Double.POSITIVE_INFINITY;
+        if (deltaX != 0.0) {
+            nextColumnT = ((column + (deltaX > 0.0 ? 1 : 0)) * nodeSize - fromX) / deltaX;
+            columnSpacingT = nodeSize / Math.abs(deltaX);
+        }
+        if (deltaY != 0.0) {
+            nextRowT = ((row + (deltaY > 0.0 ? 1 : 0)) * nodeSize - fromY) / deltaY;
+            rowSpacingT = nodeSize / Math.abs(deltaY);
+        }
+
+        // Walking the cells the line passes through, in order, until the next boundary is past the end
+        while (Math.min(nextColumnT, nextRowT) <= 1.0) {
+            if (Math.abs(nextColumnT - nextRowT) < 1e-9) {
+                // Passing through a corner, so both cells beside it are touched
+                if (isBlocked(column + stepColumn, row) || isBlocked(column, row + stepRow)) {
+                    return false;
+                }
+                column += stepColumn;
+                row += stepRow;
+                nextColumnT += columnSpacingT;
+                nextRowT += rowSpacingT;
+            } else if (nextColumnT < nextRowT) {
+                column += stepColumn;
+                nextColumnT += columnSpacingT;
+            } else {
+                row += stepRow;
+                nextRowT += rowSpacingT;
+            }
+            if (isBlocked(column, row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the cell holding a field position, clamped to the grid.
+     *
+     * @param x The X coordinate, in meters.
+     * @param y The Y coordinate, in meters.
+     * @return The cell's index.
+     */
+    public int getIndexAt(double x, double y) {
+        int column = Math.max(0, Math.min(columns - 1, (int) Math.floor(x / nodeSize)));
+        int row = Math.max(0, Math.min(rows - 1, (int) Math.floor(y / nodeSize)));
+        return getIndex(column, row);
+    }
+
+    /**
+     * Returns the index of a cell.
+     *
+     * @param column The cell's column.
+     * @param row    The cell's row.
+     * @return The cell's index.
+     */
+    public int getIndex(int column, int row) {
+        return row * columns + column;
+    }
+
+    /**
+     * Returns the X coordinate of a cell's center.
+     *
+     * @param index The cell's index.
+     * @return The X coordinate, in meters.
+     */
+    public double getCenterX(int index) {
+        return (index % columns + 0.5) * nodeSize;
+    }
+
+    /**
+     * Returns the Y coordinate of a cell's center.
+     *
+     * @param index The cell's index.
+     * @return The Y coordinate, in meters.
+     */
+    public double getCenterY(int index) {
+        return (index / columns + 0.5) * nodeSize;
+    }
+
+    /**
+     * Returns the number of cells along the field's x axis.
+     *
+     * @return The number of columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of cells along the field's y axis.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of cells in the grid.
+     *
+     * @return The number of cells.
+     */
+    public int getCellCount() {
+        return columns * rows;
+    }
+
+    /**
+     * Returns the size of each cell.
+     *
+     * @return The size of each cell, in meters.
+     */
+    public double getNodeSize() {
+        return nodeSize;
+    }
+}
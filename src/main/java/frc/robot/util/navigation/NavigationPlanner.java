@@ -0,0 +1,615 @@
+package frc.robot.util.navigation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.NavigationConstants;
+import frc.robot.util.vision.ScoringLocation;
+
+/**
+ * <h2> NavigationPlanner </h2>
+ * The {@code NavigationPlanner} class plans collision-free routes across a {@link NavigationGrid}, as a list of
+ * straight segments between waypoints.
+ * <p>
+ * Routes to the fixed goals (a standoff point in front of each reef face and coral station, found from the AprilTag
+ * layout) are answered from a distance field computed once, when the goal is added: each cell stores the length of
+ * the shortest route from it to the goal. A query just walks downhill from the robot's cell and pulls the route
+ * tight using line of sight, which takes microseconds. Routes to any other point use a fresh Theta* search, an A*
+ * search whose nodes can link to any node they can see rather than just their neighbors, giving any-angle routes.
+ * <p>
+ * Moves between cells are 8-connected, but never cut the corner of a blocked cell. A start or goal inside a blocked
+ * cell (e.g. the robot is already up against the reef) is moved to the nearest free cell within
+ * {@code GOAL_SNAP_RADIUS}. Nothing is allocated by a query except the waypoints themselves. Must only be used from
+ * one thread.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.navigation.NavigationGrid}
+ */
+public class NavigationPlanner {
+
+    private static final double DIAGONAL = Math.sqrt(2.0);
+
+    /**
+     * <h2> Goal </h2>
+     * A fixed goal with a precomputed distance field.
+     */
+    public static class Goal {
+
+        private final String name;
+        private final double x;
+        private final double y;
+        private final double heading;
+        private final int cell;
+        private final float[] distances;
+
+        private Goal(String name, double x, double y, double heading, int cell, float[] distances) {
+            this.name = name;
+            this.x = x;
+            this.y = y;
+            this.heading = heading;
+            this.cell = cell;
+            this.distances = distances;
+        }
+
+        /**
+         * Returns the name of the goal, e.g. {@code "REEF_18"}.
+         *
+         * @return The name of the goal.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the X coordinate of the goal.
+         *
+         * @return The X coordinate, in meters.
+         */
+        public double getX() {
+            return x;
+        }
+
+        /**
+         * Returns the Y coordinate of the goal.
+         *
+         * @return The Y coordinate, in meters.
+         */
+        public double getY() {
+            return y;
+        }
+
+        /**
+         * Returns the heading the robot should have at the goal, e.g. facing the reef.
+         *
+         * @return The heading, in radians.
+         */
+        public double getHeading() {
+            return heading;
+        }
+
+        /**
+         * Returns the length of the shortest route from a position to this goal, through cell centers.
+         *
+         * @param grid The grid the goal was added to.
+         * @param x    The X coordinate, in meters.
+         * @param y    The Y coordinate, in meters.
+         * @return The distance, in meters, or infinity if the goal can't be reached.
+         */
+        public double getDistanceFrom(NavigationGrid grid, double x, double y) {
+            return distances[grid.getIndexAt(x, y)];
+        }
+
+        /**
+         * Returns the length of the shortest route from another goal to this one, starting from the free cell the
+         * other goal was snapped to.
+         *
+         * @param other A goal added to the same planner.
+         * @return The distance, in meters, or infinity if this goal can't be reached from the other one.
+         */
+        public double getDistanceFrom(Goal other) {
+            return distances[other.cell];
+        }
+    }
+
+    private final NavigationGrid grid;
+    private final List<Goal> goals = new ArrayList<>();
+    private final Map<String, Goal> goalsByName = new HashMap<>();
+
+    // Search state, reused by every search. A cell's score is only valid if its stamp matches the current search.
+    private final float[] scores;
+    private final int[] parents;
+    private final int[] stamps;
+    private final int[] closedStamps;
+    private int currentStamp = 0;
+
+    // Binary min-heap of cells, keyed by score. Cells can be pushed more than once; stale entries are skipped.
+    private final int[] heapCells;
+    private final float[] heapKeys;
+    private int heapSize = 0;
+
+    // The cells of a route, before it is pulled tight
+    private final int[] routeCells;
+
+    /**
+     * Creates a planner with no fixed goals.
+     *
+     * @param grid The grid to plan across.
+     */
+    public NavigationPlanner(NavigationGrid grid) {
+        this.grid = grid;
+        int cellCount = grid.getCellCount();
+        this.scores = new float[cellCount];
+        this.parents = new int[cellCount];
+        this.stamps = new int[cellCount];
+        this.closedStamps = new int[cellCount];
+        this.heapCells = new int[cellCount * 8 + 2]; // Each cell is pushed at most once per neighbor, plus the start
+        this.heapKeys = new float[cellCount * 8 + 2];
+        this.routeCells = new int[cellCount];
+    }
+
+    /**
+     * Creates a planner with a goal in front of every reef face and coral station in the field layout.
+     *
+     * @param grid        The grid to plan across.
+     * @param fieldLayout The AprilTag layout of the field.
+     * @return The planner.
+     */
+    public static NavigationPlanner createForField(NavigationGrid grid, AprilTagFieldLayout fieldLayout) {
+        NavigationPlanner planner = new NavigationPlanner(grid);
+        for (int tagId : NavigationConstants.REEF_TAG_IDS) {
+            planner.addTagGoal("REEF_" + tagId, fieldLayout, tagId, NavigationConstants.REEF_STANDOFF);
+        }
+        for (int tagId : NavigationConstants.CORAL_STATION_TAG_IDS) {
+            planner.addTagGoal("CORAL_STATION_" + tagId, fieldLayout, tagId, NavigationConstants.CORAL_STATION_STANDOFF);
+        }
+        return planner;
+    }
+
+    /**
+     * Adds a goal in front of an AprilTag, with the robot facing the tag.
+     *
+     * @param name        The name of the goal.
+     * @param fieldLayout The AprilTag layout of the field.
+     * @param tagId       The tag's ID.
+     * @param standoff    How far in front of the tag the robot's center should be, in meters.
+     */
+    private void addTagGoal(String name, AprilTagFieldLayout fieldLayout, int tagId, double standoff) {
+        Optional<Pose3d> tagPose = fieldLayout.getTagPose(tagId);
+        if (tagPose.isEmpty()) {
+            System.err.println("[NavigationPlanner] Tag " + tagId + " is not in the field layout");
+            return;
+        }
+
+        // Tags face out of the element they are on, so the robot stands along the tag's facing and looks back at it
+        double tagHeading = tagPose.get().getRotation().getZ();
+        double x = tagPose.get().getX() + Math.cos(tagHeading) * standoff;
+        double y = tagPose.get().getY() + Math.sin(tagHeading) * standoff;
+        addGoal(name, x, y, tagHeading + Math.PI);
+    }
+
+    /**
+     * Adds a fixed goal and computes its distance field.
+     *
+     * @param name    The name of the goal.
+     * @param x       The X coordinate, in meters.
+     * @param y       The Y coordinate, in meters.
+     * @param heading The heading the robot should have at the goal, in radians.
+     * @return The goal, or null if there is no free cell near it.
+     */
+    public Goal addGoal(String name, double x, double y, double heading) {
+        int cell = findFreeCell(x, y);
+        if (cell < 0) {
+            System.err.println("[NavigationPlanner] Goal " + name + " has no free cell nearby");
+            return null;
+        }
+
+        // Dijkstra outwards from the goal, over every reachable cell
+        float[] distances = new float[grid.getCellCount()];
+        Arrays.fill(distances, Float.POSITIVE_INFINITY);
+        distances[cell] = 0.0f;
+        heapSize = 0;
+        push(cell, 0.0f);
+        while (heapSize > 0) {
+            float distance = heapKeys[1];
+            int current = pop();
+            if (distance > distances[current]) {
+                continue; // Stale entry
+            }
+            for (int direction = 0; direction < 8; direction++) {
+                int neighbor = getNeighbor(current, direction);
+                if (neighbor < 0) {
+                    continue;
+                }
+                float neighborDistance = distance + (float) getStepLength(direction);
+                if (neighborDistance < distances[neighbor]) {
+                    distances[neighbor] = neighborDistance;
+                    push(neighbor, neighborDistance);
+                }
+            }
+        }
+
+        Goal goal = new Goal(name, x, y, heading, cell, distances);
+        goals.add(goal);
+        goalsByName.put(name, goal);
+        return goal;
+    }
+
+    /**
+     * Plans a route to a fixed goal using its distance field.
+     *
+     * @param goal      The goal.
+     * @param startX    The X coordinate of the start, in meters.
+     * @param startY    The Y coordinate of the start, in meters.
+     * @param waypoints Cleared, then filled with the route from the start to the goal, both included.
+     * @return Whether a route was found.
+     */
+    public boolean planToGoal(Goal goal, double startX, double startY, List<Translation2d> waypoints) {
+        waypoints.clear();
+        int start = findFreeCell(startX, startY);
+        if (start < 0 || Float.isInfinite(goal.distances[start])) {
+            return false;
+        }
+
+        // Walking downhill through the distance field
+        int length = 0;
+        int current = start;
+        routeCells[length++] = current;
+        while (current != goal.cell && length < routeCells.length) {
+            int next = -1;
+            float best = Float.POSITIVE_INFINITY;
+            for (int direction = 0; direction < 8; direction++) {
+                int neighbor = getNeighbor(current, direction);
+                if (neighbor < 0) {
+                    continue;
+                }
+                float distance = goal.distances[neighbor] + (float) getStepLength(direction);
+                if (distance < best) {
+                    best = distance;
+                    next = neighbor;
+                }
+            }
+            current = next;
+            routeCells[length++] = current;
+        }
+
+        pullTight(grid, routeCells, length, startX, startY, goal.x, goal.y, waypoints);
+        return true;
+    }
+
+    /**
+     * Plans a route to the reef goal nearest to a scoring location, ending lined up with the location itself.
+     *
+     * @param location  The scoring location, in field coordinates.
+     * @param startX    The X coordinate of the start, in meters.
+     * @param startY    The Y coordinate of the start, in meters.
+     * @param waypoints Cleared, then filled with the route from the start to the scoring location's standoff point.
+     * @return Whether a route was found.
+     */
+    public boolean planToScoringLocation(ScoringLocation location, double startX, double startY, List<Translation2d> waypoints) {
+        Goal goal = getNearestGoal(location.transform.getX(), location.transform.getY(), "REEF_");
+        if (goal == null || !planToGoal(goal, startX, startY, waypoints)) {
+            return false;
+        }
+
+        // Standing off from the branch itself, along the reef face's normal
+        double normalX = -Math.cos(goal.heading);
+        double normalY = -Math.sin(goal.heading);
+        waypoints.set(waypoints.size() - 1, new Translation2d(
+            location.transform.getX() + normalX * NavigationConstants.REEF_STANDOFF,
+            location.transform.getY() + normalY * NavigationConstants.REEF_STANDOFF
+        ));
+        return true;
+    }
+
+    /**
+     * Plans a route between any two points with a fresh Theta* search.
+     *
+     * @param startX    The X coordinate of the start, in meters.
+     * @param startY    The Y coordinate of the start, in meters.
+     * @param goalX     The X coordinate of the goal, in meters.
+     * @param goalY     The Y coordinate of the goal, in meters.
+     * @param waypoints Cleared, then filled with the route from the start to the goal, both included.
+     * @return Whether a route was found.
+     */
+    public boolean plan(double startX, double startY, double goalX, double goalY, List<Translation2d> waypoints) {
+        waypoints.clear();
+        int start = findFreeCell(startX, startY);
+        int goal = findFreeCell(goalX, goalY);
+        if (start < 0 || goal < 0) {
+            return false;
+        }
+
+        currentStamp++;
+        heapSize = 0;
+        setScore(start, 0.0f, start);
+        push(start, (float) getDistance(start, goal));
+
+        boolean found = false;
+        while (heapSize > 0) {
+            int current = pop();
+            if (closedStamps[current] == currentStamp) {
+                continue; // Stale entry
+            }
+            if (current == goal) {
+                found = true;
+                break;
+            }
+            closedStamps[current] = currentStamp;
+
+            int parent = parents[current];
+            for (int direction = 0; direction < 8; direction++) {
+                int neighbor = getNeighbor(current, direction);
+                if (neighbor < 0 || closedStamps[neighbor] == currentStamp) {
+                    continue;
+                }
+
+                // Linking straight to the current cell's parent if it can see the neighbor, otherwise to the current cell
+                float score;
+                int neighborParent;
+                if (grid.hasLineOfSight(parent, neighbor)) {
+                    score = scores[parent] + (float) getDistance(parent, neighbor);
+                    neighborParent = parent;
+                } else {
+                    score = scores[current] + (float) getStepLength(direction);
+                    neighborParent = current;
+                }
+
+                if (stamps[neighbor] != currentStamp || score < scores[neighbor]) {
+                    setScore(neighbor, score, neighborParent);
+                    push(neighbor, score + (float) getDistance(neighbor, goal));
+                }
+            }
+        }
+        if (!found) {
+            return false;
+        }
+
+        // Following the parents back from the goal, then reversing into start to goal order
+        int length = 0;
+        for (int cell = goal; ; cell = parents[cell]) {
+            routeCells[length++] = cell;
+            if (cell == start) {
+                break;
+            }
+        }
+        for (int i = 0; i < length / 2; i++) {
+            int swap = routeCells[i];
+            routeCells[i] = routeCells[length - 1 - i];
+            routeCells[length - 1 - i] = swap;
+        }
+
+        pullTight(grid, routeCells, length, startX, startY, goalX, goalY, waypoints);
+        return true;
+    }
+
+    /**
+     * Turns the cells of a route into waypoints, skipping every cell that can be driven past in a straight line.
+     * <p>
+     * The exact start and goal are usually not cell centers, and may even be inside a blocked cell they were
+     * snapped out of, so line of sight from and to them is checked from the exact positions. The first and last
+     * cells' centers are kept as waypoints whenever the exact positions can't see past them.
+     *
+     * @param grid       The grid the route was planned across.
+     * @param routeCells The cells of the route, from the start's cell to the goal's cell.
+     * @param length     The number of cells in {@code routeCells}.
+     * @param startX     The X coordinate of the exact start, in meters.
+     * @param startY     The Y coordinate of the exact start, in meters.
+     * @param goalX      The X coordinate of the exact goal, in meters.
+     * @param goalY      The Y coordinate of the exact goal, in meters.
+     * @param waypoints  The list to add the waypoints to.
+     */
+    static void pullTight(NavigationGrid grid, int[] routeCells, int length, double startX, double startY,
+            double goalX, double goalY, List<Translation2d> waypoints) {
+        waypoints.add(new Translation2d(startX, startY));
+
+        // Whether the straight segment being extended starts at the exact start, rather than at a cell's center
+        boolean fromStart = length < 2 || grid.hasLineOfSight(startX, startY, grid.getCenterX(routeCells[1]), grid.getCenterY(routeCells[1]));
+        int anchor = routeCells[0];
+        if (!fromStart) {
+            waypoints.add(new Translation2d(grid.getCenterX(anchor), grid.getCenterY(anchor)));
+        }
+
+        for (int i = 1; i < length - 1; i++) {
+            int next = routeCells[i + 1];
+            boolean visible = fromStart
+                ? grid.hasLineOfSight(startX, startY, grid.getCenterX(next), grid.getCenterY(next))
+                : grid.hasLineOfSight(anchor, next);
+            if (!visible) {
+                anchor = routeCells[i];
+                fromStart = false;
+                waypoints.add(new Translation2d(grid.getCenterX(anchor), grid.getCenterY(anchor)));
+            }
+        }
+
+        // The last segment reaches the goal's cell, but not necessarily the exact goal
+        int last = routeCells[length - 1];
+        boolean goalVisible = fromStart
+            ? grid.hasLineOfSight(startX, startY, goalX, goalY)
+            : grid.hasLineOfSight(grid.getCenterX(anchor), grid.getCenterY(anchor), goalX, goalY);
+        if (!goalVisible && (fromStart || anchor != last)) {
+            waypoints.add(new Translation2d(grid.getCenterX(last), grid.getCenterY(last)));
+        }
+        waypoints.add(new Translation2d(goalX, goalY));
+    }
+
+    /**
+     * Finds the free cell nearest to a position, within {@code GOAL_SNAP_RADIUS}.
+     *
+     * @param x The X coordinate, in meters.
+     * @param y The Y coordinate, in meters.
+     * @return The cell's index, or -1 if there is none.
+     */
+    private int findFreeCell(double x, double y) {
+        int cell = grid.getIndexAt(x, y);
+        if (!grid.isBlocked(cell)) {
+            return cell;
+        }
+
+        int radius = (int) Math.ceil(NavigationConstants.GOAL_SNAP_RADIUS / grid.getNodeSize());
+        int centerColumn = cell % grid.getColumns();
+        int centerRow = cell / grid.getColumns();
+        int best = -1;
+        double bestDistance = NavigationConstants.GOAL_SNAP_RADIUS;
+        for (int row = centerRow - radius; row <= centerRow + radius; row++) {
+            for (int column = centerColumn - radius; column <= centerColumn + radius; column++) {
+                if (grid.isBlocked(column, row)) {
+                    continue;
+                }
+                int candidate = grid.getIndex(column, row);
+                double distance = Math.hypot(grid.getCenterX(candidate) - x, grid.getCenterY(candidate) - y);
+                if (distance <= bestDistance) {
+                    bestDistance = distance;
+                    best = candidate;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the neighbor of a cell in one of the 8 directions, if it can be moved to. Diagonal moves are only
+     * allowed if both cells beside the diagonal are free, so the robot never cuts a corner.
+     *
+     * @param cell      The cell's index.
+     * @param direction The direction, 0 to 3 orthogonal, 4 to 7 diagonal.
+     * @return The neighbor's index, or -1 if it is blocked.
+     */
+    private int getNeighbor(int cell, int direction) {
+        int column = cell % grid.getColumns();
+        int row = cell / grid.getColumns();
+        int stepColumn;
+        int stepRow;
+        switch (direction) {
+            case 0: stepColumn = 1; stepRow = 0; break;
+            case 1: stepColumn = -1; stepRow = 0; break;
+            case 2: stepColumn = 0; stepRow = 1; break;
+            case 3: stepColumn = 0; stepRow = -1; break;
+            case 4: stepColumn = 1; stepRow = 1; break;
+            case 5: stepColumn = 1; stepRow = -1; break;
+            case 6: stepColumn = -1; stepRow = 1; break;
+            default: stepColumn = -1; stepRow = -1; break;
+        }
+
+        if (grid.isBlocked(column + stepColumn, row + stepRow)) {
+            return -1;
+        }
+        if (direction >= 4 && (grid.isBlocked(column + stepColumn, row) || grid.isBlocked(column, row + stepRow))) {
+            return -1;
+        }
+        return grid.getIndex(column + stepColumn, row + stepRow);
+    }
+
+    private double getStepLength(int direction) {
+        return (direction < 4 ? 1.0 : DIAGONAL) * grid.getNodeSize();
+    }
+
+    private double getDistance(int fromCell, int toCell) {
+        return Math.hypot(grid.getCenterX(toCell) - grid.getCenterX(fromCell), grid.getCenterY(toCell) - grid.getCenterY(fromCell));
+    }
+
+    private void setScore(int cell, float score, int parent) {
+        scores[cell] = score;
+        parents[cell] = parent;
+        stamps[cell] = currentStamp;
+    }
+
+    private void push(int cell, float key) {
+        // Sifting up from the end of the heap (1-indexed)
+        int index = ++heapSize;
+        while (index > 1 && heapKeys[index >> 1] > key) {
+            heapCells[index] = heapCells[index >> 1];
+            heapKeys[index] = heapKeys[index >> 1];
+            index >>= 1;
+        }
+        heapCells[index] = cell;
+        heapKeys[index] = key;
+    }
+
+    private int pop() {
+        int top = heapCells[1];
+        int lastCell = heapCells[heapSize];
+        float lastKey = heapKeys[heapSize];
+        heapSize--;
+
+        // Sifting the last entry down from the root
+        int index = 1;
+        while (true) {
+            int child = index << 1;
+            if (child > heapSize) {
+                break;
+            }
+            if (child < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (heapKeys[child] >= lastKey) {
+                break;
+            }
+            heapCells[index] = heapCells[child];
+            heapKeys[index] = heapKeys[child];
+            index = child;
+        }
+        heapCells[index] = lastCell;
+        heapKeys[index] = lastKey;
+        return top;
+    }
+
+    /**
+     * Returns the fixed goal nearest to a position whose name starts with the given prefix.
+     *
+     * @param x      The X coordinate, in meters.
+     * @param y      The Y coordinate, in meters.
+     * @param prefix The start of the goal's name, e.g. {@code "REEF_"}, or an empty string for any goal.
+     * @return The nearest goal, or null if there is none.
+     */
+    public Goal getNearestGoal(double x, double y, String prefix) {
+        Goal nearest = null;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (Goal goal : goals) {
+            if (!goal.name.startsWith(prefix)) {
+                continue;
+            }
+            double distance = Math.hypot(goal.x - x, goal.y - y);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = goal;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the fixed goal with the given name.
+     *
+     * @param name The goal's name, e.g. {@code "REEF_18"}.
+     * @return The goal, or null if there is none.
+     */
+    public Goal getGoal(String name) {
+        return goalsByName.get(name);
+    }
+
+    /**
+     * Returns every fixed goal, in the order they were added.
+     *
+     * @return The goals.
+     */
+    public List<Goal> getGoals() {
+        return Collections.unmodifiableList(goals);
+    }
+
+    /**
+     * Returns the grid this planner plans across.
+     *
+     * @return The grid.
+     */
+    public NavigationGrid getGrid() {
+        return grid;
+    }
+}
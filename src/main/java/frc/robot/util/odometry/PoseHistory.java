@@ -0,0 +1,301 @@
+package frc.robot.util.odometry;
+
+import java.lang.invoke.VarHandle;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * <h2> PoseHistory </h2>
+ * The {@code PoseHistory} class is a fixed-capacity ring buffer of the robot's recent odometry, used to answer
+ * "where was the robot at time t?" for measurements that arrive late (vision frames, OceanView detections, etc.).
+ * <p>
+ * Every entry holds a timestamp, the field-relative pose (x, y, theta) and the field-relative velocity
+ * (vx, vy, omega), stored in primitive arrays that are allocated once. Lookups use a binary search over the
+ * timestamps and interpolate between the two surrounding entries: linearly for position and velocity, and along
+ * the shortest arc for the heading.
+ * <p>
+ * There must be a single writer (the main robot thread, through {@link #record}). Any number of other threads can
+ * read at the same time without locking: the buffer is guarded by a sequence counter, and a read that overlaps
+ * with a write is simply retried.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.subsystems.DriveSubsystem}
+ */
+public class PoseHistory {
+
+    // Number of values stored per entry, after the timestamp
+    private static final int STATE_SIZE = 6;
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int THETA = 2;
+    private static final int VELOCITY_X = 3;
+    private static final int VELOCITY_Y = 4;
+    private static final int ANGULAR_VELOCITY = 5;
+
+    private final int capacity;
+    private final int mask;
+    private final double[] timestamps;
+    private final double[] states;
+
+    // Index of the next entry to write, and the number of valid entries. Only written by the writer thread.
+    private int head = 0;
+    private int size = 0;
+
+    // Odd while a write is in progress. Readers retry if it changed while they were reading.
+    private volatile long sequence = 0;
+
+    /**
+     * Creates an empty pose history.
+     *
+     * @param capacity The maximum number of entries kept. Rounded up to the next power of two.
+     */
+    public PoseHistory(int capacity) {
+        int roundedCapacity = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.capacity = roundedCapacity;
+        this.mask = roundedCapacity - 1;
+        this.timestamps = new double[roundedCapacity];
+        this.states = new double[roundedCapacity * STATE_SIZE];
+    }
+
+    /**
+     * Adds an entry to the history, overwriting the oldest one if it is full. Entries must be recorded in
+     * increasing timestamp order; an entry older than the newest one is ignored. Must only be called from one thread.
+     *
+     * @param timestamp       The time of the entry, in seconds (FPGA time).
+     * @param x               The robot's X position, in meters.
+     * @param y               The robot's Y position, in meters.
+     * @param theta           The robot's heading, in radians.
+     * @param velocityX       The robot's field-relative X velocity, in meters per second.
+     * @param velocityY       The robot's field-relative Y velocity, in meters per second.
+     * @param angularVelocity The robot's angular velocity, in radians per second.
+     */
+    public void record(double timestamp, double x, double y, double theta, double velocityX, double velocityY, double angularVelocity) {
+        if (size > 0 && timestamp <= timestamps[(head - 1) & mask]) {
+            return;
+        }
+
+        // Marking the buffer as being written, and making sure readers see that before any of the new values
+        long currentSequence = sequence;
+        sequence = currentSequence + 1;
+        VarHandle.storeStoreFence();
+
+        int offset = head * STATE_SIZE;
+        timestamps[head] = timestamp;
+        states[offset + X] = x;
+        states[offset + Y] = y;
+        states[offset + THETA] = theta;
+        states[offset + VELOCITY_X] = velocityX;
+        states[offset + VELOCITY_Y] = velocityY;
+        states[offset + ANGULAR_VELOCITY] = angularVelocity;
+
+        head = (head + 1) & mask;
+        if (size < capacity) {
+            size++;
+        }
+
+        // The volatile write publishes everything above
+        sequence = currentSequence + 2;
+    }
+
+    /**
+     * Removes every entry. Must only be called from the writer thread.
+     */
+    public void clear() {
+        long currentSequence = sequence;
+        sequence = currentSequence + 1;
+        VarHandle.storeStoreFence();
+        head = 0;
+        size = 0;
+        sequence = currentSequence + 2;
+    }
+
+    /**
+     * Finds the robot's state at the given time, interpolating between the two closest entries, and writes it
+     * into {@code output}. Times before the oldest entry or after the newest entry are not extrapolated; the
+     * lookup fails instead. Safe to call from any thread, and does not allocate.
+     *
+     * @param timestamp The time to look up, in seconds (FPGA time).
+     * @param output    The sample to write the result into.
+     * @return {@code true} if the time was inside of the history and {@code output} was filled in.
+     */
+    public boolean sample(double timestamp, Sample output) {
+        while (true) {
+            long startSequence = sequence;
+            if ((startSequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            boolean found = readSample(timestamp, output);
+
+            // Retry if a write happened while we were reading
+            VarHandle.loadLoadFence();
+            if (sequence == startSequence) {
+                return found;
+            }
+        }
+    }
+
+    /**
+     * Returns the robot's interpolated pose at the given time. Safe to call from any thread.
+     *
+     * @param timestamp The time to look up, in seconds (FPGA time).
+     * @return The pose at that time, or null if the time is outside of the history.
+     */
+    public Pose2d getPoseAt(double timestamp) {
+        Sample sample = new Sample();
+        if (!sample(timestamp, sample)) {
+            return null;
+        }
+        return sample.toPose2d();
+    }
+
+    /**
+     * Writes the newest entry into {@code output}. Safe to call from any thread, and does not allocate.
+     *
+     * @param output The sample to write the result into.
+     * @return {@code true} if the history has at least one entry and {@code output} was filled in.
+     */
+    public boolean latest(Sample output) {
+        while (true) {
+            long startSequence = sequence;
+            if ((startSequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            int currentSize = size;
+            if (currentSize > 0) {
+                copyEntry((head - 1) & mask, output);
+            }
+
+            VarHandle.loadLoadFence();
+            if (sequence == startSequence) {
+                return currentSize > 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries currently stored.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of entries that can be stored.
+     *
+     * @return The capacity of the history.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Performs a single, unguarded lookup. The values read may be torn if a write is in progress, so the caller
+     * must check the sequence counter. Every index is masked, so torn values can never cause an exception.
+     *
+     * @param timestamp The time to look up.
+     * @param output    The sample to write into.
+     * @return {@code true} if the time was inside of the history.
+     */
+    private boolean readSample(double timestamp, Sample output) {
+        int currentSize = Math.min(size, capacity);
+        if (currentSize == 0) {
+            return false;
+        }
+
+        int oldest = (head - currentSize) & mask;
+        int newest = (head - 1) & mask;
+        if (timestamp < timestamps[oldest] || timestamp > timestamps[newest]) {
+            return false;
+        }
+
+        // Binary search for the first entry at or after the timestamp, in logical (oldest first) order
+        int low = 0;
+        int high = currentSize - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[(oldest + middle) & mask] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int after = (oldest + low) & mask;
+        if (low == 0 || timestamps[after] == timestamp) {
+            copyEntry(after, output);
+            return true;
+        }
+
+        int before = (oldest + low - 1) & mask;
+        double span = timestamps[after] - timestamps[before];
+        double t = span > 0.0 ? (timestamp - timestamps[before]) / span : 0.0;
+        int beforeOffset = before * STATE_SIZE;
+        int afterOffset = after * STATE_SIZE;
+
+        output.timestamp = timestamp;
+        output.x = lerp(states[beforeOffset + X], states[afterOffset + X], t);
+        output.y = lerp(states[beforeOffset + Y], states[afterOffset + Y], t);
+
+        // Interpolating the heading along the shortest arc, so that -179 and 179 degrees meet at 180
+        double thetaBefore = states[beforeOffset + THETA];
+        output.theta = MathUtil.angleModulus(thetaBefore + MathUtil.angleModulus(states[afterOffset + THETA] - thetaBefore) * t);
+
+        output.velocityX = lerp(states[beforeOffset + VELOCITY_X], states[afterOffset + VELOCITY_X], t);
+        output.velocityY = lerp(states[beforeOffset + VELOCITY_Y], states[afterOffset + VELOCITY_Y], t);
+        output.angularVelocity = lerp(states[beforeOffset + ANGULAR_VELOCITY], states[afterOffset + ANGULAR_VELOCITY], t);
+        return true;
+    }
+
+    /**
+     * Copies a single entry into the output sample.
+     *
+     * @param index  The (masked) index of the entry.
+     * @param output The sample to write into.
+     */
+    private void copyEntry(int index, Sample output) {
+        int offset = index * STATE_SIZE;
+        output.timestamp = timestamps[index];
+        output.x = states[offset + X];
+        output.y = states[offset + Y];
+        output.theta = states[offset + THETA];
+        output.velocityX = states[offset + VELOCITY_X];
+        output.velocityY = states[offset + VELOCITY_Y];
+        output.angularVelocity = states[offset + ANGULAR_VELOCITY];
+    }
+
+    private static double lerp(double start, double end, double t) {
+        return start + (end - start) * t;
+    }
+
+    /**
+     * <h2> Sample </h2>
+     * A mutable holder for a single (possibly interpolated) entry of the history. Callers keep one around and
+     * reuse it, so that lookups don't allocate.
+     */
+    public static final class Sample {
+        public double timestamp;
+        public double x;
+        public double y;
+        public double theta;
+        public double velocityX;
+        public double velocityY;
+        public double angularVelocity;
+
+        /**
+         * Converts the position of this sample into a Pose2d.
+         *
+         * @return A new Pose2d at this sample's position and heading.
+         */
+        public Pose2d toPose2d() {
+            return new Pose2d(x, y, new Rotation2d(theta));
+        }
+    }
+}
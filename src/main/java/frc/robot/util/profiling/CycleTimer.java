@@ -0,0 +1,91 @@
+package frc.robot.util.profiling;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * <h2> CycleTimer </h2>
+ * The {@code CycleTimer} class measures scoring cycles, from the moment the driver asks for a score to the moment
+ * the game piece is placed. Finished cycles are recorded into a {@link LatencyHistogram}, and the last, median and
+ * best cycle times are published to SmartDashboard under the timer's name, along with how many cycles were
+ * finished and how many were abandoned (e.g. the button was released, or there was nothing to score on).
+ * <p>
+ * Cycles are timed with the FPGA clock, so the times are unaffected by loop overruns. All methods must be called
+ * from the main robot thread.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.RobotContainer}
+ */
+public class CycleTimer {
+
+    private static final double NANOSECONDS_PER_SECOND = 1e9;
+
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private double startTime = 0.0;
+    private boolean running = false;
+    private long abandonedCount = 0;
+    private double bestTime = Double.POSITIVE_INFINITY;
+
+    /**
+     * Creates a cycle timer.
+     *
+     * @param name The dashboard key the results are published under, e.g. "Cycles/Coral".
+     */
+    public CycleTimer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Starts timing a cycle. Any cycle that was still running is abandoned.
+     */
+    public void start() {
+        if (running) {
+            abandonedCount++;
+        }
+        startTime = Timer.getFPGATimestamp();
+        running = true;
+    }
+
+    /**
+     * Finishes the running cycle, records its time and publishes the results. Does nothing if no cycle is running.
+     */
+    public void finish() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        double cycleTime = Timer.getFPGATimestamp() - startTime;
+        histogram.record((long) (cycleTime * NANOSECONDS_PER_SECOND));
+        bestTime = Math.min(bestTime, cycleTime);
+
+        SmartDashboard.putNumber(name + "/Last (s)", cycleTime);
+        SmartDashboard.putNumber(name + "/Median (s)", histogram.getValueAtPercentile(50.0) / NANOSECONDS_PER_SECOND);
+        SmartDashboard.putNumber(name + "/Best (s)", bestTime);
+        SmartDashboard.putNumber(name + "/Count", histogram.getTotalCount());
+    }
+
+    /**
+     * Abandons the running cycle without recording it. Does nothing if no cycle is running, so it is safe to call
+     * after {@link #finish()}.
+     */
+    public void abandon() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        abandonedCount++;
+        SmartDashboard.putNumber(name + "/Abandoned", abandonedCount);
+    }
+
+    /**
+     * Returns whether a cycle is being timed.
+     *
+     * @return Whether a cycle is running.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,131 @@
+package frc.robot.util.profiling;
+
+import java.util.Arrays;
+
+/**
+ * <h2> LatencyHistogram </h2>
+ * The {@code LatencyHistogram} class is a fixed-size, log-linear histogram of nanosecond durations. All of the
+ * storage is allocated up front, so recording a sample never allocates and costs a handful of integer operations.
+ * This makes it safe to use inside of the robot's 20 ms control loop.
+ * <p>
+ * Samples are grouped by their power of two, and each power of two is split into {@code SUB_BUCKETS} linear
+ * sub-buckets. This keeps the relative error of any reported percentile below {@code 1 / SUB_BUCKETS}.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.profiling.LoopProfiler}
+ */
+public class LatencyHistogram {
+
+    // Number of linear sub-buckets inside of each power of two. Must be a power of two itself.
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // One group of sub-buckets per possible leading bit of a (positive) long.
+    private static final int BUCKET_COUNT = 64 * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount = 0;
+    private long maxValue = 0;
+
+    /**
+     * Records a single duration.
+     *
+     * @param nanoseconds The duration to record, in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record(long nanoseconds) {
+        long value = Math.max(nanoseconds, 0);
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        if (value > maxValue) {
+            maxValue = value;
+        }
+    }
+
+    /**
+     * Returns the approximate value at the given percentile.
+     *
+     * @param percentile The percentile to look up, between 0.0 and 100.0.
+     * @return The approximate value at that percentile, in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        // The rank of the sample we are looking for (1 indexed).
+        long targetRank = (long) Math.ceil((Math.min(Math.max(percentile, 0.0), 100.0) / 100.0) * totalCount);
+        targetRank = Math.max(targetRank, 1);
+
+        // Walk the buckets until we have passed enough samples.
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= targetRank) {
+                return Math.min(bucketUpperBound(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Returns the largest duration recorded so far.
+     *
+     * @return The largest duration recorded so far, in nanoseconds.
+     */
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Returns the number of durations recorded so far.
+     *
+     * @return The number of durations recorded so far.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Clears every recorded sample without releasing any memory.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxValue = 0;
+    }
+
+    /**
+     * Returns the index of the bucket that the given value falls into.
+     *
+     * @param value The (non-negative) value.
+     * @return The bucket index.
+     */
+    private static int bucketIndex(long value) {
+
+        // Values smaller than SUB_BUCKETS map directly onto the first group of buckets.
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        // Position of the highest set bit, and the bits directly below it, pick the bucket.
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest value that falls inside of the given bucket.
+     *
+     * @param index The bucket index.
+     * @return The inclusive upper bound of the bucket.
+     */
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        long lowerBound = (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,292 @@
+package frc.robot.util.profiling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.Constants.ProfilingConstants;
+import frc.robot.Constants.TelemetryConstants;
+import frc.robot.util.telemetry.TelemetryPublisher;
+
+/**
+ * <h2> LoopProfiler </h2>
+ * The {@code LoopProfiler} class measures how long each stage of the robot's main loop takes to run. Subsystems
+ * and commands register a {@link Stage} once, and then wrap their {@code periodic()} or {@code execute()} body in
+ * {@link Stage#start()} and {@link Stage#stop()}. Timings are recorded into preallocated {@link LatencyHistogram}s,
+ * so profiling does not allocate during a match.
+ * <p>
+ * Once per {@code ProfilingConstants.DASHBOARD_PUBLISH_PERIOD_LOOPS} loops, the p50, p99 and max of every stage
+ * are handed to the {@link TelemetryPublisher}, which sends them to SmartDashboard when they change. Whenever a
+ * loop takes longer than the loop period, the stage that used the most time during that loop is flagged as the
+ * cause of the overrun.
+ * <p>
+ * Stages may run inside other stages (e.g. a camera's stage inside the vision subsystem's). Each stage still
+ * records its full time, but only top-level stages count towards the time attributed to stages, so nested time
+ * is not counted twice when working out how much of the loop was spent outside of every stage.
+ * <p>
+ * All methods must be called from the main robot thread.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.Robot}
+ */
+public final class LoopProfiler {
+
+    private static final LoopProfiler instance = new LoopProfiler();
+
+    private static final double NANOSECONDS_PER_MILLISECOND = 1e6;
+
+    // Name used when the time spent outside of every registered stage caused an overrun.
+    private static final String UNATTRIBUTED_STAGE_NAME = "Other";
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final LatencyHistogram loopHistogram = new LatencyHistogram();
+
+    private long loopStartTime = 0;
+    private int activeStageDepth = 0;
+    private long loopPeriodNanoseconds = (long) (ProfilingConstants.DEFAULT_LOOP_PERIOD * 1e9);
+    private int loopsSincePublish = 0;
+    private long overrunCount = 0;
+    private String lastOverrunStage = "None";
+
+    // Dashboard topics for the loop as a whole
+    private final TelemetryPublisher.NumberTopic loopP50Topic = registerNumber("Profiler/Loop/p50 (ms)");
+    private final TelemetryPublisher.NumberTopic loopP99Topic = registerNumber("Profiler/Loop/p99 (ms)");
+    private final TelemetryPublisher.NumberTopic loopMaxTopic = registerNumber("Profiler/Loop/max (ms)");
+    private final TelemetryPublisher.NumberTopic overrunsTopic = registerNumber("Profiler/Overruns");
+    private final TelemetryPublisher.StringTopic lastOverrunStageTopic = TelemetryPublisher.getInstance()
+            .registerString("Profiler/Last Overrun Stage", TelemetryConstants.STATUS_PUBLISH_PERIOD);
+
+    /**
+     * Returns the shared LoopProfiler instance.
+     *
+     * @return The shared LoopProfiler instance.
+     */
+    public static LoopProfiler getInstance() {
+        return instance;
+    }
+
+    private LoopProfiler() {
+    }
+
+    /**
+     * Registers a profiler number with the {@link TelemetryPublisher}.
+     *
+     * @param key The SmartDashboard key.
+     * @return The topic.
+     */
+    private static TelemetryPublisher.NumberTopic registerNumber(String key) {
+        return TelemetryPublisher.getInstance().registerNumber(key, TelemetryConstants.STATUS_PUBLISH_PERIOD);
+    }
+
+    /**
+     * Registers a new stage with the profiler. This should be called once, when the owning object is created.
+     * If a stage with the same name already exists (e.g. a command that is recreated every time teleop starts),
+     * the existing stage is returned instead so its history is kept.
+     *
+     * @param name The name shown on the dashboard, e.g. "DriveSubsystem.periodic".
+     * @return The stage, which is used to time each run.
+     */
+    public Stage registerStage(String name) {
+        for (Stage existingStage : stages) {
+            if (existingStage.name.equals(name)) {
+                return existingStage;
+            }
+        }
+
+        Stage stage = new Stage(name);
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Sets the loop period used to detect overruns.
+     *
+     * @param periodSeconds The expected loop period, in seconds.
+     */
+    public void setLoopPeriod(double periodSeconds) {
+        this.loopPeriodNanoseconds = (long) (periodSeconds * 1e9);
+    }
+
+    /**
+     * Marks the start of a robot loop. Call this before {@code CommandScheduler.getInstance().run()}.
+     */
+    public void beginLoop() {
+        if (!ProfilingConstants.ENABLED) {
+            return;
+        }
+        loopStartTime = System.nanoTime();
+        activeStageDepth = 0; // In case a stage was started but never stopped last loop
+    }
+
+    /**
+     * Marks the end of a robot loop. Records each stage's time for this loop, flags the stage responsible for an
+     * overrun (if any), and periodically publishes the results to the dashboard.
+     */
+    public void endLoop() {
+        if (!ProfilingConstants.ENABLED) {
+            return;
+        }
+
+        long loopTime = System.nanoTime() - loopStartTime;
+        loopHistogram.record(loopTime);
+
+        // Record every stage that ran this loop and find the most expensive one.
+        Stage slowestStage = null;
+        long slowestStageTime = 0;
+        long attributedTime = 0;
+        for (int i = 0; i < stages.size(); i++) {
+            Stage stage = stages.get(i);
+            if (stage.runsThisLoop == 0) {
+                continue;
+            }
+
+            stage.histogram.record(stage.timeThisLoop);
+            attributedTime += stage.topLevelTimeThisLoop;
+            if (stage.timeThisLoop > slowestStageTime) {
+                slowestStageTime = stage.timeThisLoop;
+                slowestStage = stage;
+            }
+
+            stage.timeThisLoop = 0;
+            stage.topLevelTimeThisLoop = 0;
+            stage.runsThisLoop = 0;
+        }
+
+        // Flag the stage responsible for the overrun. If more time was spent outside of every stage
+        // (scheduler overhead, NetworkTables, unprofiled subsystems) than inside the slowest stage, blame that instead.
+        if (loopTime > loopPeriodNanoseconds) {
+            overrunCount++;
+            if (slowestStage != null && slowestStageTime >= loopTime - attributedTime) {
+                slowestStage.overrunCount++;
+                lastOverrunStage = slowestStage.name;
+            } else {
+                lastOverrunStage = UNATTRIBUTED_STAGE_NAME;
+            }
+
+            if (ProfilingConstants.REPORT_OVERRUN_WARNINGS) {
+                DriverStation.reportWarning("[LoopProfiler] Loop overrun ("
+                        + (loopTime / NANOSECONDS_PER_MILLISECOND) + " ms), caused by " + lastOverrunStage, false);
+            }
+        }
+
+        // Only push to the dashboard every so often to keep NetworkTables traffic down.
+        loopsSincePublish++;
+        if (loopsSincePublish >= ProfilingConstants.DASHBOARD_PUBLISH_PERIOD_LOOPS) {
+            loopsSincePublish = 0;
+            publish();
+        }
+    }
+
+    /**
+     * Clears all recorded timings, e.g. when switching between robot modes.
+     */
+    public void reset() {
+        loopHistogram.reset();
+        overrunCount = 0;
+        lastOverrunStage = "None";
+        for (int i = 0; i < stages.size(); i++) {
+            Stage stage = stages.get(i);
+            stage.histogram.reset();
+            stage.overrunCount = 0;
+        }
+    }
+
+    /**
+     * Hands the p50, p99 and max of every stage, plus overrun information, to the {@link TelemetryPublisher}.
+     */
+    private void publish() {
+        loopP50Topic.set(loopHistogram.getValueAtPercentile(50) / NANOSECONDS_PER_MILLISECOND);
+        loopP99Topic.set(loopHistogram.getValueAtPercentile(99) / NANOSECONDS_PER_MILLISECOND);
+        loopMaxTopic.set(loopHistogram.getMaxValue() / NANOSECONDS_PER_MILLISECOND);
+        overrunsTopic.set(overrunCount);
+        lastOverrunStageTopic.set(lastOverrunStage);
+
+        for (int i = 0; i < stages.size(); i++) {
+            stages.get(i).publish();
+        }
+    }
+
+    /**
+     * <h2> Stage </h2>
+     * A single timed section of the robot loop, such as a subsystem's {@code periodic()} method. A stage may be
+     * started and stopped several times per loop; the times are summed together.
+     */
+    public static final class Stage {
+
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        // Dashboard topics are registered once so publishing does not create new strings.
+        private final TelemetryPublisher.NumberTopic p50Topic;
+        private final TelemetryPublisher.NumberTopic p99Topic;
+        private final TelemetryPublisher.NumberTopic maxTopic;
+        private final TelemetryPublisher.NumberTopic overrunTopic;
+
+        private long startTime = 0;
+        private int depth = 0;
+        private long timeThisLoop = 0;
+        private long topLevelTimeThisLoop = 0; // Only the runs that weren't inside another stage
+        private int runsThisLoop = 0;
+        private long overrunCount = 0;
+
+        private Stage(String name) {
+            this.name = name;
+            this.p50Topic = registerNumber("Profiler/" + name + "/p50 (ms)");
+            this.p99Topic = registerNumber("Profiler/" + name + "/p99 (ms)");
+            this.maxTopic = registerNumber("Profiler/" + name + "/max (ms)");
+            this.overrunTopic = registerNumber("Profiler/" + name + "/Overruns");
+        }
+
+        /**
+         * Starts timing this stage.
+         */
+        public void start() {
+            depth = instance.activeStageDepth++;
+            startTime = System.nanoTime();
+        }
+
+        /**
+         * Stops timing this stage and adds the elapsed time to this loop's total.
+         */
+        public void stop() {
+            long elapsed = System.nanoTime() - startTime;
+            timeThisLoop += elapsed;
+            if (depth == 0) {
+                topLevelTimeThisLoop += elapsed;
+            }
+            instance.activeStageDepth = Math.max(0, instance.activeStageDepth - 1);
+            runsThisLoop++;
+        }
+
+        /**
+         * Returns the name of this stage.
+         *
+         * @return The name of this stage.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the histogram of this stage's per-loop times.
+         *
+         * @return The histogram of this stage's per-loop times, in nanoseconds.
+         */
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        /**
+         * Hands this stage's statistics to the {@link TelemetryPublisher}.
+         */
+        private void publish() {
+            if (histogram.getTotalCount() == 0) {
+                return;
+            }
+            p50Topic.set(histogram.getValueAtPercentile(50) / NANOSECONDS_PER_MILLISECOND);
+            p99Topic.set(histogram.getValueAtPercentile(99) / NANOSECONDS_PER_MILLISECOND);
+            maxTopic.set(histogram.getMaxValue() / NANOSECONDS_PER_MILLISECOND);
+            overrunTopic.set(overrunCount);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package frc.robot.util.replay;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.targeting.PhotonPipelineResult;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Quaternion;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/**
+ * <h2> ReplayLogReader </h2>
+ * The {@code ReplayLogReader} class reads a log written by {@link ReplayLogWriter}, handing every record to a
+ * {@link Listener} in the order it was written. Records are streamed from the file, so a long log does not need
+ * to fit in memory.
+ * <p>
+ * A log starts with a header (the int {@code MAGIC} and the short {@code VERSION}), followed by records, each
+ * starting with a one byte type. All values are big-endian.
+ * <ul>
+ *   <li>{@code CAMERA}: short index, UTF name, robot to camera x, y, z and quaternion w, x, y, z (doubles).</li>
+ *   <li>{@code ODOMETRY}: timestamp, gyro yaw in radians (doubles), byte module count, then distance and angle
+ *       in radians (doubles) for each module.</li>
+ *   <li>{@code VISION}: short camera index, long time the result was received in microseconds (FPGA time),
+ *       int length, then the PhotonVision packet of the pipeline result.</li>
+ *   <li>{@code ESTIMATED_POSE} and {@code TRUE_POSE}: timestamp, x, y and heading in radians (doubles).</li>
+ * </ul>
+ * A log that was cut off in the middle of a record (e.g. the robot lost power) is read up to the last full record.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.replay.ReplayRunner}
+ */
+public class ReplayLogReader implements Closeable {
+
+    static final int MAGIC = 0x52504C59; // "RPLY"
+    static final short VERSION = 2;
+
+    static final byte CAMERA = 1;
+    static final byte ODOMETRY = 2;
+    static final byte VISION = 3;
+    static final byte ESTIMATED_POSE = 4;
+    static final byte TRUE_POSE = 5;
+
+    /**
+     * Receives the records of a log, in the order they were written.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a camera is registered, before any of its results.
+         *
+         * @param cameraIndex   The index of the camera.
+         * @param cameraName    The name of the camera.
+         * @param robotToCamera The transform from the robot's origin to the camera.
+         */
+        void onCamera(int cameraIndex, String cameraName, Transform3d robotToCamera);
+
+        /**
+         * Called for every odometry update.
+         *
+         * @param timestamp       The time of the update, in seconds.
+         * @param gyroYaw         The gyroscope heading.
+         * @param modulePositions The swerve module positions. The array is reused for the next record.
+         */
+        void onOdometry(double timestamp, Rotation2d gyroYaw, SwerveModulePosition[] modulePositions);
+
+        /**
+         * Called for every pipeline result.
+         *
+         * @param cameraIndex The index of the camera that produced the result.
+         * @param result      The pipeline result.
+         */
+        void onVision(int cameraIndex, PhotonPipelineResult result);
+
+        /**
+         * Called for every reference pose.
+         *
+         * @param timestamp The time of the pose, in seconds.
+         * @param pose      The pose.
+         * @param truth     True if this is the true pose (simulation), false if it is the robot's own estimate.
+         */
+        void onReference(double timestamp, Pose2d pose, boolean truth);
+    }
+
+    private final DataInputStream input;
+    private SwerveModulePosition[] modulePositions = new SwerveModulePosition[0];
+    private byte[] packetData = new byte[0];
+
+    /**
+     * Opens a log and checks its header.
+     *
+     * @param path The file to read.
+     * @throws IOException If the file could not be opened, or is not a replay log of this version.
+     */
+    public ReplayLogReader(String path) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(path)));
+        try {
+            if (input.readInt() != MAGIC) {
+                throw new IOException(path + " is not a replay log");
+            }
+            short version = input.readShort();
+            if (version != VERSION) {
+                throw new IOException(path + " is version " + version + ", but only version " + VERSION + " can be read");
+            }
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads every remaining record, handing each to the listener.
+     *
+     * @param listener The listener to hand the records to.
+     * @return The number of records read.
+     * @throws IOException If the file could not be read, or contains an unknown record.
+     */
+    public long readAll(Listener listener) throws IOException {
+        long recordCount = 0;
+        try {
+            while (true) {
+                int type = input.read();
+                if (type < 0) {
+                    return recordCount;
+                }
+                readRecord((byte) type, listener);
+                recordCount++;
+            }
+        } catch (EOFException e) {
+            // The log was cut off part way through a record
+            return recordCount;
+        }
+    }
+
+    /**
+     * Reads the body of a single record.
+     *
+     * @param type     The record's type.
+     * @param listener The listener to hand the record to.
+     * @throws IOException If the record could not be read.
+     */
+    private void readRecord(byte type, Listener listener) throws IOException {
+        switch (type) {
+            case CAMERA: {
+                int cameraIndex = input.readShort();
+                String cameraName = input.readUTF();
+                double x = input.readDouble();
+                double y = input.readDouble();
+                double z = input.readDouble();
+                Quaternion rotation = new Quaternion(input.readDouble(), input.readDouble(), input.readDouble(), input.readDouble());
+                listener.onCamera(cameraIndex, cameraName, new Transform3d(x, y, z, new Rotation3d(rotation)));
+                break;
+            }
+            case ODOMETRY: {
+                double timestamp = input.readDouble();
+                Rotation2d gyroYaw = new Rotation2d(input.readDouble());
+                int moduleCount = input.readUnsignedByte();
+                if (modulePositions.length != moduleCount) {
+                    modulePositions = new SwerveModulePosition[moduleCount];
+                }
+                for (int i = 0; i < moduleCount; i++) {
+                    double distance = input.readDouble();
+                    modulePositions[i] = new SwerveModulePosition(distance, new Rotation2d(input.readDouble()));
+                }
+                listener.onOdometry(timestamp, gyroYaw, modulePositions);
+                break;
+            }
+            case VISION: {
+                int cameraIndex = input.readShort();
+                long receiveTimestampMicros = input.readLong();
+                int length = input.readInt();
+                if (packetData.length < length) {
+                    packetData = new byte[length];
+                }
+                input.readFully(packetData, 0, length);
+
+                // The packet doesn't carry the receive time, and the result's timestamp is worked out from it
+                PhotonPipelineResult result = PhotonPipelineResult.photonStruct.unpack(new Packet(packetData));
+                result.setReceiveTimestampMicros(receiveTimestampMicros);
+                listener.onVision(cameraIndex, result);
+                break;
+            }
+            case ESTIMATED_POSE:
+            case TRUE_POSE: {
+                double timestamp = input.readDouble();
+                Pose2d pose = new Pose2d(input.readDouble(), input.readDouble(), new Rotation2d(input.readDouble()));
+                listener.onReference(timestamp, pose, type == TRUE_POSE);
+                break;
+            }
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,254 @@
+package frc.robot.util.replay;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.targeting.PhotonPipelineResult;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Quaternion;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.Constants.ReplayConstants;
+
+/**
+ * <h2> ReplayLogWriter </h2>
+ * The {@code ReplayLogWriter} class records everything the pose estimator was given during a run, so that the run
+ * can be replayed offline by the {@link ReplayRunner} with different estimator settings:
+ * <ul>
+ *   <li>The gyroscope heading and swerve module positions, every loop.</li>
+ *   <li>Every raw {@link PhotonPipelineResult}, serialized with PhotonVision's own packet format.</li>
+ *   <li>The pose estimate produced on the robot, and in simulation the true pose, every loop.</li>
+ * </ul>
+ * Records are encoded into an in-memory buffer, and full buffers are written to disk by a background thread, so
+ * the main loop never waits on the file system. The format is described in {@link ReplayLogReader}.
+ * <p>
+ * Any thread can write records. Vision results usually arrive from the vision worker threads.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.replay.ReplayLogReader}
+ */
+public class ReplayLogWriter {
+
+    private final OutputStream fileStream;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(ReplayConstants.FLUSH_SIZE * 2);
+    private final DataOutputStream output = new DataOutputStream(buffer);
+
+    // Reused to serialize pipeline results
+    private final Packet packet = new Packet(ReplayConstants.INITIAL_PACKET_SIZE);
+
+    // Writes full buffers to the file, one at a time and in order. Daemon, so it never keeps the program alive.
+    private final ExecutorService fileWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ReplayLogWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private int cameraCount = 0;
+    private double lastFlushTime = Double.NaN;
+    private boolean failed = false;
+    private boolean closed = false;
+
+    /**
+     * Creates a new log file and writes its header.
+     *
+     * @param path The file to write to. It is overwritten if it already exists.
+     * @throws IOException If the file could not be created.
+     */
+    public ReplayLogWriter(String path) throws IOException {
+        this.fileStream = new FileOutputStream(path);
+        output.writeInt(ReplayLogReader.MAGIC);
+        output.writeShort(ReplayLogReader.VERSION);
+
+        // Write whatever is left if the robot program is shut down
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "ReplayLogWriter-Shutdown"));
+    }
+
+    /**
+     * Registers a camera, recording its name and where it is mounted.
+     *
+     * @param cameraName    The name of the camera.
+     * @param robotToCamera The transform from the robot's origin to the camera.
+     * @return The index used to record the camera's results.
+     */
+    public synchronized int registerCamera(String cameraName, Transform3d robotToCamera) {
+        int cameraIndex = cameraCount++;
+        if (!isRecording()) {
+            return cameraIndex;
+        }
+        try {
+            Quaternion rotation = robotToCamera.getRotation().getQuaternion();
+            output.writeByte(ReplayLogReader.CAMERA);
+            output.writeShort(cameraIndex);
+            output.writeUTF(cameraName);
+            output.writeDouble(robotToCamera.getX());
+            output.writeDouble(robotToCamera.getY());
+            output.writeDouble(robotToCamera.getZ());
+            output.writeDouble(rotation.getW());
+            output.writeDouble(rotation.getX());
+            output.writeDouble(rotation.getY());
+            output.writeDouble(rotation.getZ());
+        } catch (IOException e) {
+            fail(e);
+        }
+        return cameraIndex;
+    }
+
+    /**
+     * Records one odometry update. Also writes the buffer to disk once it is full, or once a second.
+     *
+     * @param timestamp       The time of the update, in seconds (FPGA time).
+     * @param gyroYaw         The gyroscope heading, in radians.
+     * @param modulePositions The swerve module positions, in kinematics order.
+     */
+    public synchronized void recordOdometry(double timestamp, double gyroYaw, SwerveModulePosition[] modulePositions) {
+        if (!isRecording()) {
+            return;
+        }
+        try {
+            output.writeByte(ReplayLogReader.ODOMETRY);
+            output.writeDouble(timestamp);
+            output.writeDouble(gyroYaw);
+            output.writeByte(modulePositions.length);
+            for (SwerveModulePosition position : modulePositions) {
+                output.writeDouble(position.distanceMeters);
+                output.writeDouble(position.angle.getRadians());
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+
+        if (Double.isNaN(lastFlushTime)) {
+            lastFlushTime = timestamp;
+        }
+        if (buffer.size() >= ReplayConstants.FLUSH_SIZE || timestamp - lastFlushTime >= ReplayConstants.FLUSH_PERIOD) {
+            lastFlushTime = timestamp;
+            flush();
+        }
+    }
+
+    /**
+     * Records a raw pipeline result, exactly as it was received from the coprocessor. PhotonVision's packet doesn't
+     * include the time the result was received, which its timestamp is worked out from, so that is written too.
+     *
+     * @param cameraIndex The index returned by {@link #registerCamera}.
+     * @param result      The pipeline result.
+     */
+    public synchronized void recordVision(int cameraIndex, PhotonPipelineResult result) {
+        if (!isRecording()) {
+            return;
+        }
+        try {
+            packet.clear();
+            PhotonPipelineResult.photonStruct.pack(packet, result);
+            byte[] data = packet.getWrittenDataCopy();
+
+            output.writeByte(ReplayLogReader.VISION);
+            output.writeShort(cameraIndex);
+            output.writeLong(result.ntReceiveTimestampMicros);
+            output.writeInt(data.length);
+            output.write(data);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records a reference pose, which replayed estimates are compared against.
+     *
+     * @param timestamp The time of the pose, in seconds (FPGA time).
+     * @param pose      The pose.
+     * @param truth     True if this is the true pose (simulation), false if it is the estimate made on the robot.
+     */
+    public synchronized void recordReference(double timestamp, Pose2d pose, boolean truth) {
+        if (!isRecording()) {
+            return;
+        }
+        try {
+            output.writeByte(truth ? ReplayLogReader.TRUE_POSE : ReplayLogReader.ESTIMATED_POSE);
+            output.writeDouble(timestamp);
+            output.writeDouble(pose.getX());
+            output.writeDouble(pose.getY());
+            output.writeDouble(pose.getRotation().getRadians());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Hands everything recorded so far to the background thread to be written to the file.
+     */
+    public synchronized void flush() {
+        if (!isRecording() || buffer.size() == 0) {
+            return;
+        }
+
+        byte[] chunk = buffer.toByteArray();
+        buffer.reset();
+        fileWriter.execute(() -> {
+            try {
+                fileStream.write(chunk);
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+    }
+
+    /**
+     * Writes everything that is left and closes the file. Waits up to {@code CLOSE_TIMEOUT} seconds for the
+     * background thread to finish, so the end of the log isn't lost if the program exits straight after.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        fileWriter.execute(() -> {
+            try {
+                fileStream.close();
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        fileWriter.shutdown();
+
+        // Waiting for the last writes, as the background thread is a daemon and dies with the program
+        try {
+            if (!fileWriter.awaitTermination((long) (ReplayConstants.CLOSE_TIMEOUT * 1000.0), TimeUnit.MILLISECONDS)) {
+                System.err.println("[ReplayLogWriter] Timed out writing the end of the log.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns whether records are still being written.
+     *
+     * @return False once the log has been closed or an I/O error occurred.
+     */
+    public synchronized boolean isRecording() {
+        return !failed && !closed;
+    }
+
+    /**
+     * Stops recording after an I/O error, rather than reporting the same error every loop.
+     *
+     * @param exception The error.
+     */
+    private synchronized void fail(IOException exception) {
+        if (!failed) {
+            failed = true;
+            System.err.println("[ReplayLogWriter] Stopped recording: " + exception.getMessage());
+        }
+        buffer.reset();
+    }
+}
@@ -0,0 +1,352 @@
+package frc.robot.util.replay;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonPoseEstimator;
+import org.photonvision.targeting.PhotonPipelineResult;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.subsystems.vision.odometry.VisionMeasurement;
+import frc.robot.subsystems.vision.odometry.VisionMeasurementFilter;
+import frc.robot.util.profiling.LatencyHistogram;
+
+/**
+ * <h2> ReplayRunner </h2>
+ * The {@code ReplayRunner} class replays a log recorded by {@link ReplayLogWriter} through a fresh
+ * {@link SwerveDrivePoseEstimator}, once per set of {@link Settings}, so pose estimator tuning can be compared
+ * without a robot. Every run reports:
+ * <ul>
+ *   <li>The RMS position and heading error against the reference: the true pose if the log came from simulation,
+ *       otherwise the estimate that was made on the robot.</li>
+ *   <li>The time taken to process each vision frame (p50, p99 and max).</li>
+ *   <li>The peak heap use, and the number of bytes allocated per vision frame.</li>
+ * </ul>
+ * Run it with {@code ./gradlew replay -PreplayArgs="<log> [name:key=value,key=value ...]"}. The baseline (the
+ * settings in {@code Constants}) is always run first. The keys are the field names of {@link Settings}, e.g.
+ * {@code lowTrust:multiTagLinear=0.6,filterEnabled=false}.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.replay.ReplayLogReader}
+ */
+public final class ReplayRunner implements ReplayLogReader.Listener {
+
+    private static final double NANOSECONDS_PER_MILLISECOND = 1e6;
+
+    private final Settings settings;
+    private final VisionMeasurementFilter measurementFilter = new VisionMeasurementFilter(VisionConstants.APRIL_TAG_FIELD_LAYOUT);
+    private final Map<Integer, PhotonPoseEstimator> cameraEstimators = new HashMap<>();
+    private final Map<Integer, String> cameraNames = new HashMap<>();
+    private final LatencyHistogram frameHistogram = new LatencyHistogram();
+
+    private SwerveDrivePoseEstimator poseEstimator = null;
+    private boolean poseInitialized = false;
+
+    // Squared errors, summed separately for the true pose and the robot's own estimate
+    private final double[] squaredPositionError = new double[2];
+    private final double[] squaredHeadingError = new double[2];
+    private final long[] referenceCount = new long[2];
+
+    private long frameCount = 0;
+    private long acceptedCount = 0;
+    private long outOfHistoryCount = 0;
+
+    /**
+     * Creates a runner for a single set of settings.
+     *
+     * @param settings The settings to replay with.
+     */
+    public ReplayRunner(Settings settings) {
+        this.settings = settings;
+        measurementFilter.setEnabled(settings.filterEnabled);
+    }
+
+    /**
+     * Replays every log given on the command line with every set of settings, and prints the results.
+     *
+     * @param args The log file, followed by any number of settings in the form {@code name:key=value,key=value}.
+     * @throws IOException If the log could not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayRunner <log> [name:key=value,key=value ...]");
+            System.exit(1);
+        }
+
+        // PhotonPoseEstimator reports its usage to the HAL
+        HAL.initialize(500, 0);
+
+        List<Settings> runs = new ArrayList<>();
+        runs.add(new Settings("baseline"));
+        for (int i = 1; i < args.length; i++) {
+            runs.add(Settings.parse(args[i]));
+        }
+
+        for (Settings runSettings : runs) {
+            new ReplayRunner(runSettings).run(args[0]);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Replays a log and prints the results.
+     *
+     * @param path The log file.
+     * @throws IOException If the log could not be read.
+     */
+    public void run(String path) throws IOException {
+
+        // Starting from a clean heap, so the peak belongs to this run
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long allocatedBefore = getAllocatedBytes();
+
+        long recordCount;
+        long startTime = System.nanoTime();
+        try (ReplayLogReader reader = new ReplayLogReader(path)) {
+            recordCount = reader.readAll(this);
+        }
+        long totalTime = System.nanoTime() - startTime;
+
+        long allocatedBytes = getAllocatedBytes() - allocatedBefore;
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        // Preferring the true pose, when the log has one
+        int reference = referenceCount[1] > 0 ? 1 : 0;
+        double rmsPositionError = Math.sqrt(squaredPositionError[reference] / Math.max(referenceCount[reference], 1));
+        double rmsHeadingError = Math.sqrt(squaredHeadingError[reference] / Math.max(referenceCount[reference], 1));
+
+        System.out.println("=== " + settings.name + " ===");
+        System.out.printf("  Records: %d, vision frames: %d, accepted measurements: %d, outside history: %d, total time: %.1f ms%n",
+                recordCount, frameCount, acceptedCount, outOfHistoryCount, totalTime / NANOSECONDS_PER_MILLISECOND);
+        System.out.printf("  RMS error vs %s: %.4f m, %.3f deg (%d poses)%n",
+                reference == 1 ? "true pose" : "robot estimate", rmsPositionError, Math.toDegrees(rmsHeadingError), referenceCount[reference]);
+        System.out.printf("  Frame time: p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                frameHistogram.getValueAtPercentile(50) / NANOSECONDS_PER_MILLISECOND,
+                frameHistogram.getValueAtPercentile(99) / NANOSECONDS_PER_MILLISECOND,
+                frameHistogram.getMaxValue() / NANOSECONDS_PER_MILLISECOND);
+        System.out.printf("  Memory: peak heap %.1f MB, %s bytes allocated per frame%n",
+                peakHeap / (1024.0 * 1024.0),
+                allocatedBytes < 0 ? "unknown" : String.valueOf(allocatedBytes / Math.max(frameCount, 1)));
+    }
+
+    @Override
+    public void onCamera(int cameraIndex, String cameraName, Transform3d robotToCamera) {
+        PhotonPoseEstimator photonPoseEstimator = new PhotonPoseEstimator(
+                VisionConstants.APRIL_TAG_FIELD_LAYOUT, settings.poseStrategy, robotToCamera);
+        photonPoseEstimator.setMultiTagFallbackStrategy(settings.fallbackStrategy);
+        cameraEstimators.put(cameraIndex, photonPoseEstimator);
+        cameraNames.put(cameraIndex, cameraName);
+    }
+
+    @Override
+    public void onOdometry(double timestamp, Rotation2d gyroYaw, SwerveModulePosition[] modulePositions) {
+        if (poseEstimator == null) {
+            poseEstimator = new SwerveDrivePoseEstimator(DriveConstants.DRIVE_KINEMATICS, gyroYaw, modulePositions, new Pose2d(),
+                    VecBuilder.fill(settings.stateLinear, settings.stateLinear, settings.stateRotational),
+                    VecBuilder.fill(settings.multiTagLinear, settings.multiTagLinear, settings.multiTagRotational));
+            return;
+        }
+        poseEstimator.updateWithTime(timestamp, gyroYaw, modulePositions);
+    }
+
+    @Override
+    public void onVision(int cameraIndex, PhotonPipelineResult result) {
+        PhotonPoseEstimator photonPoseEstimator = cameraEstimators.get(cameraIndex);
+        if (poseEstimator == null || photonPoseEstimator == null) {
+            return;
+        }
+
+        // Timing the same work PhotonVisionCamera and VisionOdometry do for a frame
+        long startTime = System.nanoTime();
+        frameCount++;
+        if (result.hasTargets()) {
+            photonPoseEstimator.setReferencePose(poseEstimator.getEstimatedPosition());
+            var maybePose = photonPoseEstimator.update(result);
+            if (maybePose.isPresent()) {
+                addMeasurement(cameraNames.get(cameraIndex), maybePose.get());
+            }
+        }
+        frameHistogram.record(System.nanoTime() - startTime);
+    }
+
+    @Override
+    public void onReference(double timestamp, Pose2d pose, boolean truth) {
+        if (poseEstimator == null) {
+            return;
+        }
+
+        // Both runs start from the same place
+        if (!poseInitialized) {
+            poseEstimator.resetPose(pose);
+            poseInitialized = true;
+            return;
+        }
+
+        Pose2d estimate = poseEstimator.getEstimatedPosition();
+        int reference = truth ? 1 : 0;
+        double headingError = MathUtil.angleModulus(estimate.getRotation().getRadians() - pose.getRotation().getRadians());
+        squaredPositionError[reference] += square(estimate.getTranslation().getDistance(pose.getTranslation()));
+        squaredHeadingError[reference] += square(headingError);
+        referenceCount[reference]++;
+    }
+
+    /**
+     * Filters a vision pose and adds it to the pose estimator, using this run's trust model.
+     *
+     * @param cameraName    The camera that produced the pose.
+     * @param estimatedPose The pose.
+     */
+    private void addMeasurement(String cameraName, EstimatedRobotPose estimatedPose) {
+        VisionMeasurement defaultMeasurement = VisionMeasurement.fromEstimatedRobotPose(cameraName, estimatedPose);
+        VisionMeasurement measurement = defaultMeasurement.withStandardDeviations(settings.calculateStandardDeviations(defaultMeasurement));
+
+        // Outside the estimator's history, so it would be dropped by addVisionMeasurement without a word
+        Pose2d estimateAtCapture = poseEstimator.sampleAt(measurement.getTimestamp()).orElse(null);
+        if (estimateAtCapture == null) {
+            outOfHistoryCount++;
+            return;
+        }
+        if (measurementFilter.check(measurement, estimateAtCapture) != VisionMeasurementFilter.Result.ACCEPTED) {
+            return;
+        }
+
+        poseEstimator.addVisionMeasurement(measurement.getPose().toPose2d(), measurement.getTimestamp(), measurement.getStandardDeviations());
+        acceptedCount++;
+    }
+
+    /**
+     * Returns the number of bytes this thread has allocated so far.
+     *
+     * @return The number of bytes allocated, or -1 if the JVM can't tell.
+     */
+    private static long getAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadBean) {
+            return threadBean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+
+    /**
+     * <h2> Settings </h2>
+     * One set of pose estimator settings to replay with. Every field starts at the value used on the robot.
+     */
+    public static final class Settings {
+        public final String name;
+        public double stateLinear = 0.1; // Meters, SwerveDrivePoseEstimator's default
+        public double stateRotational = 0.1; // Radians, SwerveDrivePoseEstimator's default
+        public double singleTagLinear = VisionConstants.SINGLE_TAG_LINEAR_STD_DEV;
+        public double singleTagRotational = VisionConstants.SINGLE_TAG_ROTATIONAL_STD_DEV;
+        public double multiTagLinear = VisionConstants.MULTI_TAG_LINEAR_STD_DEV;
+        public double multiTagRotational = VisionConstants.MULTI_TAG_ROTATIONAL_STD_DEV;
+        public double distanceScale = VisionConstants.STD_DEV_DISTANCE_SCALE;
+        public double ambiguityScale = VisionConstants.STD_DEV_AMBIGUITY_SCALE;
+        public boolean filterEnabled = true;
+        public PhotonPoseEstimator.PoseStrategy poseStrategy = VisionConstants.POSE_STRATEGY;
+        public PhotonPoseEstimator.PoseStrategy fallbackStrategy = VisionConstants.FALLBACK_STRATEGY;
+
+        /**
+         * Creates settings matching the robot's.
+         *
+         * @param name The name shown in the results.
+         */
+        public Settings(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Parses settings in the form {@code name:key=value,key=value}.
+         *
+         * @param specification The settings to parse.
+         * @return The settings.
+         * @throws IllegalArgumentException If a key is unknown or a value can't be parsed.
+         */
+        public static Settings parse(String specification) {
+            int separator = specification.indexOf(':');
+            Settings parsed = new Settings(separator < 0 ? specification : specification.substring(0, separator));
+            if (separator < 0) {
+                return parsed;
+            }
+
+            for (String assignment : specification.substring(separator + 1).split(",")) {
+                String[] parts = assignment.split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected key=value, got \"" + assignment + "\"");
+                }
+                parsed.set(parts[0].trim(), parts[1].trim());
+            }
+            return parsed;
+        }
+
+        /**
+         * Sets a single field by name.
+         *
+         * @param key   The field name.
+         * @param value The value.
+         */
+        private void set(String key, String value) {
+            switch (key) {
+                case "stateLinear" -> stateLinear = Double.parseDouble(value);
+                case "stateRotational" -> stateRotational = Double.parseDouble(value);
+                case "singleTagLinear" -> singleTagLinear = Double.parseDouble(value);
+                case "singleTagRotational" -> singleTagRotational = Double.parseDouble(value);
+                case "multiTagLinear" -> multiTagLinear = Double.parseDouble(value);
+                case "multiTagRotational" -> multiTagRotational = Double.parseDouble(value);
+                case "distanceScale" -> distanceScale = Double.parseDouble(value);
+                case "ambiguityScale" -> ambiguityScale = Double.parseDouble(value);
+                case "filterEnabled" -> filterEnabled = Boolean.parseBoolean(value);
+                case "poseStrategy" -> poseStrategy = PhotonPoseEstimator.PoseStrategy.valueOf(value);
+                case "fallbackStrategy" -> fallbackStrategy = PhotonPoseEstimator.PoseStrategy.valueOf(value);
+                default -> throw new IllegalArgumentException("Unknown setting \"" + key + "\"");
+            }
+        }
+
+        /**
+         * Calculates a measurement's standard deviations with the same model as
+         * {@link VisionMeasurement#calculateStandardDeviations}, using these coefficients.
+         *
+         * @param measurement The measurement.
+         * @return The standard deviations (x, y, theta), in meters and radians.
+         */
+        public Matrix<N3, N1> calculateStandardDeviations(VisionMeasurement measurement) {
+            boolean multiTag = measurement.getTagCount() > 1;
+            double linear = multiTag ? multiTagLinear : singleTagLinear;
+            double rotational = multiTag ? multiTagRotational : singleTagRotational;
+            double distance = measurement.getAverageTagDistance();
+            double scale = (1.0 + distance * distance / distanceScale) * (1.0 + measurement.getAmbiguity() * ambiguityScale);
+            return VecBuilder.fill(linear * scale, linear * scale, rotational * scale);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package frc.robot.util.simulation;
+
+import java.util.Random;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.SimulationConstants;
+import frc.robot.util.swerve.DrivingMotor;
+import frc.robot.util.swerve.TurningMotor;
+
+/**
+ * <h2> SwerveDriveSimulation </h2>
+ * The {@code SwerveDriveSimulation} class is a headless physics model of the whole drivetrain: the chassis, its four
+ * {@link SwerveModuleSimulation}s and the gyroscope. It is used by {@code DriveSubsystem} when running in simulation,
+ * and can also be stepped directly (thousands of loops per second) to measure controller settling and odometry
+ * drift offline.
+ * <p>
+ * Every call to {@link #step(double)} is split into fixed {@code SimulationConstants.PHYSICS_SUBSTEP} long steps,
+ * and all sensor noise comes from a single seeded {@link Random}. Given the same seed and the same inputs, a run
+ * always produces exactly the same result.
+ * <p>
+ * Modules are ordered front left, front right, rear left, rear right, matching {@code DriveConstants.DRIVE_KINEMATICS}.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.simulation.SwerveModuleSimulation}
+ * @see {@link frc.robot.subsystems.DriveSubsystem}
+ */
+public class SwerveDriveSimulation {
+
+    private static final double GRAVITY = 9.81; // m/s^2
+
+    private final Random random;
+    private final SwerveModuleSimulation[] modules;
+    private final Translation2d[] moduleLocations;
+
+    // True (noise-free) state of the chassis, in field coordinates
+    private double x = 0.0;
+    private double y = 0.0;
+    private double heading = 0.0;
+    private double velocityX = 0.0;
+    private double velocityY = 0.0;
+    private double angularVelocity = 0.0;
+
+    // Accumulated gyroscope drift
+    private double gyroDrift = 0.0;
+
+    // Time that has not yet been simulated, because it was shorter than a substep
+    private double leftoverTime = 0.0;
+
+    /**
+     * Creates a drivetrain simulation using the default motors and random seed.
+     */
+    public SwerveDriveSimulation() {
+        this(DriveConstants.DEFAULT_DRIVING_MOTOR, DriveConstants.DEFAULT_TURNING_MOTOR, SimulationConstants.RANDOM_SEED);
+    }
+
+    /**
+     * Creates a drivetrain simulation.
+     *
+     * @param drivingMotor The type of driving motor in every module.
+     * @param turningMotor The type of turning motor in every module.
+     * @param seed         The seed used for all sensor noise.
+     */
+    public SwerveDriveSimulation(DrivingMotor drivingMotor, TurningMotor turningMotor, long seed) {
+        this.random = new Random(seed);
+        this.moduleLocations = DriveConstants.DRIVE_KINEMATICS.getModules();
+        this.modules = new SwerveModuleSimulation[moduleLocations.length];
+        for (int i = 0; i < modules.length; i++) {
+            modules[i] = new SwerveModuleSimulation(drivingMotor, turningMotor, random);
+        }
+    }
+
+    /**
+     * Returns one of the simulated modules.
+     *
+     * @param index The module's index, in {@code DRIVE_KINEMATICS} order.
+     * @return The simulated module.
+     */
+    public SwerveModuleSimulation getModule(int index) {
+        return modules[index];
+    }
+
+    /**
+     * Enables or disables the simulated motor outputs of every module.
+     *
+     * @param enabled Whether the motors should be driven.
+     */
+    public void setEnabled(boolean enabled) {
+        for (SwerveModuleSimulation module : modules) {
+            module.setEnabled(enabled);
+        }
+    }
+
+    /**
+     * Places the robot at rest at the given pose, and resets every module and the gyroscope drift.
+     * The random number generator is not reseeded.
+     *
+     * @param pose The pose to place the robot at.
+     */
+    public void resetPose(Pose2d pose) {
+        x = pose.getX();
+        y = pose.getY();
+        heading = pose.getRotation().getRadians();
+        velocityX = 0.0;
+        velocityY = 0.0;
+        angularVelocity = 0.0;
+        gyroDrift = 0.0;
+        leftoverTime = 0.0;
+        for (SwerveModuleSimulation module : modules) {
+            module.reset();
+        }
+    }
+
+    /**
+     * Returns the robot's true pose. Compare this against the pose estimator to measure odometry drift.
+     *
+     * @return The robot's true pose.
+     */
+    public Pose2d getPose() {
+        return new Pose2d(x, y, new Rotation2d(heading));
+    }
+
+    /**
+     * Returns the yaw reported by the simulated gyroscope, including noise and drift.
+     * Like the real gyroscope, this starts at zero and is not wrapped.
+     *
+     * @return The measured yaw, in radians, counter-clockwise positive.
+     */
+    public double getGyroYaw() {
+        return heading + gyroDrift + random.nextGaussian() * SimulationConstants.GYRO_NOISE;
+    }
+
+    /**
+     * Returns the robot's true linear speed.
+     *
+     * @return The robot's speed, in meters per second.
+     */
+    public double getLinearSpeed() {
+        return Math.hypot(velocityX, velocityY);
+    }
+
+    /**
+     * Returns the robot's true angular velocity.
+     *
+     * @return The robot's angular velocity, in radians per second.
+     */
+    public double getAngularVelocity() {
+        return angularVelocity;
+    }
+
+    /**
+     * Returns the total current drawn by every simulated motor during the last substep.
+     *
+     * @return The total current, in amps.
+     */
+    public double getTotalCurrent() {
+        double total = 0.0;
+        for (SwerveModuleSimulation module : modules) {
+            total += Math.abs(module.getDrivingCurrent()) + Math.abs(module.getTurningCurrent());
+        }
+        return total;
+    }
+
+    /**
+     * Advances the simulation. The time is simulated in fixed substeps; any remainder is carried over to the next call.
+     *
+     * @param dt The amount of time to simulate, in seconds.
+     */
+    public void step(double dt) {
+        leftoverTime += dt;
+        while (leftoverTime >= SimulationConstants.PHYSICS_SUBSTEP) {
+            substep(SimulationConstants.PHYSICS_SUBSTEP);
+            leftoverTime -= SimulationConstants.PHYSICS_SUBSTEP;
+        }
+    }
+
+    /**
+     * Runs a single fixed physics step.
+     *
+     * @param dt The length of the step, in seconds.
+     */
+    private void substep(double dt) {
+        double normalForce = SimulationConstants.ROBOT_MASS * GRAVITY / modules.length;
+        double cosHeading = Math.cos(heading);
+        double sinHeading = Math.sin(heading);
+
+        double forceX = 0.0;
+        double forceY = 0.0;
+        double torque = 0.0;
+
+        for (int i = 0; i < modules.length; i++) {
+            SwerveModuleSimulation module = modules[i];
+
+            // Module location relative to the robot's center, in field coordinates
+            double offsetX = moduleLocations[i].getX() * cosHeading - moduleLocations[i].getY() * sinHeading;
+            double offsetY = moduleLocations[i].getX() * sinHeading + moduleLocations[i].getY() * cosHeading;
+
+            // Velocity of the ground under the module
+            double groundVelocityX = velocityX - angularVelocity * offsetY;
+            double groundVelocityY = velocityY + angularVelocity * offsetX;
+
+            // Splitting the ground velocity into the wheel's rolling and sideways directions
+            double wheelAngle = heading + module.getTrueAngle();
+            double rollingX = Math.cos(wheelAngle);
+            double rollingY = Math.sin(wheelAngle);
+            double rollingVelocity = groundVelocityX * rollingX + groundVelocityY * rollingY;
+            double sidewaysVelocity = -groundVelocityX * rollingY + groundVelocityY * rollingX;
+
+            // The wheel pushes along its rolling direction, and friction resists sliding sideways
+            double rollingForce = module.stepDriving(rollingVelocity, normalForce, dt);
+            double sidewaysForce = -SwerveModuleSimulation.getFrictionForce(sidewaysVelocity, normalForce);
+            module.stepTurning(dt);
+
+            double moduleForceX = rollingForce * rollingX - sidewaysForce * rollingY;
+            double moduleForceY = rollingForce * rollingY + sidewaysForce * rollingX;
+            forceX += moduleForceX;
+            forceY += moduleForceY;
+            torque += offsetX * moduleForceY - offsetY * moduleForceX;
+        }
+
+        // Semi-implicit Euler: update the velocities first, then integrate them into the pose
+        velocityX += forceX / SimulationConstants.ROBOT_MASS * dt;
+        velocityY += forceY / SimulationConstants.ROBOT_MASS * dt;
+        angularVelocity += torque / SimulationConstants.ROBOT_MOMENT_OF_INERTIA * dt;
+
+        x += velocityX * dt;
+        y += velocityY * dt;
+        heading += angularVelocity * dt;
+
+        gyroDrift += SimulationConstants.GYRO_DRIFT_RATE * dt;
+    }
+}
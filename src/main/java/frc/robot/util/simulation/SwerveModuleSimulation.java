@@ -0,0 +1,286 @@
+package frc.robot.util.simulation;
+
+import java.util.Random;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.SimulationConstants;
+import frc.robot.util.swerve.DrivingMotor;
+import frc.robot.util.swerve.TurningMotor;
+
+/**
+ * <h2> SwerveModuleSimulation </h2>
+ * The {@code SwerveModuleSimulation} class models the physics of a single swerve module. It stands in for the motor
+ * controllers when simulating: {@code SwerveModule} writes its velocity and angle setpoints here, and reads its
+ * (noisy) encoder values back.
+ * <p>
+ * Both motors are modelled using {@link DCMotor}, driven by the same closed loop gains that are flashed to the real
+ * controllers. The driving wheel is coupled to the carpet with a friction model, so wheels can slip under hard
+ * acceleration, and the driving encoder measures the wheel (not the ground), just like on the real robot.
+ * <p>
+ * This class has no dependencies on the HAL, so it can be stepped as fast as the CPU allows.
+ * It is stepped by {@link SwerveDriveSimulation}, which owns the chassis.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.util.simulation.SwerveDriveSimulation}
+ * @see {@link frc.robot.subsystems.SwerveModule}
+ */
+public class SwerveModuleSimulation {
+
+    private final Random random;
+
+    // Driving motor model and its closed loop gains (in volts)
+    private DCMotor drivingMotor;
+    private double drivingReduction;
+    private double drivingFeedforward; // Volts per m/s
+    private double drivingKP; // Volts per m/s of error
+    private double drivingCurrentLimit; // Amps
+
+    // Turning motor model and its closed loop gains (in volts)
+    private DCMotor turningMotor;
+    private double turningKP; // Volts per radian of error
+    private double turningCurrentLimit; // Amps
+
+    // Setpoints written by SwerveModule
+    private double desiredVelocity = 0.0;
+    private double desiredAngle = 0.0;
+    private boolean enabled = true;
+
+    // True (noise-free) state of the module
+    private double wheelAngularVelocity = 0.0; // Rad/s, at the wheel
+    private double wheelDistance = 0.0; // Meters rolled by the wheel surface
+    private double angle = 0.0; // Radians, relative to the chassis
+    private double angularVelocity = 0.0; // Rad/s
+    private double drivingCurrent = 0.0;
+    private double turningCurrent = 0.0;
+
+    /**
+     * Creates a simulated swerve module using the given motors.
+     *
+     * @param drivingMotor The type of driving motor being simulated.
+     * @param turningMotor The type of turning motor being simulated.
+     * @param random       The random number generator used for sensor noise. Shared with the rest of the
+     *                     simulation, so that runs are reproducible from a single seed.
+     */
+    public SwerveModuleSimulation(DrivingMotor drivingMotor, TurningMotor turningMotor, Random random) {
+        this.random = random;
+        configureDrivingMotor(drivingMotor);
+        configureTurningMotor(turningMotor);
+    }
+
+    /**
+     * Switches the driving motor model, using the gains for that motor from {@code DriveConstants}.
+     *
+     * @param drivingMotor The type of driving motor to simulate.
+     */
+    public void configureDrivingMotor(DrivingMotor drivingMotor) {
+        switch (drivingMotor) {
+            case NEO:
+                this.drivingMotor = DCMotor.getNEO(1);
+                this.drivingReduction = DriveConstants.NeoDriving.MOTOR_REDUCTION;
+                this.drivingFeedforward = DriveConstants.NeoDriving.FF * SimulationConstants.NOMINAL_VOLTAGE;
+                this.drivingKP = DriveConstants.NeoDriving.KP * SimulationConstants.NOMINAL_VOLTAGE;
+                this.drivingCurrentLimit = DriveConstants.NeoDriving.CURRENT_LIMIT;
+                break;
+            case KRAKEN_X60:
+                this.drivingMotor = DCMotor.getKrakenX60(1);
+                this.drivingReduction = DriveConstants.KrakenX60Driving.MOTOR_REDUCTION;
+                this.drivingFeedforward = DriveConstants.KrakenX60Driving.KV;
+                this.drivingKP = DriveConstants.KrakenX60Driving.KP;
+                this.drivingCurrentLimit = DriveConstants.KrakenX60Driving.CURRENT_LIMIT;
+                break;
+            case KRAKEN_X60_FOC:
+                this.drivingMotor = DCMotor.getKrakenX60Foc(1);
+                this.drivingReduction = DriveConstants.KrakenX60FOCDriving.MOTOR_REDUCTION;
+                this.drivingFeedforward = DriveConstants.KrakenX60FOCDriving.KV;
+                this.drivingKP = DriveConstants.KrakenX60FOCDriving.KP;
+                this.drivingCurrentLimit = DriveConstants.KrakenX60FOCDriving.CURRENT_LIMIT;
+                break;
+        }
+    }
+
+    /**
+     * Switches the turning motor model, using the gains for that motor from {@code DriveConstants}.
+     *
+     * @param turningMotor The type of turning motor to simulate.
+     */
+    public void configureTurningMotor(TurningMotor turningMotor) {
+        switch (turningMotor) {
+            case NEO_550:
+                this.turningMotor = DCMotor.getNeo550(1);
+                this.turningKP = DriveConstants.Neo550Turning.KP * SimulationConstants.NOMINAL_VOLTAGE;
+                this.turningCurrentLimit = DriveConstants.Neo550Turning.CURRENT_LIMIT;
+                break;
+        }
+    }
+
+    /**
+     * Sets the velocity the simulated driving controller should hold.
+     *
+     * @param velocity The desired wheel velocity, in meters per second.
+     */
+    public void setDesiredVelocity(double velocity) {
+        this.desiredVelocity = velocity;
+    }
+
+    /**
+     * Sets the angle the simulated turning controller should hold.
+     *
+     * @param angle The desired module angle, in radians, relative to the chassis.
+     */
+    public void setDesiredAngle(double angle) {
+        this.desiredAngle = angle;
+    }
+
+    /**
+     * Enables or disables the simulated motor outputs. When disabled, both motors are in brake mode with zero volts applied.
+     *
+     * @param enabled Whether the motors should be driven.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the distance measured by the driving encoder, including noise.
+     *
+     * @return The measured driving distance, in meters.
+     */
+    public double getDrivingPosition() {
+        return wheelDistance + random.nextGaussian() * SimulationConstants.DRIVING_POSITION_NOISE;
+    }
+
+    /**
+     * Returns the wheel velocity measured by the driving encoder, including noise.
+     *
+     * @return The measured wheel velocity, in meters per second.
+     */
+    public double getDrivingVelocity() {
+        return getWheelSurfaceVelocity() + random.nextGaussian() * SimulationConstants.DRIVING_VELOCITY_NOISE;
+    }
+
+    /**
+     * Returns the module angle measured by the absolute encoder, including noise.
+     *
+     * @return The measured module angle, in radians, relative to the chassis.
+     */
+    public double getAngle() {
+        return MathUtil.angleModulus(angle + random.nextGaussian() * SimulationConstants.TURNING_ANGLE_NOISE);
+    }
+
+    /**
+     * Returns the true (noise-free) module angle.
+     *
+     * @return The true module angle, in radians, relative to the chassis.
+     */
+    public double getTrueAngle() {
+        return angle;
+    }
+
+    /**
+     * Returns the current drawn by the driving motor during the last step.
+     *
+     * @return The driving motor current, in amps.
+     */
+    public double getDrivingCurrent() {
+        return drivingCurrent;
+    }
+
+    /**
+     * Returns the current drawn by the turning motor during the last step.
+     *
+     * @return The turning motor current, in amps.
+     */
+    public double getTurningCurrent() {
+        return turningCurrent;
+    }
+
+    /**
+     * Puts the module back at rest, pointing straight ahead, with a zeroed driving encoder.
+     */
+    public void reset() {
+        wheelAngularVelocity = 0.0;
+        wheelDistance = 0.0;
+        angle = 0.0;
+        angularVelocity = 0.0;
+        drivingCurrent = 0.0;
+        turningCurrent = 0.0;
+    }
+
+    /**
+     * Advances the driving wheel by one physics step and returns the traction force it applies to the chassis.
+     *
+     * @param groundVelocity The velocity of the ground under the wheel, along the wheel's rolling direction, in m/s.
+     * @param normalForce    The weight carried by this wheel, in newtons.
+     * @param dt             The length of the step, in seconds.
+     * @return The force pushing the chassis along the wheel's rolling direction, in newtons.
+     */
+    double stepDriving(double groundVelocity, double normalForce, double dt) {
+
+        // Onboard velocity loop, using the same gains as the real controller
+        double voltage = 0.0;
+        if (enabled) {
+            voltage = drivingFeedforward * desiredVelocity + drivingKP * (desiredVelocity - getWheelSurfaceVelocity());
+            voltage = MathUtil.clamp(voltage, -SimulationConstants.NOMINAL_VOLTAGE, SimulationConstants.NOMINAL_VOLTAGE);
+        }
+
+        // Motor torque at the wheel, limited by the controller's current limit
+        double motorVelocity = wheelAngularVelocity * drivingReduction;
+        drivingCurrent = MathUtil.clamp(drivingMotor.getCurrent(motorVelocity, voltage), -drivingCurrentLimit, drivingCurrentLimit);
+        double wheelTorque = drivingMotor.getTorque(drivingCurrent) * drivingReduction;
+
+        // Traction force from the difference between the wheel surface and the ground
+        double tractionForce = getFrictionForce(getWheelSurfaceVelocity() - groundVelocity, normalForce);
+
+        // The carpet pushes back on the wheel with the same force it pushes the robot forward
+        double wheelAngularAcceleration = (wheelTorque - tractionForce * DriveConstants.WHEEL_RADIUS) / SimulationConstants.DRIVING_MOMENT_OF_INERTIA;
+        wheelAngularVelocity += wheelAngularAcceleration * dt;
+        wheelDistance += wheelAngularVelocity * DriveConstants.WHEEL_RADIUS * dt;
+
+        return tractionForce;
+    }
+
+    /**
+     * Advances the turning mechanism by one physics step.
+     *
+     * @param dt The length of the step, in seconds.
+     */
+    void stepTurning(double dt) {
+
+        // Onboard position loop, wrapped so the module always takes the short way around
+        double voltage = 0.0;
+        if (enabled) {
+            voltage = turningKP * MathUtil.angleModulus(desiredAngle - angle);
+            voltage = MathUtil.clamp(voltage, -SimulationConstants.NOMINAL_VOLTAGE, SimulationConstants.NOMINAL_VOLTAGE);
+        }
+
+        double motorVelocity = angularVelocity * SimulationConstants.TURNING_MOTOR_REDUCTION;
+        turningCurrent = MathUtil.clamp(turningMotor.getCurrent(motorVelocity, voltage), -turningCurrentLimit, turningCurrentLimit);
+        double torque = turningMotor.getTorque(turningCurrent) * SimulationConstants.TURNING_MOTOR_REDUCTION;
+
+        angularVelocity += torque / SimulationConstants.TURNING_MOMENT_OF_INERTIA * dt;
+        angle = MathUtil.angleModulus(angle + angularVelocity * dt);
+    }
+
+    /**
+     * Returns the friction force for the given slip velocity. The force ramps up smoothly to its maximum
+     * over {@code SLIP_VELOCITY_SCALE}, which keeps the integration stable at small slip velocities.
+     *
+     * @param slipVelocity The velocity of the wheel surface relative to the ground, in m/s.
+     * @param normalForce  The weight carried by the wheel, in newtons.
+     * @return The friction force, in newtons, in the direction of the slip.
+     */
+    static double getFrictionForce(double slipVelocity, double normalForce) {
+        return SimulationConstants.WHEEL_COEFFICIENT_OF_FRICTION * normalForce * Math.tanh(slipVelocity / SimulationConstants.SLIP_VELOCITY_SCALE);
+    }
+
+    /**
+     * Returns the true velocity of the wheel's surface.
+     *
+     * @return The wheel surface velocity, in meters per second.
+     */
+    private double getWheelSurfaceVelocity() {
+        return wheelAngularVelocity * DriveConstants.WHEEL_RADIUS;
+    }
+}
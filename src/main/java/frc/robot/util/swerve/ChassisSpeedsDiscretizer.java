@@ -0,0 +1,81 @@
+package frc.robot.util.swerve;
+
+/**
+ * <h2> ChassisSpeedsDiscretizer </h2>
+ * The {@code ChassisSpeedsDiscretizer} class turns field-relative chassis speeds into the robot-relative speeds
+ * that should be held for one loop. The modules hold their speeds for the whole loop while the robot keeps turning,
+ * so speeds converted with the heading at the start of the loop trace an arc instead of a straight line, and the
+ * robot drifts sideways whenever it translates while rotating.
+ * <p>
+ * Two corrections are made, both from the pose exponential that {@code ChassisSpeeds.discretize} uses:
+ * <ul>
+ *   <li>The field-relative velocity is rotated into the robot's frame using the heading at the middle of the
+ *       loop ({@code heading + omega * dt / 2}) rather than at its start.</li>
+ *   <li>The translation is scaled by {@code (omega * dt / 2) / sin(omega * dt / 2)}, since the arc is longer
+ *       than the chord it has to cover.</li>
+ * </ul>
+ * The loop time should be the one actually measured, since a late loop turns the robot further. Unlike
+ * {@code ChassisSpeeds.discretize}, nothing is allocated; the results are read with {@link #getVx()} and
+ * {@link #getVy()}. Must only be used from one thread.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.subsystems.DriveSubsystem}
+ */
+public class ChassisSpeedsDiscretizer {
+
+    // Below this half-angle (radians), the series expansion of x / sin(x) is used to avoid dividing by ~0
+    private static final double SMALL_ANGLE = 1e-4;
+
+    // The robot-relative result of the last call to discretize
+    private double vx = 0.0;
+    private double vy = 0.0;
+
+    /**
+     * Converts field-relative speeds into discretized robot-relative speeds.
+     *
+     * @param fieldVx   The field-relative x velocity, in meters per second.
+     * @param fieldVy   The field-relative y velocity, in meters per second.
+     * @param omega     The angular velocity, in radians per second, positive counter-clockwise.
+     * @param heading   The robot's heading at the start of the loop, in radians.
+     * @param deltaTime The time the speeds will be held for, in seconds.
+     */
+    public void discretize(double fieldVx, double fieldVy, double omega, double heading, double deltaTime) {
+        double halfAngle = omega * deltaTime / 2.0;
+
+        // Rotating into the robot's frame at the middle of the step
+        double midHeading = heading + halfAngle;
+        double cos = Math.cos(midHeading);
+        double sin = Math.sin(midHeading);
+        double robotVx = fieldVx * cos + fieldVy * sin;
+        double robotVy = -fieldVx * sin + fieldVy * cos;
+
+        // Lengthening the chord to the arc the robot actually drives
+        double scale;
+        if (Math.abs(halfAngle) < SMALL_ANGLE) {
+            scale = 1.0 + halfAngle * halfAngle / 6.0;
+        } else {
+            scale = halfAngle / Math.sin(halfAngle);
+        }
+
+        vx = robotVx * scale;
+        vy = robotVy * scale;
+    }
+
+    /**
+     * Returns the robot-relative x velocity from the last call to {@link #discretize}.
+     *
+     * @return The robot-relative x velocity, in meters per second.
+     */
+    public double getVx() {
+        return vx;
+    }
+
+    /**
+     * Returns the robot-relative y velocity from the last call to {@link #discretize}.
+     *
+     * @return The robot-relative y velocity, in meters per second.
+     */
+    public double getVy() {
+        return vy;
+    }
+}
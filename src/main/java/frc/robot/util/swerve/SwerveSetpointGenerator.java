@@ -0,0 +1,329 @@
+package frc.robot.util.swerve;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * <h2> SwerveSetpointGenerator </h2>
+ * The {@code SwerveSetpointGenerator} class turns the chassis speeds requested by {@code DriveSubsystem} into
+ * module states that the modules can actually follow from one loop to the next. Plain inverse kinematics assumes
+ * every module can instantly point anywhere, so during quick direction changes some modules drive while still
+ * turning, and they fight the others for traction. Each loop, the generator:
+ * <ol>
+ *   <li>Desaturates the requested speeds, like {@code SwerveDriveKinematics.desaturateWheelSpeeds}.</li>
+ *   <li>Moves the chassis speeds from the previous setpoint towards the request only as far as every module
+ *       can follow: no wheel's velocity changes by more than the wheel acceleration limit, and no moving module
+ *       has to steer faster than its turning motor can. Velocity, not speed, so reversing a wheel is limited
+ *       too.</li>
+ *   <li>Limits each module's steering towards its new angle, and scales its speed by the cosine of the angle it
+ *       still has to turn, so a module never drives hard in the wrong direction. The wheel's signed speed is
+ *       limited once more, as it can speed up while its steering catches up.</li>
+ * </ol>
+ * The module locations are precomputed into primitive arrays, and if the request can be followed directly (the
+ * usual case while cruising) the search in step two is skipped entirely. Apart from the output angles, nothing
+ * is allocated.
+ * <p>
+ * All speeds are robot-relative. Must only be used from one thread.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.subsystems.DriveSubsystem}
+ */
+public class SwerveSetpointGenerator {
+
+    // Speeds below this (m/s) are treated as stopped, and the module keeps its angle
+    private static final double STOPPED_SPEED = 1e-3;
+
+    // Bisection steps when searching for how far towards the request the chassis can move. 2^-10 is plenty.
+    private static final int SEARCH_ITERATIONS = 10;
+
+    private final int moduleCount;
+    private final double[] moduleX;
+    private final double[] moduleY;
+
+    private double maxWheelSpeed;
+    private double maxWheelAcceleration;
+    private double maxSteeringVelocity;
+
+    // The previous setpoint, as chassis speeds and as the module speeds and angles that were sent
+    private double previousVx = 0.0;
+    private double previousVy = 0.0;
+    private double previousOmega = 0.0;
+    private final double[] previousSpeeds;
+    private final double[] previousAngles;
+
+    // Scratch module velocities, reused every loop
+    private final double[] previousModuleVx;
+    private final double[] previousModuleVy;
+    private final double[] desiredModuleVx;
+    private final double[] desiredModuleVy;
+
+    private final SwerveModuleState[] output;
+    private boolean limitedLastLoop = false;
+
+    /**
+     * Creates a setpoint generator. The modules start at rest, facing forwards.
+     *
+     * @param moduleLocations      The locations of the modules relative to the robot's center, in kinematics order.
+     * @param maxWheelSpeed        The maximum speed of any wheel, in meters per second.
+     * @param maxWheelAcceleration The maximum change of any wheel's speed, in meters per second squared.
+     * @param maxSteeringVelocity  The maximum steering velocity of any module, in radians per second.
+     */
+    public SwerveSetpointGenerator(Translation2d[] moduleLocations, double maxWheelSpeed, double maxWheelAcceleration, double maxSteeringVelocity) {
+        this.moduleCount = moduleLocations.length;
+        this.moduleX = new double[moduleCount];
+        this.moduleY = new double[moduleCount];
+        for (int i = 0; i < moduleCount; i++) {
+            moduleX[i] = moduleLocations[i].getX();
+            moduleY[i] = moduleLocations[i].getY();
+        }
+
+        this.maxWheelSpeed = maxWheelSpeed;
+        this.maxWheelAcceleration = maxWheelAcceleration;
+        this.maxSteeringVelocity = maxSteeringVelocity;
+
+        this.previousSpeeds = new double[moduleCount];
+        this.previousAngles = new double[moduleCount];
+        this.previousModuleVx = new double[moduleCount];
+        this.previousModuleVy = new double[moduleCount];
+        this.desiredModuleVx = new double[moduleCount];
+        this.desiredModuleVy = new double[moduleCount];
+
+        this.output = new SwerveModuleState[moduleCount];
+        for (int i = 0; i < moduleCount; i++) {
+            output[i] = new SwerveModuleState();
+        }
+    }
+
+    /**
+     * Restarts from the given module states, e.g. the measured states when the robot is enabled. The chassis is
+     * treated as being at rest.
+     *
+     * @param moduleStates The current module states, in kinematics order.
+     */
+    public void reset(SwerveModuleState[] moduleStates) {
+        for (int i = 0; i < moduleCount; i++) {
+            previousSpeeds[i] = 0.0;
+            previousAngles[i] = moduleStates[i].angle.getRadians();
+            output[i].speedMetersPerSecond = 0.0;
+            output[i].angle = moduleStates[i].angle;
+        }
+        previousVx = 0.0;
+        previousVy = 0.0;
+        previousOmega = 0.0;
+        limitedLastLoop = true;
+    }
+
+    /**
+     * Treats the robot as stopped, keeping each module's angle. Used when the drivetrain is stopped without
+     * going through the limits.
+     */
+    public void stop() {
+        for (int i = 0; i < moduleCount; i++) {
+            previousSpeeds[i] = 0.0;
+            output[i].speedMetersPerSecond = 0.0;
+        }
+        previousVx = 0.0;
+        previousVy = 0.0;
+        previousOmega = 0.0;
+        limitedLastLoop = true;
+    }
+
+    /**
+     * Calculates the next setpoint.
+     *
+     * @param vx        The requested robot-relative forwards speed, in meters per second.
+     * @param vy        The requested robot-relative leftwards speed, in meters per second.
+     * @param omega     The requested angular velocity, in radians per second, counter-clockwise positive.
+     * @param deltaTime The time since the previous setpoint, in seconds.
+     * @return The module states to send, in kinematics order. The array and states are reused every call.
+     */
+    public SwerveModuleState[] generate(double vx, double vy, double omega, double deltaTime) {
+
+        // Fast path: nothing changed, and the previous setpoint was followed exactly
+        if (!limitedLastLoop && vx == previousVx && vy == previousVy && omega == previousOmega) {
+            return output;
+        }
+
+        // Inverse kinematics, into the scratch arrays
+        double fastestWheel = 0.0;
+        for (int i = 0; i < moduleCount; i++) {
+            desiredModuleVx[i] = vx - omega * moduleY[i];
+            desiredModuleVy[i] = vy + omega * moduleX[i];
+            previousModuleVx[i] = previousVx - previousOmega * moduleY[i];
+            previousModuleVy[i] = previousVy + previousOmega * moduleX[i];
+            fastestWheel = Math.max(fastestWheel, Math.hypot(desiredModuleVx[i], desiredModuleVy[i]));
+        }
+
+        // Desaturating, keeping the ratio between translation and rotation
+        if (fastestWheel > maxWheelSpeed) {
+            double scale = maxWheelSpeed / fastestWheel;
+            vx *= scale;
+            vy *= scale;
+            omega *= scale;
+            for (int i = 0; i < moduleCount; i++) {
+                desiredModuleVx[i] *= scale;
+                desiredModuleVy[i] *= scale;
+            }
+        }
+
+        double maxSpeedChange = maxWheelAcceleration * deltaTime;
+        double maxSteeringChange = maxSteeringVelocity * deltaTime;
+
+        // Finding how far towards the request every module can follow. Usually all the way.
+        double fraction = 1.0;
+        for (int i = 0; i < moduleCount; i++) {
+            if (!isFeasible(i, fraction, maxSpeedChange, maxSteeringChange)) {
+                fraction = findFeasibleFraction(i, fraction, maxSpeedChange, maxSteeringChange);
+            }
+        }
+
+        previousVx += (vx - previousVx) * fraction;
+        previousVy += (vy - previousVy) * fraction;
+        previousOmega += (omega - previousOmega) * fraction;
+        boolean limited = fraction < 1.0;
+
+        // Steering each module towards its new velocity
+        for (int i = 0; i < moduleCount; i++) {
+            double moduleVx = previousVx - previousOmega * moduleY[i];
+            double moduleVy = previousVy + previousOmega * moduleX[i];
+            double speed = Math.hypot(moduleVx, moduleVy);
+
+            // A stopped module keeps its angle
+            if (speed < STOPPED_SPEED) {
+                previousSpeeds[i] = 0.0;
+                output[i].speedMetersPerSecond = 0.0;
+                continue;
+            }
+
+            // Driving backwards instead of turning more than 90 degrees
+            double angleError = MathUtil.angleModulus(Math.atan2(moduleVy, moduleVx) - previousAngles[i]);
+            if (Math.abs(angleError) > Math.PI / 2.0) {
+                angleError = MathUtil.angleModulus(angleError + Math.PI);
+                speed = -speed;
+            }
+
+            // Steering as far as the turning motor allows, and only driving as much as the wheel points the right way
+            double steering = MathUtil.clamp(angleError, -maxSteeringChange, maxSteeringChange);
+            if (steering != angleError) {
+                speed *= Math.cos(angleError - steering);
+                limited = true;
+            }
+
+            // The chassis-level limit can't see the speed the cosine held back, so the wheel itself is limited too
+            double limitedSpeed = MathUtil.clamp(speed, previousSpeeds[i] - maxSpeedChange, previousSpeeds[i] + maxSpeedChange);
+            if (limitedSpeed != speed) {
+                speed = limitedSpeed;
+                limited = true;
+            }
+
+            if (steering != 0.0) {
+                previousAngles[i] = MathUtil.angleModulus(previousAngles[i] + steering);
+                output[i].angle = new Rotation2d(previousAngles[i]);
+            }
+            previousSpeeds[i] = speed;
+            output[i].speedMetersPerSecond = speed;
+        }
+
+        limitedLastLoop = limited;
+        return output;
+    }
+
+    /**
+     * Checks whether a module can follow the chassis moving the given fraction of the way from the previous
+     * setpoint to the request.
+     *
+     * @param module            The index of the module.
+     * @param fraction          How far towards the request, from 0 to 1.
+     * @param maxSpeedChange    The most the wheel velocity may change this loop.
+     * @param maxSteeringChange The most the module may steer this loop.
+     * @return True if the module can follow.
+     */
+    private boolean isFeasible(int module, double fraction, double maxSpeedChange, double maxSteeringChange) {
+        double startVx = previousModuleVx[module];
+        double startVy = previousModuleVy[module];
+        double moduleVx = startVx + (desiredModuleVx[module] - startVx) * fraction;
+        double moduleVy = startVy + (desiredModuleVy[module] - startVy) * fraction;
+
+        // Comparing velocities rather than speeds, which would let a wheel go from +v to -v in a single loop
+        if (Math.hypot(moduleVx - startVx, moduleVy - startVy) > maxSpeedChange) {
+            return false;
+        }
+
+        double startSpeed = Math.hypot(startVx, startVy);
+        double speed = Math.hypot(moduleVx, moduleVy);
+
+        // A module that is stopped, or about to stop, can point anywhere without fighting the others
+        if (startSpeed < STOPPED_SPEED || speed < STOPPED_SPEED) {
+            return true;
+        }
+
+        // Reversing the wheel is free, so only the angle modulo 180 degrees matters
+        double angleChange = Math.abs(MathUtil.angleModulus(Math.atan2(moduleVy, moduleVx) - Math.atan2(startVy, startVx)));
+        if (angleChange > Math.PI / 2.0) {
+            angleChange = Math.PI - angleChange;
+        }
+        return angleChange <= maxSteeringChange;
+    }
+
+    /**
+     * Bisects for the largest fraction, up to {@code upperBound}, that a module can follow. A fraction of 0
+     * (keeping the previous setpoint) is always feasible.
+     *
+     * @param module            The index of the module.
+     * @param upperBound        The largest fraction to consider.
+     * @param maxSpeedChange    The most the wheel velocity may change this loop.
+     * @param maxSteeringChange The most the module may steer this loop.
+     * @return The largest feasible fraction found.
+     */
+    private double findFeasibleFraction(int module, double upperBound, double maxSpeedChange, double maxSteeringChange) {
+        double low = 0.0;
+        double high = upperBound;
+        for (int iteration = 0; iteration < SEARCH_ITERATIONS; iteration++) {
+            double middle = (low + high) / 2.0;
+            if (isFeasible(module, middle, maxSpeedChange, maxSteeringChange)) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the previous setpoint's module states.
+     *
+     * @return The module states, in kinematics order. The array and states are reused every call.
+     */
+    public SwerveModuleState[] getSetpoint() {
+        return output;
+    }
+
+    /**
+     * Sets the maximum wheel speed.
+     *
+     * @param maxWheelSpeed The maximum speed of any wheel, in meters per second.
+     */
+    public void setMaxWheelSpeed(double maxWheelSpeed) {
+        this.maxWheelSpeed = maxWheelSpeed;
+    }
+
+    /**
+     * Sets the maximum wheel acceleration.
+     *
+     * @param maxWheelAcceleration The maximum change of any wheel's speed, in meters per second squared.
+     */
+    public void setMaxWheelAcceleration(double maxWheelAcceleration) {
+        this.maxWheelAcceleration = maxWheelAcceleration;
+    }
+
+    /**
+     * Sets the maximum steering velocity, e.g. after switching turning motors.
+     *
+     * @param maxSteeringVelocity The maximum steering velocity of any module, in radians per second.
+     */
+    public void setMaxSteeringVelocity(double maxSteeringVelocity) {
+        this.maxSteeringVelocity = maxSteeringVelocity;
+    }
+}
@@ -0,0 +1,248 @@
+package frc.robot.util.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.FieldObject2d;
+import frc.robot.Constants.TelemetryConstants;
+
+/**
+ * <h2> TelemetryPublisher </h2>
+ * The {@code TelemetryPublisher} class is the single place robot code sends values to the dashboard through. Instead
+ * of calling {@code SmartDashboard.put...} every loop, a value is registered once as a {@link Topic} with a minimum
+ * publish period, and then set as often as is convenient. Once per loop, {@link #update()} pushes every topic whose
+ * value changed since it was last sent, but no more often than its period allows.
+ * <p>
+ * This keeps NetworkTables traffic on the field radio down: a value that does not change is never resent, and a
+ * value that changes every loop (like a pose) is only sent at the rate a human can actually read it. The last change
+ * is never lost, since it stays pending until its period has passed.
+ * <p>
+ * Number and string topics are published under the SmartDashboard table, so existing dashboard layouts keep working.
+ * Pose topics move an object on a {@link edu.wpi.first.wpilibj.smartdashboard.Field2d}.
+ * <p>
+ * All methods must be called from the main robot thread.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.Robot}
+ */
+public final class TelemetryPublisher {
+
+    private static final TelemetryPublisher instance = new TelemetryPublisher();
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+    private final List<Topic> topics = new ArrayList<>();
+
+    /**
+     * Returns the shared TelemetryPublisher instance.
+     *
+     * @return The shared TelemetryPublisher instance.
+     */
+    public static TelemetryPublisher getInstance() {
+        return instance;
+    }
+
+    private TelemetryPublisher() {
+    }
+
+    /**
+     * Registers a number shown on the dashboard. This should be called once, when the owning object is created.
+     *
+     * @param key           The SmartDashboard key, e.g. "Vision/Accepted".
+     * @param periodSeconds The minimum time between two publishes of this value, in seconds.
+     * @return The topic, which is used to set the value.
+     */
+    public NumberTopic registerNumber(String key, double periodSeconds) {
+        return register(new NumberTopic(table.getDoubleTopic(key).publish(), periodSeconds));
+    }
+
+    /**
+     * Registers a string shown on the dashboard. This should be called once, when the owning object is created.
+     *
+     * @param key           The SmartDashboard key, e.g. "Vision/FrontCamera/Status".
+     * @param periodSeconds The minimum time between two publishes of this value, in seconds.
+     * @return The topic, which is used to set the value.
+     */
+    public StringTopic registerString(String key, double periodSeconds) {
+        return register(new StringTopic(table.getStringTopic(key).publish(), periodSeconds));
+    }
+
+    /**
+     * Registers a pose drawn on a Field2d. This should be called once, when the owning object is created.
+     *
+     * @param fieldObject   The Field2d object to move, e.g. {@code field.getRobotObject()}.
+     * @param periodSeconds The minimum time between two publishes of this pose, in seconds.
+     * @return The topic, which is used to set the pose.
+     */
+    public PoseTopic registerPose(FieldObject2d fieldObject, double periodSeconds) {
+        return register(new PoseTopic(fieldObject, periodSeconds));
+    }
+
+    private <T extends Topic> T register(T topic) {
+        topics.add(topic);
+        return topic;
+    }
+
+    /**
+     * Publishes every topic that changed and whose period has passed. Call once per loop, after the scheduler runs.
+     */
+    public void update() {
+        if (!TelemetryConstants.ENABLED) {
+            return;
+        }
+
+        double timestamp = Timer.getFPGATimestamp();
+        for (int i = 0; i < topics.size(); i++) {
+            Topic topic = topics.get(i);
+            if (topic.changed && timestamp - topic.lastPublishTime >= topic.periodSeconds) {
+                topic.publish();
+                topic.changed = false;
+                topic.lastPublishTime = timestamp;
+            }
+        }
+    }
+
+    /**
+     * <h2> Topic </h2>
+     * A single value on the dashboard, with its own publish period. The value is only sent once it changes.
+     */
+    public abstract static class Topic {
+        private final double periodSeconds;
+        private double lastPublishTime = Double.NEGATIVE_INFINITY;
+        private boolean changed = false;
+
+        private Topic(double periodSeconds) {
+            this.periodSeconds = periodSeconds;
+        }
+
+        /**
+         * Marks the value as needing to be published.
+         */
+        protected final void markChanged() {
+            changed = true;
+        }
+
+        /**
+         * Sends the current value.
+         */
+        protected abstract void publish();
+    }
+
+    /**
+     * <h2> NumberTopic </h2>
+     * A number on the dashboard.
+     */
+    public static final class NumberTopic extends Topic {
+        private final DoublePublisher publisher;
+        private double value = Double.NaN;
+        private boolean hasValue = false;
+
+        private NumberTopic(DoublePublisher publisher, double periodSeconds) {
+            super(periodSeconds);
+            this.publisher = publisher;
+        }
+
+        /**
+         * Sets the value. It is sent during the next {@link TelemetryPublisher#update()} that its period allows.
+         *
+         * @param value The new value.
+         */
+        public void set(double value) {
+            if (hasValue && Double.compare(value, this.value) == 0) {
+                return;
+            }
+            this.value = value;
+            hasValue = true;
+            markChanged();
+        }
+
+        @Override
+        protected void publish() {
+            publisher.set(value);
+        }
+    }
+
+    /**
+     * <h2> StringTopic </h2>
+     * A string on the dashboard.
+     */
+    public static final class StringTopic extends Topic {
+        private final StringPublisher publisher;
+        private String value = null;
+
+        private StringTopic(StringPublisher publisher, double periodSeconds) {
+            super(periodSeconds);
+            this.publisher = publisher;
+        }
+
+        /**
+         * Sets the value. It is sent during the next {@link TelemetryPublisher#update()} that its period allows.
+         *
+         * @param value The new value. Must not be null.
+         */
+        public void set(String value) {
+            if (value.equals(this.value)) {
+                return;
+            }
+            this.value = value;
+            markChanged();
+        }
+
+        @Override
+        protected void publish() {
+            publisher.set(value);
+        }
+    }
+
+    /**
+     * <h2> PoseTopic </h2>
+     * An object drawn on a Field2d. The object can be hidden, e.g. when a camera has no recent estimate.
+     */
+    public static final class PoseTopic extends Topic {
+        private final FieldObject2d fieldObject;
+        private Pose2d pose = null;
+
+        private PoseTopic(FieldObject2d fieldObject, double periodSeconds) {
+            super(periodSeconds);
+            this.fieldObject = fieldObject;
+        }
+
+        /**
+         * Sets the pose. It is sent during the next {@link TelemetryPublisher#update()} that its period allows.
+         *
+         * @param pose The new pose. Must not be null.
+         */
+        public void set(Pose2d pose) {
+            if (pose.equals(this.pose)) {
+                return;
+            }
+            this.pose = pose;
+            markChanged();
+        }
+
+        /**
+         * Removes the object from the field until a pose is set again.
+         */
+        public void clear() {
+            if (pose == null) {
+                return;
+            }
+            pose = null;
+            markChanged();
+        }
+
+        @Override
+        protected void publish() {
+            if (pose == null) {
+                fieldObject.setPoses();
+            } else {
+                fieldObject.setPose(pose);
+            }
+        }
+    }
+}
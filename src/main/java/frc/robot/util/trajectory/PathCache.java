@@ -0,0 +1,198 @@
+package frc.robot.util.trajectory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * <h2> PathCache </h2>
+ * The {@code PathCache} class keeps the trajectories generated by {@link PathFileLoader} in a compact binary file,
+ * so the JSON only has to be parsed and sampled the first time the robot boots with a new set of paths. After that,
+ * the cache is memory-mapped and its sample arrays are bulk copied straight into each {@link SampledTrajectory}.
+ * <p>
+ * The cache stores a checksum of the path files, {@code settings.json} and the generation settings (including
+ * {@code PathFileLoader}'s version and fallback constraints). If any of them change (e.g. a new deploy), the checksum
+ * no longer matches and the cache is rebuilt from the JSON. Paths are only cached if every file loaded.
+ * <p>
+ * The file starts with a header (the int {@code MAGIC}, the short {@code VERSION}, the long checksum and the int
+ * number of trajectories), followed by each trajectory: its UTF-8 name (short length, then bytes), the int number of
+ * samples, then each sample array in the order of {@code SampledTrajectory.getColumns()}. All values are big-endian.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.RobotContainer}
+ */
+public final class PathCache {
+
+    static final int MAGIC = 0x50415448; // "PATH"
+    static final short VERSION = 1;
+    private static final int COLUMN_COUNT = 8;
+
+    private PathCache() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    /**
+     * Loads every trajectory, from the cache if it is up to date, or else from the path files, in which case the
+     * cache is rebuilt for the next boot.
+     *
+     * @param pathDirectory The directory holding the {@code .path} files.
+     * @param settingsFile  PathPlanner's {@code settings.json}.
+     * @param cacheFile     The cache file.
+     * @return The trajectories, by path name.
+     */
+    public static Map<String, SampledTrajectory> load(File pathDirectory, File settingsFile, File cacheFile) {
+        long checksum;
+        try {
+            checksum = checksumSources(pathDirectory, settingsFile);
+        } catch (IOException e) {
+            System.err.println("[PathCache] Failed to read the path files, loading them directly: " + e.getMessage());
+            return PathFileLoader.loadDirectory(pathDirectory, settingsFile);
+        }
+
+        Map<String, SampledTrajectory> trajectories = read(cacheFile, checksum);
+        if (trajectories != null) {
+            System.out.println("[PathCache] Loaded " + trajectories.size() + " trajectories from " + cacheFile);
+            return trajectories;
+        }
+
+        // The cache is missing or stale, so the paths are generated and the cache is rebuilt. If anything failed to
+        // load, nothing is cached, so the failure isn't kept after whatever caused it is fixed.
+        List<String> failures = new ArrayList<>();
+        trajectories = PathFileLoader.loadDirectory(pathDirectory, settingsFile, failures);
+        if (!failures.isEmpty()) {
+            System.err.println("[PathCache] Not caching the paths, since " + failures.size() + " file(s) failed to load");
+            return trajectories;
+        }
+        try {
+            write(cacheFile, checksum, trajectories);
+            System.out.println("[PathCache] Rebuilt " + cacheFile);
+        } catch (IOException e) {
+            System.err.println("[PathCache] Failed to write " + cacheFile + ": " + e.getMessage());
+        }
+        return trajectories;
+    }
+
+    /**
+     * Calculates a checksum of everything the cached trajectories are generated from.
+     *
+     * @param pathDirectory The directory holding the {@code .path} files.
+     * @param settingsFile  PathPlanner's {@code settings.json}.
+     * @return The checksum.
+     * @throws IOException If a file could not be read.
+     */
+    static long checksumSources(File pathDirectory, File settingsFile) throws IOException {
+        CRC32 crc = new CRC32();
+
+        // The cache format and the generation settings that change the samples
+        crc.update((VERSION + "/" + PathFileLoader.describeSettings()).getBytes(StandardCharsets.UTF_8));
+
+        File[] files = pathDirectory.listFiles((dir, fileName) -> fileName.endsWith(".path"));
+        if (files == null) {
+            throw new IOException(pathDirectory + " could not be read");
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            crc.update(file.getName().getBytes(StandardCharsets.UTF_8));
+            crc.update(Files.readAllBytes(file.toPath()));
+        }
+        if (settingsFile.isFile()) {
+            crc.update(Files.readAllBytes(settingsFile.toPath()));
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Reads the cache, if it exists and matches the checksum.
+     *
+     * @param cacheFile The cache file.
+     * @param checksum  The checksum of the current path files.
+     * @return The trajectories, or null if the cache is missing, stale or unreadable.
+     */
+    static Map<String, SampledTrajectory> read(File cacheFile, long checksum) {
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION || buffer.getLong() != checksum) {
+                return null;
+            }
+
+            int trajectoryCount = buffer.getInt();
+            Map<String, SampledTrajectory> trajectories = new HashMap<>();
+            for (int i = 0; i < trajectoryCount; i++) {
+                byte[] nameBytes = new byte[buffer.getShort()];
+                buffer.get(nameBytes);
+                String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+                // Copying each sample array straight out of the mapped file
+                int sampleCount = buffer.getInt();
+                double[][] columns = new double[COLUMN_COUNT][sampleCount];
+                for (double[] column : columns) {
+                    buffer.asDoubleBuffer().get(column);
+                    buffer.position(buffer.position() + sampleCount * Double.BYTES);
+                }
+
+                trajectories.put(name, new SampledTrajectory(name, columns[0], columns[1], columns[2], columns[3],
+                        columns[4], columns[5], columns[6], columns[7]));
+            }
+            return trajectories;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[PathCache] Failed to read " + cacheFile + ", rebuilding it: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the cache. It is written to a temporary file first and then moved into place, so a robot that loses
+     * power part way through never leaves a broken cache behind.
+     *
+     * @param cacheFile    The cache file.
+     * @param checksum     The checksum of the path files the trajectories were generated from.
+     * @param trajectories The trajectories to write.
+     * @throws IOException If the cache could not be written.
+     */
+    static void write(File cacheFile, long checksum, Map<String, SampledTrajectory> trajectories) throws IOException {
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+
+        File temporaryFile = new File(cacheFile.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            output.writeLong(checksum);
+            output.writeInt(trajectories.size());
+
+            for (Map.Entry<String, SampledTrajectory> entry : trajectories.entrySet()) {
+                byte[] nameBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                output.writeShort(nameBytes.length);
+                output.write(nameBytes);
+
+                double[][] columns = entry.getValue().getColumns();
+                output.writeInt(columns[0].length);
+                for (double[] column : columns) {
+                    for (double value : column) {
+                        output.writeDouble(value);
+                    }
+                }
+            }
+        }
+        Files.move(temporaryFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,474 @@
+package frc.robot.util.trajectory;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import edu.wpi.first.math.MathUtil;
+import frc.robot.Constants.AutonomousConstants;
+
+/**
+ * <h2> PathFileLoader </h2>
+ * The {@code PathFileLoader} class reads the {@code .path} files made with PathPlanner (deployed to
+ * {@code deploy/pathplanner/paths}) and turns each one into a {@link SampledTrajectory}. This happens once, at
+ * startup, so none of the work below is repeated while the robot is driving.
+ * <ol>
+ *   <li>Every pair of waypoints is a cubic Bézier curve, through the first anchor's next control point and the
+ *       second anchor's previous control point. Each curve is sampled {@code SAMPLES_PER_SEGMENT} times.</li>
+ *   <li>The heading is interpolated between the starting rotation, the rotation targets and the goal rotation,
+ *       by the position along the path.</li>
+ *   <li>Each sample gets a speed limit: the path's (or constraint zone's) maximum velocity, the speed at which the
+ *       path's maximum acceleration is enough to follow its curvature, and the speed at which the heading changes
+ *       at the maximum angular velocity.</li>
+ *   <li>A forward and a backward pass then limit the acceleration between samples, giving a trapezoidal profile
+ *       that starts and ends at the path's starting and goal velocities, and the time of each sample follows
+ *       from its speed.</li>
+ * </ol>
+ * Paths marked {@code useDefaultConstraints} use the defaults from {@code settings.json}. Event markers and
+ * point-towards zones are not supported, and are ignored.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.RobotContainer}
+ */
+public final class PathFileLoader {
+
+    // Bump whenever the way paths are sampled or timed changes, so that cached trajectories are generated again
+    static final int VERSION = 1;
+
+    // Samples closer together than this (meters) are merged, since they would need an infinite speed to cross
+    private static final double MIN_SAMPLE_SPACING = 1e-6;
+
+    // The slowest speed used to time a step, in meters per second, so a step that starts and ends at rest still ends
+    private static final double MIN_TIMING_SPEED = 1e-3;
+
+    /**
+     * <h2> Constraints </h2>
+     * The limits used when timing a path, in SI units.
+     */
+    public static class Constraints {
+
+        public final double maxVelocity; // Meters per second
+        public final double maxAcceleration; // Meters per second squared
+        public final double maxAngularVelocity; // Radians per second
+
+        /**
+         * Creates a set of constraints.
+         *
+         * @param maxVelocity        The maximum speed, in meters per second.
+         * @param maxAcceleration    The maximum acceleration, in meters per second squared.
+         * @param maxAngularVelocity The maximum angular velocity, in radians per second.
+         */
+        public Constraints(double maxVelocity, double maxAcceleration, double maxAngularVelocity) {
+            this.maxVelocity = maxVelocity;
+            this.maxAcceleration = maxAcceleration;
+            this.maxAngularVelocity = maxAngularVelocity;
+        }
+
+        /**
+         * Reads constraints from a PathPlanner constraints object, which gives angles in degrees.
+         *
+         * @param json The constraints object.
+         * @return The constraints.
+         */
+        static Constraints fromJson(JsonObject json) {
+            return new Constraints(
+                json.get("maxVelocity").getAsDouble(),
+                json.get("maxAcceleration").getAsDouble(),
+                Math.toRadians(json.get("maxAngularVelocity").getAsDouble())
+            );
+        }
+    }
+
+    private PathFileLoader() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    /**
+     * Loads every {@code .path} file in a directory. A file that can't be read is reported and skipped, so one bad
+     * path doesn't stop the others from loading.
+     *
+     * @param directory    The directory holding the path files.
+     * @param settingsFile PathPlanner's {@code settings.json}, for the default constraints.
+     * @return The trajectories, by file name without the {@code .path} extension.
+     */
+    public static Map<String, SampledTrajectory> loadDirectory(File directory, File settingsFile) {
+        return loadDirectory(directory, settingsFile, new ArrayList<>());
+    }
+
+    /**
+     * Loads every {@code .path} file in a directory, collecting everything that failed to load.
+     *
+     * @param directory    The directory holding the path files.
+     * @param settingsFile PathPlanner's {@code settings.json}, for the default constraints.
+     * @param failures     Filled with a description of each failure, including the settings file or directory
+     *                     not being readable. Empty if everything loaded.
+     * @return The trajectories, by file name without the {@code .path} extension.
+     */
+    static Map<String, SampledTrajectory> loadDirectory(File directory, File settingsFile, List<String> failures) {
+        Map<String, SampledTrajectory> trajectories = new HashMap<>();
+        Constraints defaults = loadDefaultConstraints(settingsFile, failures);
+
+        File[] files = directory.listFiles((dir, fileName) -> fileName.endsWith(".path"));
+        if (files == null) {
+            System.err.println("[PathFileLoader] Path directory " + directory + " could not be read");
+            failures.add(directory.toString());
+            return trajectories;
+        }
+
+        for (File file : files) {
+            String name = file.getName().substring(0, file.getName().length() - ".path".length());
+            try {
+                SampledTrajectory trajectory = load(name, file, defaults);
+                trajectories.put(name, trajectory);
+                System.out.printf("[PathFileLoader] Loaded %s: %d samples, %.2f s%n", name,
+                        trajectory.getSampleCount(), trajectory.getTotalTime());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[PathFileLoader] Failed to load " + file + ": " + e.getMessage());
+                failures.add(file.toString());
+            }
+        }
+        return trajectories;
+    }
+
+    /**
+     * Reads the default constraints from PathPlanner's settings file. If the file can't be read, the robot's own
+     * limits from {@code AutonomousConstants} are used instead.
+     *
+     * @param settingsFile PathPlanner's {@code settings.json}.
+     * @return The default constraints.
+     */
+    public static Constraints loadDefaultConstraints(File settingsFile) {
+        return loadDefaultConstraints(settingsFile, new ArrayList<>());
+    }
+
+    private static Constraints loadDefaultConstraints(File settingsFile, List<String> failures) {
+        try (Reader reader = new FileReader(settingsFile)) {
+            JsonObject settings = JsonParser.parseReader(reader).getAsJsonObject();
+            return new Constraints(
+                settings.get("defaultMaxVel").getAsDouble(),
+                settings.get("defaultMaxAccel").getAsDouble(),
+                Math.toRadians(settings.get("defaultMaxAngVel").getAsDouble())
+            );
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[PathFileLoader] Failed to read " + settingsFile + ", using the default constraints: " + e.getMessage());
+            failures.add(settingsFile.toString());
+            return new Constraints(AutonomousConstants.DEFAULT_MAX_VELOCITY, AutonomousConstants.DEFAULT_MAX_ACCELERATION,
+                    AutonomousConstants.DEFAULT_MAX_ANGULAR_VELOCITY);
+        }
+    }
+
+    /**
+     * Describes every setting, apart from the files themselves, that changes the generated trajectories, so that
+     * {@link PathCache} can tell when its trajectories were generated differently.
+     *
+     * @return The settings, as text.
+     */
+    static String describeSettings() {
+        return VERSION + "/" + AutonomousConstants.SAMPLES_PER_SEGMENT + "/" + MIN_SAMPLE_SPACING + "/" + MIN_TIMING_SPEED
+                + "/" + AutonomousConstants.DEFAULT_MAX_VELOCITY + "/" + AutonomousConstants.DEFAULT_MAX_ACCELERATION
+                + "/" + AutonomousConstants.DEFAULT_MAX_ANGULAR_VELOCITY;
+    }
+
+    /**
+     * Loads a single path file.
+     *
+     * @param name     The name to give the trajectory.
+     * @param file     The {@code .path} file.
+     * @param defaults The constraints to use if the path uses the default constraints.
+     * @return The trajectory.
+     * @throws IOException If the file could not be read, or is not a valid path.
+     */
+    public static SampledTrajectory load(String name, File file, Constraints defaults) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return generate(name, JsonParser.parseReader(reader).getAsJsonObject(), defaults);
+        } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+            throw new IOException("Invalid path file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Generates a trajectory from a parsed path.
+     *
+     * @param name     The name to give the trajectory.
+     * @param path     The root object of the path file.
+     * @param defaults The constraints to use if the path uses the default constraints.
+     * @return The trajectory.
+     * @throws IOException If the path has fewer than two waypoints.
+     */
+    static SampledTrajectory generate(String name, JsonObject path, Constraints defaults) throws IOException {
+        JsonArray waypoints = path.getAsJsonArray("waypoints");
+        int segmentCount = waypoints.size() - 1;
+        if (segmentCount < 1) {
+            throw new IOException("A path needs at least two waypoints");
+        }
+
+        Constraints globalConstraints = path.get("useDefaultConstraints").getAsBoolean()
+                ? defaults
+                : Constraints.fromJson(path.getAsJsonObject("globalConstraints"));
+
+        // Sampling the Bézier curves, dropping samples that land on top of the previous one
+        int maxSamples = segmentCount * AutonomousConstants.SAMPLES_PER_SEGMENT + 1;
+        double[] x = new double[maxSamples];
+        double[] y = new double[maxSamples];
+        double[] waypointPositions = new double[maxSamples];
+        int count = 0;
+        for (int segment = 0; segment < segmentCount; segment++) {
+            JsonObject start = waypoints.get(segment).getAsJsonObject();
+            JsonObject end = waypoints.get(segment + 1).getAsJsonObject();
+            double[] p0 = readPoint(start, "anchor", null);
+            double[] p1 = readPoint(start, "nextControl", p0);
+            double[] p3 = readPoint(end, "anchor", null);
+            double[] p2 = readPoint(end, "prevControl", p3);
+
+            int firstStep = segment == 0 ? 0 : 1; // The first sample of a segment is the last of the previous one
+            for (int step = firstStep; step <= AutonomousConstants.SAMPLES_PER_SEGMENT; step++) {
+                double t = (double) step / AutonomousConstants.SAMPLES_PER_SEGMENT;
+                double u = 1.0 - t;
+                double b0 = u * u * u;
+                double b1 = 3.0 * u * u * t;
+                double b2 = 3.0 * u * t * t;
+                double b3 = t * t * t;
+                double sampleX = b0 * p0[0] + b1 * p1[0] + b2 * p2[0] + b3 * p3[0];
+                double sampleY = b0 * p0[1] + b1 * p1[1] + b2 * p2[1] + b3 * p3[1];
+
+                if (count > 0 && Math.hypot(sampleX - x[count - 1], sampleY - y[count - 1]) < MIN_SAMPLE_SPACING) {
+                    continue;
+                }
+                x[count] = sampleX;
+                y[count] = sampleY;
+                waypointPositions[count] = segment + t;
+                count++;
+            }
+        }
+        if (count < 2) {
+            throw new IOException("The path has no length");
+        }
+
+        // Distance covered by each step
+        double[] stepLengths = new double[count];
+        for (int i = 1; i < count; i++) {
+            stepLengths[i] = Math.hypot(x[i] - x[i - 1], y[i] - y[i - 1]);
+        }
+
+        double[] headings = interpolateHeadings(path, waypointPositions, count, segmentCount);
+
+        // Finding the speed and acceleration limits of each sample
+        List<double[]> zoneRanges = new ArrayList<>();
+        List<Constraints> zoneConstraints = new ArrayList<>();
+        readConstraintZones(path, zoneRanges, zoneConstraints);
+        double[] speedLimits = new double[count];
+        double[] accelerationLimits = new double[count];
+        double[] curvatures = new double[count];
+        for (int i = 0; i < count; i++) {
+            Constraints constraints = globalConstraints;
+            for (int zone = 0; zone < zoneRanges.size(); zone++) {
+                double[] range = zoneRanges.get(zone);
+                if (waypointPositions[i] >= range[0] && waypointPositions[i] <= range[1]) {
+                    constraints = zoneConstraints.get(zone);
+                }
+            }
+            accelerationLimits[i] = constraints.maxAcceleration;
+
+            double speedLimit = constraints.maxVelocity;
+            int previous = Math.max(i - 1, 0);
+            int next = Math.min(i + 1, count - 1);
+            double spanLength = 0.0;
+            for (int j = previous + 1; j <= next; j++) {
+                spanLength += stepLengths[j];
+            }
+
+            // Slowing down for tight curves, so the centripetal acceleration stays within the limit
+            if (i > 0 && i < count - 1) {
+                curvatures[i] = getCurvature(x[previous], y[previous], x[i], y[i], x[next], y[next]);
+                double curvature = Math.abs(curvatures[i]);
+                if (curvature > 0.0) {
+                    speedLimit = Math.min(speedLimit, Math.sqrt(constraints.maxAcceleration / curvature));
+                }
+            }
+
+            // Slowing down where the heading changes quickly, so the robot can turn in time
+            double headingChangePerMeter = Math.abs(headings[next] - headings[previous]) / spanLength;
+            if (headingChangePerMeter > 0.0) {
+                speedLimit = Math.min(speedLimit, constraints.maxAngularVelocity / headingChangePerMeter);
+            }
+            speedLimits[i] = speedLimit;
+        }
+
+        // Starting and ending at the requested velocities
+        JsonObject startState = path.has("idealStartingState") && path.get("idealStartingState").isJsonObject()
+                ? path.getAsJsonObject("idealStartingState") : null;
+        double startSpeed = startState == null ? 0.0 : startState.get("velocity").getAsDouble();
+        double endSpeed = path.getAsJsonObject("goalEndState").get("velocity").getAsDouble();
+        speedLimits[0] = Math.min(speedLimits[0], startSpeed);
+        speedLimits[count - 1] = Math.min(speedLimits[count - 1], endSpeed);
+
+        // Forward pass, limiting acceleration, then a backward pass, limiting deceleration
+        double[] speeds = new double[count];
+        speeds[0] = speedLimits[0];
+        for (int i = 1; i < count; i++) {
+            speeds[i] = Math.min(speedLimits[i], Math.sqrt(speeds[i - 1] * speeds[i - 1] + 2.0 * accelerationLimits[i] * stepLengths[i]));
+        }
+        for (int i = count - 2; i >= 0; i--) {
+            speeds[i] = Math.min(speeds[i], Math.sqrt(speeds[i + 1] * speeds[i + 1] + 2.0 * accelerationLimits[i] * stepLengths[i + 1]));
+        }
+
+        // Timing each sample, and pointing its velocity along the path
+        double[] times = new double[count];
+        double[] velocityX = new double[count];
+        double[] velocityY = new double[count];
+        double[] angularVelocities = new double[count];
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                double averageSpeed = Math.max((speeds[i - 1] + speeds[i]) / 2.0, MIN_TIMING_SPEED);
+                times[i] = times[i - 1] + stepLengths[i] / averageSpeed;
+            }
+
+            int previous = Math.max(i - 1, 0);
+            int next = Math.min(i + 1, count - 1);
+            double tangentX = x[next] - x[previous];
+            double tangentY = y[next] - y[previous];
+            double spanLength = Math.hypot(tangentX, tangentY);
+            velocityX[i] = tangentX / spanLength * speeds[i];
+            velocityY[i] = tangentY / spanLength * speeds[i];
+
+            double pathLength = 0.0;
+            for (int j = previous + 1; j <= next; j++) {
+                pathLength += stepLengths[j];
+            }
+            angularVelocities[i] = (headings[next] - headings[previous]) / pathLength * speeds[i];
+        }
+
+        return new SampledTrajectory(name, times, trim(x, count), trim(y, count), headings, velocityX, velocityY,
+                angularVelocities, curvatures);
+    }
+
+    /**
+     * Interpolates the heading of every sample between the starting rotation, the rotation targets and the goal
+     * rotation. Each change takes the shortest way around, and the result is unwrapped, so consecutive headings never
+     * jump by a full turn.
+     *
+     * @param path              The root object of the path file.
+     * @param waypointPositions The position of each sample, in waypoints from the start.
+     * @param count             The number of samples.
+     * @param segmentCount      The number of segments in the path.
+     * @return The heading of each sample, in radians.
+     */
+    private static double[] interpolateHeadings(JsonObject path, double[] waypointPositions, int count, int segmentCount) {
+        List<double[]> targets = new ArrayList<>();
+
+        double goalRotation = Math.toRadians(path.getAsJsonObject("goalEndState").get("rotation").getAsDouble());
+        JsonElement startState = path.get("idealStartingState");
+        double startRotation = startState != null && startState.isJsonObject()
+                ? Math.toRadians(startState.getAsJsonObject().get("rotation").getAsDouble())
+                : goalRotation;
+        targets.add(new double[] {0.0, startRotation});
+
+        if (path.has("rotationTargets")) {
+            for (JsonElement element : path.getAsJsonArray("rotationTargets")) {
+                JsonObject target = element.getAsJsonObject();
+                targets.add(new double[] {
+                    target.get("waypointRelativePos").getAsDouble(),
+                    Math.toRadians(target.get("rotationDegrees").getAsDouble())
+                });
+            }
+        }
+        targets.add(new double[] {segmentCount, goalRotation});
+        targets.sort((a, b) -> Double.compare(a[0], b[0]));
+
+        // Unwrapping the targets, so each one is reached the short way from the one before
+        for (int i = 1; i < targets.size(); i++) {
+            double previousRotation = targets.get(i - 1)[1];
+            targets.get(i)[1] = previousRotation + MathUtil.angleModulus(targets.get(i)[1] - previousRotation);
+        }
+
+        double[] headings = new double[count];
+        int target = 0;
+        for (int i = 0; i < count; i++) {
+            while (target < targets.size() - 2 && waypointPositions[i] > targets.get(target + 1)[0]) {
+                target++;
+            }
+            double[] from = targets.get(target);
+            double[] to = targets.get(target + 1);
+            double span = to[0] - from[0];
+            double fraction = span <= 0.0 ? 1.0 : MathUtil.clamp((waypointPositions[i] - from[0]) / span, 0.0, 1.0);
+            headings[i] = from[1] + (to[1] - from[1]) * fraction;
+        }
+        return headings;
+    }
+
+    /**
+     * Reads the path's constraint zones. Later zones take priority where zones overlap.
+     *
+     * @param path        The root object of the path file.
+     * @param ranges      Filled with the start and end of each zone, in waypoints from the start.
+     * @param constraints Filled with the constraints of each zone.
+     */
+    private static void readConstraintZones(JsonObject path, List<double[]> ranges, List<Constraints> constraints) {
+        if (!path.has("constraintZones")) {
+            return;
+        }
+        for (JsonElement element : path.getAsJsonArray("constraintZones")) {
+            JsonObject zone = element.getAsJsonObject();
+            ranges.add(new double[] {
+                zone.get("minWaypointRelativePos").getAsDouble(),
+                zone.get("maxWaypointRelativePos").getAsDouble()
+            });
+            constraints.add(Constraints.fromJson(zone.getAsJsonObject("constraints")));
+        }
+    }
+
+    /**
+     * Reads a point of a waypoint.
+     *
+     * @param waypoint The waypoint object.
+     * @param key      The point to read, e.g. {@code "anchor"}.
+     * @param fallback The point to use if this one is null (the first and last waypoints have no outer control
+     *                 points), or null if the point is required.
+     * @return The point, as {x, y}.
+     */
+    private static double[] readPoint(JsonObject waypoint, String key, double[] fallback) {
+        JsonElement element = waypoint.get(key);
+        if (element == null || element.isJsonNull()) {
+            if (fallback == null) {
+                throw new IllegalStateException("Waypoint is missing its " + key);
+            }
+            return fallback;
+        }
+        JsonObject point = element.getAsJsonObject();
+        return new double[] {point.get("x").getAsDouble(), point.get("y").getAsDouble()};
+    }
+
+    /**
+     * Calculates the curvature of the circle through three points.
+     *
+     * @return The curvature, in 1 / meters, positive if the points turn left, or 0 if they are in a line.
+     */
+    private static double getCurvature(double x0, double y0, double x1, double y1, double x2, double y2) {
+        double a = Math.hypot(x1 - x0, y1 - y0);
+        double b = Math.hypot(x2 - x1, y2 - y1);
+        double c = Math.hypot(x2 - x0, y2 - y0);
+        double cross = (x1 - x0) * (y2 - y0) - (y1 - y0) * (x2 - x0);
+        double denominator = a * b * c;
+        return denominator == 0.0 ? 0.0 : 2.0 * cross / denominator;
+    }
+
+    private static double[] trim(double[] values, int count) {
+        if (values.length == count) {
+            return values;
+        }
+        double[] trimmed = new double[count];
+        System.arraycopy(values, 0, trimmed, 0, count);
+        return trimmed;
+    }
+}
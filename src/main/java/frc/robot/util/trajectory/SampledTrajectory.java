@@ -0,0 +1,209 @@
+package frc.robot.util.trajectory;
+
+import java.util.Arrays;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * <h2> SampledTrajectory </h2>
+ * The {@code SampledTrajectory} class holds a time-parameterized path as parallel primitive arrays, one entry per
+ * sample: time, position, heading, the field-relative velocities to feed forward, and the path's curvature. The
+ * samples are generated once (see {@link PathFileLoader} and {@link PathCache}), so following a trajectory only has
+ * to look up where the robot should be.
+ * <p>
+ * {@link #sample(double, TrajectorySample)} binary searches the sample times and interpolates between the two
+ * samples either side, so each lookup is O(log n) and allocates nothing.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.commands.FollowTrajectoryCommand}
+ */
+public class SampledTrajectory {
+
+    private final String name;
+    private final double[] times;
+    private final double[] x;
+    private final double[] y;
+    private final double[] headings;
+    private final double[] velocityX;
+    private final double[] velocityY;
+    private final double[] angularVelocities;
+    private final double[] curvatures;
+
+    /**
+     * Creates a trajectory from already generated samples. The arrays are kept, not copied, and must all have the
+     * same length, with at least one sample and strictly increasing times starting at 0.
+     *
+     * @param name              The name of the trajectory, for logging.
+     * @param times             The time of each sample, in seconds.
+     * @param x                 The X coordinate of each sample, in meters.
+     * @param y                 The Y coordinate of each sample, in meters.
+     * @param headings          The heading of each sample, in radians.
+     * @param velocityX         The field-relative X velocity of each sample, in meters per second.
+     * @param velocityY         The field-relative Y velocity of each sample, in meters per second.
+     * @param angularVelocities The angular velocity of each sample, in radians per second.
+     * @param curvatures        The curvature of the path at each sample, in 1 / meters, positive turning left.
+     */
+    public SampledTrajectory(String name, double[] times, double[] x, double[] y, double[] headings,
+            double[] velocityX, double[] velocityY, double[] angularVelocities, double[] curvatures) {
+        int length = times.length;
+        if (length == 0 || x.length != length || y.length != length || headings.length != length
+                || velocityX.length != length || velocityY.length != length || angularVelocities.length != length
+                || curvatures.length != length) {
+            throw new IllegalArgumentException("A trajectory needs at least one sample, and the same number of each value");
+        }
+
+        this.name = name;
+        this.times = times;
+        this.x = x;
+        this.y = y;
+        this.headings = headings;
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+        this.angularVelocities = angularVelocities;
+        this.curvatures = curvatures;
+    }
+
+    /**
+     * Writes the state of the trajectory at the given time into the output. Times before the start or after the end
+     * are clamped, so once the trajectory is over the robot is held at its final sample.
+     *
+     * @param time   The time since the start of the trajectory, in seconds.
+     * @param output The sample to write into.
+     * @return The output sample, for chaining.
+     */
+    public TrajectorySample sample(double time, TrajectorySample output) {
+        int last = times.length - 1;
+
+        // Holding the first or last sample outside of the trajectory
+        if (time <= times[0]) {
+            return copySample(0, output);
+        }
+        if (time >= times[last]) {
+            return copySample(last, output);
+        }
+
+        // Finding the samples either side of the time. A miss returns -(insertion point) - 1.
+        int index = Arrays.binarySearch(times, time);
+        if (index >= 0) {
+            return copySample(index, output);
+        }
+        int upper = -index - 1;
+        int lower = upper - 1;
+
+        // Interpolating between them
+        double fraction = (time - times[lower]) / (times[upper] - times[lower]);
+        output.time = time;
+        output.x = interpolate(x, lower, upper, fraction);
+        output.y = interpolate(y, lower, upper, fraction);
+        output.heading = headings[lower] + MathUtil.angleModulus(headings[upper] - headings[lower]) * fraction;
+        output.velocityX = interpolate(velocityX, lower, upper, fraction);
+        output.velocityY = interpolate(velocityY, lower, upper, fraction);
+        output.angularVelocity = interpolate(angularVelocities, lower, upper, fraction);
+        output.curvature = interpolate(curvatures, lower, upper, fraction);
+        return output;
+    }
+
+    private static double interpolate(double[] values, int lower, int upper, double fraction) {
+        return values[lower] + (values[upper] - values[lower]) * fraction;
+    }
+
+    private TrajectorySample copySample(int index, TrajectorySample output) {
+        output.time = times[index];
+        output.x = x[index];
+        output.y = y[index];
+        output.heading = headings[index];
+        output.velocityX = velocityX[index];
+        output.velocityY = velocityY[index];
+        output.angularVelocity = angularVelocities[index];
+        output.curvature = curvatures[index];
+        return output;
+    }
+
+    /**
+     * Creates a copy of this trajectory rotated 180 degrees about the center of the field, which is how the field
+     * looks from the other alliance's side. Positions are reflected through the center, headings are turned around
+     * and velocities are negated. Angular velocities and curvatures are unchanged, since a rotation keeps left turns
+     * turning left.
+     *
+     * @param fieldLength The length of the field, in meters.
+     * @param fieldWidth  The width of the field, in meters.
+     * @return The mirrored trajectory.
+     */
+    public SampledTrajectory mirrored(double fieldLength, double fieldWidth) {
+        int length = times.length;
+        double[] mirroredX = new double[length];
+        double[] mirroredY = new double[length];
+        double[] mirroredHeadings = new double[length];
+        double[] mirroredVelocityX = new double[length];
+        double[] mirroredVelocityY = new double[length];
+        for (int i = 0; i < length; i++) {
+            mirroredX[i] = fieldLength - x[i];
+            mirroredY[i] = fieldWidth - y[i];
+            mirroredHeadings[i] = MathUtil.angleModulus(headings[i] + Math.PI);
+            mirroredVelocityX[i] = -velocityX[i];
+            mirroredVelocityY[i] = -velocityY[i];
+        }
+
+        // The times, angular velocities and curvatures are never changed, so they can be shared
+        return new SampledTrajectory(name, times, mirroredX, mirroredY, mirroredHeadings,
+                mirroredVelocityX, mirroredVelocityY, angularVelocities, curvatures);
+    }
+
+    /**
+     * Returns the sample arrays, in the order they are stored in a {@link PathCache}: times, x, y, headings,
+     * x velocities, y velocities, angular velocities and curvatures. The arrays are not copied.
+     *
+     * @return The sample arrays.
+     */
+    double[][] getColumns() {
+        return new double[][] {times, x, y, headings, velocityX, velocityY, angularVelocities, curvatures};
+    }
+
+    /**
+     * Returns the name of the trajectory, usually the name of the file it was loaded from.
+     *
+     * @return The name of the trajectory.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns how long the trajectory takes to drive.
+     *
+     * @return The total time, in seconds.
+     */
+    public double getTotalTime() {
+        return times[times.length - 1];
+    }
+
+    /**
+     * Returns the number of samples in the trajectory.
+     *
+     * @return The number of samples.
+     */
+    public int getSampleCount() {
+        return times.length;
+    }
+
+    /**
+     * Returns the pose the trajectory starts at.
+     *
+     * @return The initial pose.
+     */
+    public Pose2d getInitialPose() {
+        return new Pose2d(x[0], y[0], new Rotation2d(headings[0]));
+    }
+
+    /**
+     * Returns the pose the trajectory ends at.
+     *
+     * @return The final pose.
+     */
+    public Pose2d getFinalPose() {
+        int last = times.length - 1;
+        return new Pose2d(x[last], y[last], new Rotation2d(headings[last]));
+    }
+}
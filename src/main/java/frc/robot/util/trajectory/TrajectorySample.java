@@ -0,0 +1,94 @@
+package frc.robot.util.trajectory;
+
+/**
+ * <h2> TrajectorySample </h2>
+ * The {@code TrajectorySample} class holds the state of a {@link SampledTrajectory} at one point in time. It is
+ * written in place by {@link SampledTrajectory#sample(double, TrajectorySample)}, so a follower can keep one
+ * sample and reuse it every loop. All values are field-relative.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.commands.FollowTrajectoryCommand}
+ */
+public class TrajectorySample {
+
+    double time;
+    double x;
+    double y;
+    double heading;
+    double velocityX;
+    double velocityY;
+    double angularVelocity;
+    double curvature;
+
+    /**
+     * Returns the time since the start of the trajectory.
+     *
+     * @return The time, in seconds.
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the X coordinate of the robot.
+     *
+     * @return The X coordinate, in meters.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Returns the Y coordinate of the robot.
+     *
+     * @return The Y coordinate, in meters.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Returns the heading of the robot.
+     *
+     * @return The heading, in radians, positive counter-clockwise.
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * Returns the X component of the robot's velocity.
+     *
+     * @return The X velocity, in meters per second.
+     */
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * Returns the Y component of the robot's velocity.
+     *
+     * @return The Y velocity, in meters per second.
+     */
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    /**
+     * Returns the angular velocity of the robot.
+     *
+     * @return The angular velocity, in radians per second, positive counter-clockwise.
+     */
+    public double getAngularVelocity() {
+        return angularVelocity;
+    }
+
+    /**
+     * Returns the curvature of the path.
+     *
+     * @return The curvature, in 1 / meters, positive turning left.
+     */
+    public double getCurvature() {
+        return curvature;
+    }
+}
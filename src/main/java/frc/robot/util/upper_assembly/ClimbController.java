@@ -0,0 +1,208 @@
+package frc.robot.util.upper_assembly;
+
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+/**
+ * <h2> ClimbController </h2>
+ * The {@code ClimbController} class moves a climber along a trapezoidal motion profile, shared by the Squid's and
+ * the Narwhal's climbers. Every loop it advances the profile and works out a feedforward voltage for the next
+ * setpoint, which the climber sends to its motor controller alongside the position.
+ * <p>
+ * The feedforward switches to a loaded gain set once the climber picks up the robot's weight, which is detected
+ * from the motor's current staying high. The loaded gain only pushes against gravity: it is applied while lifting
+ * or holding, and left out while the setpoint moves the other way, where gravity already helps.
+ * <p>
+ * If the current stays at the stall threshold while the climber isn't moving towards a goal it hasn't reached,
+ * the climber is considered stalled until it is given a new goal. An unloaded climber stops. A loaded one holds
+ * where it is with the loaded gain instead, as cutting the output could drop the robot.
+ * <p>
+ * Units are whatever the climber's encoder is converted to (meters for a spool, rotations for an arm).
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.subsystems.squid.SquidClimber}
+ * @see {@link frc.robot.subsystems.narwhal.NarwhalClimber}
+ */
+public class ClimbController {
+
+    private final String name;
+    private final TrapezoidProfile profile;
+    private final double kS;
+    private final double kV;
+    private final double kA;
+    private final double loadedKG;
+    private final double loadCurrent;
+    private final double stallCurrent;
+    private final double stallVelocity;
+    private final double positionTolerance;
+
+    private final Debouncer loadDebouncer;
+    private final Debouncer stallDebouncer;
+
+    private TrapezoidProfile.State setpoint = new TrapezoidProfile.State();
+    private TrapezoidProfile.State goal = new TrapezoidProfile.State();
+    private double feedforwardVolts = 0.0;
+    private boolean active = false;
+    private boolean loaded = false;
+    private boolean stalled = false;
+
+    /**
+     * Creates a climb controller.
+     *
+     * @param name              The climber's name, used when reporting a stall.
+     * @param constraints       The profile's maximum velocity and acceleration.
+     * @param kS                The voltage to overcome static friction.
+     * @param kV                The voltage per unit of velocity.
+     * @param kA                The voltage per unit of acceleration.
+     * @param loadedKG          The voltage to hold the robot's weight once it is picked up. Its sign is the
+     *                          direction the climber lifts the robot in.
+     * @param loadCurrent       The current above which the climber is carrying the robot, in amps.
+     * @param loadDebounceTime  How long the current has to stay above or below {@code loadCurrent} before the
+     *                          feedforward switches, in seconds.
+     * @param stallCurrent      The current at which the climber may be stalled, in amps.
+     * @param stallVelocity     The speed below which the climber isn't moving.
+     * @param stallTime         How long the climber has to stay stalled before the controller stops, in seconds.
+     * @param positionTolerance How close to the goal the climber counts as there.
+     */
+    public ClimbController(String name, TrapezoidProfile.Constraints constraints, double kS, double kV, double kA,
+            double loadedKG, double loadCurrent, double loadDebounceTime, double stallCurrent, double stallVelocity,
+            double stallTime, double positionTolerance) {
+        this.name = name;
+        this.profile = new TrapezoidProfile(constraints);
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+        this.loadedKG = loadedKG;
+        this.loadCurrent = loadCurrent;
+        this.stallCurrent = stallCurrent;
+        this.stallVelocity = stallVelocity;
+        this.positionTolerance = positionTolerance;
+        this.loadDebouncer = new Debouncer(loadDebounceTime, DebounceType.kBoth);
+        this.stallDebouncer = new Debouncer(stallTime, DebounceType.kRising);
+    }
+
+    /**
+     * Starts a move to a new goal. A move that is already running continues from its current setpoint; otherwise
+     * the move starts from where the climber is. Clears a stall.
+     *
+     * @param goalPosition     The position to move to.
+     * @param measuredPosition The climber's current position.
+     * @param measuredVelocity The climber's current velocity.
+     */
+    public void setGoal(double goalPosition, double measuredPosition, double measuredVelocity) {
+        if (!active) {
+            setpoint = new TrapezoidProfile.State(measuredPosition, measuredVelocity);
+        }
+        goal = new TrapezoidProfile.State(goalPosition, 0.0);
+        active = true;
+        stalled = false;
+        stallDebouncer.calculate(false);
+    }
+
+    /**
+     * Advances the profile by one loop and updates the load and stall detection. Call once per loop.
+     *
+     * @param measuredPosition The climber's current position.
+     * @param measuredVelocity The climber's current velocity.
+     * @param current          The motor's output current, in amps.
+     * @return Whether the climber should be driven to {@link #getSetpointPosition()} with
+     *         {@link #getFeedforwardVolts()}. False when there is no goal or an unloaded climber has stalled.
+     */
+    public boolean update(double measuredPosition, double measuredVelocity, double current) {
+        loaded = loadDebouncer.calculate(current >= loadCurrent);
+        if (!active) {
+            return false;
+        }
+
+        // Stalled if the current is at the threshold while the climber should be moving but isn't
+        boolean shouldBeMoving = setpoint.velocity != 0.0 || Math.abs(goal.position - measuredPosition) > positionTolerance;
+        boolean stalledNow = current >= stallCurrent && Math.abs(measuredVelocity) <= stallVelocity && shouldBeMoving;
+        if (stallDebouncer.calculate(stalledNow)) {
+            DriverStation.reportWarning("[ClimbController] " + name + " stalled at " + measuredPosition + " on the way to " + goal.position, false);
+            stalled = true;
+
+            // Holding the robot where it is, rather than letting it drop
+            if (loaded) {
+                goal = new TrapezoidProfile.State(measuredPosition, 0.0);
+                setpoint = goal;
+                feedforwardVolts = loadedKG;
+                return true;
+            }
+
+            active = false;
+            feedforwardVolts = 0.0;
+            return false;
+        }
+
+        // Stepping the profile. Once it is done, this keeps holding the goal.
+        TrapezoidProfile.State nextSetpoint = profile.calculate(TimedRobot.kDefaultPeriod, setpoint, goal);
+        double acceleration = (nextSetpoint.velocity - setpoint.velocity) / TimedRobot.kDefaultPeriod;
+        feedforwardVolts = kS * Math.signum(nextSetpoint.velocity) + kV * nextSetpoint.velocity + kA * acceleration;
+
+        // Only pushing against the robot's weight, not with it
+        if (loaded && Math.signum(nextSetpoint.velocity) != -Math.signum(loadedKG)) {
+            feedforwardVolts += loadedKG;
+        }
+        setpoint = nextSetpoint;
+        return true;
+    }
+
+    /**
+     * Returns the position the climber should be at this loop.
+     *
+     * @return The profile's setpoint.
+     */
+    public double getSetpointPosition() {
+        return setpoint.position;
+    }
+
+    /**
+     * Returns the feedforward voltage for this loop's setpoint.
+     *
+     * @return The feedforward, in volts.
+     */
+    public double getFeedforwardVolts() {
+        return feedforwardVolts;
+    }
+
+    /**
+     * Returns the position being moved to.
+     *
+     * @return The goal.
+     */
+    public double getGoalPosition() {
+        return goal.position;
+    }
+
+    /**
+     * Returns whether the climber is within tolerance of its goal.
+     *
+     * @param measuredPosition The climber's current position.
+     * @return Whether the climber is at its goal.
+     */
+    public boolean isAtGoal(double measuredPosition) {
+        return Math.abs(goal.position - measuredPosition) <= positionTolerance;
+    }
+
+    /**
+     * Returns whether the climber is carrying the robot's weight.
+     *
+     * @return Whether the loaded feedforward is in use.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns whether the climber stalled. A loaded climber is still holding its position. Cleared when a new goal
+     * is set.
+     *
+     * @return Whether the climber stalled.
+     */
+    public boolean isStalled() {
+        return stalled;
+    }
+}
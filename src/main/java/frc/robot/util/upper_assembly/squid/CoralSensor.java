@@ -0,0 +1,175 @@
+package frc.robot.util.upper_assembly.squid;
+
+import edu.wpi.first.wpilibj.AsynchronousInterrupt;
+import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * <h2> CoralSensor </h2>
+ * The {@code CoralSensor} class watches the Squid manipulator's coral sensor with an {@link AsynchronousInterrupt},
+ * so coral arriving is noticed within a few milliseconds instead of on the next 20 ms loop. Edges are timestamped
+ * by the FPGA when they happen, not when they are read.
+ * <p>
+ * Chatter is debounced by confirmation: after an edge, the interrupt's thread waits {@code confirmTime} seconds and
+ * re-reads the sensor, and the edge only counts if the sensor still reads the new level. A noise spike shorter than
+ * that is never counted as an arrival. {@link #update()} runs every loop and picks up a level that has held for two
+ * loops in a row, in case an edge was missed.
+ * <p>
+ * An arrival action can be set to run as soon as an arrival is confirmed, e.g. to stop the rollers.
+ * <hr>
+ * @since v2.1.0
+ * @see {@link frc.robot.subsystems.squid.SquidManipulator}
+ */
+public class CoralSensor {
+
+    private final DigitalInput input;
+    private final AsynchronousInterrupt interrupt;
+    private final long confirmTimeMillis;
+
+    private volatile Runnable arrivalAction = null;
+
+    // Written by the interrupt's thread and the main loop, so guarded by this object's lock
+    private boolean coralPresent;
+    private double lastArrivalTimestamp = Double.NaN;
+    private double lastDepartureTimestamp = Double.NaN;
+    private int arrivalCount = 0;
+
+    // Only used by the main loop
+    private boolean previousRaw;
+
+    /**
+     * Creates a coral sensor and starts listening for its edges.
+     *
+     * @param channel     The sensor's DIO channel. The sensor reads true when coral is present.
+     * @param confirmTime How long the sensor has to hold a new level before an edge counts, in seconds.
+     */
+    public CoralSensor(int channel, double confirmTime) {
+        this.input = new DigitalInput(channel);
+        this.confirmTimeMillis = Math.max(1, Math.round(confirmTime * 1000.0));
+        this.coralPresent = input.get();
+        this.previousRaw = coralPresent;
+
+        interrupt = new AsynchronousInterrupt(input, this::handleInterrupt);
+        interrupt.setInterruptEdges(true, true);
+        interrupt.enable();
+    }
+
+    /**
+     * Handles an edge on the interrupt's thread, confirming the new level before accepting it.
+     *
+     * @param rising  Whether the sensor went from false to true (coral arrived).
+     * @param falling Whether the sensor went from true to false (coral left).
+     */
+    private void handleInterrupt(Boolean rising, Boolean falling) {
+        double risingTimestamp = interrupt.getRisingTimestamp();
+        double fallingTimestamp = interrupt.getFallingTimestamp();
+
+        // Waiting out any chatter. Edges during the wait are picked up by the next interrupt.
+        try {
+            Thread.sleep(confirmTimeMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // Only the level the sensor settled on counts, stamped with the time of the edge that led to it
+        boolean present = input.get();
+        if (present && !rising || !present && !falling) {
+            return;
+        }
+        if (acceptLevel(present, present ? risingTimestamp : fallingTimestamp)) {
+            runArrivalAction();
+        }
+    }
+
+    /**
+     * Records a confirmed level if it changes the state.
+     *
+     * @param present   Whether coral is present.
+     * @param timestamp The FPGA time the level started, in seconds.
+     * @return Whether coral arrived.
+     */
+    private synchronized boolean acceptLevel(boolean present, double timestamp) {
+        if (present == coralPresent) {
+            return false;
+        }
+
+        coralPresent = present;
+        if (present) {
+            lastArrivalTimestamp = timestamp;
+            arrivalCount++;
+        } else {
+            lastDepartureTimestamp = timestamp;
+        }
+        return present;
+    }
+
+    /**
+     * Runs the arrival action, if there is one. Called outside of the lock, so it can't hold up the main loop.
+     */
+    private void runArrivalAction() {
+        Runnable action = arrivalAction;
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    /**
+     * Catches the state up with the sensor if an edge was missed, once the sensor has read the same level for two
+     * loops in a row. Call once per loop.
+     */
+    public void update() {
+        boolean raw = input.get();
+        boolean confirmed = raw == previousRaw;
+        previousRaw = raw;
+        if (confirmed && acceptLevel(raw, Timer.getFPGATimestamp())) {
+            runArrivalAction();
+        }
+    }
+
+    /**
+     * Sets an action to run as soon as an arrival is confirmed. It runs on the interrupt's thread (or the main
+     * loop's, if {@link #update()} catches the arrival), so it must be quick and thread-safe.
+     *
+     * @param arrivalAction The action, or null for none.
+     */
+    public void setArrivalAction(Runnable arrivalAction) {
+        this.arrivalAction = arrivalAction;
+    }
+
+    /**
+     * Returns whether coral is present, debounced.
+     *
+     * @return Whether coral is present.
+     */
+    public synchronized boolean isCoralPresent() {
+        return coralPresent;
+    }
+
+    /**
+     * Returns how many times coral has arrived. Comparing it between loops catches arrivals shorter than a loop.
+     *
+     * @return The number of arrivals.
+     */
+    public synchronized int getArrivalCount() {
+        return arrivalCount;
+    }
+
+    /**
+     * Returns when coral last arrived.
+     *
+     * @return The FPGA time of the arrival, in seconds, or NaN if coral hasn't arrived yet.
+     */
+    public synchronized double getLastArrivalTimestamp() {
+        return lastArrivalTimestamp;
+    }
+
+    /**
+     * Returns when coral last left.
+     *
+     * @return The FPGA time of the departure, in seconds, or NaN if coral hasn't left yet.
+     */
+    public synchronized double getLastDepartureTimestamp() {
+        return lastDepartureTimestamp;
+    }
+}
@@ -0,0 +1,113 @@
+package frc.robot.util.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Steps the 2D rate limiter with a fake clock and fixed time steps, checking that the limits apply to the
+ * magnitude of the change rather than to each component.
+ */
+class RateLimiter2dTest {
+
+    private static final double LOOP_PERIOD = 0.02; // Seconds
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void magnitudeOfTheChangeIsLimited() {
+        RateLimiter2d limiter = new RateLimiter2d(new Vector2d(0.0, 0.0), 5.0, Double.MAX_VALUE, () -> 0.0);
+
+        // 5 units per second is 0.1 per loop along the line to the target, split 0.06 / 0.08 between x and y
+        Vector2d value = limiter.updateWithDeltaTime(3.0, 4.0, LOOP_PERIOD);
+        assertEquals(0.06, value.getX(), EPSILON);
+        assertEquals(0.08, value.getY(), EPSILON);
+
+        double previousX = value.getX();
+        double previousY = value.getY();
+        for (int loop = 0; loop < 100; loop++) {
+            limiter.updateWithDeltaTime(3.0, 4.0, LOOP_PERIOD);
+            double change = Math.hypot(limiter.getX() - previousX, limiter.getY() - previousY);
+            assertTrue(change <= 0.1 + EPSILON, "Moved " + change + " in one loop");
+            previousX = limiter.getX();
+            previousY = limiter.getY();
+        }
+
+        // 5 units away at 0.1 per loop, so it is there after 50 loops and stays there
+        assertEquals(3.0, limiter.getX(), 0.0);
+        assertEquals(4.0, limiter.getY(), 0.0);
+    }
+
+    @Test
+    void diagonalIsNoFasterThanStraight() {
+        RateLimiter2d limiter = new RateLimiter2d(new Vector2d(0.0, 0.0), 1.0, Double.MAX_VALUE, () -> 0.0);
+
+        // Limiting each component separately would move sqrt(2) times as far
+        limiter.updateWithDeltaTime(10.0, 10.0, LOOP_PERIOD);
+        assertEquals(LOOP_PERIOD, Math.hypot(limiter.getX(), limiter.getY()), EPSILON);
+        assertEquals(limiter.getX(), limiter.getY(), EPSILON);
+    }
+
+    @Test
+    void timeComesFromTheTimeSource() {
+        double[] time = {3.0};
+        RateLimiter2d limiter = new RateLimiter2d(new Vector2d(0.0, 0.0), 1.0, 0.5, () -> time[0]);
+
+        time[0] = 3.2;
+        Vector2d value = limiter.update(new Vector2d(0.0, -5.0));
+        assertEquals(-0.2, value.getY(), EPSILON);
+
+        // The returned vector is the limiter's own, updated in place
+        assertSame(value, limiter.getValue());
+
+        // A long gap only counts as the maximum delta time
+        time[0] = 10.0;
+        limiter.update(new Vector2d(0.0, -5.0));
+        assertEquals(-0.7, value.getY(), EPSILON);
+    }
+
+    @Test
+    void jerkModeStopsWithoutOvershoot() {
+        double rate = 3.0;
+        double jerk = 12.0;
+        RateLimiter2d limiter = new RateLimiter2d(new Vector2d(0.0, 0.0), rate, Double.MAX_VALUE, () -> 0.0);
+        limiter.setJerk(jerk);
+
+        double targetX = 1.2;
+        double targetY = -0.9;
+        double previousX = 0.0;
+        double previousY = 0.0;
+        double previousRateX = 0.0;
+        double previousRateY = 0.0;
+        double previousDistance = Math.hypot(targetX, targetY);
+        for (int loop = 1; loop <= 1000; loop++) {
+            limiter.updateWithDeltaTime(targetX, targetY, LOOP_PERIOD);
+            double rateX = (limiter.getX() - previousX) / LOOP_PERIOD;
+            double rateY = (limiter.getY() - previousY) / LOOP_PERIOD;
+            double distance = Math.hypot(targetX - limiter.getX(), targetY - limiter.getY());
+
+            assertTrue(Math.hypot(rateX, rateY) <= rate + EPSILON, "Too fast in loop " + loop);
+            assertTrue(distance <= previousDistance + EPSILON, "Moved away from the target in loop " + loop);
+
+            // Heading straight at the target from rest, so it must stay on the line to it
+            assertEquals(0.0, limiter.getX() * targetY - limiter.getY() * targetX, EPSILON);
+
+            // The last step lands on the target and stops there, so it only has to arrive slowly
+            if (distance == 0.0) {
+                assertEquals(targetX, limiter.getX(), 0.0);
+                assertEquals(targetY, limiter.getY(), 0.0);
+                assertTrue(Math.hypot(previousRateX, previousRateY) <= 2.0 * jerk * LOOP_PERIOD + EPSILON, "Arrived too fast");
+                return;
+            }
+            assertTrue(Math.hypot(rateX - previousRateX, rateY - previousRateY) <= jerk * LOOP_PERIOD + EPSILON,
+                    "Rate changed too quickly in loop " + loop);
+            previousX = limiter.getX();
+            previousY = limiter.getY();
+            previousRateX = rateX;
+            previousRateY = rateY;
+            previousDistance = distance;
+        }
+        throw new AssertionError("Never reached the target");
+    }
+}
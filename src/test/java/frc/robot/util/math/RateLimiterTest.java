@@ -0,0 +1,125 @@
+package frc.robot.util.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Steps the rate limiter with a fake clock and fixed time steps, checking the rate and jerk limits every step.
+ */
+class RateLimiterTest {
+
+    private static final double LOOP_PERIOD = 0.02; // Seconds
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void rateModeLimitsTheChange() {
+        RateLimiter limiter = new RateLimiter(0.0, 2.0, Double.MAX_VALUE, () -> 0.0);
+
+        // 2 units per second is 0.04 per loop, so 1 unit takes exactly 25 loops
+        for (int loop = 1; loop < 25; loop++) {
+            assertEquals(0.04 * loop, limiter.updateWithDeltaTime(1.0, LOOP_PERIOD), EPSILON);
+        }
+        assertEquals(1.0, limiter.updateWithDeltaTime(1.0, LOOP_PERIOD), 0.0);
+        assertEquals(1.0, limiter.updateWithDeltaTime(1.0, LOOP_PERIOD), 0.0);
+
+        // And back down again, finishing on the target rather than passing it
+        assertEquals(0.96, limiter.updateWithDeltaTime(-0.05, LOOP_PERIOD), EPSILON);
+        for (int loop = 0; loop < 50; loop++) {
+            limiter.updateWithDeltaTime(-0.05, LOOP_PERIOD);
+        }
+        assertEquals(-0.05, limiter.getValue(), 0.0);
+    }
+
+    @Test
+    void timeComesFromTheTimeSource() {
+        double[] time = {10.0};
+        RateLimiter limiter = new RateLimiter(0.0, 2.0, Double.MAX_VALUE, () -> time[0]);
+
+        // No time has passed yet
+        assertEquals(0.0, limiter.update(1.0), 0.0);
+
+        time[0] = 10.1;
+        assertEquals(0.2, limiter.update(1.0), EPSILON);
+
+        // A shared loop timestamp is measured against the same previous time
+        assertEquals(0.3, limiter.updateWithTime(1.0, 10.15), EPSILON);
+        time[0] = 10.25;
+        assertEquals(0.5, limiter.update(1.0), EPSILON);
+    }
+
+    @Test
+    void longGapsAreClamped() {
+        double[] time = {0.0};
+        RateLimiter limiter = new RateLimiter(0.0, 2.0, 0.1, () -> time[0]);
+
+        // A one second stall only counts as the maximum delta time
+        time[0] = 1.0;
+        assertEquals(0.2, limiter.update(5.0), EPSILON);
+
+        // Time going backwards doesn't move the value
+        assertEquals(0.2, limiter.updateWithDeltaTime(5.0, -0.02), 0.0);
+        assertEquals(0.2, limiter.updateWithDeltaTime(5.0, 0.0), 0.0);
+    }
+
+    /**
+     * Drives a jerk-limited limiter to the target, checking every step that the rate and its change stay within
+     * their limits and that the value only ever moves towards the target. Returns the number of steps taken.
+     */
+    private static int runJerkLimited(RateLimiter limiter, double start, double target, double rate, double jerk) {
+        double previousValue = start;
+        double previousRate = 0.0;
+        double direction = Math.signum(target - start);
+        for (int loop = 1; loop <= 1000; loop++) {
+            double value = limiter.updateWithDeltaTime(target, LOOP_PERIOD);
+            double currentRate = (value - previousValue) / LOOP_PERIOD;
+
+            assertTrue(Math.abs(currentRate) <= rate + EPSILON, "Rate of " + currentRate + " in loop " + loop);
+            assertTrue(currentRate * direction >= 0.0, "Moved away from the target in loop " + loop);
+            assertTrue((target - value) * direction >= 0.0, "Overshot the target in loop " + loop);
+
+            // The last step lands on the target and stops there, so it only has to arrive slowly
+            if (value == target) {
+                assertTrue(Math.abs(previousRate) <= 2.0 * jerk * LOOP_PERIOD + EPSILON, "Arrived at " + previousRate);
+                return loop;
+            }
+            assertTrue(Math.abs(currentRate - previousRate) <= jerk * LOOP_PERIOD + EPSILON,
+                    "Rate changed by " + (currentRate - previousRate) + " in loop " + loop);
+            previousValue = value;
+            previousRate = currentRate;
+        }
+        throw new AssertionError("Never reached the target");
+    }
+
+    @Test
+    void jerkModeStopsWithoutOvershoot() {
+        double rate = 2.0;
+        double jerk = 10.0;
+        RateLimiter limiter = new RateLimiter(0.0, rate, Double.MAX_VALUE, () -> 0.0);
+        limiter.setJerk(jerk);
+
+        // Ramping up to 2 units per second takes 0.2 seconds, and so does ramping back down. Stepping starts at the
+        // first loop's rate rather than at zero, which saves one loop.
+        int loops = runJerkLimited(limiter, 0.0, 1.0, rate, jerk);
+        assertTrue(loops * LOOP_PERIOD >= 1.0 / rate + rate / jerk - LOOP_PERIOD - EPSILON, "Arrived sooner than the limits allow");
+
+        // Short moves never reach full rate but still stop on the target
+        runJerkLimited(limiter, 1.0, 0.97, rate, jerk);
+        assertEquals(0.97, limiter.getValue(), 0.0);
+    }
+
+    @Test
+    void jerkModeRampsTheRate() {
+        RateLimiter limiter = new RateLimiter(0.0, 2.0, Double.MAX_VALUE, () -> 0.0);
+        limiter.setJerk(10.0);
+
+        // The rate grows by 0.2 units per second each loop, starting from rest
+        assertEquals(0.2 * LOOP_PERIOD, limiter.updateWithDeltaTime(1.0, LOOP_PERIOD), EPSILON);
+        assertEquals(0.6 * LOOP_PERIOD, limiter.updateWithDeltaTime(1.0, LOOP_PERIOD), EPSILON);
+
+        // Setting the value puts it back at rest
+        limiter.setValue(0.0);
+        assertEquals(0.2 * LOOP_PERIOD, limiter.updateWithDeltaTime(1.0, LOOP_PERIOD), EPSILON);
+    }
+}
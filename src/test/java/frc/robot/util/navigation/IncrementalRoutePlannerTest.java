@@ -0,0 +1,141 @@
+package frc.robot.util.navigation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Adds and expires obstacles while the robot moves, checking after every repair that the route matches both a
+ * fresh search and a brute-force shortest distance.
+ */
+class IncrementalRoutePlannerTest {
+
+    private static final double NODE_SIZE = 0.25; // Meters
+    private static final double EPSILON = 1e-6; // Meters
+
+    /**
+     * Checks the planner's latest route against a planner that searches from scratch, and against brute force.
+     */
+    private static void assertMatchesFreshSearch(DynamicObstacleLayer layer, IncrementalRoutePlanner planner, boolean found,
+            List<Translation2d> waypoints, Translation2d start, Translation2d goal, int goalCell) {
+        NavigationGrid grid = layer.getGrid();
+        int startCell = grid.getIndexAt(start.getX(), start.getY());
+        double expected = NavigationPlannerTest.getShortestDistances(grid)[startCell][goalCell];
+
+        IncrementalRoutePlanner freshPlanner = new IncrementalRoutePlanner(layer);
+        freshPlanner.setGoal(goal.getX(), goal.getY());
+        List<Translation2d> freshWaypoints = new ArrayList<>();
+        boolean freshFound = freshPlanner.update(start.getX(), start.getY(), freshWaypoints);
+
+        assertEquals(!Double.isInfinite(expected), found, "Whether there is a route");
+        assertEquals(freshFound, found, "Whether a fresh search finds a route");
+        if (found) {
+            assertEquals(expected, planner.getLastRouteLength(), EPSILON);
+            assertEquals(freshPlanner.getLastRouteLength(), planner.getLastRouteLength(), EPSILON);
+            NavigationPlannerTest.assertRouteIsClear(grid, waypoints);
+        } else {
+            assertTrue(waypoints.isEmpty());
+            assertTrue(Double.isInfinite(planner.getLastRouteLength()));
+        }
+    }
+
+    @Test
+    void repairsMatchAFreshSearch() {
+        Random random = new Random(537);
+        for (int trial = 0; trial < 5; trial++) {
+            NavigationGrid staticGrid = NavigationGridTest.createRandomGrid(random, 12, 10, NODE_SIZE, 0.15);
+            DynamicObstacleLayer layer = new DynamicObstacleLayer(staticGrid);
+            IncrementalRoutePlanner planner = new IncrementalRoutePlanner(layer);
+
+            Translation2d goal = NavigationPlannerTest.getRandomFreePosition(random, staticGrid);
+            int goalCell = staticGrid.getIndexAt(goal.getX(), goal.getY());
+            planner.setGoal(goal.getX(), goal.getY());
+
+            List<Translation2d> waypoints = new ArrayList<>();
+            double timestamp = 0.0;
+            for (int step = 0; step < 40; step++) {
+                timestamp += 0.2;
+
+                // A couple of new obstacles (never on the goal), while older ones expire
+                for (int i = 0; i < 2; i++) {
+                    Translation2d obstacle = NavigationPlannerTest.getRandomFreePosition(random, staticGrid);
+                    if (obstacle.getDistance(goal) > 0.6) {
+                        layer.addObstacle(obstacle.getX(), obstacle.getY(), 0.3, timestamp);
+                    }
+                }
+                layer.update(timestamp);
+
+                // The robot moves somewhere free
+                Translation2d start = NavigationPlannerTest.getRandomFreePosition(random, layer.getGrid());
+                boolean found = planner.update(start.getX(), start.getY(), waypoints);
+                assertMatchesFreshSearch(layer, planner, found, waypoints, start, goal, goalCell);
+            }
+
+            // Once every obstacle has expired, the route is the static one again
+            layer.clear();
+            Translation2d start = NavigationPlannerTest.getRandomFreePosition(random, staticGrid);
+            boolean found = planner.update(start.getX(), start.getY(), waypoints);
+            assertMatchesFreshSearch(layer, planner, found, waypoints, start, goal, goalCell);
+        }
+    }
+
+    @Test
+    void obstacleAcrossTheRouteIsAvoidedThenForgotten() {
+        NavigationGrid staticGrid = new NavigationGrid(16, 8, NODE_SIZE);
+        DynamicObstacleLayer layer = new DynamicObstacleLayer(staticGrid);
+        IncrementalRoutePlanner planner = new IncrementalRoutePlanner(layer);
+        planner.setGoal(3.6, 1.0);
+
+        // Straight across an empty grid
+        List<Translation2d> waypoints = new ArrayList<>();
+        assertTrue(planner.update(0.4, 1.0, waypoints));
+        assertEquals(2, waypoints.size());
+        double straightLength = planner.getLastRouteLength();
+
+        // An obstacle in the way makes the route longer and bend around it
+        layer.addObstacle(2.0, 1.0, 0.5, 0.0);
+        assertTrue(planner.update(0.4, 1.0, waypoints));
+        assertTrue(planner.getLastRouteLength() > straightLength + EPSILON);
+        assertTrue(waypoints.size() > 2);
+        NavigationPlannerTest.assertRouteIsClear(layer.getGrid(), waypoints);
+
+        // Only the cells around the obstacle are searched again, not the whole grid
+        assertTrue(planner.getLastExpansionCount() < staticGrid.getCellCount(),
+                "Expanded " + planner.getLastExpansionCount() + " cells");
+
+        // Once it expires, the straight route is back
+        layer.update(10.0);
+        assertTrue(planner.update(0.4, 1.0, waypoints));
+        assertEquals(straightLength, planner.getLastRouteLength(), EPSILON);
+        assertEquals(2, waypoints.size());
+    }
+
+    @Test
+    void wallOfObstaclesLeavesNoRoute() {
+        NavigationGrid staticGrid = new NavigationGrid(16, 8, NODE_SIZE);
+        DynamicObstacleLayer layer = new DynamicObstacleLayer(staticGrid);
+        IncrementalRoutePlanner planner = new IncrementalRoutePlanner(layer);
+        planner.setGoal(3.6, 1.0);
+
+        List<Translation2d> waypoints = new ArrayList<>();
+        assertTrue(planner.update(0.4, 1.0, waypoints));
+
+        // Obstacles all the way across the grid
+        for (double y = 0.0; y <= 2.0; y += 0.25) {
+            layer.addObstacle(2.0, y, 0.3, 0.0);
+        }
+        assertFalse(planner.update(0.4, 1.0, waypoints));
+        assertTrue(waypoints.isEmpty());
+
+        layer.clear();
+        assertTrue(planner.update(0.4, 1.0, waypoints));
+    }
+}
@@ -0,0 +1,162 @@
+package frc.robot.util.navigation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the grid's cells and its line of sight against a brute-force test of every blocked cell.
+ */
+class NavigationGridTest {
+
+    /**
+     * Creates a grid with roughly the given fraction of its cells blocked.
+     */
+    static NavigationGrid createRandomGrid(Random random, int columns, int rows, double nodeSize, double blockedFraction) {
+        NavigationGrid grid = new NavigationGrid(columns, rows, nodeSize);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                grid.setBlocked(column, row, random.nextDouble() < blockedFraction);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns whether the segment between two cell centers touches any blocked cell, including just its corner,
+     * by testing the segment against every blocked cell's square. Coordinates are doubled so that centers are odd
+     * and cell edges are even integers, which keeps the test exact.
+     */
+    private static boolean touchesBlockedCell(NavigationGrid grid, int fromIndex, int toIndex) {
+        long fromX = 2L * (fromIndex % grid.getColumns()) + 1;
+        long fromY = 2L * (fromIndex / grid.getColumns()) + 1;
+        long toX = 2L * (toIndex % grid.getColumns()) + 1;
+        long toY = 2L * (toIndex / grid.getColumns()) + 1;
+        long normalX = -(toY - fromY);
+        long normalY = toX - fromX;
+        long offset = normalX * fromX + normalY * fromY;
+
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            if (!grid.isBlocked(cell)) {
+                continue;
+            }
+            long minX = 2L * (cell % grid.getColumns());
+            long minY = 2L * (cell / grid.getColumns());
+            long maxX = minX + 2;
+            long maxY = minY + 2;
+
+            // Separated along x or y
+            if (Math.max(fromX, toX) < minX || Math.min(fromX, toX) > maxX || Math.max(fromY, toY) < minY || Math.min(fromY, toY) > maxY) {
+                continue;
+            }
+
+            // Separated along the segment's normal, if every corner is strictly on the same side of the line
+            long a = normalX * minX + normalY * minY - offset;
+            long b = normalX * maxX + normalY * minY - offset;
+            long c = normalX * minX + normalY * maxY - offset;
+            long d = normalX * maxX + normalY * maxY - offset;
+            if ((a > 0 && b > 0 && c > 0 && d > 0) || (a < 0 && b < 0 && c < 0 && d < 0)) {
+                continue;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Test
+    void cellsCanBeBlockedAndFreed() {
+        NavigationGrid grid = new NavigationGrid(10, 7, 0.5);
+        assertEquals(70, grid.getCellCount());
+        grid.setBlocked(3, 4, true);
+        grid.setBlocked(9, 6, true);
+        assertTrue(grid.isBlocked(3, 4));
+        assertTrue(grid.isBlocked(grid.getIndex(9, 6)));
+        assertFalse(grid.isBlocked(4, 3));
+
+        grid.setBlocked(3, 4, false);
+        assertFalse(grid.isBlocked(3, 4));
+
+        // Outside of the grid is always blocked
+        assertTrue(grid.isBlocked(-1, 0));
+        assertTrue(grid.isBlocked(0, 7));
+        assertTrue(grid.isBlocked(10, 0));
+
+        // Copies don't share cells
+        NavigationGrid copy = grid.copy();
+        copy.setBlocked(0, 0, true);
+        assertFalse(grid.isBlocked(0, 0));
+        assertTrue(copy.isBlocked(9, 6));
+    }
+
+    @Test
+    void positionsMapToCells() {
+        NavigationGrid grid = new NavigationGrid(10, 7, 0.5);
+        int cell = grid.getIndexAt(1.74, 2.01);
+        assertEquals(grid.getIndex(3, 4), cell);
+        assertEquals(1.75, grid.getCenterX(cell), 1e-12);
+        assertEquals(2.25, grid.getCenterY(cell), 1e-12);
+
+        // Clamped to the grid
+        assertEquals(grid.getIndex(0, 6), grid.getIndexAt(-3.0, 100.0));
+    }
+
+    @Test
+    void lineOfSightMatchesBruteForce() {
+        Random random = new Random(537);
+        for (int trial = 0; trial < 20; trial++) {
+            NavigationGrid grid = createRandomGrid(random, 9, 7, 0.25, 0.2);
+            for (int from = 0; from < grid.getCellCount(); from++) {
+                for (int to = 0; to < grid.getCellCount(); to++) {
+                    boolean expected = !touchesBlockedCell(grid, from, to);
+                    assertEquals(expected, grid.hasLineOfSight(from, to), "Cells " + from + " to " + to);
+
+                    // The same line, given as positions
+                    assertEquals(expected, grid.hasLineOfSight(grid.getCenterX(from), grid.getCenterY(from),
+                            grid.getCenterX(to), grid.getCenterY(to)), "Centers of " + from + " to " + to);
+                }
+            }
+        }
+    }
+
+    @Test
+    void lineOfSightBetweenPositionsMissesNothing() {
+        Random random = new Random(254);
+        for (int trial = 0; trial < 20; trial++) {
+            NavigationGrid grid = createRandomGrid(random, 9, 7, 0.25, 0.2);
+            for (int segment = 0; segment < 500; segment++) {
+                double fromX = random.nextDouble() * 9 * 0.25;
+                double fromY = random.nextDouble() * 7 * 0.25;
+                double toX = random.nextDouble() * 9 * 0.25;
+                double toY = random.nextDouble() * 7 * 0.25;
+                if (!grid.hasLineOfSight(fromX, fromY, toX, toY)) {
+                    continue;
+                }
+
+                // Every point along a clear line is in a free cell
+                for (int step = 0; step <= 1000; step++) {
+                    double t = step / 1000.0;
+                    int cell = grid.getIndexAt(fromX + (toX - fromX) * t, fromY + (toY - fromY) * t);
+                    assertFalse(grid.isBlocked(cell), "Line passes through cell " + cell);
+                }
+            }
+        }
+    }
+
+    @Test
+    void cornerTouchesBlockBothSides() {
+        NavigationGrid grid = new NavigationGrid(4, 4, 1.0);
+        grid.setBlocked(1, 0, true);
+
+        // The diagonal from (0, 0) to (1, 1) passes exactly through the corner of the blocked cell
+        assertFalse(grid.hasLineOfSight(grid.getIndex(0, 0), grid.getIndex(1, 1)));
+        assertFalse(grid.hasLineOfSight(0.5, 0.5, 1.5, 1.5));
+
+        // Just beside the corner, the line only passes through free cells
+        assertTrue(grid.hasLineOfSight(0.5, 0.6, 1.5, 1.6));
+        assertTrue(grid.hasLineOfSight(grid.getIndex(0, 1), grid.getIndex(1, 2)));
+    }
+}
@@ -0,0 +1,224 @@
+package frc.robot.util.navigation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Plans across small random grids and checks every route against brute-force shortest distances and the grid's
+ * line of sight.
+ */
+class NavigationPlannerTest {
+
+    private static final double NODE_SIZE = 0.25; // Meters
+    private static final double EPSILON = 1e-4; // Meters, since the distance fields are stored as floats
+
+    /**
+     * Returns the shortest distance between every pair of cells, moving between neighboring free cells without
+     * cutting the corner of a blocked cell, using Floyd-Warshall.
+     */
+    static double[][] getShortestDistances(NavigationGrid grid) {
+        int cellCount = grid.getCellCount();
+        double[][] distances = new double[cellCount][cellCount];
+        for (int from = 0; from < cellCount; from++) {
+            for (int to = 0; to < cellCount; to++) {
+                distances[from][to] = from == to ? 0.0 : Double.POSITIVE_INFINITY;
+            }
+            if (grid.isBlocked(from)) {
+                continue;
+            }
+            int column = from % grid.getColumns();
+            int row = from / grid.getColumns();
+            for (int stepColumn = -1; stepColumn <= 1; stepColumn++) {
+                for (int stepRow = -1; stepRow <= 1; stepRow++) {
+                    if ((stepColumn == 0 && stepRow == 0) || grid.isBlocked(column + stepColumn, row + stepRow)) {
+                        continue;
+                    }
+                    boolean diagonal = stepColumn != 0 && stepRow != 0;
+                    if (diagonal && (grid.isBlocked(column + stepColumn, row) || grid.isBlocked(column, row + stepRow))) {
+                        continue;
+                    }
+                    distances[from][grid.getIndex(column + stepColumn, row + stepRow)] = (diagonal ? Math.sqrt(2.0) : 1.0) * grid.getNodeSize();
+                }
+            }
+        }
+
+        for (int via = 0; via < cellCount; via++) {
+            for (int from = 0; from < cellCount; from++) {
+                for (int to = 0; to < cellCount; to++) {
+                    distances[from][to] = Math.min(distances[from][to], distances[from][via] + distances[via][to]);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Checks that every segment of a route only crosses free cells.
+     */
+    static void assertRouteIsClear(NavigationGrid grid, List<Translation2d> waypoints) {
+        for (int i = 0; i < waypoints.size() - 1; i++) {
+            Translation2d from = waypoints.get(i);
+            Translation2d to = waypoints.get(i + 1);
+            assertTrue(grid.hasLineOfSight(from.getX(), from.getY(), to.getX(), to.getY()),
+                    "Segment " + i + " from " + from + " to " + to + " crosses a blocked cell");
+        }
+    }
+
+    static double getLength(List<Translation2d> waypoints) {
+        double length = 0.0;
+        for (int i = 0; i < waypoints.size() - 1; i++) {
+            length += waypoints.get(i).getDistance(waypoints.get(i + 1));
+        }
+        return length;
+    }
+
+    /**
+     * Returns a random position inside a random free cell.
+     */
+    static Translation2d getRandomFreePosition(Random random, NavigationGrid grid) {
+        while (true) {
+            int cell = random.nextInt(grid.getCellCount());
+            if (!grid.isBlocked(cell)) {
+                return new Translation2d(
+                    grid.getCenterX(cell) + (random.nextDouble() - 0.5) * 0.98 * grid.getNodeSize(),
+                    grid.getCenterY(cell) + (random.nextDouble() - 0.5) * 0.98 * grid.getNodeSize()
+                );
+            }
+        }
+    }
+
+    @Test
+    void goalDistancesMatchBruteForce() {
+        Random random = new Random(537);
+        for (int trial = 0; trial < 10; trial++) {
+            NavigationGrid grid = NavigationGridTest.createRandomGrid(random, 10, 8, NODE_SIZE, 0.25);
+            double[][] expected = getShortestDistances(grid);
+            NavigationPlanner planner = new NavigationPlanner(grid);
+
+            Translation2d goalPosition = getRandomFreePosition(random, grid);
+            int goalCell = grid.getIndexAt(goalPosition.getX(), goalPosition.getY());
+            NavigationPlanner.Goal goal = planner.addGoal("GOAL", grid.getCenterX(goalCell), grid.getCenterY(goalCell), 0.0);
+
+            List<Translation2d> waypoints = new ArrayList<>();
+            for (int cell = 0; cell < grid.getCellCount(); cell++) {
+                if (grid.isBlocked(cell)) {
+                    continue;
+                }
+                double x = grid.getCenterX(cell);
+                double y = grid.getCenterY(cell);
+                assertEquals(expected[cell][goalCell], goal.getDistanceFrom(grid, x, y), EPSILON, "Distance from cell " + cell);
+
+                boolean reachable = !Double.isInfinite(expected[cell][goalCell]);
+                assertEquals(reachable, planner.planToGoal(goal, x, y, waypoints), "Route from cell " + cell);
+                if (reachable) {
+                    assertRouteIsClear(grid, waypoints);
+
+                    // Pulling tight only ever takes shortcuts
+                    assertTrue(getLength(waypoints) <= expected[cell][goalCell] + EPSILON, "Route from cell " + cell + " is too long");
+                }
+            }
+        }
+    }
+
+    @Test
+    void anyAngleRoutesAreValidAndShort() {
+        Random random = new Random(1678);
+        List<Translation2d> waypoints = new ArrayList<>();
+        for (int trial = 0; trial < 10; trial++) {
+            NavigationGrid grid = NavigationGridTest.createRandomGrid(random, 10, 8, NODE_SIZE, 0.25);
+            double[][] expected = getShortestDistances(grid);
+            NavigationPlanner planner = new NavigationPlanner(grid);
+
+            for (int query = 0; query < 50; query++) {
+                int start = random.nextInt(grid.getCellCount());
+                int goal = random.nextInt(grid.getCellCount());
+                if (grid.isBlocked(start) || grid.isBlocked(goal)) {
+                    continue;
+                }
+                double startX = grid.getCenterX(start);
+                double startY = grid.getCenterY(start);
+                double goalX = grid.getCenterX(goal);
+                double goalY = grid.getCenterY(goal);
+
+                boolean reachable = !Double.isInfinite(expected[start][goal]);
+                assertEquals(reachable, planner.plan(startX, startY, goalX, goalY, waypoints), "Route from " + start + " to " + goal);
+                if (!reachable) {
+                    continue;
+                }
+                assertRouteIsClear(grid, waypoints);
+                assertEquals(startX, waypoints.get(0).getX(), 0.0);
+                assertEquals(goalY, waypoints.get(waypoints.size() - 1).getY(), 0.0);
+
+                // Never longer than the best 8-connected route, and never shorter than a straight line
+                double length = getLength(waypoints);
+                assertTrue(length <= expected[start][goal] + EPSILON, "Route from " + start + " to " + goal + " is too long");
+                assertTrue(length >= Math.hypot(goalX - startX, goalY - startY) - EPSILON);
+            }
+        }
+    }
+
+    @Test
+    void exactStartAndGoalAreClear() {
+        Random random = new Random(971);
+        List<Translation2d> waypoints = new ArrayList<>();
+        for (int trial = 0; trial < 20; trial++) {
+            NavigationGrid grid = NavigationGridTest.createRandomGrid(random, 10, 8, NODE_SIZE, 0.3);
+            NavigationPlanner planner = new NavigationPlanner(grid);
+
+            for (int query = 0; query < 50; query++) {
+                Translation2d start = getRandomFreePosition(random, grid);
+                Translation2d goal = getRandomFreePosition(random, grid);
+
+                // Off-center starts and goals see differently than their cells' centers do
+                if (planner.plan(start.getX(), start.getY(), goal.getX(), goal.getY(), waypoints)) {
+                    assertRouteIsClear(grid, waypoints);
+                }
+            }
+        }
+    }
+
+    @Test
+    void routeGoesAroundAWall() {
+        // A wall across the middle, with a gap at the top
+        NavigationGrid grid = new NavigationGrid(9, 9, NODE_SIZE);
+        for (int row = 0; row < 8; row++) {
+            grid.setBlocked(4, row, true);
+        }
+        NavigationPlanner planner = new NavigationPlanner(grid);
+
+        List<Translation2d> waypoints = new ArrayList<>();
+        assertTrue(planner.plan(0.3, 0.3, 1.9, 0.3, waypoints));
+        assertRouteIsClear(grid, waypoints);
+        assertTrue(waypoints.size() >= 3, "Went straight through the wall");
+        for (Translation2d waypoint : waypoints) {
+            assertTrue(waypoint.getY() < 9 * NODE_SIZE);
+        }
+
+        // Closing the gap leaves no route
+        grid.setBlocked(4, 8, true);
+        assertFalse(planner.plan(0.3, 0.3, 1.9, 0.3, waypoints));
+        assertTrue(waypoints.isEmpty());
+    }
+
+    @Test
+    void blockedStartIsSnappedToAFreeCell() {
+        NavigationGrid grid = new NavigationGrid(8, 8, NODE_SIZE);
+        grid.setBlocked(0, 0, true);
+        NavigationPlanner planner = new NavigationPlanner(grid);
+
+        // The robot is already inside the blocked cell, so the route leaves through the nearest free cell's center
+        List<Translation2d> waypoints = new ArrayList<>();
+        assertTrue(planner.plan(0.1, 0.1, 1.9, 1.9, waypoints));
+        assertEquals(0.1, waypoints.get(0).getX(), 0.0);
+        assertRouteIsClear(grid, waypoints.subList(1, waypoints.size()));
+    }
+}
@@ -0,0 +1,225 @@
+package frc.robot.util.odometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * Checks lookups into the pose history, including across the ring buffer's wrap and while another thread writes.
+ */
+class PoseHistoryTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Records an entry whose every value is a linear function of its timestamp, so any interpolated sample can be
+     * checked against the same functions.
+     */
+    private static void recordLinear(PoseHistory history, double timestamp) {
+        history.record(timestamp, timestamp, 2.0 * timestamp, 0.0, 3.0 * timestamp, -timestamp, 0.5 * timestamp);
+    }
+
+    private static void assertLinear(PoseHistory.Sample sample, double timestamp) {
+        assertEquals(timestamp, sample.timestamp, EPSILON);
+        assertEquals(timestamp, sample.x, EPSILON);
+        assertEquals(2.0 * timestamp, sample.y, EPSILON);
+        assertEquals(3.0 * timestamp, sample.velocityX, EPSILON);
+        assertEquals(-timestamp, sample.velocityY, EPSILON);
+        assertEquals(0.5 * timestamp, sample.angularVelocity, EPSILON);
+    }
+
+    @Test
+    void exactLookupReturnsTheEntry() {
+        PoseHistory history = new PoseHistory(16);
+        history.record(1.0, 1.0, 2.0, 0.3, 0.1, 0.2, 0.4);
+        history.record(1.02, 1.5, 2.5, 0.5, 0.6, 0.7, 0.8);
+        history.record(1.04, 2.0, 3.0, 0.7, 1.1, 1.2, 1.3);
+
+        PoseHistory.Sample sample = new PoseHistory.Sample();
+        assertTrue(history.sample(1.02, sample));
+        assertEquals(1.02, sample.timestamp, 0.0);
+        assertEquals(1.5, sample.x, 0.0);
+        assertEquals(2.5, sample.y, 0.0);
+        assertEquals(0.5, sample.theta, 0.0);
+        assertEquals(0.6, sample.velocityX, 0.0);
+        assertEquals(0.7, sample.velocityY, 0.0);
+        assertEquals(0.8, sample.angularVelocity, 0.0);
+
+        // The oldest and newest entries are inside the history too
+        assertTrue(history.sample(1.0, sample));
+        assertEquals(1.0, sample.x, 0.0);
+        assertTrue(history.sample(1.04, sample));
+        assertEquals(2.0, sample.x, 0.0);
+    }
+
+    @Test
+    void lookupBetweenEntriesInterpolates() {
+        PoseHistory history = new PoseHistory(16);
+        for (int i = 0; i < 10; i++) {
+            recordLinear(history, i * 0.02);
+        }
+
+        PoseHistory.Sample sample = new PoseHistory.Sample();
+        for (double timestamp : new double[] {0.005, 0.03, 0.0711, 0.179}) {
+            assertTrue(history.sample(timestamp, sample));
+            assertLinear(sample, timestamp);
+        }
+    }
+
+    @Test
+    void headingInterpolatesAcrossTheWrap() {
+        PoseHistory history = new PoseHistory(16);
+        history.record(0.0, 0.0, 0.0, Math.toRadians(179.0), 0.0, 0.0, 0.0);
+        history.record(1.0, 0.0, 0.0, Math.toRadians(-179.0), 0.0, 0.0, 0.0);
+
+        // The short way round is through 180 degrees, not back through 0
+        PoseHistory.Sample sample = new PoseHistory.Sample();
+        assertTrue(history.sample(0.5, sample));
+        assertEquals(Math.PI, Math.abs(sample.theta), EPSILON);
+        assertTrue(history.sample(0.25, sample));
+        assertEquals(Math.toRadians(179.5), sample.theta, EPSILON);
+        assertTrue(history.sample(0.75, sample));
+        assertEquals(Math.toRadians(-179.5), sample.theta, EPSILON);
+    }
+
+    @Test
+    void lookupOutsideTheHistoryFails() {
+        PoseHistory history = new PoseHistory(16);
+        PoseHistory.Sample sample = new PoseHistory.Sample();
+        assertFalse(history.sample(1.0, sample));
+        assertFalse(history.latest(sample));
+        assertNull(history.getPoseAt(1.0));
+
+        recordLinear(history, 1.0);
+        recordLinear(history, 2.0);
+        assertFalse(history.sample(0.999, sample));
+        assertFalse(history.sample(2.001, sample));
+        assertNull(history.getPoseAt(0.5));
+        assertNull(history.getPoseAt(3.0));
+
+        Pose2d pose = history.getPoseAt(1.5);
+        assertEquals(1.5, pose.getX(), EPSILON);
+        assertEquals(3.0, pose.getY(), EPSILON);
+    }
+
+    @Test
+    void olderEntriesAreIgnored() {
+        PoseHistory history = new PoseHistory(16);
+        recordLinear(history, 1.0);
+        recordLinear(history, 2.0);
+        history.record(1.5, 100.0, 100.0, 0.0, 0.0, 0.0, 0.0);
+        history.record(2.0, 100.0, 100.0, 0.0, 0.0, 0.0, 0.0);
+
+        assertEquals(2, history.size());
+        PoseHistory.Sample sample = new PoseHistory.Sample();
+        assertTrue(history.sample(1.5, sample));
+        assertLinear(sample, 1.5);
+    }
+
+    @Test
+    void capacityWrapDropsTheOldestEntries() {
+        // Rounded up to 8
+        PoseHistory history = new PoseHistory(5);
+        assertEquals(8, history.getCapacity());
+        for (int i = 0; i < 21; i++) {
+            recordLinear(history, i);
+        }
+        assertEquals(8, history.size());
+
+        PoseHistory.Sample sample = new PoseHistory.Sample();
+        assertFalse(history.sample(12.999, sample));
+        assertTrue(history.sample(13.0, sample));
+        assertLinear(sample, 13.0);
+        assertTrue(latestIs(history, 20.0));
+
+        // Every lookup in between, including across the end of the underlying arrays
+        for (double timestamp = 13.0; timestamp <= 20.0; timestamp += 0.125) {
+            assertTrue(history.sample(timestamp, sample));
+            assertLinear(sample, timestamp);
+        }
+    }
+
+    @Test
+    void clearEmptiesTheHistory() {
+        PoseHistory history = new PoseHistory(8);
+        recordLinear(history, 1.0);
+        recordLinear(history, 2.0);
+        history.clear();
+
+        assertEquals(0, history.size());
+        assertNull(history.getPoseAt(1.5));
+
+        // Older timestamps are accepted again after a clear
+        recordLinear(history, 0.5);
+        assertTrue(latestIs(history, 0.5));
+    }
+
+    @Test
+    void readersNeverSeeATornEntry() throws InterruptedException {
+        PoseHistory history = new PoseHistory(64);
+        recordLinear(history, 0.0);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong newestTimestamp = new AtomicLong(0);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong successfulReads = new AtomicLong();
+
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 500_000; i++) {
+                recordLinear(history, i);
+                newestTimestamp.set(i);
+            }
+            running.set(false);
+        });
+
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                PoseHistory.Sample sample = new PoseHistory.Sample();
+                try {
+                    while (running.get()) {
+                        // Somewhere near the newest entry, which is where the writer is overwriting
+                        double timestamp = newestTimestamp.get() - 40.0 + Math.random() * 40.0;
+                        if (history.sample(timestamp, sample)) {
+                            assertLinear(sample, timestamp);
+                            successfulReads.incrementAndGet();
+                        }
+                        if (history.latest(sample)) {
+                            assertLinear(sample, sample.timestamp);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+        }
+
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        writer.start();
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError("A reader saw an inconsistent sample", failure.get());
+        }
+        assertTrue(successfulReads.get() > 0, "No reads overlapped with the writer");
+    }
+
+    private static boolean latestIs(PoseHistory history, double timestamp) {
+        PoseHistory.Sample sample = new PoseHistory.Sample();
+        return history.latest(sample) && sample.timestamp == timestamp && sample.x == timestamp;
+    }
+}
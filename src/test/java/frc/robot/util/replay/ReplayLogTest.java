@@ -0,0 +1,135 @@
+package frc.robot.util.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import org.photonvision.targeting.TargetCorner;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/**
+ * Writes a log and reads it back, checking that what the replay depends on survives the round trip.
+ */
+class ReplayLogTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Collects the records read from a log.
+     */
+    private static class RecordingListener implements ReplayLogReader.Listener {
+        final List<String> cameraNames = new ArrayList<>();
+        final List<Double> odometryTimestamps = new ArrayList<>();
+        final List<PhotonPipelineResult> results = new ArrayList<>();
+        final List<Pose2d> references = new ArrayList<>();
+
+        @Override
+        public void onCamera(int cameraIndex, String cameraName, Transform3d robotToCamera) {
+            cameraNames.add(cameraName);
+        }
+
+        @Override
+        public void onOdometry(double timestamp, Rotation2d gyroYaw, SwerveModulePosition[] modulePositions) {
+            odometryTimestamps.add(timestamp);
+        }
+
+        @Override
+        public void onVision(int cameraIndex, PhotonPipelineResult result) {
+            results.add(result);
+        }
+
+        @Override
+        public void onReference(double timestamp, Pose2d pose, boolean truth) {
+            references.add(pose);
+        }
+    }
+
+    private static PhotonPipelineResult createResult(long sequenceId, long captureTimestampMicros, long receiveTimestampMicros) {
+        Transform3d cameraToTarget = new Transform3d(2.0, 0.5, 0.3, new Rotation3d(0.0, 0.0, Math.PI));
+        List<TargetCorner> corners = List.of(new TargetCorner(0, 0), new TargetCorner(10, 0), new TargetCorner(10, 10), new TargetCorner(0, 10));
+        PhotonTrackedTarget target = new PhotonTrackedTarget(0.0, 0.0, 1.5, 0.0, 18, -1, -1.0f,
+                cameraToTarget, cameraToTarget, 0.05, corners, corners);
+
+        PhotonPipelineResult result = new PhotonPipelineResult(sequenceId, captureTimestampMicros, captureTimestampMicros + 5_000, 0, List.of(target));
+        result.setReceiveTimestampMicros(receiveTimestampMicros);
+        return result;
+    }
+
+    private RecordingListener writeAndRead(List<PhotonPipelineResult> results) throws IOException {
+        String path = directory.resolve("test.rply").toString();
+
+        ReplayLogWriter writer = new ReplayLogWriter(path);
+        int cameraIndex = writer.registerCamera("TestCamera", new Transform3d());
+        SwerveModulePosition[] modulePositions = new SwerveModulePosition[4];
+        for (int i = 0; i < modulePositions.length; i++) {
+            modulePositions[i] = new SwerveModulePosition(0.1 * i, Rotation2d.kZero);
+        }
+        writer.recordOdometry(12.0, 0.0, modulePositions);
+        for (PhotonPipelineResult result : results) {
+            writer.recordVision(cameraIndex, result);
+        }
+        writer.recordReference(12.02, new Pose2d(1.0, 2.0, Rotation2d.kZero), true);
+        writer.close();
+
+        RecordingListener listener = new RecordingListener();
+        try (ReplayLogReader reader = new ReplayLogReader(path)) {
+            assertEquals(3 + results.size(), reader.readAll(listener));
+        }
+        return listener;
+    }
+
+    @Test
+    void visionTimestampSurvivesRoundTrip() throws IOException {
+
+        // Received 7 ms after it was published, as on the robot
+        PhotonPipelineResult original = createResult(42, 11_980_000, 11_992_000);
+        RecordingListener listener = writeAndRead(List.of(original));
+
+        assertEquals(1, listener.results.size());
+        PhotonPipelineResult replayed = listener.results.get(0);
+        assertEquals(original.getTimestampSeconds(), replayed.getTimestampSeconds(), 1e-9);
+        assertEquals(11.987, replayed.getTimestampSeconds(), 1e-9);
+        assertEquals(42, replayed.metadata.getSequenceID());
+        assertEquals(1, replayed.getTargets().size());
+        assertEquals(18, replayed.getBestTarget().getFiducialId());
+    }
+
+    @Test
+    void everyResultKeepsItsOwnTimestamp() throws IOException {
+        List<PhotonPipelineResult> originals = List.of(
+            createResult(1, 12_000_000, 12_006_000),
+            createResult(2, 12_020_000, 12_031_000),
+            createResult(3, 12_040_000, 12_047_500)
+        );
+        RecordingListener listener = writeAndRead(originals);
+
+        assertEquals(originals.size(), listener.results.size());
+        for (int i = 0; i < originals.size(); i++) {
+            assertEquals(originals.get(i).getTimestampSeconds(), listener.results.get(i).getTimestampSeconds(), 1e-9);
+        }
+    }
+
+    @Test
+    void otherRecordsSurviveRoundTrip() throws IOException {
+        RecordingListener listener = writeAndRead(List.of());
+
+        assertEquals(List.of("TestCamera"), listener.cameraNames);
+        assertEquals(List.of(12.0), listener.odometryTimestamps);
+        assertEquals(1, listener.references.size());
+        assertEquals(1.0, listener.references.get(0).getX(), 0.0);
+        assertEquals(2.0, listener.references.get(0).getY(), 0.0);
+    }
+}
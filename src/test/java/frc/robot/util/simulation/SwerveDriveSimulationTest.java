@@ -0,0 +1,173 @@
+package frc.robot.util.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.util.swerve.DrivingMotor;
+import frc.robot.util.swerve.TurningMotor;
+
+/**
+ * Steps the drivetrain simulation for thousands of loops to check how fast it settles, how far odometry built from
+ * its noisy sensors drifts from the true pose, and that a seed always gives the same run.
+ */
+class SwerveDriveSimulationTest {
+
+    private static final double LOOP_PERIOD = 0.02; // Seconds
+    private static final long SEED = 537;
+
+    /**
+     * Sends robot-relative chassis speeds to every module, the way {@code DriveSubsystem} does.
+     */
+    private static void command(SwerveDriveSimulation simulation, double vx, double vy, double omega) {
+        SwerveModuleState[] states = DriveConstants.DRIVE_KINEMATICS.toSwerveModuleStates(new ChassisSpeeds(vx, vy, omega));
+        for (int i = 0; i < states.length; i++) {
+            simulation.getModule(i).setDesiredAngle(states[i].angle.getRadians());
+            simulation.getModule(i).setDesiredVelocity(states[i].speedMetersPerSecond);
+        }
+    }
+
+    /**
+     * Reads the module positions the way {@code SwerveModule} does, from the noisy encoders.
+     */
+    private static SwerveModulePosition[] getModulePositions(SwerveDriveSimulation simulation) {
+        SwerveModulePosition[] positions = new SwerveModulePosition[4];
+        for (int i = 0; i < positions.length; i++) {
+            SwerveModuleSimulation module = simulation.getModule(i);
+            positions[i] = new SwerveModulePosition(module.getDrivingPosition(), new Rotation2d(module.getAngle()));
+        }
+        return positions;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"NEO", "KRAKEN_X60", "KRAKEN_X60_FOC"})
+    void linearSpeedSettles(String drivingMotor) {
+        SwerveDriveSimulation simulation = new SwerveDriveSimulation(DrivingMotor.valueOf(drivingMotor), TurningMotor.NEO_550, SEED);
+
+        // Time at which the speed last entered the band and stayed there
+        double settlingTime = Double.NaN;
+        for (int loop = 1; loop <= 200; loop++) {
+            command(simulation, 3.0, 0.0, 0.0);
+            simulation.step(LOOP_PERIOD);
+            if (Math.abs(simulation.getLinearSpeed() - 3.0) > 0.05) {
+                settlingTime = Double.NaN;
+            } else if (Double.isNaN(settlingTime)) {
+                settlingTime = loop * LOOP_PERIOD;
+            }
+        }
+
+        assertTrue(settlingTime <= 1.0, "Settled after " + settlingTime + " s");
+    }
+
+    @Test
+    void angularVelocitySettles() {
+        SwerveDriveSimulation simulation = new SwerveDriveSimulation();
+
+        double settlingTime = Double.NaN;
+        for (int loop = 1; loop <= 200; loop++) {
+            command(simulation, 0.0, 0.0, 4.0);
+            simulation.step(LOOP_PERIOD);
+            if (Math.abs(simulation.getAngularVelocity() - 4.0) > 0.1) {
+                settlingTime = Double.NaN;
+            } else if (Double.isNaN(settlingTime)) {
+                settlingTime = loop * LOOP_PERIOD;
+            }
+        }
+
+        assertTrue(settlingTime <= 1.2, "Settled after " + settlingTime + " s");
+    }
+
+    @Test
+    void staysStillWhenStopped() {
+        SwerveDriveSimulation simulation = new SwerveDriveSimulation();
+        for (int loop = 0; loop < 5000; loop++) {
+            command(simulation, 0.0, 0.0, 0.0);
+            simulation.step(LOOP_PERIOD);
+        }
+
+        Pose2d pose = simulation.getPose();
+        assertEquals(0.0, pose.getTranslation().getNorm(), 1e-6);
+        assertEquals(0.0, pose.getRotation().getRadians(), 1e-6);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, SEED})
+    void odometryDriftIsBounded(long seed) {
+        SwerveDriveSimulation simulation = new SwerveDriveSimulation(DriveConstants.DEFAULT_DRIVING_MOTOR, DriveConstants.DEFAULT_TURNING_MOTOR, seed);
+        SwerveDriveOdometry odometry = new SwerveDriveOdometry(
+            DriveConstants.DRIVE_KINEMATICS,
+            new Rotation2d(simulation.getGyroYaw()),
+            getModulePositions(simulation)
+        );
+
+        // Driving a 20 m curve while spinning, then stopping
+        Pose2d estimate = odometry.getPoseMeters();
+        for (int loop = 0; loop < 750; loop++) {
+            double time = loop * LOOP_PERIOD;
+            if (time < 10.0) {
+                command(simulation, 2.0 * Math.cos(0.5 * time), 2.0 * Math.sin(0.5 * time), 1.0);
+            } else {
+                command(simulation, 0.0, 0.0, 0.0);
+            }
+            simulation.step(LOOP_PERIOD);
+            estimate = odometry.update(new Rotation2d(simulation.getGyroYaw()), getModulePositions(simulation));
+        }
+
+        Pose2d truth = simulation.getPose();
+        double positionDrift = truth.getTranslation().getDistance(estimate.getTranslation());
+        double headingDrift = Math.abs(truth.getRotation().minus(estimate.getRotation()).getRadians());
+        assertTrue(positionDrift <= 0.2, "Drifted " + positionDrift + " m");
+        assertTrue(headingDrift <= 0.01, "Drifted " + headingDrift + " rad");
+    }
+
+    @Test
+    void sameSeedGivesSameRun() {
+        SwerveDriveSimulation first = new SwerveDriveSimulation(DrivingMotor.NEO, TurningMotor.NEO_550, 42);
+        SwerveDriveSimulation second = new SwerveDriveSimulation(DrivingMotor.NEO, TurningMotor.NEO_550, 42);
+
+        for (int loop = 0; loop < 500; loop++) {
+            command(first, 1.0, 1.0, 1.0);
+            command(second, 1.0, 1.0, 1.0);
+            first.step(LOOP_PERIOD);
+            second.step(LOOP_PERIOD);
+        }
+
+        // Exactly equal, not just close
+        assertEquals(first.getPose().getX(), second.getPose().getX(), 0.0);
+        assertEquals(first.getPose().getY(), second.getPose().getY(), 0.0);
+        assertEquals(first.getPose().getRotation().getRadians(), second.getPose().getRotation().getRadians(), 0.0);
+        assertEquals(first.getGyroYaw(), second.getGyroYaw(), 0.0);
+        assertEquals(first.getModule(0).getDrivingPosition(), second.getModule(0).getDrivingPosition(), 0.0);
+    }
+
+    @Test
+    void resultDoesNotDependOnStepSize() {
+        SwerveDriveSimulation coarse = new SwerveDriveSimulation();
+        SwerveDriveSimulation fine = new SwerveDriveSimulation();
+
+        // The same 2 seconds, stepped once per loop and ten times per loop
+        for (int loop = 0; loop < 100; loop++) {
+            command(coarse, 2.0, 0.0, 0.5);
+            coarse.step(LOOP_PERIOD);
+            for (int i = 0; i < 10; i++) {
+                command(fine, 2.0, 0.0, 0.5);
+                fine.step(LOOP_PERIOD / 10.0);
+            }
+        }
+
+        // Rounding in the carried-over remainder can shift a substep between loops, so only close, not equal
+        assertEquals(coarse.getPose().getX(), fine.getPose().getX(), 0.005);
+        assertEquals(coarse.getPose().getY(), fine.getPose().getY(), 0.005);
+        assertEquals(coarse.getPose().getRotation().getRadians(), fine.getPose().getRotation().getRadians(), 0.002);
+    }
+}
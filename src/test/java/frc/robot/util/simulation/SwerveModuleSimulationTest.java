@@ -0,0 +1,68 @@
+package frc.robot.util.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.Constants.SimulationConstants;
+import frc.robot.util.swerve.DrivingMotor;
+import frc.robot.util.swerve.TurningMotor;
+
+/**
+ * Steps a single simulated module's turning mechanism and checks its friction model.
+ */
+class SwerveModuleSimulationTest {
+
+    private static final double STEP = SimulationConstants.PHYSICS_SUBSTEP;
+
+    private static SwerveModuleSimulation createModule() {
+        return new SwerveModuleSimulation(DrivingMotor.NEO, TurningMotor.NEO_550, new Random(537));
+    }
+
+    @Test
+    void turningSettles() {
+        SwerveModuleSimulation module = createModule();
+        module.setDesiredAngle(Math.PI / 2.0);
+
+        double settlingTime = Double.NaN;
+        for (int step = 1; step <= 1000; step++) {
+            module.stepTurning(STEP);
+            if (Math.abs(module.getTrueAngle() - Math.PI / 2.0) > 0.02) {
+                settlingTime = Double.NaN;
+            } else if (Double.isNaN(settlingTime)) {
+                settlingTime = step * STEP;
+            }
+        }
+
+        assertTrue(settlingTime <= 0.25, "Settled after " + settlingTime + " s");
+        assertEquals(Math.PI / 2.0, module.getTrueAngle(), 0.001);
+    }
+
+    @Test
+    void disabledModuleDoesNotTurn() {
+        SwerveModuleSimulation module = createModule();
+        module.setEnabled(false);
+        module.setDesiredAngle(Math.PI / 2.0);
+
+        for (int step = 0; step < 1000; step++) {
+            module.stepTurning(STEP);
+        }
+
+        assertEquals(0.0, module.getTrueAngle(), 0.0);
+    }
+
+    @Test
+    void frictionOpposesSlipAndIsBounded() {
+        double normalForce = 100.0;
+        double maxForce = SimulationConstants.WHEEL_COEFFICIENT_OF_FRICTION * normalForce;
+
+        assertEquals(0.0, SwerveModuleSimulation.getFrictionForce(0.0, normalForce), 0.0);
+        assertEquals(-SwerveModuleSimulation.getFrictionForce(0.5, normalForce), SwerveModuleSimulation.getFrictionForce(-0.5, normalForce), 1e-12);
+        assertTrue(SwerveModuleSimulation.getFrictionForce(0.5, normalForce) > 0.0);
+        assertTrue(SwerveModuleSimulation.getFrictionForce(100.0, normalForce) <= maxForce);
+        assertEquals(maxForce, SwerveModuleSimulation.getFrictionForce(100.0, normalForce), 1e-6);
+    }
+}
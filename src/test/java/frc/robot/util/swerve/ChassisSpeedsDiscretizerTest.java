@@ -0,0 +1,129 @@
+package frc.robot.util.swerve;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.util.simulation.SwerveDriveSimulation;
+
+/**
+ * Checks the discretized speeds against the exact arc they are held along, then drives the drivetrain simulation
+ * down a straight line while spinning, to measure how far each conversion drifts off of the line.
+ */
+class ChassisSpeedsDiscretizerTest {
+
+    private static final long SEED = 537;
+    private static final double SIMULATED_TIME = 2.0; // Seconds
+    private static final double MIN_DELTA_TIME = 0.015; // Seconds, the loop time is drawn between these to mimic jitter
+    private static final double MAX_DELTA_TIME = 0.030;
+
+    // Fast enough to spin several times in the run, slow enough that no wheel is asked for more than its top speed
+    private static final double SPEED = 3.0; // m/s
+    private static final double OMEGA = 6.0; // rad/s
+
+    /**
+     * Returns where the robot ends up, in the field frame, after holding robot-relative speeds for a time while
+     * turning at a constant rate, following the arc exactly.
+     */
+    private static double[] integrateArc(double robotVx, double robotVy, double omega, double heading, double deltaTime) {
+        double angle = omega * deltaTime;
+        double sinOverAngle = Math.sin(angle) / angle;
+        double cosTerm = (1.0 - Math.cos(angle)) / angle;
+        double dx = (robotVx * sinOverAngle - robotVy * cosTerm) * deltaTime;
+        double dy = (robotVx * cosTerm + robotVy * sinOverAngle) * deltaTime;
+        return new double[] {
+            dx * Math.cos(heading) - dy * Math.sin(heading),
+            dx * Math.sin(heading) + dy * Math.cos(heading)
+        };
+    }
+
+    @Test
+    void heldSpeedsLandWhereTheFieldSpeedsPoint() {
+        ChassisSpeedsDiscretizer discretizer = new ChassisSpeedsDiscretizer();
+        Random random = new Random(SEED);
+        for (int i = 0; i < 1000; i++) {
+            double fieldVx = (random.nextDouble() - 0.5) * 8.0;
+            double fieldVy = (random.nextDouble() - 0.5) * 8.0;
+            double omega = (random.nextDouble() - 0.5) * 2.0 * DriveConstants.ROTATIONAL_MAX_SPEED;
+            double heading = (random.nextDouble() - 0.5) * 4.0 * Math.PI;
+            double deltaTime = MIN_DELTA_TIME + random.nextDouble() * (MAX_DELTA_TIME - MIN_DELTA_TIME);
+
+            // Held along the arc for the loop, the speeds cover exactly the field-relative displacement
+            discretizer.discretize(fieldVx, fieldVy, omega, heading, deltaTime);
+            double[] displacement = integrateArc(discretizer.getVx(), discretizer.getVy(), omega, heading, deltaTime);
+            assertEquals(fieldVx * deltaTime, displacement[0], 1e-9);
+            assertEquals(fieldVy * deltaTime, displacement[1], 1e-9);
+        }
+    }
+
+    @Test
+    void withoutRotationItIsAPlainRotation() {
+        ChassisSpeedsDiscretizer discretizer = new ChassisSpeedsDiscretizer();
+        double heading = Math.toRadians(30.0);
+        discretizer.discretize(2.0, 1.0, 0.0, heading, 0.02);
+        assertEquals(2.0 * Math.cos(heading) + 1.0 * Math.sin(heading), discretizer.getVx(), 1e-12);
+        assertEquals(-2.0 * Math.sin(heading) + 1.0 * Math.cos(heading), discretizer.getVy(), 1e-12);
+
+        // Tiny rotations use the series expansion, which must agree with the exact formula
+        discretizer.discretize(2.0, 1.0, 1e-3, heading, 0.02);
+        double exactScale = (1e-3 * 0.02 / 2.0) / Math.sin(1e-3 * 0.02 / 2.0);
+        double midHeading = heading + 1e-3 * 0.02 / 2.0;
+        assertEquals((2.0 * Math.cos(midHeading) + 1.0 * Math.sin(midHeading)) * exactScale, discretizer.getVx(), 1e-12);
+    }
+
+    /**
+     * Drives the simulation along the field's x axis while spinning, converting the field-relative request each
+     * loop using the gyroscope, the way {@code DriveSubsystem} does.
+     *
+     * @param discretize Whether to use the discretizer, rather than rotating by the heading at the start of the loop.
+     * @return How far the robot ended up from the x axis, in meters.
+     */
+    private static double simulateDrift(boolean discretize) {
+        SwerveDriveSimulation simulation = new SwerveDriveSimulation(DrivingMotor.NEO, TurningMotor.NEO_550, SEED);
+        ChassisSpeedsDiscretizer discretizer = new ChassisSpeedsDiscretizer();
+        Random random = new Random(SEED);
+
+        double time = 0.0;
+        while (time < SIMULATED_TIME) {
+            double deltaTime = MIN_DELTA_TIME + random.nextDouble() * (MAX_DELTA_TIME - MIN_DELTA_TIME);
+            double heading = simulation.getGyroYaw();
+
+            double robotVx;
+            double robotVy;
+            if (discretize) {
+                discretizer.discretize(SPEED, 0.0, OMEGA, heading, deltaTime);
+                robotVx = discretizer.getVx();
+                robotVy = discretizer.getVy();
+            } else {
+                robotVx = SPEED * Math.cos(heading);
+                robotVy = -SPEED * Math.sin(heading);
+            }
+
+            SwerveModuleState[] states = DriveConstants.DRIVE_KINEMATICS.toSwerveModuleStates(new ChassisSpeeds(robotVx, robotVy, OMEGA));
+            for (int i = 0; i < states.length; i++) {
+                simulation.getModule(i).setDesiredAngle(states[i].angle.getRadians());
+                simulation.getModule(i).setDesiredVelocity(states[i].speedMetersPerSecond);
+            }
+            simulation.step(deltaTime);
+            time += deltaTime;
+        }
+        return Math.abs(simulation.getPose().getY());
+    }
+
+    @Test
+    void discretizingReducesDrift() {
+        double naiveDrift = simulateDrift(false);
+        double discretizedDrift = simulateDrift(true);
+
+        // The modules' steering and driving lag still drifts both runs the same way, so only the part of the drift
+        // caused by turning during the loop (about a quarter of it here) goes away
+        assertTrue(discretizedDrift < 0.85 * naiveDrift,
+                "Drifted " + discretizedDrift + " m discretized, against " + naiveDrift + " m undiscretized");
+    }
+}
@@ -0,0 +1,148 @@
+package frc.robot.util.swerve;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.DriveConstants;
+
+/**
+ * Runs the setpoint generator through step changes in the request and checks, every loop, that no wheel's signed
+ * speed changes faster than the wheel acceleration limit and no module steers faster than its turning motor can.
+ */
+class SwerveSetpointGeneratorTest {
+
+    private static final double LOOP_PERIOD = 0.02; // Seconds
+    private static final double MAX_SPEED_CHANGE = DriveConstants.MAX_WHEEL_ACCELERATION * LOOP_PERIOD;
+    private static final double MAX_STEERING_CHANGE = DriveConstants.Neo550Turning.MAX_STEERING_VELOCITY * LOOP_PERIOD;
+    private static final double EPSILON = 1e-9;
+
+    private SwerveSetpointGenerator generator;
+    private final double[] previousSpeeds = new double[4];
+    private final double[] previousAngles = new double[4];
+
+    @BeforeEach
+    void createGenerator() {
+        generator = new SwerveSetpointGenerator(DriveConstants.MODULE_LOCATIONS, DriveConstants.LINEAR_MAX_SPEED,
+                DriveConstants.MAX_WHEEL_ACCELERATION, DriveConstants.Neo550Turning.MAX_STEERING_VELOCITY);
+        for (int i = 0; i < previousSpeeds.length; i++) {
+            previousSpeeds[i] = 0.0;
+            previousAngles[i] = 0.0;
+        }
+    }
+
+    /**
+     * Requests the same chassis speeds for a number of loops, checking both limits every loop.
+     */
+    private SwerveModuleState[] run(double vx, double vy, double omega, int loops) {
+        SwerveModuleState[] states = null;
+        for (int loop = 0; loop < loops; loop++) {
+            states = generator.generate(vx, vy, omega, LOOP_PERIOD);
+            for (int i = 0; i < states.length; i++) {
+                double speedChange = Math.abs(states[i].speedMetersPerSecond - previousSpeeds[i]);
+                double steeringChange = Math.abs(MathUtil.angleModulus(states[i].angle.getRadians() - previousAngles[i]));
+                assertTrue(speedChange <= MAX_SPEED_CHANGE + EPSILON,
+                        "Module " + i + " changed speed by " + speedChange + " m/s in loop " + loop);
+                assertTrue(steeringChange <= MAX_STEERING_CHANGE + EPSILON,
+                        "Module " + i + " steered " + steeringChange + " rad in loop " + loop);
+                previousSpeeds[i] = states[i].speedMetersPerSecond;
+                previousAngles[i] = states[i].angle.getRadians();
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Checks that a module's velocity, from its signed speed and angle, matches the expected velocity.
+     */
+    private static void assertVelocity(SwerveModuleState state, double expectedVx, double expectedVy) {
+        double angle = state.angle.getRadians();
+        assertEquals(expectedVx, state.speedMetersPerSecond * Math.cos(angle), 1e-6);
+        assertEquals(expectedVy, state.speedMetersPerSecond * Math.sin(angle), 1e-6);
+    }
+
+    @Test
+    void accelerationIsBounded() {
+        // 4 m/s takes at least 4 / MAX_SPEED_CHANGE loops, so it can't have got there halfway through
+        int minimumLoops = (int) Math.ceil(4.0 / MAX_SPEED_CHANGE);
+        SwerveModuleState[] states = run(4.0, 0.0, 0.0, minimumLoops / 2);
+        for (SwerveModuleState state : states) {
+            assertTrue(state.speedMetersPerSecond < 4.0 - EPSILON, "Reached full speed in half the time");
+        }
+
+        states = run(4.0, 0.0, 0.0, minimumLoops);
+        for (SwerveModuleState state : states) {
+            assertVelocity(state, 4.0, 0.0);
+        }
+    }
+
+    @Test
+    void steeringIsBounded() {
+        run(2.0, 0.0, 0.0, 50);
+
+        // A quarter turn at speed takes several loops of steering, and the speed dips while it happens
+        SwerveModuleState[] states = run(0.0, 2.0, 0.0, 1);
+        for (SwerveModuleState state : states) {
+            assertTrue(Math.abs(state.angle.getRadians()) < Math.PI / 2.0 - EPSILON, "Finished the quarter turn in one loop");
+        }
+
+        states = run(0.0, 2.0, 0.0, 100);
+        for (SwerveModuleState state : states) {
+            assertVelocity(state, 0.0, 2.0);
+        }
+    }
+
+    @Test
+    void stoppedModuleKeepsItsAngle() {
+        run(0.0, 1.0, 0.0, 50);
+        double[] drivingAngles = previousAngles.clone();
+
+        SwerveModuleState[] states = run(0.0, 0.0, 0.0, 50);
+        for (int i = 0; i < states.length; i++) {
+            assertEquals(0.0, states[i].speedMetersPerSecond, 0.0);
+            assertEquals(drivingAngles[i], states[i].angle.getRadians(), EPSILON);
+        }
+    }
+
+    @Test
+    void moduleAtRestStaysPut() {
+        SwerveModuleState[] states = run(0.0, 0.0, 0.0, 10);
+        for (SwerveModuleState state : states) {
+            assertEquals(0.0, state.speedMetersPerSecond, 0.0);
+            assertEquals(0.0, state.angle.getRadians(), 0.0);
+        }
+    }
+
+    @Test
+    void reversalIsBounded() {
+        run(2.0, 0.0, 0.0, 50);
+
+        // Going from +2 to -2 m/s means slowing through zero, not flipping the sign in one loop
+        SwerveModuleState[] states = run(-2.0, 0.0, 0.0, 1);
+        for (SwerveModuleState state : states) {
+            assertTrue(state.speedMetersPerSecond > 0.0, "Reversed in one loop");
+            assertEquals(0.0, state.angle.getRadians(), 0.0);
+        }
+
+        states = run(-2.0, 0.0, 0.0, 100);
+        for (SwerveModuleState state : states) {
+            assertVelocity(state, -2.0, 0.0);
+        }
+    }
+
+    @Test
+    void nearlyOppositeTurnIsBounded() {
+        run(2.0, 0.0, 0.0, 50);
+
+        // 170 degrees is within 10 degrees of a reversal, but the wheels' velocities still have to change by ~4 m/s
+        double angle = Math.toRadians(170.0);
+        SwerveModuleState[] states = run(2.0 * Math.cos(angle), 2.0 * Math.sin(angle), 0.0, 100);
+        for (SwerveModuleState state : states) {
+            assertVelocity(state, 2.0 * Math.cos(angle), 2.0 * Math.sin(angle));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package frc.robot.util.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Loads the deployed example path through the cache, checking when the cache is used, rebuilt or left alone.
+ */
+class PathCacheTest {
+
+    private static final String PATH_NAME = "Example Path";
+
+    @TempDir
+    Path directory;
+
+    private File pathDirectory;
+    private File settingsFile;
+    private File cacheFile;
+
+    @BeforeEach
+    void copyDeployedPaths() throws IOException {
+        pathDirectory = directory.resolve("paths").toFile();
+        Files.createDirectories(pathDirectory.toPath());
+        Files.copy(Path.of("src/main/deploy/pathplanner/paths", PATH_NAME + ".path"), pathDirectory.toPath().resolve(PATH_NAME + ".path"));
+
+        settingsFile = directory.resolve("settings.json").toFile();
+        Files.copy(Path.of("src/main/deploy/pathplanner/settings.json"), settingsFile.toPath());
+
+        cacheFile = directory.resolve("path_cache.bin").toFile();
+    }
+
+    @Test
+    void cachedTrajectoriesMatchTheGeneratedOnes() throws IOException {
+        Map<String, SampledTrajectory> generated = PathCache.load(pathDirectory, settingsFile, cacheFile);
+        assertTrue(cacheFile.isFile());
+
+        // The second load comes from the cache
+        Map<String, SampledTrajectory> cached = PathCache.read(cacheFile, PathCache.checksumSources(pathDirectory, settingsFile));
+        assertNotNull(cached);
+        assertEquals(generated.keySet(), cached.keySet());
+
+        double[][] generatedColumns = generated.get(PATH_NAME).getColumns();
+        double[][] cachedColumns = PathCache.load(pathDirectory, settingsFile, cacheFile).get(PATH_NAME).getColumns();
+        for (int i = 0; i < generatedColumns.length; i++) {
+            assertArrayEquals(generatedColumns[i], cachedColumns[i], 0.0);
+        }
+    }
+
+    @Test
+    void changedFilesInvalidateTheCache() throws IOException {
+        PathCache.load(pathDirectory, settingsFile, cacheFile);
+        long checksum = PathCache.checksumSources(pathDirectory, settingsFile);
+        assertNotNull(PathCache.read(cacheFile, checksum));
+
+        // A change to the settings file changes the checksum, so the old cache is no longer read
+        Files.writeString(settingsFile.toPath(), Files.readString(settingsFile.toPath()) + " ", StandardCharsets.UTF_8);
+        long changedChecksum = PathCache.checksumSources(pathDirectory, settingsFile);
+        assertNotEquals(checksum, changedChecksum);
+        assertNull(PathCache.read(cacheFile, changedChecksum));
+
+        // And so does a new path file
+        Files.copy(pathDirectory.toPath().resolve(PATH_NAME + ".path"), pathDirectory.toPath().resolve("Copy.path"));
+        assertNotEquals(changedChecksum, PathCache.checksumSources(pathDirectory, settingsFile));
+    }
+
+    @Test
+    void failedPathIsNotCached() throws IOException {
+        Files.writeString(pathDirectory.toPath().resolve("Broken.path"), "{ \"waypoints\": [", StandardCharsets.UTF_8);
+
+        // The other paths still load, but nothing is cached, so fixing the file is picked up without a new checksum
+        Map<String, SampledTrajectory> trajectories = PathCache.load(pathDirectory, settingsFile, cacheFile);
+        assertTrue(trajectories.containsKey(PATH_NAME));
+        assertFalse(trajectories.containsKey("Broken"));
+        assertFalse(cacheFile.exists());
+    }
+
+    @Test
+    void unreadableSettingsAreNotCached() {
+        // The paths are generated with the fallback constraints, which shouldn't outlive the settings being fixed
+        assertTrue(settingsFile.delete());
+        Map<String, SampledTrajectory> trajectories = PathCache.load(pathDirectory, settingsFile, cacheFile);
+        assertTrue(trajectories.containsKey(PATH_NAME));
+        assertFalse(cacheFile.exists());
+    }
+}